@@ -0,0 +1,235 @@
+package edu.kit.kastel.codefight.sweep;
+
+import edu.kit.kastel.codefight.aicommands.AICommandType;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * Plays the rounds of {@link LockstepGames} with the vector API. The lanes are played in blocks of {@value #WIDTH}
+ * neighbouring lanes. The lanes of a block that still follow the same path as its first running lane, so the same
+ * AI executes the same command at the same address, play their turn together: the cells they read and write are
+ * in the same row of the structure of arrays, so every access is a single masked vector load or store. A command
+ * whose outcome depends on the random cells of a lane, like a jump of JMZ or CMP, is a masked blend. Lanes that
+ * diverged from the first lane are split off and play their turn on their own, as do blocks whose lanes all
+ * diverged. Blocks without running lanes are split off, like the default kernel splits off lanes.
+ * <p></p>
+ * Only compiled in the Maven profile {@code vector}, enabled by {@link LockstepGames}. Blocks are {@value #WIDTH}
+ * lanes wide on every CPU, which is a single AVX2 register for ints.
+ *
+ * @author uwwfh
+ */
+final class VectorLockstepKernel implements LockstepKernel {
+    
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_256;
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_64;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_512;
+    private static final int WIDTH = 8;
+    private static final AICommandType[] TYPES = AICommandType.values();
+    private static final int MIN_TOGETHER = 2;
+    
+    /**
+     * Creates the kernel, called by {@link LockstepGames} once it is enabled.
+     */
+    VectorLockstepKernel() {
+        // The kernel has no state, all state is in the games
+    }
+    
+    @Override
+    public void play(LockstepGames games, int maxSteps, int minAlive) {
+        int blockCount = (games.lanes + WIDTH - 1) / WIDTH;
+        int[] activeBlocks = new int[blockCount];
+        for (int block = 0; block < blockCount; block++) {
+            activeBlocks[block] = block;
+        }
+        Arrays.fill(games.laneSteps, 0);
+        int activeCount = blockCount;
+        while (activeCount > 0) {
+            int running = 0;
+            for (int i = 0; i < activeCount; i++) {
+                int block = activeBlocks[i];
+                if (playBlock(games, block * WIDTH, maxSteps, minAlive)) {
+                    activeBlocks[running] = block;
+                    running++;
+                }
+            }
+            activeCount = running;
+        }
+    }
+    
+    /**
+     * Plays one turn in every running lane of a block.
+     * @return If any lane of the block played.
+     */
+    private static boolean playBlock(LockstepGames games, int base, int maxSteps, int minAlive) {
+        VectorMask<Integer> inRange = INTS.indexInRange(base, games.lanes);
+        IntVector steps = IntVector.fromArray(INTS, games.laneSteps, base, inRange);
+        IntVector alive = IntVector.fromArray(INTS, games.aliveCounts, base, inRange);
+        VectorMask<Integer> running = steps.compare(VectorOperators.LT, maxSteps)
+                .and(alive.compare(VectorOperators.GE, minAlive))
+                .and(inRange);
+        if (!running.anyTrue()) {
+            return false;
+        }
+        VectorMask<Integer> together = playTogether(games, base, running);
+        long diverged = running.andNot(together).toLong();
+        while (diverged != 0) {
+            games.playTurn(base + Long.numberOfTrailingZeros(diverged));
+            diverged &= diverged - 1;
+        }
+        steps.lanewise(VectorOperators.ADD, 1, running).intoArray(games.laneSteps, base, running);
+        return true;
+    }
+    
+    /**
+     * Plays the turn of the running lanes that follow the same path as the first one together.
+     * @return The lanes that played, none if fewer than {@value #MIN_TOGETHER} lanes could play together.
+     */
+    private static VectorMask<Integer> playTogether(LockstepGames games, int base, VectorMask<Integer> running) {
+        int lanes = games.lanes;
+        int leader = base + running.firstTrue();
+        int currentIndex = games.currentIndices[leader];
+        VectorMask<Integer> together = running.and(load(games.currentIndices, base, running)
+                .compare(VectorOperators.EQ, currentIndex));
+        int player = games.turnOrder[currentIndex * lanes + leader];
+        together = together.and(load(games.turnOrder, currentIndex * lanes + base, together)
+                .compare(VectorOperators.EQ, player));
+        int playerRow = player * lanes + base;
+        int pointer = games.pointers[player * lanes + leader];
+        together = together.and(load(games.pointers, playerRow, together).compare(VectorOperators.EQ, pointer));
+        int cellRow = pointer * lanes + base;
+        byte type = games.types[pointer * lanes + leader];
+        int argumentA = games.argumentsA[pointer * lanes + leader];
+        int argumentB = games.argumentsB[pointer * lanes + leader];
+        together = together.and(ByteVector.fromArray(BYTES, games.types, cellRow, together.cast(BYTES))
+                .compare(VectorOperators.EQ, type).cast(INTS));
+        together = together.and(load(games.argumentsA, cellRow, together).compare(VectorOperators.EQ, argumentA));
+        together = together.and(load(games.argumentsB, cellRow, together).compare(VectorOperators.EQ, argumentB));
+        if (together.trueCount() < MIN_TOGETHER) {
+            return INTS.maskAll(false);
+        }
+        
+        int next = games.sanitize(pointer + 1);
+        switch (TYPES[type]) {
+            case STOP -> {
+                long stopped = together.toLong();
+                while (stopped != 0) {
+                    int lane = base + Long.numberOfTrailingZeros(stopped);
+                    games.dead[player * lanes + lane] = true;
+                    games.finishTurn(lane, currentIndex, player * lanes + lane);
+                    stopped &= stopped - 1;
+                }
+                return together;
+            }
+            case MOV_R -> {
+                copyCells(games, base, together, games.sanitize(pointer + argumentA),
+                        games.sanitize(pointer + argumentB), player);
+                setPointers(games, playerRow, together, next);
+            }
+            case MOV_I -> {
+                int destination = games.sanitize(pointer + argumentB);
+                int offset = games.argumentsB[destination * lanes + leader];
+                // The destination depends on a cell of each lane, lanes with another offset are split off
+                together = together.and(load(games.argumentsB, destination * lanes + base, together)
+                        .compare(VectorOperators.EQ, offset));
+                copyCells(games, base, together, games.sanitize(pointer + argumentA),
+                        games.sanitize(destination + games.sanitize(offset)), player);
+                setPointers(games, playerRow, together, next);
+            }
+            case ADD -> {
+                IntVector.broadcast(INTS, argumentA + argumentB).intoArray(games.argumentsB, cellRow, together);
+                markModified(games, base, together, pointer, player);
+                setPointers(games, playerRow, together, next);
+            }
+            case ADD_R -> {
+                int target = games.sanitize(pointer + argumentB);
+                int targetRow = target * lanes + base;
+                load(games.argumentsB, targetRow, together).add(argumentA).intoArray(games.argumentsB, targetRow, together);
+                markModified(games, base, together, target, player);
+                setPointers(games, playerRow, together, next);
+            }
+            case JMP -> setPointers(games, playerRow, together, games.sanitize(pointer + argumentA));
+            case JMZ -> {
+                VectorMask<Integer> zero = load(games.argumentsB, games.sanitize(pointer + argumentB) * lanes + base,
+                        together).compare(VectorOperators.EQ, 0);
+                IntVector.broadcast(INTS, next).blend(games.sanitize(pointer + argumentA), zero)
+                        .intoArray(games.pointers, playerRow, together);
+            }
+            case CMP -> {
+                VectorMask<Integer> equal = load(games.argumentsA, games.sanitize(pointer + argumentA) * lanes + base,
+                        together).compare(VectorOperators.EQ,
+                        load(games.argumentsB, games.sanitize(pointer + argumentB) * lanes + base, together));
+                IntVector.broadcast(INTS, games.sanitize(pointer + 2)).blend(next, equal)
+                        .intoArray(games.pointers, playerRow, together);
+            }
+            case SWAP -> {
+                int first = games.sanitize(pointer + argumentA);
+                int second = games.sanitize(pointer + argumentB);
+                IntVector temp = load(games.argumentsA, first * lanes + base, together);
+                load(games.argumentsB, second * lanes + base, together)
+                        .intoArray(games.argumentsA, first * lanes + base, together);
+                markModified(games, base, together, first, player);
+                temp.intoArray(games.argumentsB, second * lanes + base, together);
+                markModified(games, base, together, second, player);
+                setPointers(games, playerRow, together, next);
+            }
+        }
+        finishTurns(games, base, together, currentIndex, playerRow);
+        return together;
+    }
+    
+    /**
+     * Counts the turn of an AI that did not stop and passes the turn on, like {@link LockstepGames#finishTurn}.
+     */
+    private static void finishTurns(LockstepGames games, int base, VectorMask<Integer> together, int currentIndex,
+                                    int playerRow) {
+        VectorMask<Long> longMask = together.cast(LONGS);
+        LongVector.fromArray(LONGS, games.moveCounts, playerRow, longMask).add(1)
+                .intoArray(games.moveCounts, playerRow, longMask);
+        VectorMask<Integer> last = load(games.aliveCounts, base, together)
+                .compare(VectorOperators.LE, currentIndex + 1);
+        IntVector.broadcast(INTS, currentIndex + 1).blend(0, last).intoArray(games.currentIndices, base, together);
+    }
+    
+    private static void setPointers(LockstepGames games, int playerRow, VectorMask<Integer> together, int pointer) {
+        IntVector.broadcast(INTS, pointer).intoArray(games.pointers, playerRow, together);
+    }
+    
+    /**
+     * Copies a cell in every lane, then marks the copies as modified by the player, like {@code LockstepGames.copyCell}.
+     */
+    private static void copyCells(LockstepGames games, int base, VectorMask<Integer> together, int origin,
+                                  int destination, int player) {
+        int from = origin * games.lanes + base;
+        int to = destination * games.lanes + base;
+        VectorMask<Byte> byteMask = together.cast(BYTES);
+        ByteVector.fromArray(BYTES, games.types, from, byteMask).intoArray(games.types, to, byteMask);
+        load(games.argumentsA, from, together).intoArray(games.argumentsA, to, together);
+        load(games.argumentsB, from, together).intoArray(games.argumentsB, to, together);
+        markModified(games, base, together, destination, player);
+    }
+    
+    private static void markModified(LockstepGames games, int base, VectorMask<Integer> together, int address,
+                                     int player) {
+        int row = address * games.lanes + base;
+        IntVector.broadcast(INTS, player).intoArray(games.owners, row, together);
+        long written = together.toLong();
+        while (written != 0) {
+            games.modified[row + Long.numberOfTrailingZeros(written)] = true;
+            written &= written - 1;
+        }
+        int trackedIndex = games.trackedLane - base;
+        if (trackedIndex >= 0 && trackedIndex < WIDTH && together.laneIsSet(trackedIndex)) {
+            games.trackedCells.set(address);
+        }
+    }
+    
+    private static IntVector load(int[] array, int offset, VectorMask<Integer> mask) {
+        return IntVector.fromArray(INTS, array, offset, mask);
+    }
+}
@@ -1,11 +1,23 @@
 package edu.kit.kastel.codefight;
 
+import edu.kit.kastel.codefight.metrics.EngineMetrics;
+import edu.kit.kastel.codefight.metrics.PrometheusEndpoint;
 import edu.kit.kastel.codefight.model.AIPrintWrapper;
-import edu.kit.kastel.codefight.model.Codefight;
-import edu.kit.kastel.codefight.model.GamePhase;
-import edu.kit.kastel.codefight.model.MemoryInitType;
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.model.ParallelTurnExecutor;
+import edu.kit.kastel.codefight.ratings.ResultLog;
+import edu.kit.kastel.codefight.recording.SessionRecorder;
+import edu.kit.kastel.codefight.server.GameServer;
+import edu.kit.kastel.codefight.spectator.SpectatorHub;
+import edu.kit.kastel.codefight.spectator.SpectatorServer;
 import edu.kit.kastel.codefight.usercommands.CommandHandler;
 
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -60,25 +72,110 @@ public final class Main {
     private static final int ARGS_INDEX_BEGIN_PLAYER_SYMBOLS = MEMORY_CHARS_SIZE + ARGS_INDEX_BEGIN_MEM_CHARS;
     private static final int ARGS_PLAYER_SYMBOL_OTHER = 1;
     private static final int PLAYER_SYMBOL_AMOUNT = 2;
-    private static final int INIT_MODE_STOP_SEED = 0;
+    
+    /**
+     * The system property that enables the Prometheus metrics endpoint on the given localhost port.
+     */
+    private static final String METRICS_PORT_PROPERTY = "codefight.metrics.port";
+    /**
+     * The system property that starts the program as game server on the given port instead of reading standard input.
+     */
+    private static final String SERVER_PORT_PROPERTY = "codefight.server.port";
+    /**
+     * The system property that sets the amount of worker threads of the game server. Defaults to the amount of cores.
+     */
+    private static final String SERVER_WORKERS_PROPERTY = "codefight.server.workers";
+    /**
+     * The system property that sets the address the game server binds to. Defaults to the loopback address.
+     */
+    private static final String SERVER_HOST_PROPERTY = "codefight.server.host";
+    /**
+     * The system property that broadcasts the games of the standard input session to spectators on the given localhost port.
+     */
+    private static final String SPECTATOR_PORT_PROPERTY = "codefight.spectator.port";
+    /**
+     * The system property that records the standard input session to the given file, see {@link SessionRecorder}.
+     */
+    private static final String RECORD_FILE_PROPERTY = "codefight.record.file";
+    /**
+     * The system property that persists the games of the standard input session to the given file, see {@link edu.kit.kastel.codefight.model.GameArena}.
+     */
+    private static final String ARENA_FILE_PROPERTY = "codefight.arena.file";
+    /**
+     * The system property that sets how many turns of a game can be played backwards with prev. Defaults to 0, so disabled.
+     */
+    private static final String UNDO_STEPS_PROPERTY = "codefight.undo.steps";
+    private static final String UNDO_DISABLED = "0";
+    /**
+     * The system property that sets the memory budget in kilobytes for the checkpoints of a game, used by seek.
+     * Defaults to 0, so disabled.
+     */
+    private static final String CHECKPOINT_BUDGET_PROPERTY = "codefight.checkpoint.budget";
+    private static final String CHECKPOINTS_DISABLED = "0";
+    private static final long BYTES_PER_KILOBYTE = 1024;
+    /**
+     * The system property that sets every how many steps the territory of the AIs is sampled, see
+     * {@link edu.kit.kastel.codefight.model.TerritoryHistory}. Defaults to 0, so disabled.
+     */
+    private static final String TERRITORY_INTERVAL_PROPERTY = "codefight.territory.interval";
+    private static final String TERRITORY_DISABLED = "0";
+    /**
+     * The system property that plays independent turns of the games of the standard input session on the given
+     * amount of threads, see {@link ParallelTurnExecutor}.
+     */
+    private static final String PARALLEL_THREADS_PROPERTY = "codefight.parallel.threads";
+    /**
+     * The system property that sets the minimum amount of turns played in parallel at once, if parallel turns are
+     * enabled. Defaults to {@value ParallelTurnExecutor#DEFAULT_MIN_BATCH}.
+     */
+    private static final String PARALLEL_MIN_BATCH_PROPERTY = "codefight.parallel.min-batch";
+    /**
+     * The system property that rates the games of the standard input session together with the results saved in
+     * the given file, and appends every further result to it, see {@link ResultLog}.
+     */
+    private static final String RESULTS_FILE_PROPERTY = "codefight.results.file";
     
     private static final String INVALID_ARGUMENTS_MESSAGE = "%sinvalid command line arguments.".formatted(CommandHandler.ERROR_PREFIX);
     private static final String ARGUMENTS_NOT_UNIQUE = "%sall character arguments must be unique!".formatted(CommandHandler.ERROR_PREFIX);
-    private static final String INVALID_PHASE_START = "%stried to initialize a game while ingame.".formatted(CommandHandler.ERROR_PREFIX);
-    private static final String INVALID_PHASE_END = "%stried to end the game while not ingame.".formatted(CommandHandler.ERROR_PREFIX);
-    private static final String INVALID_PHASE_INGAME = "%stried to play while not ingame.".formatted(CommandHandler.ERROR_PREFIX);
     private static final String GAME_STARTED_MSG = "Welcome to CodeFight 2024. Enter 'help' for more details.";
+    private static final String SERVER_STARTED_MSG = "CodeFight server listening on %s";
+    private static final String INVALID_SERVER_ARGUMENTS = "%sinvalid server port or worker count.".formatted(CommandHandler.ERROR_PREFIX);
+    private static final String SERVER_FAILED = "%sgame server failed: %s".formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final String INVALID_METRICS_PORT = "%sinvalid metrics port: %s".formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final String INVALID_SPECTATOR_PORT = "%sinvalid spectator port: %s".formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final String SPECTATOR_SERVER_FAILED = "%scould not start spectator server: %s"
+            .formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final String RECORDING_FAILED = "%scould not start recording: %s".formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final String RECORDING_CLOSE_FAILED = "%scould not finish recording: %s"
+            .formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final String INVALID_UNDO_STEPS = "%sinvalid undo journal size, must be between 0 and %d."
+            .formatted(CommandHandler.ERROR_PREFIX, CodefightSession.MAX_UNDO_STEPS);
+    private static final String INVALID_CHECKPOINT_BUDGET = "%sinvalid checkpoint budget, must be a non-negative amount of kilobytes."
+            .formatted(CommandHandler.ERROR_PREFIX);
+    private static final String INVALID_TERRITORY_INTERVAL = "%sinvalid territory interval, must be a non-negative amount of steps."
+            .formatted(CommandHandler.ERROR_PREFIX);
+    private static final String INVALID_PARALLEL_THREADS = "%sinvalid amount of threads for parallel turns: %s"
+            .formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final String INVALID_PARALLEL_MIN_BATCH = "%sinvalid minimum batch size for parallel turns: %s"
+            .formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final String RESULTS_FAILED = "%scould not open the results file: %s".formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final String RESULTS_CLOSE_FAILED = "%scould not close the results file: %s"
+            .formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final String INVALID_ARENA_FILE = "%sinvalid arena file: %s".formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final String METRICS_ENDPOINT_FAILED = "%scould not start metrics endpoint: %s"
+            .formatted(CommandHandler.ERROR_PREFIX, "%s");
     
     /**
      * The single character that is invalid for symbols and must not appear in the symbols.
      */
     private static final String INVALID_SYMBOL_CHAR = " ";
     
-    private static GamePhase currentPhase;
-    private static Codefight currentGame;
-    
+    private static int memorySize;
     private static String[] memoryChars;
     private static List<AIPrintWrapper> printWrappers;
+    private static int undoSteps;
+    private static long checkpointBudget;
+    private static int territoryInterval;
     
     private Main() { }
     
@@ -88,114 +185,252 @@ private Main() { }
      * @param args the command line arguments
      */
     public static void main(String[] args) {
-        currentPhase = GamePhase.INITIALIZATION;
         Optional<String> argumentResult = parseArguments(args);
         if (argumentResult.isPresent()) {
             System.err.println(argumentResult.get());
             return;
         }
-        System.out.println(GAME_STARTED_MSG);
-        CommandHandler.initialize();
-        CommandHandler.handleUserInput();
+        startMetrics();
+        if (System.getProperty(SERVER_PORT_PROPERTY) != null) {
+            runServer();
+        } else {
+            System.out.println(GAME_STARTED_MSG);
+            CodefightSession session = createSession(System.out, System.err);
+            Optional<SpectatorServer> spectatorServer = startSpectators(session);
+            setArenaFile(session);
+            Optional<ParallelTurnExecutor> parallelTurns = startParallelTurns(session);
+            Optional<ResultLog> results = openResults(session);
+            CommandHandler handler = new CommandHandler(session);
+            Optional<SessionRecorder> recorder = startRecording(args, session);
+            recorder.ifPresent(handler::setRecorder);
+            handler.handleUserInput();
+            closeSession(session);
+            recorder.ifPresent(Main::stopRecording);
+            results.ifPresent(Main::closeResults);
+            spectatorServer.ifPresent(SpectatorServer::stop);
+            parallelTurns.ifPresent(ParallelTurnExecutor::shutdown);
+        }
+        PrometheusEndpoint.stop();
     }
     
     /**
-     * Gets the current phase.
-     * @return The current phase.
+     * Closes the session and waits until the background runs of its games stopped, so nothing is played
+     * while the recording, the results and the spectators are closed.
+     * @param session The session.
      */
-    public static GamePhase getCurrentPhase() {
-        return currentPhase;
+    private static void closeSession(CodefightSession session) {
+        session.close();
+        session.awaitBackgroundRuns();
     }
     
     /**
-     * Gets the memory representation symbol based on the cell's priority level.
-     * As some characters take up more than 16 bits, a character is represented using a String object.
-     * <p></p>
-     * If the priority is out of range, returns the default (lowest) priority character.
-     *
-     * @param priority The symbol priority
-     * @return The character representing the cell.
+     * Creates a new session with the memory size and symbols given by the command line arguments
+     * and the undo journal size, checkpoint budget and territory interval given by their properties.
+     * The arguments must have been parsed successfully before.
+     * @param output The stream for regular output of the session.
+     * @param errorOutput The stream for error output of the session.
+     * @return The new session.
+     */
+    public static CodefightSession createSession(PrintStream output, PrintStream errorOutput) {
+        CodefightSession session = new CodefightSession(memorySize, memoryChars, printWrappers, output, errorOutput);
+        session.setUndoSteps(undoSteps);
+        session.setCheckpointBudget(checkpointBudget);
+        session.setTerritoryInterval(territoryInterval);
+        return session;
+    }
+    
+    /**
+     * Registers the engine metrics with JMX and, if the metrics port property is set,
+     * starts the Prometheus endpoint on that localhost port. Failing to start the endpoint
+     * is reported but does not prevent the game from starting.
      */
-    public static String getMemorySymbol(int priority) {
-        if (priority >= memoryChars.length || priority < 0) {
-            return memoryChars[memoryChars.length - 1];
+    private static void startMetrics() {
+        EngineMetrics.register();
+        String port = System.getProperty(METRICS_PORT_PROPERTY);
+        if (port == null) {
+            return;
+        }
+        try {
+            PrometheusEndpoint.start(Integer.parseInt(port));
+        } catch (NumberFormatException e) {
+            System.err.println(INVALID_METRICS_PORT.formatted(port));
+        } catch (IOException e) {
+            System.err.println(METRICS_ENDPOINT_FAILED.formatted(e.getMessage()));
         }
-        return memoryChars[priority];
     }
     
     /**
-     * Gets a PrintWrapper from the ones initially specified by command line arguments.
-     * If an invalid index is given, returns null wrapper.
-     * @param index The index of the PrintWrapper.
-     * @return The PrintWrapper of the given index.
+     * If the spectator port property is set, broadcasts the games of the session to spectators
+     * connecting to that localhost port. Failing to start the server is reported but does not
+     * prevent the game from starting.
+     * @param session The session to broadcast.
+     * @return The spectator server, empty if spectating is disabled or failed.
      */
-    public static AIPrintWrapper getPrintWrapper(int index) {
-        if (index < 0 || index >= printWrappers.size()) {
-            return AIPrintWrapper.NULL_WRAPPER;
+    private static Optional<SpectatorServer> startSpectators(CodefightSession session) {
+        String port = System.getProperty(SPECTATOR_PORT_PROPERTY);
+        if (port == null) {
+            return Optional.empty();
+        }
+        SpectatorHub hub = new SpectatorHub(SpectatorHub.DEFAULT_MAILBOX_CAPACITY);
+        try {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(port));
+            SpectatorServer server = new SpectatorServer(hub, address);
+            session.setSpectatorHub(hub);
+            return Optional.of(server);
+        } catch (NumberFormatException e) {
+            System.err.println(INVALID_SPECTATOR_PORT.formatted(port));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(SPECTATOR_SERVER_FAILED.formatted(e.getMessage()));
         }
-        return printWrappers.get(index);
+        hub.close();
+        return Optional.empty();
     }
     
     /**
-     * Gets the total amount of available PrintWrappers.
-     * @return The amount of PrintWrappers.
+     * If the arena file property is set, enables arena mode for the session.
+     * @param session The session to persist the games of.
      */
-    public static int getPrintWrapperCount() {
-        return printWrappers.size();
+    private static void setArenaFile(CodefightSession session) {
+        String file = System.getProperty(ARENA_FILE_PROPERTY);
+        if (file == null) {
+            return;
+        }
+        try {
+            session.setArenaFile(Path.of(file));
+        } catch (InvalidPathException e) {
+            System.err.println(INVALID_ARENA_FILE.formatted(file));
+        }
     }
     
     /**
-     * Returns the current game of codefight or null, if no game is played.
-     * @return Current Codefight or null.
+     * If the parallel threads property is set, plays independent turns of the games of the session in parallel,
+     * in batches of at least the size of the minimum batch property.
+     * @param session The session to play the games of.
+     * @return The executor of the turns, empty if parallel turns are disabled or a property is invalid.
      */
-    public static Codefight getCodefight() {
-        return currentGame;
+    private static Optional<ParallelTurnExecutor> startParallelTurns(CodefightSession session) {
+        String threads = System.getProperty(PARALLEL_THREADS_PROPERTY);
+        if (threads == null) {
+            return Optional.empty();
+        }
+        String minBatch = System.getProperty(PARALLEL_MIN_BATCH_PROPERTY,
+                Integer.toString(ParallelTurnExecutor.DEFAULT_MIN_BATCH));
+        int parsedMinBatch;
+        try {
+            parsedMinBatch = Integer.parseInt(minBatch);
+        } catch (NumberFormatException e) {
+            System.err.println(INVALID_PARALLEL_MIN_BATCH.formatted(minBatch));
+            return Optional.empty();
+        }
+        if (parsedMinBatch < ParallelTurnExecutor.SMALLEST_MIN_BATCH) {
+            System.err.println(INVALID_PARALLEL_MIN_BATCH.formatted(minBatch));
+            return Optional.empty();
+        }
+        try {
+            ParallelTurnExecutor parallelTurns = new ParallelTurnExecutor(Integer.parseInt(threads), parsedMinBatch);
+            session.setParallelTurns(parallelTurns);
+            return Optional.of(parallelTurns);
+        } catch (IllegalArgumentException e) {
+            System.err.println(INVALID_PARALLEL_THREADS.formatted(threads));
+            return Optional.empty();
+        }
     }
     
     /**
-     * Enters the INGAME Phase and plays Codefight on the current model.
-     * @throws IllegalStateException If a game is already on.
-     * @param model The model to play the game on.
+     * If the results file property is set, rates the results saved in that file and saves the results of the games
+     * of the session to it. Failing to read or open the file is reported but does not prevent the game from starting.
+     * @param session The session to rate the games of.
+     * @return The log of the results, empty if saving results is disabled or failed.
      */
-    public static void playCodefight(Codefight model) {
-        if (currentPhase != GamePhase.INITIALIZATION) {
-            throw new IllegalStateException(INVALID_PHASE_START);
+    private static Optional<ResultLog> openResults(CodefightSession session) {
+        String file = System.getProperty(RESULTS_FILE_PROPERTY);
+        if (file == null) {
+            return Optional.empty();
+        }
+        try {
+            ResultLog results = ResultLog.open(Path.of(file), session.getRatings());
+            session.setResultLog(results);
+            return Optional.of(results);
+        } catch (IOException | InvalidPathException e) {
+            System.err.println(RESULTS_FAILED.formatted(e.getMessage()));
+            return Optional.empty();
+        }
+    }
+    
+    private static void closeResults(ResultLog results) {
+        try {
+            results.close();
+        } catch (IOException e) {
+            System.err.println(RESULTS_CLOSE_FAILED.formatted(e.getMessage()));
         }
-        currentPhase = GamePhase.INGAME;
-        currentGame = model;
     }
     
     /**
-     * Plays a given number of moves in the current codefight game.
-     * @throws IllegalStateException If there is no game to perform the steps on.
-     * @param steps The number of steps.
+     * If the record file property is set, records the commands of the session to that file.
+     * Failing to create the file is reported but does not prevent the game from starting.
+     * @param args The command line arguments the session was created with.
+     * @param session The session to record.
+     * @return The recorder, empty if recording is disabled or failed.
      */
-    public static void next(int steps) {
-        if (currentGame == null) {
-            throw new IllegalStateException(INVALID_PHASE_INGAME);
+    private static Optional<SessionRecorder> startRecording(String[] args, CodefightSession session) {
+        String file = System.getProperty(RECORD_FILE_PROPERTY);
+        if (file == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(SessionRecorder.create(Path.of(file), args, session));
+        } catch (IOException | InvalidPathException e) {
+            System.err.println(RECORDING_FAILED.formatted(e.getMessage()));
+            return Optional.empty();
+        }
+    }
+    
+    private static void stopRecording(SessionRecorder recorder) {
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            System.err.println(RECORDING_CLOSE_FAILED.formatted(e.getMessage()));
         }
-        currentGame.next(steps);
     }
     
     /**
-     * Ends the currently active Codefight game.
-     * @throws IllegalStateException If there is no game to end.
+     * Runs the game server on the port given by the server port property until the process is terminated.
+     * Every client gets its own session with the memory size and symbols of the command line arguments.
      */
-    public static void endGame() {
-        if (currentPhase != GamePhase.INGAME) {
-            throw new IllegalStateException(INVALID_PHASE_END);
+    private static void runServer() {
+        int port;
+        int workers;
+        try {
+            port = Integer.parseInt(System.getProperty(SERVER_PORT_PROPERTY));
+            workers = Integer.parseInt(System.getProperty(SERVER_WORKERS_PROPERTY,
+                    String.valueOf(Runtime.getRuntime().availableProcessors())));
+        } catch (NumberFormatException e) {
+            System.err.println(INVALID_SERVER_ARGUMENTS);
+            return;
+        }
+        if (workers <= 0) {
+            System.err.println(INVALID_SERVER_ARGUMENTS);
+            return;
+        }
+        String host = System.getProperty(SERVER_HOST_PROPERTY);
+        InetSocketAddress address = host == null ? new InetSocketAddress(InetAddress.getLoopbackAddress(), port)
+                : new InetSocketAddress(host, port);
+        GameServer server = new GameServer(address, Main::createSession, GAME_STARTED_MSG, workers);
+        try {
+            System.out.println(SERVER_STARTED_MSG.formatted(server.open()));
+            server.run();
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(SERVER_FAILED.formatted(e.getMessage()));
         }
-        assert currentGame != null;
-        currentPhase = GamePhase.INITIALIZATION;
-        currentGame = null;
     }
     
     /**
      * Parses the command line arguments and returns the occurred error if the arguments were parsed unsuccessfully.
+     * Sessions created by {@link #createSession(PrintStream, PrintStream)} afterwards use the parsed arguments.
      * @param args The command line arguments.
-     * @return The error message to print. Null if there was no error.
+     * @return The error message to print. Empty if there was no error.
      */
-    private static Optional<String> parseArguments(String[] args) {
+    public static Optional<String> parseArguments(String[] args) {
         Set<String> knownCharacters = new HashSet<>();
         // Argument structure: size + 4 symbols + even arguments. Arguments must be uneven number
         if (args.length % 2 != 1 || args.length < MIN_ARGS_LENGTH) {
@@ -212,7 +447,7 @@ private static Optional<String> parseArguments(String[] args) {
         if (memSize < MIN_MEMORY_SIZE || memSize > MAX_MEMORY_SIZE) {
             return Optional.of(INVALID_ARGUMENTS_MESSAGE);
         }
-        setupMemory(memSize);
+        memorySize = memSize;
         
         // Set up Memory Symbols
         memoryChars = new String[MEMORY_CHARS_SIZE];
@@ -243,14 +478,61 @@ private static Optional<String> parseArguments(String[] args) {
             printWrappers.add(new AIPrintWrapper(args[i], args[i + ARGS_PLAYER_SYMBOL_OTHER]));
         }
         
+        Optional<String> undoError = parseUndoSteps();
+        if (undoError.isPresent()) {
+            return undoError;
+        }
+        Optional<String> checkpointError = parseCheckpointBudget();
+        return checkpointError.isPresent() ? checkpointError : parseTerritoryInterval();
+    }
+    
+    /**
+     * Parses the undo steps property, which is part of the settings of every session like the arguments.
+     * @return The error message to print. Empty if there was no error.
+     */
+    private static Optional<String> parseUndoSteps() {
+        try {
+            undoSteps = Integer.parseInt(System.getProperty(UNDO_STEPS_PROPERTY, UNDO_DISABLED));
+        } catch (NumberFormatException e) {
+            return Optional.of(INVALID_UNDO_STEPS);
+        }
+        if (undoSteps < 0 || undoSteps > CodefightSession.MAX_UNDO_STEPS) {
+            return Optional.of(INVALID_UNDO_STEPS);
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Parses the checkpoint budget property, which is part of the settings of every session like the arguments.
+     * @return The error message to print. Empty if there was no error.
+     */
+    private static Optional<String> parseCheckpointBudget() {
+        long kilobytes;
+        try {
+            kilobytes = Long.parseLong(System.getProperty(CHECKPOINT_BUDGET_PROPERTY, CHECKPOINTS_DISABLED));
+        } catch (NumberFormatException e) {
+            return Optional.of(INVALID_CHECKPOINT_BUDGET);
+        }
+        if (kilobytes < 0 || kilobytes > Long.MAX_VALUE / BYTES_PER_KILOBYTE) {
+            return Optional.of(INVALID_CHECKPOINT_BUDGET);
+        }
+        checkpointBudget = kilobytes * BYTES_PER_KILOBYTE;
         return Optional.empty();
     }
     
     /**
-     * Sets up the memory to its default parameters.
-     * @param size The size of the memory.
+     * Parses the territory interval property, which is part of the settings of every session like the arguments.
+     * @return The error message to print. Empty if there was no error.
      */
-    private static void setupMemory(int size) {
-        Codefight.initMemory(size, MemoryInitType.INIT_MODE_STOP, INIT_MODE_STOP_SEED);
+    private static Optional<String> parseTerritoryInterval() {
+        try {
+            territoryInterval = Integer.parseInt(System.getProperty(TERRITORY_INTERVAL_PROPERTY, TERRITORY_DISABLED));
+        } catch (NumberFormatException e) {
+            return Optional.of(INVALID_TERRITORY_INTERVAL);
+        }
+        if (territoryInterval < 0) {
+            return Optional.of(INVALID_TERRITORY_INTERVAL);
+        }
+        return Optional.empty();
     }
 }
@@ -1,7 +1,6 @@
 package edu.kit.kastel.codefight.aicommands;
 
 import edu.kit.kastel.codefight.model.AIPlayer;
-import edu.kit.kastel.codefight.model.Codefight;
 import edu.kit.kastel.codefight.model.Memory;
 import edu.kit.kastel.codefight.model.MemoryCell;
 
@@ -42,8 +41,8 @@ public int getSecondArgument() {
     
     @Override
     public void execute(AIPlayer player) {
-        Memory memory = Codefight.getMemory();
-        MemoryCell storage = memory.readMemory(player.getMemoryPtr());
+        Memory memory = player.getMemory();
+        MemoryCell storage = memory.modifyMemory(player.getMemoryPtr());
         storage.setArgumentB(storage.getArgumentA() + storage.getArgumentB(), player.getPrintWrapper());
         player.moveByOne();
     }
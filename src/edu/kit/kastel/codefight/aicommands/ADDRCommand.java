@@ -1,7 +1,6 @@
 package edu.kit.kastel.codefight.aicommands;
 
 import edu.kit.kastel.codefight.model.AIPlayer;
-import edu.kit.kastel.codefight.model.Codefight;
 import edu.kit.kastel.codefight.model.Memory;
 import edu.kit.kastel.codefight.model.MemoryCell;
 
@@ -43,8 +42,8 @@ public int getSecondArgument() {
     
     @Override
     public void execute(AIPlayer player) {
-        Memory memory = Codefight.getMemory();
-        MemoryCell target = memory.readMemory(Memory.sanitizeAddress(player.getMemoryPtr() + argumentB));
+        Memory memory = player.getMemory();
+        MemoryCell target = memory.modifyMemory(memory.sanitizeAddress(player.getMemoryPtr() + argumentB));
         target.setArgumentB(argumentA + target.getArgumentB(), player.getPrintWrapper());
         
         player.moveByOne();
@@ -0,0 +1,143 @@
+package edu.kit.kastel.codefight.aicommands;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses, validates and formats AI programs in the format of the add-ai command, for example
+ * {@code ADD,4,0,MOV_I,2,-1,JMP,-2,0}. These are the rules every AI has to follow, no matter if it
+ * was typed by a user or generated.
+ *
+ * @author uwwfh
+ */
+public final class AIProgramParser {
+    
+    /**
+     * The error if a program does not contain any instruction other than STOP.
+     * Same as the parse error, since the add-ai command does not distinguish both.
+     */
+    public static final String ERROR_ONLY_STOP = "An error occurred while parsing instructions."
+            + " Unrecognized command pattern or arguments. Is there at least one non-STOP command?";
+    /**
+     * The error if a program has more instructions than fit into the memory next to another AI.
+     */
+    public static final String ERROR_TOO_MANY_INSTRUCTIONS =
+            "Too many instructions, in no scenario would this AI not override another player's commands and cause an error";
+    
+    private static final int GROUP_INDEX_COMMAND = 0;
+    private static final int GROUP_INDEX_TYPE = 1;
+    private static final int GROUP_INDEX_ARG_A = 2;
+    private static final int GROUP_INDEX_ARG_B = 3;
+    private static final double MAX_MEMORY_SHARE = 2.0;
+    
+    /**
+     * The regex for a single instruction. Used to parse instructions one at a time.
+     * Regex breakdown:
+     * ^ declares String start, so always only the first instruction is parsed
+     * ([A-Z_]{3,5}) is the AI command. Validation via parsing to enum.
+     * (-?\d+) are the two arguments, validity is confirmed when parsing to an integer. Optional negative sign.
+     * ',?' The comma at the end is used to capture a comma, if there is one. The whole string not ending with a comma
+     * is asserted before parsing.
+     */
+    private static final Pattern NEXT_INSTRUCTION = Pattern.compile("^([A-Z_]{3,5}),(-?\\d+),(-?\\d+),?");
+    private static final String INSTRUCTION_FORMAT = "%s,%d,%d";
+    private static final String INSTRUCTION_SEPARATOR = ",";
+    
+    private AIProgramParser() { }
+    
+    /**
+     * Parses instructions to an AI command list from a single string. Does not validate the program,
+     * see {@link #validate(List, int)}.
+     * @param instructions The instructions.
+     * @return List of commands, empty if the instructions could not be parsed.
+     */
+    public static Optional<List<AICommand>> parse(final String instructions) {
+        Matcher matcher;
+        List<AICommand> commands = new ArrayList<>();
+        String remainingInstructions = instructions;
+        
+        while (!remainingInstructions.isEmpty()) {
+            matcher = NEXT_INSTRUCTION.matcher(remainingInstructions);
+            if (!matcher.find()) {
+                return Optional.empty();
+            }
+            // Parse instruction
+            AICommandType type;
+            int argA;
+            int argB;
+            
+            type = parseAICommandType(matcher.group(GROUP_INDEX_TYPE));
+            if (type == null) {
+                return Optional.empty();
+            }
+            
+            try {
+                argA = Integer.parseInt(matcher.group(GROUP_INDEX_ARG_A));
+                argB = Integer.parseInt(matcher.group(GROUP_INDEX_ARG_B));
+            } catch (NumberFormatException e) {
+                // Invalid Command or integer parsing failed
+                return Optional.empty();
+            }
+            // Remove instruction
+            remainingInstructions = remainingInstructions.substring(matcher.group(GROUP_INDEX_COMMAND).length());
+            
+            // Create command and add it
+            commands.add(AICommandFactory.createCommand(type, argA, argB));
+        }
+        return Optional.of(commands);
+    }
+    
+    /**
+     * Validates a program for a memory of a given size. A program must contain at least one
+     * non-STOP instruction and must not be longer than half the memory, rounded up.
+     * @param instructions The program.
+     * @param memorySize The size of the memory the program is played on.
+     * @return The error message, empty if the program is valid.
+     */
+    public static Optional<String> validate(List<AICommand> instructions, int memorySize) {
+        boolean hasFoundNonStopCommand = false;
+        for (AICommand instruction : instructions) {
+            hasFoundNonStopCommand |= instruction.getType() != AICommandType.STOP;
+        }
+        if (!hasFoundNonStopCommand) {
+            return Optional.of(ERROR_ONLY_STOP);
+        }
+        if (instructions.size() > Math.ceil(memorySize / MAX_MEMORY_SHARE)) {
+            return Optional.of(ERROR_TOO_MANY_INSTRUCTIONS);
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Formats a program in the format accepted by {@link #parse(String)}.
+     * @param instructions The program.
+     * @return The program as String.
+     */
+    public static String format(List<AICommand> instructions) {
+        StringJoiner joiner = new StringJoiner(INSTRUCTION_SEPARATOR);
+        for (AICommand instruction : instructions) {
+            joiner.add(INSTRUCTION_FORMAT.formatted(instruction.getType(), instruction.getFirstArgument(),
+                    instruction.getSecondArgument()));
+        }
+        return joiner.toString();
+    }
+    
+    /**
+     * Parses an AI Command Type from a string. If no match could be found,
+     * returns null.
+     * @param argument The String to parse.
+     * @return The appropriate command type or null.
+     */
+    private static AICommandType parseAICommandType(String argument) {
+        for (AICommandType type : AICommandType.values()) {
+            if (type.toString().equals(argument)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -1,7 +1,6 @@
 package edu.kit.kastel.codefight.aicommands;
 
 import edu.kit.kastel.codefight.model.AIPlayer;
-import edu.kit.kastel.codefight.model.Codefight;
 import edu.kit.kastel.codefight.model.Memory;
 
 /**
@@ -42,9 +41,9 @@ public int getSecondArgument() {
     
     @Override
     public void execute(AIPlayer player) {
+        Memory memory = player.getMemory();
         final int firstArgPtr = player.getMemoryPtr() + argumentA;
         final int secondArgPtr = player.getMemoryPtr() + argumentB;
-        Memory memory = Codefight.getMemory();
         if (memory.readMemory(firstArgPtr).getArgumentA() != memory.readMemory(secondArgPtr).getArgumentB()) {
             player.moveByOne();
         }
@@ -40,6 +40,7 @@ public int getSecondArgument() {
     
     @Override
     public void execute(AIPlayer player) {
-        player.setMemoryPtr(Memory.sanitizeAddress(player.getMemoryPtr() + argumentA));
+        Memory memory = player.getMemory();
+        player.setMemoryPtr(memory.sanitizeAddress(player.getMemoryPtr() + argumentA));
     }
 }
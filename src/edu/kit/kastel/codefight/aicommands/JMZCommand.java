@@ -1,7 +1,6 @@
 package edu.kit.kastel.codefight.aicommands;
 
 import edu.kit.kastel.codefight.model.AIPlayer;
-import edu.kit.kastel.codefight.model.Codefight;
 import edu.kit.kastel.codefight.model.Memory;
 import edu.kit.kastel.codefight.model.MemoryCell;
 
@@ -45,10 +44,10 @@ public int getSecondArgument() {
     
     @Override
     public void execute(AIPlayer player) {
-        Memory memory = Codefight.getMemory();
-        MemoryCell checkCell = memory.readMemory(Memory.sanitizeAddress(player.getMemoryPtr() + argumentB));
+        Memory memory = player.getMemory();
+        MemoryCell checkCell = memory.readMemory(memory.sanitizeAddress(player.getMemoryPtr() + argumentB));
         if (checkCell.getArgumentB() == JUMP_CONDITION_VALUE) {
-            player.setMemoryPtr(Memory.sanitizeAddress(player.getMemoryPtr() + argumentA));
+            player.setMemoryPtr(memory.sanitizeAddress(player.getMemoryPtr() + argumentA));
         } else {
             player.moveByOne();
         }
@@ -1,7 +1,6 @@
 package edu.kit.kastel.codefight.aicommands;
 
 import edu.kit.kastel.codefight.model.AIPlayer;
-import edu.kit.kastel.codefight.model.Codefight;
 import edu.kit.kastel.codefight.model.Memory;
 
 /**
@@ -42,10 +41,10 @@ public int getSecondArgument() {
     
     @Override
     public void execute(AIPlayer player) {
-        final int originPtr = Memory.sanitizeAddress(player.getMemoryPtr() + argumentA);
-        int destinationPtr = Memory.sanitizeAddress(player.getMemoryPtr() + argumentB);
-        Memory memory = Codefight.getMemory();
-        destinationPtr += Memory.sanitizeAddress(memory.readMemory(destinationPtr).getArgumentB());
+        Memory memory = player.getMemory();
+        final int originPtr = memory.sanitizeAddress(player.getMemoryPtr() + argumentA);
+        int destinationPtr = memory.sanitizeAddress(player.getMemoryPtr() + argumentB);
+        destinationPtr += memory.sanitizeAddress(memory.readMemory(destinationPtr).getArgumentB());
         memory.cloneMemory(originPtr, destinationPtr, player.getPrintWrapper());
         player.moveByOne();
     }
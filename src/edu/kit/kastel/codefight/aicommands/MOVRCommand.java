@@ -1,7 +1,6 @@
 package edu.kit.kastel.codefight.aicommands;
 
 import edu.kit.kastel.codefight.model.AIPlayer;
-import edu.kit.kastel.codefight.model.Codefight;
 import edu.kit.kastel.codefight.model.Memory;
 
 /**
@@ -41,9 +40,9 @@ public int getSecondArgument() {
     
     @Override
     public void execute(AIPlayer player) {
-        final int originPtr = Memory.sanitizeAddress(player.getMemoryPtr() + argumentA);
-        final int destinationPtr = Memory.sanitizeAddress(player.getMemoryPtr() + argumentB);
-        Memory memory = Codefight.getMemory();
+        Memory memory = player.getMemory();
+        final int originPtr = memory.sanitizeAddress(player.getMemoryPtr() + argumentA);
+        final int destinationPtr = memory.sanitizeAddress(player.getMemoryPtr() + argumentB);
         memory.cloneMemory(originPtr, destinationPtr, player.getPrintWrapper());
         
         player.moveByOne();
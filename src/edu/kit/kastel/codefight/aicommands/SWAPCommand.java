@@ -1,7 +1,6 @@
 package edu.kit.kastel.codefight.aicommands;
 
 import edu.kit.kastel.codefight.model.AIPlayer;
-import edu.kit.kastel.codefight.model.Codefight;
 import edu.kit.kastel.codefight.model.Memory;
 import edu.kit.kastel.codefight.model.MemoryCell;
 
@@ -43,9 +42,9 @@ public int getSecondArgument() {
     
     @Override
     public void execute(AIPlayer player) {
-        Memory memory = Codefight.getMemory();
-        final MemoryCell firstCell = memory.readMemory(Memory.sanitizeAddress(player.getMemoryPtr() + argumentA));
-        final MemoryCell secondCell = memory.readMemory(Memory.sanitizeAddress(player.getMemoryPtr() + argumentB));
+        Memory memory = player.getMemory();
+        final MemoryCell firstCell = memory.modifyMemory(memory.sanitizeAddress(player.getMemoryPtr() + argumentA));
+        final MemoryCell secondCell = memory.modifyMemory(memory.sanitizeAddress(player.getMemoryPtr() + argumentB));
         int temp = firstCell.getArgumentA();
         firstCell.setArgumentA(secondCell.getArgumentB(), player.getPrintWrapper());
         secondCell.setArgumentB(temp, player.getPrintWrapper());
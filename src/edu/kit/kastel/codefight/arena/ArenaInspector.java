@@ -0,0 +1,78 @@
+package edu.kit.kastel.codefight.arena;
+
+import edu.kit.kastel.codefight.model.GameArena;
+import edu.kit.kastel.codefight.model.Memory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Prints the state of a game in an arena file. The file is mapped read-only, so a game that is played
+ * at the same time is not disturbed, and the state is shown as of the last completed turn.
+ * <p></p>
+ * Usage: {@code ArenaInspector <arena file> [--cells]}. With {@code --cells}, every cell is printed as well.
+ *
+ * @author uwwfh
+ */
+public final class ArenaInspector {
+    
+    private static final String USAGE = "Usage: ArenaInspector <arena file> [--cells]";
+    private static final String CELLS_FLAG = "--cells";
+    private static final String ERROR_OPEN = "Error, could not open the arena: %s";
+    private static final String HEADER_FORMAT = "Arena version %d, memory size %d, %s with seed %d, %s%s";
+    private static final String IN_TURN_MARKER = ", in the middle of a turn";
+    private static final String EMPTY_STRING = "";
+    private static final String PLAYER_FORMAT = "%s%s %s@%d after %d turns, owns %d cells";
+    private static final String NEXT_MARKER = "> ";
+    private static final String NO_MARKER = "  ";
+    private static final String RUNNING = "RUNNING";
+    private static final String STOPPED = "STOPPED";
+    private static final String CELL_FORMAT = "%d: %s|%d|%d owner %d%s";
+    private static final String MODIFIED_MARKER = " modified";
+    private static final int MAX_ARGUMENTS = 2;
+    
+    private ArenaInspector() { }
+    
+    /**
+     * Prints the state of the arena.
+     * @param args The arena file and optionally the cells flag.
+     */
+    public static void main(String[] args) {
+        if (args.length == 0 || args.length > MAX_ARGUMENTS || args.length == MAX_ARGUMENTS && !args[1].equals(CELLS_FLAG)) {
+            System.err.println(USAGE);
+            return;
+        }
+        GameArena arena;
+        try {
+            arena = GameArena.open(Path.of(args[0]), true);
+        } catch (IOException e) {
+            System.err.println(ERROR_OPEN.formatted(e.getMessage()));
+            return;
+        }
+        System.out.println(HEADER_FORMAT.formatted(GameArena.VERSION, arena.getMemorySize(), arena.getInitMode(),
+                arena.getSeed(), arena.getStatus(), arena.isInTurn() ? IN_TURN_MARKER : EMPTY_STRING));
+        
+        int[] ownedCells = new int[arena.getPlayerCount()];
+        for (int address = 0; address < arena.getMemorySize(); address++) {
+            if (arena.getCellOwner(address) != Memory.NO_OWNER) {
+                ownedCells[arena.getCellOwner(address)]++;
+            }
+        }
+        int alive = 0;
+        for (int player = 0; player < arena.getPlayerCount(); player++) {
+            boolean dead = arena.isPlayerDead(player);
+            boolean next = !dead && alive == arena.getTurnIndex();
+            alive += dead ? 0 : 1;
+            System.out.println(PLAYER_FORMAT.formatted(next ? NEXT_MARKER : NO_MARKER, arena.getPlayerName(player),
+                    dead ? STOPPED : RUNNING, arena.getPlayerPointer(player), arena.getPlayerTurns(player), ownedCells[player]));
+        }
+        
+        if (args.length == MAX_ARGUMENTS) {
+            for (int address = 0; address < arena.getMemorySize(); address++) {
+                System.out.println(CELL_FORMAT.formatted(address, arena.getCellType(address), arena.getCellArgumentA(address),
+                        arena.getCellArgumentB(address), arena.getCellOwner(address),
+                        arena.isCellModified(address) ? MODIFIED_MARKER : EMPTY_STRING));
+            }
+        }
+    }
+}
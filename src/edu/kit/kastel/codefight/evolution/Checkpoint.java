@@ -0,0 +1,136 @@
+package edu.kit.kastel.codefight.evolution;
+
+import edu.kit.kastel.codefight.aicommands.AICommand;
+import edu.kit.kastel.codefight.aicommands.AIProgramParser;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The state of an evolution run before a generation is evaluated. Stored as text, one entry per line,
+ * programs in the format of the add-ai command.
+ *
+ * @param settings The settings of the run.
+ * @param generation The number of the next generation to evaluate.
+ * @param referencePool The programs every candidate plays against.
+ * @param population The programs of the next generation.
+ * @author uwwfh
+ */
+record Checkpoint(EvolverSettings settings, int generation, List<NamedProgram> referencePool, List<List<AICommand>> population) {
+    
+    private static final String HEADER = "codefight-evolver 1";
+    private static final String SETTINGS_FORMAT = "settings %d %d %d %d %d %d";
+    private static final String GENERATION_FORMAT = "generation %d";
+    private static final String REFERENCE_FORMAT = "reference %s %s";
+    private static final String PROGRAM_FORMAT = "program %s";
+    private static final String SETTINGS_KEY = "settings";
+    private static final String GENERATION_KEY = "generation";
+    private static final String REFERENCE_KEY = "reference";
+    private static final String PROGRAM_KEY = "program";
+    private static final String SEPARATOR_REGEX = " ";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String ERROR_NOT_A_CHECKPOINT = "not an evolver checkpoint";
+    private static final String ERROR_INVALID_LINE = "invalid checkpoint line: %s";
+    private static final String ERROR_INCOMPLETE = "checkpoint is incomplete";
+    
+    private static final int SETTINGS_FIELDS = 7;
+    private static final int REFERENCE_FIELDS = 3;
+    private static final int KEY_FIELDS = 2;
+    private static final int INDEX_MEMORY = 1;
+    private static final int INDEX_POPULATION = 2;
+    private static final int INDEX_SEED = 3;
+    private static final int INDEX_STEPS = 4;
+    private static final int INDEX_MATCH_SEEDS = 5;
+    private static final int INDEX_ELITE = 6;
+    private static final int INDEX_VALUE = 1;
+    private static final int INDEX_PROGRAM = 2;
+    
+    /**
+     * Writes the checkpoint. The file is replaced atomically, so a crash while writing keeps the previous checkpoint.
+     * @param file The checkpoint file.
+     * @throws IOException If writing fails.
+     */
+    void write(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + TEMPORARY_SUFFIX);
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            writeLine(writer, HEADER);
+            writeLine(writer, SETTINGS_FORMAT.formatted(settings.memorySize(), settings.populationSize(), settings.seed(),
+                    settings.maxSteps(), settings.matchSeeds(), settings.eliteCount()));
+            writeLine(writer, GENERATION_FORMAT.formatted(generation));
+            for (NamedProgram reference : referencePool) {
+                writeLine(writer, REFERENCE_FORMAT.formatted(reference.name(), AIProgramParser.format(reference.program())));
+            }
+            for (List<AICommand> program : population) {
+                writeLine(writer, PROGRAM_FORMAT.formatted(AIProgramParser.format(program)));
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Reads a checkpoint written by {@link #write(Path)}.
+     * @param file The checkpoint file.
+     * @return The checkpoint.
+     * @throws IOException If reading fails or the file is not a valid checkpoint.
+     */
+    static Checkpoint read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !lines.get(0).equals(HEADER)) {
+            throw new IOException(ERROR_NOT_A_CHECKPOINT);
+        }
+        EvolverSettings settings = null;
+        int generation = -1;
+        List<NamedProgram> referencePool = new ArrayList<>();
+        List<List<AICommand>> population = new ArrayList<>();
+        try {
+            for (String line : lines.subList(1, lines.size())) {
+                String[] fields = line.split(SEPARATOR_REGEX);
+                switch (fields[0]) {
+                    case SETTINGS_KEY -> settings = parseSettings(line, fields);
+                    case GENERATION_KEY -> generation = Integer.parseInt(fields[INDEX_VALUE]);
+                    case REFERENCE_KEY -> referencePool.add(new NamedProgram(fields[INDEX_VALUE],
+                            parseProgram(line, fields, REFERENCE_FIELDS, INDEX_PROGRAM)));
+                    case PROGRAM_KEY -> population.add(parseProgram(line, fields, KEY_FIELDS, INDEX_VALUE));
+                    default -> throw new IOException(ERROR_INVALID_LINE.formatted(line));
+                }
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new IOException(ERROR_NOT_A_CHECKPOINT, e);
+        }
+        if (settings == null || generation < 0 || referencePool.isEmpty() || population.size() != settings.populationSize()) {
+            throw new IOException(ERROR_INCOMPLETE);
+        }
+        return new Checkpoint(settings, generation, referencePool, population);
+    }
+    
+    private static EvolverSettings parseSettings(String line, String[] fields) throws IOException {
+        if (fields.length != SETTINGS_FIELDS) {
+            throw new IOException(ERROR_INVALID_LINE.formatted(line));
+        }
+        try {
+            return new EvolverSettings(Integer.parseInt(fields[INDEX_MEMORY]), Integer.parseInt(fields[INDEX_POPULATION]),
+                    Long.parseLong(fields[INDEX_SEED]), Integer.parseInt(fields[INDEX_STEPS]),
+                    Integer.parseInt(fields[INDEX_MATCH_SEEDS]), Integer.parseInt(fields[INDEX_ELITE]));
+        } catch (IllegalArgumentException e) {
+            throw new IOException(ERROR_INVALID_LINE.formatted(line), e);
+        }
+    }
+    
+    private static List<AICommand> parseProgram(String line, String[] fields, int fieldCount, int index) throws IOException {
+        if (fields.length != fieldCount) {
+            throw new IOException(ERROR_INVALID_LINE.formatted(line));
+        }
+        return AIProgramParser.parse(fields[index]).orElseThrow(() -> new IOException(ERROR_INVALID_LINE.formatted(line)));
+    }
+    
+    private static void writeLine(BufferedWriter writer, String line) throws IOException {
+        writer.write(line);
+        writer.newLine();
+    }
+}
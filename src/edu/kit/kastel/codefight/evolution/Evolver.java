@@ -0,0 +1,261 @@
+package edu.kit.kastel.codefight.evolution;
+
+import edu.kit.kastel.codefight.aicommands.AICommand;
+import edu.kit.kastel.codefight.aicommands.AIProgramParser;
+import edu.kit.kastel.codefight.usercommands.CommandHandler;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Breeds AI programs with genetic programming. Every generation is scored by a {@link FitnessEvaluator}
+ * against a reference pool, with one task per program on a thread pool that uses all cores. The best
+ * programs survive unchanged, the others are replaced by mutated children of tournament winners.
+ * <p></p>
+ * After every generation one line is appended to the results file and a {@link Checkpoint} is written,
+ * so an interrupted run continues from the last finished generation with {@code resume=true}.
+ * Since every generation derives its random generator from the seed of the run and matches are
+ * deterministic, a resumed run produces the same programs as an uninterrupted one.
+ * <p></p>
+ * Usage: {@code Evolver [key=value ...]} with the keys memory, population, generations, seed, steps,
+ * match-seeds, elite, threads, pool, results, checkpoint, resume and lockstep. With {@code lockstep=true} the
+ * match seeds of a pairing are played together, which gives the same scores faster. The pool file contains one
+ * reference AI per line as {@code <name> <program>}, without it a built-in pool is used.
+ *
+ * @author uwwfh
+ */
+public final class Evolver {
+    
+    private static final String USAGE = "Usage: Evolver [memory=64] [population=32] [generations=20] [seed=1] [steps=1000] "
+            + "[match-seeds=2] [elite=2] [threads=<cores>] [pool=<file>] [results=evolution.tsv] "
+            + "[checkpoint=evolution.checkpoint] [resume=false] [lockstep=false]";
+    private static final String OPTION_SEPARATOR = "=";
+    private static final String POOL_SEPARATOR_REGEX = " +";
+    private static final String COMMENT_PREFIX = "#";
+    private static final String RESULTS_HEADER = "generation\tbest\tmean\tprogram";
+    private static final String RESULT_FORMAT = "%d\t%.4f\t%.4f\t%s";
+    private static final String PROGRESS_FORMAT = "Generation %d: best %.4f, mean %.4f";
+    private static final String BEST_FORMAT = "Best program: %s";
+    private static final String RESUMED_FORMAT = "Resumed at generation %d.";
+    private static final String ERROR_PREFIX = CommandHandler.ERROR_PREFIX;
+    private static final String ERROR_INVALID_REFERENCE = "%sinvalid reference AI: %s";
+    private static final String ERROR_FAILED = "%sevolution failed: %s";
+    private static final String[][] DEFAULT_POOL = {
+        {"Imp", "MOV_R,0,1"},
+        {"Dwarf", "ADD,4,0,MOV_I,2,-1,JMP,-2,0,STOP,0,0"},
+        {"Bomber", "STOP,0,0,MOV_R,3,7,ADD_R,1,-1,JMZ,-2,-1,STOP,0,0"},
+        {"Swapper", "SWAP,3,-3,CMP,1,2,JMP,-2,5"},
+    };
+    
+    private static final int POOL_FIELDS = 2;
+    private static final int OPTION_FIELDS = 2;
+    private static final int TOURNAMENT_SIZE = 3;
+    private static final double CROSSOVER_CHANCE = 0.6;
+    private static final long GENERATION_SEED_MIX = 0x9E3779B97F4A7C15L;
+    
+    private final EvolverSettings settings;
+    private final List<NamedProgram> referencePool;
+    private final FitnessEvaluator evaluator;
+    private final ProgramMutator mutator;
+    private final ExecutorService workers;
+    
+    private Evolver(EvolverSettings settings, List<NamedProgram> referencePool, int threads, boolean lockstep) {
+        this.settings = settings;
+        this.referencePool = referencePool;
+        this.evaluator = new FitnessEvaluator(settings, referencePool, lockstep);
+        this.mutator = new ProgramMutator(settings.memorySize());
+        this.workers = Executors.newFixedThreadPool(threads);
+    }
+    
+    /**
+     * Runs the evolution.
+     * @param args The options as key=value pairs.
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String argument : args) {
+            String[] option = argument.split(OPTION_SEPARATOR, OPTION_FIELDS);
+            if (option.length != OPTION_FIELDS) {
+                System.err.println(USAGE);
+                return;
+            }
+            options.put(option[0], option[1]);
+        }
+        try {
+            run(options);
+        } catch (IllegalArgumentException e) {
+            System.err.println(USAGE);
+        } catch (IOException | ExecutionException e) {
+            System.err.println(ERROR_FAILED.formatted(ERROR_PREFIX, e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void run(Map<String, String> options) throws IOException, ExecutionException, InterruptedException {
+        int generations = Integer.parseInt(options.getOrDefault("generations", "20"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        Path results = Path.of(options.getOrDefault("results", "evolution.tsv"));
+        Path checkpointFile = Path.of(options.getOrDefault("checkpoint", "evolution.checkpoint"));
+        boolean resume = Boolean.parseBoolean(options.getOrDefault("resume", "false"));
+        boolean lockstep = Boolean.parseBoolean(options.getOrDefault("lockstep", "false"));
+        
+        Checkpoint checkpoint;
+        if (resume && Files.exists(checkpointFile)) {
+            checkpoint = Checkpoint.read(checkpointFile);
+            System.out.println(RESUMED_FORMAT.formatted(checkpoint.generation()));
+        } else {
+            EvolverSettings settings = new EvolverSettings(
+                    Integer.parseInt(options.getOrDefault("memory", "64")),
+                    Integer.parseInt(options.getOrDefault("population", "32")),
+                    Long.parseLong(options.getOrDefault("seed", "1")),
+                    Integer.parseInt(options.getOrDefault("steps", "1000")),
+                    Integer.parseInt(options.getOrDefault("match-seeds", "2")),
+                    Integer.parseInt(options.getOrDefault("elite", "2")));
+            Optional<String> pool = Optional.ofNullable(options.get("pool"));
+            List<NamedProgram> referencePool = readReferencePool(pool, settings.memorySize());
+            checkpoint = new Checkpoint(settings, 0, referencePool, createInitialPopulation(settings));
+            Files.deleteIfExists(results);
+        }
+        
+        Evolver evolver = new Evolver(checkpoint.settings(), checkpoint.referencePool(), threads, lockstep);
+        try {
+            evolver.evolve(checkpoint, generations, results, checkpointFile);
+        } finally {
+            evolver.workers.shutdownNow();
+        }
+    }
+    
+    private void evolve(Checkpoint start, int generations, Path results, Path checkpointFile)
+            throws IOException, ExecutionException, InterruptedException {
+        boolean newFile = !Files.exists(results);
+        try (BufferedWriter writer = Files.newBufferedWriter(results, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (newFile) {
+                writer.write(RESULTS_HEADER);
+                writer.newLine();
+            }
+            List<List<AICommand>> population = start.population();
+            List<AICommand> best = population.get(0);
+            for (int generation = start.generation(); generation < generations; generation++) {
+                List<Double> fitness = evaluate(population);
+                List<Integer> ranking = rank(fitness);
+                best = population.get(ranking.get(0));
+                double bestFitness = fitness.get(ranking.get(0));
+                double meanFitness = fitness.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+                writer.write(String.format(Locale.ROOT, RESULT_FORMAT, generation, bestFitness, meanFitness,
+                        AIProgramParser.format(best)));
+                writer.newLine();
+                writer.flush();
+                System.out.println(String.format(Locale.ROOT, PROGRESS_FORMAT, generation, bestFitness, meanFitness));
+                
+                population = breed(population, ranking, generation);
+                new Checkpoint(settings, generation + 1, referencePool, population).write(checkpointFile);
+            }
+            System.out.println(BEST_FORMAT.formatted(AIProgramParser.format(best)));
+        }
+    }
+    
+    /**
+     * Evaluates all programs in parallel. The order of the scores matches the order of the programs.
+     */
+    private List<Double> evaluate(List<List<AICommand>> population) throws ExecutionException, InterruptedException {
+        List<Callable<Double>> tasks = new ArrayList<>();
+        for (List<AICommand> program : population) {
+            tasks.add(() -> evaluator.evaluate(program));
+        }
+        List<Double> fitness = new ArrayList<>();
+        for (Future<Double> result : workers.invokeAll(tasks)) {
+            fitness.add(result.get());
+        }
+        return fitness;
+    }
+    
+    /**
+     * Sorts the indices of the programs by descending fitness. Equal fitness keeps the population order.
+     */
+    private static List<Integer> rank(List<Double> fitness) {
+        List<Integer> ranking = new ArrayList<>();
+        for (int i = 0; i < fitness.size(); i++) {
+            ranking.add(i);
+        }
+        ranking.sort(Comparator.comparing(fitness::get, Comparator.reverseOrder()));
+        return ranking;
+    }
+    
+    private List<List<AICommand>> breed(List<List<AICommand>> population, List<Integer> ranking, int generation) {
+        Random random = new Random(settings.seed() ^ (generation + 1) * GENERATION_SEED_MIX);
+        List<List<AICommand>> next = new ArrayList<>();
+        for (int i = 0; i < settings.eliteCount(); i++) {
+            next.add(population.get(ranking.get(i)));
+        }
+        while (next.size() < settings.populationSize()) {
+            List<AICommand> child = population.get(selectParent(ranking, random));
+            if (random.nextDouble() < CROSSOVER_CHANCE) {
+                child = mutator.crossover(child, population.get(selectParent(ranking, random)), random);
+            }
+            next.add(mutator.mutate(child, random));
+        }
+        return next;
+    }
+    
+    /**
+     * Tournament selection: the best of a few random programs. Uses the rank, so the fitness scale does not matter.
+     */
+    private static int selectParent(List<Integer> ranking, Random random) {
+        int bestRank = ranking.size();
+        for (int i = 0; i < TOURNAMENT_SIZE; i++) {
+            bestRank = Math.min(bestRank, random.nextInt(ranking.size()));
+        }
+        return ranking.get(bestRank);
+    }
+    
+    private static List<List<AICommand>> createInitialPopulation(EvolverSettings settings) {
+        Random random = new Random(settings.seed());
+        ProgramMutator mutator = new ProgramMutator(settings.memorySize());
+        List<List<AICommand>> population = new ArrayList<>();
+        for (int i = 0; i < settings.populationSize(); i++) {
+            population.add(mutator.createRandom(random));
+        }
+        return population;
+    }
+    
+    private static List<NamedProgram> readReferencePool(Optional<String> file, int memorySize) throws IOException {
+        List<String[]> entries = new ArrayList<>();
+        if (file.isEmpty()) {
+            entries.addAll(List.of(DEFAULT_POOL));
+        } else {
+            for (String line : Files.readAllLines(Path.of(file.get()), StandardCharsets.UTF_8)) {
+                if (!line.isBlank() && !line.startsWith(COMMENT_PREFIX)) {
+                    entries.add(line.trim().split(POOL_SEPARATOR_REGEX));
+                }
+            }
+        }
+        List<NamedProgram> pool = new ArrayList<>();
+        for (String[] entry : entries) {
+            Optional<List<AICommand>> program = entry.length == POOL_FIELDS ? AIProgramParser.parse(entry[1]) : Optional.empty();
+            if (program.isEmpty() || AIProgramParser.validate(program.get(), memorySize).isPresent()) {
+                throw new IOException(ERROR_INVALID_REFERENCE.formatted(ERROR_PREFIX, String.join(" ", entry)));
+            }
+            pool.add(new NamedProgram(entry[0], program.get()));
+        }
+        return pool;
+    }
+}
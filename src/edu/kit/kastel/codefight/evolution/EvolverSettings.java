@@ -0,0 +1,35 @@
+package edu.kit.kastel.codefight.evolution;
+
+/**
+ * The settings of an evolution run. Stored in every checkpoint, so a resumed run continues exactly as the original.
+ *
+ * @param memorySize The memory size every match is played on.
+ * @param populationSize The amount of programs per generation.
+ * @param seed The seed of the run. Every generation derives its own random generator from it.
+ * @param maxSteps The maximum amount of steps of a single match.
+ * @param matchSeeds The amount of random memory initializations every pairing is played on.
+ * @param eliteCount The amount of best programs that are copied into the next generation unchanged.
+ * @author uwwfh
+ */
+public record EvolverSettings(int memorySize, int populationSize, long seed, int maxSteps, int matchSeeds, int eliteCount) {
+    
+    private static final String ERROR_INVALID_SETTINGS = "population, steps and match seeds must be positive "
+            + "and the elite must not be larger than the population";
+    
+    /**
+     * Constructs new settings.
+     *
+     * @param memorySize The memory size every match is played on.
+     * @param populationSize The amount of programs per generation.
+     * @param seed The seed of the run. Every generation derives its own random generator from it.
+     * @param maxSteps The maximum amount of steps of a single match.
+     * @param matchSeeds The amount of random memory initializations every pairing is played on.
+     * @param eliteCount The amount of best programs that are copied into the next generation unchanged.
+     * @throws IllegalArgumentException If any of the amounts is out of range.
+     */
+    public EvolverSettings {
+        if (populationSize <= 0 || maxSteps <= 0 || matchSeeds <= 0 || eliteCount < 0 || eliteCount > populationSize) {
+            throw new IllegalArgumentException(ERROR_INVALID_SETTINGS);
+        }
+    }
+}
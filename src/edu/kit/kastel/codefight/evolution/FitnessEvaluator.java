@@ -0,0 +1,136 @@
+package edu.kit.kastel.codefight.evolution;
+
+import edu.kit.kastel.codefight.aicommands.AICommand;
+import edu.kit.kastel.codefight.model.AIPlayer;
+import edu.kit.kastel.codefight.model.AIPrintWrapper;
+import edu.kit.kastel.codefight.model.Codefight;
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.model.MemoryInitType;
+import edu.kit.kastel.codefight.sweep.LockstepGames;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Scores a program by playing it against every program of a reference pool. Every pairing is played
+ * on several random memory initializations and with both seatings, since the first AI moves first.
+ * <p></p>
+ * Every evaluation plays in its own {@link CodefightSession session} without output, so any amount of
+ * evaluations can run in parallel. Matches only depend on the programs and the settings, so the score
+ * of a program is always the same.
+ * <p></p>
+ * With lockstep evaluation, the seeds of a pairing and seating are played together on {@link LockstepGames}
+ * instead of a session per seed. The scores are exactly the same, only faster.
+ *
+ * @author uwwfh
+ */
+final class FitnessEvaluator {
+    
+    private static final String CANDIDATE_NAME = "candidate";
+    private static final String REFERENCE_NAME = "reference";
+    private static final String[] MEMORY_SYMBOLS = {".", "[", "*", "+"};
+    private static final List<AIPrintWrapper> PRINT_WRAPPERS = List.of(new AIPrintWrapper("a", "A"), new AIPrintWrapper("b", "B"));
+    private static final int WIN_POINTS = 2;
+    private static final int DRAW_POINTS = 1;
+    private static final int FIRST_MATCH_SEED = 1;
+    private static final int SINGLE_STEP = 1;
+    private static final int MIN_DECIDING_ALIVE = 2;
+    private static final int CANDIDATE_INDEX = 0;
+    private static final int REFERENCE_INDEX = 1;
+    
+    private final EvolverSettings settings;
+    private final List<NamedProgram> referencePool;
+    private final PrintStream silentOutput;
+    private final boolean lockstep;
+    private final long[] matchSeeds;
+    
+    /**
+     * Creates a new evaluator.
+     * @param settings The settings of the run.
+     * @param referencePool The programs every candidate plays against.
+     * @param lockstep If the seeds of a pairing are played in lockstep.
+     */
+    FitnessEvaluator(EvolverSettings settings, List<NamedProgram> referencePool, boolean lockstep) {
+        this.settings = settings;
+        this.referencePool = List.copyOf(referencePool);
+        this.silentOutput = new PrintStream(OutputStream.nullOutputStream());
+        this.lockstep = lockstep;
+        this.matchSeeds = new long[settings.matchSeeds()];
+        for (int i = 0; i < matchSeeds.length; i++) {
+            matchSeeds[i] = FIRST_MATCH_SEED + i;
+        }
+    }
+    
+    /**
+     * Evaluates a program. A win scores two points, a draw, so both AIs are still running after the maximum
+     * amount of steps, one point. A match that cannot be set up, because the programs do not fit into the memory,
+     * is lost.
+     * @param candidate The program to evaluate.
+     * @return The score between 0 and 1, the share of the maximum amount of points.
+     */
+    double evaluate(List<AICommand> candidate) {
+        int points = 0;
+        int matches = 0;
+        for (NamedProgram reference : referencePool) {
+            if (lockstep) {
+                points += playLockstep(List.of(candidate, reference.program()), CANDIDATE_INDEX, REFERENCE_INDEX);
+                points += playLockstep(List.of(reference.program(), candidate), REFERENCE_INDEX, CANDIDATE_INDEX);
+                matches += 2 * matchSeeds.length;
+                continue;
+            }
+            CodefightSession session = new CodefightSession(settings.memorySize(), MEMORY_SYMBOLS, PRINT_WRAPPERS,
+                    silentOutput, silentOutput);
+            session.addAI(new AIPlayer(CANDIDATE_NAME, candidate));
+            session.addAI(new AIPlayer(REFERENCE_NAME, reference.program()));
+            for (int seed = FIRST_MATCH_SEED; seed < FIRST_MATCH_SEED + settings.matchSeeds(); seed++) {
+                session.setMemoryInitType(MemoryInitType.INIT_MODE_RANDOM, seed);
+                points += play(session, CANDIDATE_NAME, REFERENCE_NAME);
+                points += play(session, REFERENCE_NAME, CANDIDATE_NAME);
+                matches += 2;
+            }
+        }
+        return (double) points / (matches * WIN_POINTS);
+    }
+    
+    /**
+     * Plays a seating on every match seed in lockstep, with the same rules as {@link #play(CodefightSession, String, String)}.
+     */
+    private int playLockstep(List<List<AICommand>> programs, int candidateIndex, int referenceIndex) {
+        LockstepGames games = new LockstepGames(settings.memorySize(), MemoryInitType.INIT_MODE_RANDOM, matchSeeds, programs);
+        if (!games.wasSetupSuccess()) {
+            return 0;
+        }
+        games.play(settings.maxSteps(), MIN_DECIDING_ALIVE);
+        int points = 0;
+        for (int lane = 0; lane < games.getLaneCount(); lane++) {
+            boolean candidateAlive = !games.isDead(lane, candidateIndex);
+            boolean referenceAlive = !games.isDead(lane, referenceIndex);
+            if (candidateAlive && referenceAlive) {
+                points += DRAW_POINTS;
+            } else if (candidateAlive) {
+                points += WIN_POINTS;
+            }
+        }
+        return points;
+    }
+    
+    private int play(CodefightSession session, String firstAI, String secondAI) {
+        Codefight game = new Codefight(session, firstAI, secondAI);
+        if (!game.wasSetupSuccess()) {
+            return 0;
+        }
+        session.playCodefight(game);
+        // A game only ends once every AI stopped, but the match is decided as soon as a single AI is left
+        for (int step = 0; step < settings.maxSteps() && game.getAliveAICount() > 1; step++) {
+            session.next(SINGLE_STEP);
+        }
+        boolean candidateAlive = !game.getPlayingAIbyName(CANDIDATE_NAME).orElseThrow().isDead();
+        boolean referenceAlive = !game.getPlayingAIbyName(REFERENCE_NAME).orElseThrow().isDead();
+        session.endGame();
+        if (candidateAlive && referenceAlive) {
+            return DRAW_POINTS;
+        }
+        return candidateAlive ? WIN_POINTS : 0;
+    }
+}
@@ -0,0 +1,25 @@
+package edu.kit.kastel.codefight.evolution;
+
+import edu.kit.kastel.codefight.aicommands.AICommand;
+
+import java.util.List;
+
+/**
+ * An AI program with the name it plays under.
+ *
+ * @param name The name of the AI.
+ * @param program The instructions of the AI.
+ * @author uwwfh
+ */
+public record NamedProgram(String name, List<AICommand> program) {
+    
+    /**
+     * Constructs a new named program.
+     *
+     * @param name The name of the AI.
+     * @param program The instructions of the AI.
+     */
+    public NamedProgram {
+        program = List.copyOf(program);
+    }
+}
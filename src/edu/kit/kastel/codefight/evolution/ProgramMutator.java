@@ -0,0 +1,145 @@
+package edu.kit.kastel.codefight.evolution;
+
+import edu.kit.kastel.codefight.aicommands.AICommand;
+import edu.kit.kastel.codefight.aicommands.AICommandFactory;
+import edu.kit.kastel.codefight.aicommands.AICommandType;
+import edu.kit.kastel.codefight.aicommands.AIProgramParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates, mutates and crosses over AI programs. Every program this class returns passes
+ * {@link AIProgramParser#validate(List, int)}, the same rules the add-ai command applies.
+ *
+ * @author uwwfh
+ */
+final class ProgramMutator {
+    
+    private static final int MAX_INITIAL_LENGTH = 8;
+    private static final int MAX_ATTEMPTS = 16;
+    private static final double STRUCTURAL_MUTATION_CHANCE = 0.2;
+    private static final double ARGUMENT_TWEAK_CHANCE = 0.7;
+    private static final int MAX_ARGUMENT_TWEAK = 3;
+    private static final int ARGUMENT_MUTATIONS = 3;
+    private static final int MUTATE_TYPE = 0;
+    private static final int MUTATE_ARGUMENT_A = 1;
+    private static final double MAX_MEMORY_SHARE = 2.0;
+    
+    private final int memorySize;
+    private final AICommandType[] types;
+    
+    /**
+     * Creates a new mutator for programs played on a memory of the given size.
+     * @param memorySize The memory size.
+     */
+    ProgramMutator(int memorySize) {
+        this.memorySize = memorySize;
+        this.types = AICommandType.values();
+    }
+    
+    /**
+     * Creates a random valid program.
+     * @param random The random generator.
+     * @return The new program.
+     */
+    List<AICommand> createRandom(Random random) {
+        int maxLength = Math.min(MAX_INITIAL_LENGTH, getMaxLength());
+        while (true) {
+            List<AICommand> program = new ArrayList<>();
+            int length = 1 + random.nextInt(maxLength);
+            for (int i = 0; i < length; i++) {
+                program.add(randomInstruction(random));
+            }
+            if (isValid(program)) {
+                return program;
+            }
+        }
+    }
+    
+    /**
+     * Mutates a program: changes the type or an argument of a single instruction and sometimes
+     * inserts or removes an instruction.
+     * @param program The program to mutate, not changed.
+     * @param random The random generator.
+     * @return The mutated program, or a copy of the original if no valid mutation was found.
+     */
+    List<AICommand> mutate(List<AICommand> program, Random random) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            List<AICommand> mutated = new ArrayList<>(program);
+            if (random.nextDouble() < STRUCTURAL_MUTATION_CHANCE) {
+                if (random.nextBoolean() && mutated.size() > 1) {
+                    mutated.remove(random.nextInt(mutated.size()));
+                } else {
+                    mutated.add(random.nextInt(mutated.size() + 1), randomInstruction(random));
+                }
+            } else {
+                int index = random.nextInt(mutated.size());
+                mutated.set(index, mutateInstruction(mutated.get(index), random));
+            }
+            if (isValid(mutated)) {
+                return mutated;
+            }
+        }
+        return new ArrayList<>(program);
+    }
+    
+    /**
+     * Combines two programs with a one point crossover: the start of the first parent followed by the end of the second.
+     * @param first The first parent, not changed.
+     * @param second The second parent, not changed.
+     * @param random The random generator.
+     * @return The child, or a copy of the first parent if no valid child was found.
+     */
+    List<AICommand> crossover(List<AICommand> first, List<AICommand> second, Random random) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int firstCut = random.nextInt(first.size() + 1);
+            int secondCut = random.nextInt(second.size() + 1);
+            List<AICommand> child = new ArrayList<>(first.subList(0, firstCut));
+            child.addAll(second.subList(secondCut, second.size()));
+            if (isValid(child)) {
+                return child;
+            }
+        }
+        return new ArrayList<>(first);
+    }
+    
+    private AICommand mutateInstruction(AICommand instruction, Random random) {
+        AICommandType type = instruction.getType();
+        int argumentA = instruction.getFirstArgument();
+        int argumentB = instruction.getSecondArgument();
+        switch (random.nextInt(ARGUMENT_MUTATIONS)) {
+            case MUTATE_TYPE -> type = types[random.nextInt(types.length)];
+            case MUTATE_ARGUMENT_A -> argumentA = mutateArgument(argumentA, random);
+            default -> argumentB = mutateArgument(argumentB, random);
+        }
+        return AICommandFactory.createCommand(type, argumentA, argumentB);
+    }
+    
+    private int mutateArgument(int argument, Random random) {
+        if (random.nextDouble() < ARGUMENT_TWEAK_CHANCE) {
+            return argument + random.nextInt(2 * MAX_ARGUMENT_TWEAK + 1) - MAX_ARGUMENT_TWEAK;
+        }
+        return randomArgument(random);
+    }
+    
+    private AICommand randomInstruction(Random random) {
+        return AICommandFactory.createCommand(types[random.nextInt(types.length)], randomArgument(random), randomArgument(random));
+    }
+    
+    /**
+     * Arguments are addresses relative to the AI, so values beyond the memory size only repeat smaller ones.
+     */
+    private int randomArgument(Random random) {
+        return random.nextInt(2 * memorySize + 1) - memorySize;
+    }
+    
+    private int getMaxLength() {
+        return (int) Math.ceil(memorySize / MAX_MEMORY_SHARE);
+    }
+    
+    private boolean isValid(List<AICommand> program) {
+        return !program.isEmpty() && AIProgramParser.validate(program, memorySize).isEmpty();
+    }
+}
@@ -0,0 +1,229 @@
+package edu.kit.kastel.codefight.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * The metrics registry of the Codefight engine. Collects counters about executed steps, cell writes,
+ * alive AIs, memory resets and user commands.
+ * <p></p>
+ * All counters are striped {@link LongAdder LongAdders}, so recording is cheap and does not contend
+ * between threads. Rates are computed lazily when read, over a sampling window of at least one second.
+ * The alive AIs are no counter: they are summed over the registered live games when read, so a game that is
+ * discarded or whose session is closed without ending it stops counting as soon as it is unregistered.
+ *
+ * @author uwwfh
+ */
+public final class EngineMetrics implements EngineMetricsMBean {
+    
+    /**
+     * The JMX object name under which the metrics are registered.
+     */
+    public static final String OBJECT_NAME = "edu.kit.kastel.codefight:type=EngineMetrics";
+    
+    private static final long SAMPLING_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final double NANOS_PER_MICRO = TimeUnit.MICROSECONDS.toNanos(1);
+    
+    private static final LongAdder TOTAL_STEPS = new LongAdder();
+    private static final LongAdder TOTAL_CELL_WRITES = new LongAdder();
+    private static final Set<IntSupplier> LIVE_GAMES = ConcurrentHashMap.newKeySet();
+    private static final LongAdder RESET_COUNT = new LongAdder();
+    private static final LongAdder RESET_NANOS = new LongAdder();
+    private static final LongAdder COMMAND_COUNT = new LongAdder();
+    private static final LongAdder COMMAND_NANOS = new LongAdder();
+    
+    private static final RateSampler STEP_RATE = new RateSampler(TOTAL_STEPS);
+    private static final RateSampler CELL_WRITE_RATE = new RateSampler(TOTAL_CELL_WRITES);
+    
+    private static boolean registered = false;
+    
+    private EngineMetrics() { }
+    
+    /**
+     * Registers the metrics as MBean at the platform MBean server.
+     * Registering more than once has no effect.
+     * @throws IllegalStateException If the MBean could not be registered.
+     */
+    public static synchronized void register() {
+        if (registered) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(new EngineMetrics(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException ignored) {
+            // Registered by another class loader of the same JVM, values are still exposed
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+        registered = true;
+    }
+    
+    /**
+     * Records a number of executed AI steps.
+     * @param steps The amount of steps.
+     */
+    public static void recordSteps(long steps) {
+        TOTAL_STEPS.add(steps);
+    }
+    
+    /**
+     * Records a single memory cell written by an AI.
+     */
+    public static void recordCellWrite() {
+        TOTAL_CELL_WRITES.increment();
+    }
+    
+    /**
+     * Registers a live game, so its alive AIs count until it is {@link #unregisterLiveGame(IntSupplier) unregistered}.
+     * The amount is read without any lock of the game whenever the metrics are read.
+     * @param aliveAIs Supplies the amount of alive AIs of the game.
+     */
+    public static void registerLiveGame(IntSupplier aliveAIs) {
+        LIVE_GAMES.add(aliveAIs);
+    }
+    
+    /**
+     * Unregisters a live game that ended or is discarded. Does nothing if it is not registered.
+     * @param aliveAIs The supplier the game was registered with.
+     */
+    public static void unregisterLiveGame(IntSupplier aliveAIs) {
+        LIVE_GAMES.remove(aliveAIs);
+    }
+    
+    /**
+     * Records a memory reset and the time it took.
+     * @param nanos The duration of the reset in nanoseconds.
+     */
+    public static void recordReset(long nanos) {
+        RESET_COUNT.increment();
+        RESET_NANOS.add(nanos);
+    }
+    
+    /**
+     * Records an executed user command and the time it took.
+     * @param nanos The duration of the command in nanoseconds.
+     */
+    public static void recordCommand(long nanos) {
+        COMMAND_COUNT.increment();
+        COMMAND_NANOS.add(nanos);
+    }
+    
+    @Override
+    public long getTotalSteps() {
+        return TOTAL_STEPS.sum();
+    }
+    
+    @Override
+    public double getStepsPerSecond() {
+        return STEP_RATE.getRate();
+    }
+    
+    @Override
+    public long getAliveAICount() {
+        long alive = 0;
+        for (IntSupplier game : LIVE_GAMES) {
+            alive += game.getAsInt();
+        }
+        return alive;
+    }
+    
+    @Override
+    public long getTotalCellWrites() {
+        return TOTAL_CELL_WRITES.sum();
+    }
+    
+    @Override
+    public double getCellWritesPerSecond() {
+        return CELL_WRITE_RATE.getRate();
+    }
+    
+    @Override
+    public long getResetCount() {
+        return RESET_COUNT.sum();
+    }
+    
+    @Override
+    public double getAverageResetLatencyMicros() {
+        return average(RESET_NANOS, RESET_COUNT) / NANOS_PER_MICRO;
+    }
+    
+    @Override
+    public long getCommandCount() {
+        return COMMAND_COUNT.sum();
+    }
+    
+    @Override
+    public double getAverageCommandLatencyMicros() {
+        return average(COMMAND_NANOS, COMMAND_COUNT) / NANOS_PER_MICRO;
+    }
+    
+    /**
+     * Gets the total time spent resetting memory, in seconds.
+     * @return The total reset time.
+     */
+    static double getTotalResetSeconds() {
+        return RESET_NANOS.sum() / NANOS_PER_SECOND;
+    }
+    
+    /**
+     * Gets the total time spent executing user commands, in seconds.
+     * @return The total command time.
+     */
+    static double getTotalCommandSeconds() {
+        return COMMAND_NANOS.sum() / NANOS_PER_SECOND;
+    }
+    
+    /**
+     * Gets the read-only view on the metrics.
+     * @return The metrics view.
+     */
+    static EngineMetricsMBean getView() {
+        return new EngineMetrics();
+    }
+    
+    private static double average(LongAdder total, LongAdder count) {
+        long amount = count.sum();
+        return amount == 0 ? 0 : (double) total.sum() / amount;
+    }
+    
+    /**
+     * Computes the rate of a monotonic counter over a sampling window. The window is only
+     * rolled over when read, so there is no background thread.
+     */
+    private static final class RateSampler {
+        
+        private final LongAdder counter;
+        private long windowStartNanos;
+        private long windowStartValue;
+        private double lastRate;
+        
+        RateSampler(LongAdder counter) {
+            this.counter = counter;
+            this.windowStartNanos = System.nanoTime();
+            this.windowStartValue = 0;
+            this.lastRate = 0;
+        }
+        
+        synchronized double getRate() {
+            long now = System.nanoTime();
+            long elapsed = now - windowStartNanos;
+            if (elapsed >= SAMPLING_WINDOW_NANOS) {
+                long value = counter.sum();
+                lastRate = (value - windowStartValue) * NANOS_PER_SECOND / elapsed;
+                windowStartNanos = now;
+                windowStartValue = value;
+            }
+            return lastRate;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package edu.kit.kastel.codefight.metrics;
+
+/**
+ * The JMX management interface of the {@link EngineMetrics engine metrics}.
+ * All values are read-only and reflect the whole JVM, not a single game.
+ *
+ * @author uwwfh
+ */
+public interface EngineMetricsMBean {
+    
+    /**
+     * Gets the total amount of AI steps executed since startup.
+     * @return The total amount of steps.
+     */
+    long getTotalSteps();
+    
+    /**
+     * Gets the amount of AI steps executed per second, averaged over the last sampling window.
+     * @return The steps per second.
+     */
+    double getStepsPerSecond();
+    
+    /**
+     * Gets the amount of AIs that are currently alive in any running game.
+     * @return The amount of alive AIs.
+     */
+    long getAliveAICount();
+    
+    /**
+     * Gets the total amount of memory cells written by AIs since startup.
+     * @return The total amount of cell writes.
+     */
+    long getTotalCellWrites();
+    
+    /**
+     * Gets the amount of memory cells written by AIs per second, averaged over the last sampling window.
+     * @return The cell writes per second.
+     */
+    double getCellWritesPerSecond();
+    
+    /**
+     * Gets the amount of memory resets, so started games, since startup.
+     * @return The amount of memory resets.
+     */
+    long getResetCount();
+    
+    /**
+     * Gets the average time a memory reset took, in microseconds.
+     * @return The average reset latency.
+     */
+    double getAverageResetLatencyMicros();
+    
+    /**
+     * Gets the amount of user commands executed since startup.
+     * @return The amount of executed user commands.
+     */
+    long getCommandCount();
+    
+    /**
+     * Gets the average time a user command took to execute, in microseconds.
+     * @return The average command latency.
+     */
+    double getAverageCommandLatencyMicros();
+}
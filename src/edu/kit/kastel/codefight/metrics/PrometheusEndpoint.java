@@ -0,0 +1,115 @@
+package edu.kit.kastel.codefight.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Serves the {@link EngineMetrics engine metrics} in the Prometheus text exposition format.
+ * The endpoint is bound to the loopback address only and answers on {@value #METRICS_PATH}.
+ *
+ * @author uwwfh
+ */
+public final class PrometheusEndpoint {
+    
+    /**
+     * The path the metrics are served on.
+     */
+    public static final String METRICS_PATH = "/metrics";
+    
+    private static final String CONTENT_TYPE_HEADER = "Content-Type";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final String METHOD_GET = "GET";
+    private static final int STATUS_OK = 200;
+    private static final int STATUS_METHOD_NOT_ALLOWED = 405;
+    private static final int NO_RESPONSE_BODY = -1;
+    private static final int DEFAULT_BACKLOG = 0;
+    private static final int STOP_DELAY_SECONDS = 0;
+    
+    private static final String METRIC_FORMAT = "# HELP %1$s %2$s\n# TYPE %1$s %3$s\n%1$s %4$s\n";
+    private static final String TYPE_COUNTER = "counter";
+    private static final String TYPE_GAUGE = "gauge";
+    
+    private static HttpServer server;
+    
+    private PrometheusEndpoint() { }
+    
+    /**
+     * Starts the endpoint on the given port of the loopback address.
+     * Does nothing if the endpoint is already running.
+     * @param port The port to listen on.
+     * @throws IOException If the port could not be bound.
+     */
+    public static synchronized void start(int port) throws IOException {
+        if (server != null) {
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), DEFAULT_BACKLOG);
+        server.createContext(METRICS_PATH, PrometheusEndpoint::handle);
+        server.start();
+    }
+    
+    /**
+     * Stops the endpoint if it is running.
+     */
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(STOP_DELAY_SECONDS);
+            server = null;
+        }
+    }
+    
+    /**
+     * Renders all metrics in the Prometheus text format.
+     * @return The metrics page.
+     */
+    public static String render() {
+        EngineMetricsMBean metrics = EngineMetrics.getView();
+        StringBuilder page = new StringBuilder();
+        appendMetric(page, "codefight_steps_total", "Total number of executed AI steps.",
+                TYPE_COUNTER, metrics.getTotalSteps());
+        appendMetric(page, "codefight_steps_per_second", "AI steps executed per second.",
+                TYPE_GAUGE, metrics.getStepsPerSecond());
+        appendMetric(page, "codefight_alive_ais", "Number of alive AIs in all running games.",
+                TYPE_GAUGE, metrics.getAliveAICount());
+        appendMetric(page, "codefight_cell_writes_total", "Total number of memory cells written by AIs.",
+                TYPE_COUNTER, metrics.getTotalCellWrites());
+        appendMetric(page, "codefight_cell_writes_per_second", "Memory cells written by AIs per second.",
+                TYPE_GAUGE, metrics.getCellWritesPerSecond());
+        appendMetric(page, "codefight_resets_total", "Total number of memory resets.",
+                TYPE_COUNTER, metrics.getResetCount());
+        appendMetric(page, "codefight_reset_seconds_total", "Total time spent resetting memory.",
+                TYPE_COUNTER, EngineMetrics.getTotalResetSeconds());
+        appendMetric(page, "codefight_commands_total", "Total number of executed user commands.",
+                TYPE_COUNTER, metrics.getCommandCount());
+        appendMetric(page, "codefight_command_seconds_total", "Total time spent executing user commands.",
+                TYPE_COUNTER, EngineMetrics.getTotalCommandSeconds());
+        return page.toString();
+    }
+    
+    private static void appendMetric(StringBuilder page, String name, String help, String type, Object value) {
+        String formattedValue = value instanceof Double ? String.format(Locale.ROOT, "%f", value) : String.valueOf(value);
+        page.append(METRIC_FORMAT.formatted(name, help, type, formattedValue));
+    }
+    
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!METHOD_GET.equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(STATUS_METHOD_NOT_ALLOWED, NO_RESPONSE_BODY);
+                return;
+            }
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set(CONTENT_TYPE_HEADER, CONTENT_TYPE);
+            exchange.sendResponseHeaders(STATUS_OK, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        }
+    }
+}
@@ -22,9 +22,10 @@ public final class AIPlayer {
     private String name;
     private final List<AICommand> instructions;
     private int memoryPtr;
-    private int moveCounter;
+    private long moveCounter;
     private boolean isDead;
     private AIPrintWrapper printWrapper;
+    private Memory memory;
     
     /**
      * Constructs a new AI Player with the specified name and instructions.
@@ -47,6 +48,7 @@ public AIPlayer(AIPlayer player) {
         this.name = player.getAIName();
         this.instructions = player.getInstructions();
         this.printWrapper = player.getPrintWrapper();
+        this.memory = player.memory;
         this.isDead = player.isDead;
         this.moveCounter = player.moveCounter;
         this.memoryPtr = player.memoryPtr;
@@ -77,6 +79,22 @@ void setPrintWrapper(AIPrintWrapper printWrapper) {
         this.printWrapper = printWrapper;
     }
     
+    /**
+     * Gets the memory this AI is playing on. Null if the AI is not part of a game.
+     * @return The memory of the AI's game.
+     */
+    public Memory getMemory() {
+        return memory;
+    }
+    
+    /**
+     * Sets the memory this AI is playing on.
+     * @param memory The memory of the AI's game.
+     */
+    void setMemory(Memory memory) {
+        this.memory = memory;
+    }
+    
     /**
      * Resets the player's move counter and alive status.
      */
@@ -86,6 +104,18 @@ void reset() {
         isDead = false;
     }
     
+    /**
+     * Restores the state of the AI in a resumed game.
+     * @param ptr The memory pointer, must be sanitized.
+     * @param moves The amount of moves played.
+     * @param dead If the AI is dead.
+     */
+    void restore(int ptr, long moves, boolean dead) {
+        this.memoryPtr = ptr;
+        this.moveCounter = moves;
+        this.isDead = dead;
+    }
+    
     /**
      * If the AI is dead.
      * @return If the AI is dead.
@@ -97,11 +127,18 @@ public boolean isDead() {
     /**
      * Sets the AI to dead. Will stop increasing
      * the move counter when dead.
-     * Also prints the current status of the AI.
+     * The game prints the {@link #getPerishMessage() perish message} afterwards.
      */
     public void kill() {
         this.isDead = true;
-        System.out.printf(PERISH_MESSAGE.formatted(getAIName(), getMoveCount()));
+    }
+    
+    /**
+     * Gets the message that is printed when the AI dies, containing the steps it executed.
+     * @return The perish message.
+     */
+    String getPerishMessage() {
+        return PERISH_MESSAGE.formatted(getAIName(), getMoveCount());
     }
     
     /**
@@ -126,7 +163,7 @@ public int getMemoryPtr() {
      * @param ptr The new memory pointer.
      */
     public void setMemoryPtr(int ptr) {
-        this.memoryPtr = Memory.sanitizeAddress(ptr);
+        this.memoryPtr = memory.sanitizeAddress(ptr);
     }
     
     /**
@@ -140,7 +177,7 @@ public void moveByOne() {
      * Gets the amount of moves the AI has played in its current game.
      * @return The amount of moves so far.
      */
-    int getMoveCount() {
+    public long getMoveCount() {
         return moveCounter;
     }
     
@@ -196,6 +233,6 @@ public boolean equals(Object obj) {
     public String toString() {
         return isDead() ? AI_STRING_FORMAT_DEAD.formatted(getAIName(), getMoveCount())
                 : AI_STRING_FORMAT_ALIVE.formatted(getAIName(), getMoveCount(),
-                AICommandFactory.commandToString(Codefight.getMemory().readMemory(getMemoryPtr()).getCommand()), getMemoryPtr());
+                AICommandFactory.commandToString(memory.readMemory(getMemoryPtr()).getCommand()), getMemoryPtr());
     }
 }
@@ -0,0 +1,394 @@
+package edu.kit.kastel.codefight.model;
+
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.function.LongConsumer;
+
+/**
+ * Plays steps of a game on a worker pool, while the commands of the session stay responsive.
+ * <p></p>
+ * The steps are played in chunks, each while holding the {@link CodefightSession#getGameLock() lock of the game}.
+ * Commands on the game hold the same lock while they execute, so the worker and the commands take turns at chunk
+ * boundaries: a command always sees the state after a whole chunk and never a half played one. The lock is fair,
+ * so a waiting command gets it as soon as the current chunk is done. The chunk size adapts to take about
+ * {@value #TARGET_CHUNK_MILLIS} milliseconds, which keeps the hand-off cheap compared to the chunk and the wait
+ * for a command short.
+ * <p></p>
+ * Every chunk is a task of a worker pool that all runs of the JVM share, with a thread per processor. A chunk
+ * schedules the next one when it is done, so the runs of several games take turns on the pool and advance
+ * in parallel, while a paused run does not occupy a thread at all. The output of a run, including the perish
+ * messages of its game, is collected while a chunk plays and printed after the chunk while holding the {@link CodefightSession#getLock() lock of the session}, so it never interleaves with the output
+ * of a command, and handed to the {@link SessionOutputListener output listener} of the session right away. While
+ * the listener is backlogged, the run plays nothing and checks again after {@value #TARGET_CHUNK_MILLIS}
+ * milliseconds, so a slow reader of the output limits how much of it is buffered. A playback keeps playing in real
+ * time instead and drops its frames while the output is backlogged.
+ * <p></p>
+ * A run plays a given amount of steps, or as many as fit into a time budget. The budget only counts the time the run
+ * was not paused and is checked while playing, see {@link Codefight#next(long, long)}. A playback run instead plays
+ * its steps at the rate of a {@link PlaybackScheduler} and shows the memory at its frame rate, each chunk is
+ * scheduled for when the next step or frame is due.
+ * <p></p>
+ * Pausing and resuming must be done while holding the lock of the game, the state getters must only be used while
+ * holding it.
+ *
+ * @author uwwfh
+ */
+public final class BackgroundRun {
+    
+    private static final String THREAD_NAME = "codefight-background-run-%d";
+    private static final String FINISHED_FORMAT = "The background run finished after %d steps.%n";
+    private static final String FRAME_FORMAT = "Step %d: %s%n";
+    private static final int TARGET_CHUNK_MILLIS = 10;
+    private static final long TARGET_CHUNK_NANOS = TARGET_CHUNK_MILLIS * 1_000_000L;
+    private static final int INITIAL_CHUNK_STEPS = 1024;
+    private static final int MAX_CHUNK_STEPS = 1 << 24;
+    private static final double NANOS_PER_SECOND = 1e9;
+    
+    private final CodefightSession session;
+    private final Codefight game;
+    private final Lock lock;
+    private final long steps;
+    private final long budgetNanos;
+    private final PlaybackScheduler playback;
+    private final LongConsumer chunkListener;
+    private final Queue<String> pendingOutput;
+    private final CountDownLatch stopped;
+    private volatile boolean paused;
+    private volatile boolean cancelled;
+    private boolean finished;
+    private boolean scheduled;
+    private long doneSteps;
+    private long activeNanos;
+    private long activeSince;
+    private int chunkSteps;
+    private long waitNanos;
+    
+    /**
+     * Creates a run that is not started yet.
+     * @param session The session of the game.
+     * @param game The game to play.
+     * @param lock The lock of the game.
+     * @param steps The amount of steps to play, {@link Long#MAX_VALUE} to play until the time budget is used up.
+     * @param budgetNanos The time budget in nanoseconds, {@link Long#MAX_VALUE} for no budget.
+     * @param playback The schedule of a playback, or null to play as fast as possible.
+     * @param chunkListener Receives the amount of steps of every played chunk, while the lock is held.
+     */
+    BackgroundRun(CodefightSession session, Codefight game, Lock lock, long steps, long budgetNanos,
+                  PlaybackScheduler playback, LongConsumer chunkListener) {
+        this.session = session;
+        this.game = game;
+        this.lock = lock;
+        this.steps = steps;
+        this.budgetNanos = budgetNanos;
+        this.playback = playback;
+        this.chunkListener = chunkListener;
+        this.chunkSteps = INITIAL_CHUNK_STEPS;
+        this.pendingOutput = new ConcurrentLinkedQueue<>();
+        this.stopped = new CountDownLatch(1);
+    }
+    
+    /**
+     * The state of a run.
+     */
+    public enum State {
+        /**
+         * Steps are being played.
+         */
+        RUNNING,
+        /**
+         * The run waits to be resumed.
+         */
+        PAUSED,
+        /**
+         * All steps were played, the time budget is used up or no AI is alive anymore.
+         */
+        FINISHED,
+        /**
+         * The run was {@link #stop() stopped} before it finished.
+         */
+        CANCELLED
+    }
+    
+    /**
+     * Starts playing on the worker pool. Must be called while holding the lock of the game.
+     */
+    void start() {
+        activeSince = System.nanoTime();
+        scheduled = true;
+        Workers.POOL.execute(this::runChunk);
+    }
+    
+    /**
+     * Stops the run before its next chunk, without waiting for the current one. May be called by any thread.
+     */
+    void cancel() {
+        cancelled = true;
+        // Wakes up a paused run, which has no chunk scheduled, so it notices that it is cancelled
+        Workers.POOL.execute(this::runChunk);
+    }
+    
+    /**
+     * Stops the run for good. As the lock is held, no chunk is being played, so the played steps are final.
+     * @return If the run was running or paused, false if it is finished or cancelled already.
+     */
+    public boolean stop() {
+        if (!isActive()) {
+            return false;
+        }
+        if (!paused) {
+            activeNanos += System.nanoTime() - activeSince;
+        }
+        cancel();
+        return true;
+    }
+    
+    /**
+     * Waits until the run played its last chunk and printed its output after it finished or was cancelled.
+     * Must not be called while holding the lock of the session or the game.
+     */
+    public void awaitStop() {
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Pauses the run after the current chunk. Nothing is played until the run is {@link #resume() resumed}.
+     * @return If the run was running, false if it is already paused or finished.
+     */
+    public boolean pause() {
+        if (getState() != State.RUNNING) {
+            return false;
+        }
+        paused = true;
+        activeNanos += System.nanoTime() - activeSince;
+        return true;
+    }
+    
+    /**
+     * Resumes a paused run.
+     * @return If the run was paused, false if it is running or finished.
+     */
+    public boolean resume() {
+        if (getState() != State.PAUSED) {
+            return false;
+        }
+        paused = false;
+        activeSince = System.nanoTime();
+        if (!scheduled) {
+            scheduled = true;
+            Workers.POOL.execute(this::runChunk);
+        }
+        return true;
+    }
+    
+    /**
+     * Gets the state of the run.
+     * @return The state.
+     */
+    public State getState() {
+        if (finished) {
+            return State.FINISHED;
+        }
+        if (cancelled) {
+            return State.CANCELLED;
+        }
+        return paused ? State.PAUSED : State.RUNNING;
+    }
+    
+    /**
+     * Gets if the run is running or paused, so it may still play steps.
+     * @return If the run is active.
+     */
+    public boolean isActive() {
+        return getState() == State.RUNNING || getState() == State.PAUSED;
+    }
+    
+    /**
+     * Gets the amount of steps the run plays unless no AI is alive anymore.
+     * @return The amount of steps, {@link Long#MAX_VALUE} if the run plays until its time budget is used up.
+     */
+    public long getSteps() {
+        return steps;
+    }
+    
+    /**
+     * Gets the time budget of the run.
+     * @return The budget in nanoseconds, {@link Long#MAX_VALUE} if the run has none.
+     */
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+    
+    /**
+     * Gets the time the run was not paused.
+     * @return The time in nanoseconds.
+     */
+    public long getActiveNanos() {
+        return getState() == State.RUNNING ? activeNanos + System.nanoTime() - activeSince : activeNanos;
+    }
+    
+    /**
+     * Gets the amount of steps the run played so far.
+     * @return The amount of played steps.
+     */
+    public long getDoneSteps() {
+        return doneSteps;
+    }
+    
+    /**
+     * Gets how many steps the run played per second of the time it was not paused.
+     * @return The steps per second, 0 before any time passed.
+     */
+    public double getStepsPerSecond() {
+        long nanos = getActiveNanos();
+        return nanos > 0 ? doneSteps * NANOS_PER_SECOND / nanos : 0;
+    }
+    
+    /**
+     * Gets the schedule of the run if it is a playback.
+     * @return The schedule, empty if the run plays as fast as possible.
+     */
+    public Optional<PlaybackScheduler> getPlayback() {
+        return Optional.ofNullable(playback);
+    }
+    
+    /**
+     * Gets the game the run plays.
+     * @return The game.
+     */
+    public Codefight getGame() {
+        return game;
+    }
+    
+    /**
+     * Plays a chunk on a thread of the worker pool and schedules the next one, after the wait of a playback.
+     * A paused run schedules nothing until it is resumed, a run that finished or was cancelled counts down
+     * {@link #stopped} once its output is printed. While the output of the session is backlogged, the chunk of a run
+     * that is not a playback is skipped and tried again later.
+     */
+    private void runChunk() {
+        boolean next;
+        lock.lock();
+        try {
+            // Paused or cancelled by a command that held the lock before this chunk
+            if (cancelled || finished || paused) {
+                next = false;
+            } else if (playback == null && session.isOutputBacklogged()) {
+                waitNanos = TARGET_CHUNK_NANOS;
+                next = true;
+            } else {
+                next = playChunk();
+            }
+            scheduled = next;
+        } finally {
+            lock.unlock();
+        }
+        printOutput();
+        if (next) {
+            Workers.POOL.schedule(this::runChunk, waitNanos, TimeUnit.NANOSECONDS);
+        } else if (cancelled || finished) {
+            stopped.countDown();
+        }
+    }
+    
+    /**
+     * Prints the output of the chunks played so far while holding the lock of the session and passes it on
+     * to the output listener of the session.
+     */
+    private void printOutput() {
+        if (pendingOutput.isEmpty()) {
+            return;
+        }
+        Lock sessionLock = session.getLock();
+        sessionLock.lock();
+        try {
+            String text;
+            while ((text = pendingOutput.poll()) != null) {
+                session.getOutput().print(text);
+            }
+            session.outputPrinted();
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+    
+    /**
+     * Plays a chunk of steps and adapts the size of the next one to the time this one took. A playback only plays
+     * the due steps, shows a frame if one is due and the output is not backlogged, and sets how long to wait for
+     * the next chunk. The last frame is always shown.
+     * @return If there are steps and time left to play.
+     */
+    private boolean playChunk() {
+        int chunk = (int) Math.min(chunkSteps, steps - doneSteps);
+        if (playback != null) {
+            chunk = (int) Math.min(chunk, playback.getDueSteps(getActiveNanos(), doneSteps));
+        }
+        long remainingNanos = budgetNanos == Long.MAX_VALUE ? Long.MAX_VALUE : budgetNanos - getActiveNanos();
+        long chunkStart = System.nanoTime();
+        int played;
+        game.setPerishMessages(pendingOutput::add);
+        try {
+            played = chunk > 0 && remainingNanos > 0 ? (int) session.play(game, chunk, remainingNanos) : 0;
+        } finally {
+            game.setPerishMessages(null);
+        }
+        long chunkNanos = System.nanoTime() - chunkStart;
+        doneSteps += played;
+        if (played > 0) {
+            chunkListener.accept(played);
+            if (chunkNanos < TARGET_CHUNK_NANOS / 2 && chunkSteps < MAX_CHUNK_STEPS) {
+                chunkSteps *= 2;
+            } else if (chunkNanos > TARGET_CHUNK_NANOS * 2 && chunkSteps > 1) {
+                chunkSteps /= 2;
+            }
+        }
+        boolean remaining = played == chunk && doneSteps < steps && game.getAliveAICount() > 0
+                && (budgetNanos == Long.MAX_VALUE || getActiveNanos() < budgetNanos);
+        if (playback != null && (playback.isFrameDue(getActiveNanos()) || !remaining)) {
+            if (remaining && session.isOutputBacklogged()) {
+                playback.frameDropped(getActiveNanos());
+            } else {
+                pendingOutput.add(FRAME_FORMAT.formatted(game.getStep(), game.getMemory()));
+                playback.frameShown(getActiveNanos());
+            }
+        }
+        if (remaining) {
+            waitNanos = playback == null ? 0 : playback.getNanosUntilDue(getActiveNanos(), doneSteps);
+            return true;
+        }
+        activeNanos += System.nanoTime() - activeSince;
+        finished = true;
+        pendingOutput.add(FINISHED_FORMAT.formatted(doneSteps));
+        return false;
+    }
+    
+    /**
+     * The worker pool shared by all runs, created with the first run. Its threads are daemons,
+     * so runs that are still active do not keep the JVM alive.
+     */
+    private static final class Workers {
+        
+        private static final ScheduledExecutorService POOL = createPool();
+        
+        private static ScheduledExecutorService createPool() {
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadFactory factory = task -> {
+                Thread thread = new Thread(task, THREAD_NAME.formatted(threadCount.incrementAndGet()));
+                thread.setDaemon(true);
+                return thread;
+            };
+            return new ScheduledThreadPoolExecutor(Runtime.getRuntime().availableProcessors(), factory);
+        }
+    }
+}
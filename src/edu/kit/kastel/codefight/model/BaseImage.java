@@ -0,0 +1,112 @@
+package edu.kit.kastel.codefight.model;
+
+import edu.kit.kastel.codefight.aicommands.AICommandType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The cells of a memory before any AI is placed, as generated by its {@link MemoryInitType init mode} and seed.
+ * <p></p>
+ * An image is immutable, so all games with the same memory size, init mode and seed share one: a memory only stores
+ * the cells that were written since, and reads every other cell from its image. The cells of an image are unmodified
+ * and have no owner, so they are never bombs and do not count for any AI. They are read-only, so a memory hands them
+ * out to readers as they are and copies them on the first write. The images are kept in a cache of
+ * {@value #CACHE_CAPACITY} images, the least recently used one is dropped first.
+ *
+ * @author uwwfh
+ */
+final class BaseImage {
+    
+    private static final int CACHE_CAPACITY = 64;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final long STOP_SEED = 0;
+    private static final AICommandType[] COMMAND_TYPES = AICommandType.values();
+    private static final boolean READ_ONLY = true;
+    private static final Map<ImageKey, BaseImage> CACHE = new LinkedHashMap<>(CACHE_CAPACITY, LOAD_FACTOR, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ImageKey, BaseImage> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+    
+    private final MemoryCell[] cells;
+    
+    private BaseImage(int memorySize) {
+        this.cells = new MemoryCell[memorySize];
+    }
+    
+    /**
+     * Gets the image of a memory from the cache, generating it if it is not cached.
+     * @param memorySize The size of the memory.
+     * @param initType The init mode of the memory.
+     * @param seed The seed of the cell generator, ignored by {@link MemoryInitType#INIT_MODE_STOP}.
+     * @return The image.
+     */
+    static BaseImage of(int memorySize, MemoryInitType initType, long seed) {
+        ImageKey key = new ImageKey(memorySize, initType, initType == MemoryInitType.INIT_MODE_STOP ? STOP_SEED : seed);
+        synchronized (CACHE) {
+            BaseImage image = CACHE.get(key);
+            if (image != null) {
+                return image;
+            }
+        }
+        // Generated outside the lock, so games with other images do not wait. A race only generates an image twice.
+        BaseImage image = generate(key);
+        synchronized (CACHE) {
+            CACHE.putIfAbsent(key, image);
+            return CACHE.get(key);
+        }
+    }
+    
+    /**
+     * Generates the cells like the memory did before the images: STOP cells, or cells with a random command type
+     * and two random arguments drawn in address order from a generator with the seed.
+     */
+    private static BaseImage generate(ImageKey key) {
+        BaseImage image = new BaseImage(key.memorySize());
+        if (key.initType() == MemoryInitType.INIT_MODE_STOP) {
+            // Every address holds the same content, so they all share a single cell
+            MemoryCell stop = new MemoryCell(AICommandType.STOP, 0, 0, READ_ONLY);
+            for (int address = 0; address < key.memorySize(); address++) {
+                image.cells[address] = stop;
+            }
+            return image;
+        }
+        Random randomCellGenerator = new Random(key.seed());
+        for (int address = 0; address < key.memorySize(); address++) {
+            AICommandType type = COMMAND_TYPES[randomCellGenerator.nextInt(COMMAND_TYPES.length)];
+            int argumentA = randomCellGenerator.nextInt();
+            image.cells[address] = new MemoryCell(type, argumentA, randomCellGenerator.nextInt(), READ_ONLY);
+        }
+        return image;
+    }
+    
+    /**
+     * Gets the read-only cell at an address, which is not placed in any memory.
+     * @param address The sanitized address.
+     * @return The cell.
+     */
+    MemoryCell getCell(int address) {
+        return cells[address];
+    }
+    
+    /**
+     * Gets if an address holds the given content in this image.
+     * @param address The sanitized address.
+     * @param type The command type.
+     * @param argumentA The first argument.
+     * @param argumentB The second argument.
+     * @return If the content is equal.
+     */
+    boolean matches(int address, AICommandType type, int argumentA, int argumentB) {
+        MemoryCell cell = cells[address];
+        return cell.getSavedCommandType() == type && cell.getArgumentA() == argumentA && cell.getArgumentB() == argumentB;
+    }
+    
+    /**
+     * The parameters an image is generated from.
+     */
+    private record ImageKey(int memorySize, MemoryInitType initType, long seed) { }
+}
@@ -0,0 +1,100 @@
+package edu.kit.kastel.codefight.model;
+
+/**
+ * Counts the owned cells and bombs of every AI in any block of consecutive cells, for the zoomed out view of
+ * {@link Memory#renderOverview(int, StringBuilder)}.
+ * <p></p>
+ * The counters are binary indexed trees, one per AI for its cells and one for its bombs. Every node counts a block
+ * of a power of two cells, so the nodes form a hierarchy of blocks and any block is the difference of two prefixes
+ * of at most logarithmically many nodes. A written cell updates as many nodes, so counting stays incremental
+ * and a block of any size is counted without visiting its cells.
+ *
+ * @author uwwfh
+ */
+final class BlockCounters {
+    
+    private final int size;
+    private final int[][] ownedTrees;
+    private final int[][] bombTrees;
+    
+    /**
+     * Creates counters without any owned cells.
+     * @param size The amount of cells.
+     * @param owners The amount of AIs that may own cells.
+     */
+    BlockCounters(int size, int owners) {
+        this.size = size;
+        this.ownedTrees = new int[owners][size + 1];
+        this.bombTrees = new int[owners][size + 1];
+    }
+    
+    /**
+     * Updates the counters after the classification of a cell changed.
+     * @param address The address of the cell.
+     * @param previousOwner The owner before, or {@link Memory#NO_OWNER}.
+     * @param wasBomb If the cell was a bomb before.
+     * @param owner The owner now, or {@link Memory#NO_OWNER}.
+     * @param isBomb If the cell is a bomb now.
+     */
+    void update(int address, int previousOwner, boolean wasBomb, int owner, boolean isBomb) {
+        if (previousOwner != Memory.NO_OWNER) {
+            add(ownedTrees[previousOwner], address, -1);
+            if (wasBomb) {
+                add(bombTrees[previousOwner], address, -1);
+            }
+        }
+        if (owner != Memory.NO_OWNER) {
+            add(ownedTrees[owner], address, 1);
+            if (isBomb) {
+                add(bombTrees[owner], address, 1);
+            }
+        }
+    }
+    
+    /**
+     * Counts the cells an AI owns in a block.
+     * @param owner The index of the AI.
+     * @param from The address of the first cell of the block.
+     * @param to The address after the last cell of the block.
+     * @return The amount of owned cells.
+     */
+    int countOwned(int owner, int from, int to) {
+        return prefix(ownedTrees[owner], to) - prefix(ownedTrees[owner], from);
+    }
+    
+    /**
+     * Counts the bombs an AI owns in a block.
+     * @param owner The index of the AI.
+     * @param from The address of the first cell of the block.
+     * @param to The address after the last cell of the block.
+     * @return The amount of owned bombs.
+     */
+    int countBombs(int owner, int from, int to) {
+        return prefix(bombTrees[owner], to) - prefix(bombTrees[owner], from);
+    }
+    
+    /**
+     * Gets the amount of AIs the counters have room for.
+     * @return The amount of AIs.
+     */
+    int getOwnerCount() {
+        return ownedTrees.length;
+    }
+    
+    private void add(int[] tree, int address, int delta) {
+        for (int node = address + 1; node <= size; node += node & -node) {
+            tree[node] += delta;
+        }
+    }
+    
+    /**
+     * Sums the counts of all cells before an address.
+     */
+    private static int prefix(int[] tree, int address) {
+        int sum = 0;
+        for (int node = address; node > 0; node -= node & -node) {
+            sum += tree[node];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,131 @@
+package edu.kit.kastel.codefight.model;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Periodic checkpoints of a game, used to seek to any step without replaying the game from its start.
+ * <p></p>
+ * A checkpoint is taken every {@link #getInterval() interval} steps. Once the checkpoints exceed the memory budget,
+ * every other checkpoint is dropped and the interval doubles, so the checkpoints always cover the whole game evenly
+ * and seeking never replays more than one interval. Since a game is deterministic, checkpoints stay valid when
+ * the game is played backwards. The first checkpoint, taken when the game starts or is resumed, is never dropped.
+ *
+ * @author uwwfh
+ */
+final class CheckpointIndex {
+    
+    /**
+     * The interval of a new index, in steps.
+     */
+    static final long INITIAL_INTERVAL = 256;
+    
+    private static final String ERROR_BUDGET = "the checkpoint budget must be positive.";
+    private static final long BYTES_PER_INT = Integer.BYTES;
+    private static final long BYTES_PER_LONG = Long.BYTES;
+    private static final long CHECKPOINT_OVERHEAD = 64;
+    
+    private final long budget;
+    private final TreeMap<Long, Checkpoint> checkpoints;
+    private long interval;
+    private long firstStep;
+    private long usedBytes;
+    
+    /**
+     * Creates a new empty index.
+     * @throws IllegalArgumentException If the budget is not positive.
+     * @param budget The maximum amount of bytes of all checkpoints.
+     */
+    CheckpointIndex(long budget) {
+        if (budget <= 0) {
+            throw new IllegalArgumentException(ERROR_BUDGET);
+        }
+        this.budget = budget;
+        this.checkpoints = new TreeMap<>();
+        this.interval = INITIAL_INTERVAL;
+    }
+    
+    /**
+     * Gets the current amount of steps between two checkpoints.
+     * @return The interval.
+     */
+    long getInterval() {
+        return interval;
+    }
+    
+    /**
+     * Gets the step of the first checkpoint. Seeking to earlier steps is not possible.
+     * @return The first step, 0 unless the game was resumed.
+     */
+    long getFirstStep() {
+        return firstStep;
+    }
+    
+    /**
+     * Gets if a checkpoint should be taken after a step.
+     * @param step The amount of steps played.
+     * @return If the step has no checkpoint but should have one.
+     */
+    boolean isDue(long step) {
+        return step % interval == 0 && !checkpoints.containsKey(step);
+    }
+    
+    /**
+     * Adds a checkpoint and drops checkpoints while the budget is exceeded.
+     * @param checkpoint The new checkpoint.
+     */
+    void add(Checkpoint checkpoint) {
+        if (checkpoints.isEmpty()) {
+            firstStep = checkpoint.step();
+        }
+        Checkpoint replaced = checkpoints.put(checkpoint.step(), checkpoint);
+        usedBytes += checkpoint.getSize() - (replaced == null ? 0 : replaced.getSize());
+        while (usedBytes > budget && checkpoints.size() > 1) {
+            thin();
+        }
+    }
+    
+    /**
+     * Gets the latest checkpoint at or before a step.
+     * @param step The step.
+     * @return The checkpoint, empty if the step is before the first checkpoint.
+     */
+    Optional<Checkpoint> floor(long step) {
+        Map.Entry<Long, Checkpoint> entry = checkpoints.floorEntry(step);
+        return entry == null ? Optional.empty() : Optional.of(entry.getValue());
+    }
+    
+    /**
+     * Doubles the interval and drops the checkpoints that are not on the new interval.
+     */
+    private void thin() {
+        interval *= 2;
+        checkpoints.values().removeIf(checkpoint -> {
+            boolean drop = checkpoint.step() != firstStep && checkpoint.step() % interval != 0;
+            if (drop) {
+                usedBytes -= checkpoint.getSize();
+            }
+            return drop;
+        });
+    }
+    
+    /**
+     * The state of a game after a step, in the form of {@link Memory#captureCells()} and {@link Codefight#capturePlayers()}.
+     *
+     * @param step The amount of steps played.
+     * @param cells The cells.
+     * @param players The AIs.
+     * @param turnIndex The index of the AI whose turn is next among the alive AIs.
+     */
+    record Checkpoint(long step, int[] cells, long[] players, int turnIndex) {
+        
+        /**
+         * Gets the approximate amount of bytes of the checkpoint.
+         * @return The size of the checkpoint.
+         */
+        long getSize() {
+            return cells.length * BYTES_PER_INT + players.length * BYTES_PER_LONG + CHECKPOINT_OVERHEAD;
+        }
+    }
+}
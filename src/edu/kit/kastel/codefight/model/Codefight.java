@@ -1,16 +1,20 @@
 package edu.kit.kastel.codefight.model;
 
-import edu.kit.kastel.codefight.Main;
 import edu.kit.kastel.codefight.aicommands.AICommand;
+import edu.kit.kastel.codefight.metrics.EngineMetrics;
+import edu.kit.kastel.codefight.ratings.MatchResult;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
- * The main Codefight class, handles matches and globally available AIs.
+ * The main Codefight class, handles a single match between AIs of a {@link CodefightSession session}.
  *
  * @author uwwfh
  */
@@ -19,29 +23,53 @@ public final class Codefight {
     private static final int START_INDEX = 0;
     private static final int FIRST_OCCURRENCE_ID = 0;
     private static final int SINGLE_OCCURRENCE = 1;
+    private static final String SETUP_SKIPPED = "not all AIs could be found, setup was skipped.";
+    private static final String NOT_ENOUGH_UNDO_STEPS = "only %d turns can be played backwards.";
+    private static final String NOT_IN_GAME = "the AI is not part of this game.";
+    private static final String NO_CHECKPOINTS = "the game takes no checkpoints.";
+    private static final String NOT_SEEKABLE = "cannot seek to step %d, the first checkpoint is at step %d.";
+    private static final int CAPTURED_PLAYER_FIELDS = 3;
+    private static final int CLOCK_CHECK_STEPS = 4096;
+    private static final int CAPTURED_POINTER = 0;
+    private static final int CAPTURED_MOVES = 1;
+    private static final int CAPTURED_DEAD = 2;
     
     /**
      * For cases where an invalid address is needed.
      */
     private static final int INVALID_ADDRESS = -1;
-    private static Memory memory;
-    private static final List<AIPlayer> AVAILABLE_AI_PLAYERS = new ArrayList<>();
+    private final CodefightSession session;
+    private final Memory memory;
+    private final PrintStream output;
     private final List<AIPlayer> totalIngameAIs;
     private final List<AIPlayer> playingAIs;
     private int currentAIindex;
-    private final boolean setupSuccess;
+    private final Optional<String> setupError;
+    private GameArena arena;
+    private UndoJournal journal;
+    private CheckpointIndex checkpoints;
+    private TerritoryHistory territory;
+    private long step;
+    private boolean silent;
+    private Consumer<String> perishMessages;
+    private ParallelTurnExecutor parallelTurns;
+    private TurnBatch batch;
     
     /**
-     * Creates a new Codefight game on a memory with the given size using the listed AIs.
+     * Creates a new Codefight game on a memory with the size and init mode of the session using the listed AIs.
+     * @param session The session the game is played in.
      * @param aiNames The AIs that participate.
      */
-    public Codefight(String... aiNames) {
+    public Codefight(CodefightSession session, String... aiNames) {
+        this.session = session;
+        this.output = session.getOutput();
+        this.memory = new Memory(this, session.getMemorySize(), session.getMemoryInitType(), session.getCellGenerationSeed());
         playingAIs = getAIsByName(aiNames);
         totalIngameAIs = List.copyOf(playingAIs);
         
         if (aiNames.length != playingAIs.size()) {
             // One AI was not added. An error will occur anyway, rest of setup can be skipped
-            setupSuccess = false;
+            setupError = Optional.of(SETUP_SKIPPED);
             return;
         }
         
@@ -50,9 +78,220 @@ public Codefight(String... aiNames) {
         for (int i = 0; i < playingAIs.size(); ++i) {
             AIPlayer player = playingAIs.get(i);
             player.reset();
-            player.setPrintWrapper(Main.getPrintWrapper(i));
+            player.setPrintWrapper(session.getPrintWrapper(i));
+            player.setMemory(memory);
         }
-        setupSuccess = memory.reset(playingAIs);
+        long resetStart = System.nanoTime();
+        setupError = memory.reset(playingAIs);
+        EngineMetrics.recordReset(System.nanoTime() - resetStart);
+    }
+    
+    /**
+     * Resumes a game from an arena. The AIs get the print wrappers of the session in their order.
+     * The arena is not attached, see {@link #attachArena(GameArena)}.
+     * @param session The session the game is played in.
+     * @param arena The arena of a suspended game.
+     */
+    Codefight(CodefightSession session, GameArena arena) {
+        this.session = session;
+        this.output = session.getOutput();
+        this.memory = new Memory(this, arena.getMemorySize(), arena.getInitMode(), arena.getSeed());
+        List<AIPlayer> players = new ArrayList<>();
+        for (int i = 0; i < arena.getPlayerCount(); i++) {
+            AIPlayer player = new AIPlayer(arena.getPlayerName(i), arena.getPlayerProgram(i));
+            player.setPrintWrapper(session.getPrintWrapper(i));
+            player.setMemory(memory);
+            player.restore(arena.getPlayerPointer(i), arena.getPlayerTurns(i), arena.isPlayerDead(i));
+            players.add(player);
+        }
+        totalIngameAIs = List.copyOf(players);
+        playingAIs = new ArrayList<>(players);
+        playingAIs.removeIf(AIPlayer::isDead);
+        currentAIindex = arena.getTurnIndex();
+        for (AIPlayer player : players) {
+            // Every turn counts as a move of the AI that played it
+            step += player.getMoveCount();
+        }
+        memory.restore(arena, totalIngameAIs);
+        setupError = Optional.empty();
+    }
+    
+    /**
+     * Sets where the perish messages of the AIs go instead of the output of the session, for example while
+     * a {@link BackgroundRun background run} plays without holding the lock of the session.
+     * @param perishMessages Receives every perish message, including its line separator, or null to print them.
+     */
+    void setPerishMessages(Consumer<String> perishMessages) {
+        this.perishMessages = perishMessages;
+    }
+    
+    /**
+     * Writes the state of the game to an arena and from then on every change of it as well.
+     * @param arena The arena of the game.
+     */
+    void attachArena(GameArena arena) {
+        for (int i = 0; i < totalIngameAIs.size(); i++) {
+            arena.writePlayer(i, totalIngameAIs.get(i));
+        }
+        arena.endTurn(currentAIindex);
+        memory.attachArena(arena);
+        this.arena = arena;
+    }
+    
+    /**
+     * Records the turns played from then on in a journal, so they can be {@link #previous(int) played backwards}.
+     * @param journal The journal of the game.
+     */
+    void attachJournal(UndoJournal journal) {
+        memory.attachJournal(journal);
+        this.journal = journal;
+    }
+    
+    /**
+     * Plays batches of independent turns in parallel from then on, once enough AIs are alive.
+     * The game plays exactly as if all turns were played sequentially.
+     * @param parallelTurns The executor that plays the batches.
+     */
+    void attachParallelTurns(ParallelTurnExecutor parallelTurns) {
+        this.batch = new TurnBatch(memory.getMemorySize(), totalIngameAIs.size());
+        this.parallelTurns = parallelTurns;
+    }
+    
+    /**
+     * Takes checkpoints of the game from then on, so it can {@link #seek(long) seek} to any later step.
+     * The first checkpoint is taken immediately.
+     * @param checkpoints The checkpoint index of the game.
+     */
+    void attachCheckpoints(CheckpointIndex checkpoints) {
+        checkpoints.add(captureCheckpoint());
+        this.checkpoints = checkpoints;
+    }
+    
+    /**
+     * Samples the territory of the AIs from then on. The first sample is taken immediately.
+     * @param territory The territory history of the game.
+     */
+    void attachTerritory(TerritoryHistory territory) {
+        territory.sample(step, memory);
+        this.territory = territory;
+    }
+    
+    /**
+     * Gets the sampled territory of the AIs.
+     * @return The territory history, empty if the territory is not sampled.
+     */
+    public Optional<TerritoryHistory> getTerritory() {
+        return Optional.ofNullable(territory);
+    }
+    
+    /**
+     * Gets the amount of turns played in this game, including turns of all AIs and the turns before it was resumed.
+     * Turns that were played backwards are not counted.
+     * @return The current step of the game.
+     */
+    public long getStep() {
+        return step;
+    }
+    
+    /**
+     * Gets the earliest step the game can seek to.
+     * @return The first step of the checkpoints, empty if the game takes no checkpoints.
+     */
+    public Optional<Long> getFirstSeekableStep() {
+        return checkpoints == null ? Optional.empty() : Optional.of(checkpoints.getFirstStep());
+    }
+    
+    /**
+     * Jumps to a step of the game: restores the latest checkpoint at or before the step, unless the current step
+     * is closer, and plays the remaining turns. No perish messages are printed while playing these turns.
+     * If the game ends before the step, it stops at its end like {@link #next(long)}.
+     * The undo journal is cleared if a checkpoint is restored.
+     * @throws IllegalStateException If the game takes no checkpoints or the step is before the first checkpoint.
+     * @param target The step to jump to.
+     */
+    public void seek(long target) {
+        long firstStep = getFirstSeekableStep().orElseThrow(() -> new IllegalStateException(NO_CHECKPOINTS));
+        if (target < firstStep) {
+            throw new IllegalStateException(NOT_SEEKABLE.formatted(target, firstStep));
+        }
+        CheckpointIndex.Checkpoint checkpoint = checkpoints.floor(target).orElseThrow();
+        if (target < step || checkpoint.step() > step) {
+            restoreCheckpoint(checkpoint);
+        }
+        silent = true;
+        long executedSteps = 0;
+        while (step < target && !playingAIs.isEmpty()) {
+            nextTurn();
+            executedSteps++;
+        }
+        silent = false;
+        EngineMetrics.recordSteps(executedSteps);
+    }
+    
+    /**
+     * Captures the state of the AIs: memory pointer, moves and if they are dead.
+     * @return The captured AIs, in their order.
+     */
+    long[] capturePlayers() {
+        long[] players = new long[totalIngameAIs.size() * CAPTURED_PLAYER_FIELDS];
+        for (int i = 0; i < totalIngameAIs.size(); i++) {
+            AIPlayer player = totalIngameAIs.get(i);
+            players[i * CAPTURED_PLAYER_FIELDS + CAPTURED_POINTER] = player.getMemoryPtr();
+            players[i * CAPTURED_PLAYER_FIELDS + CAPTURED_MOVES] = player.getMoveCount();
+            players[i * CAPTURED_PLAYER_FIELDS + CAPTURED_DEAD] = player.isDead() ? 1 : 0;
+        }
+        return players;
+    }
+    
+    private CheckpointIndex.Checkpoint captureCheckpoint() {
+        return new CheckpointIndex.Checkpoint(step, memory.captureCells(), capturePlayers(), currentAIindex);
+    }
+    
+    /**
+     * Puts the game back to the state of a checkpoint.
+     */
+    private void restoreCheckpoint(CheckpointIndex.Checkpoint checkpoint) {
+        if (arena != null) {
+            arena.beginTurn();
+        }
+        long[] players = checkpoint.players();
+        playingAIs.clear();
+        for (int i = 0; i < totalIngameAIs.size(); i++) {
+            AIPlayer player = totalIngameAIs.get(i);
+            player.restore((int) players[i * CAPTURED_PLAYER_FIELDS + CAPTURED_POINTER],
+                    players[i * CAPTURED_PLAYER_FIELDS + CAPTURED_MOVES], players[i * CAPTURED_PLAYER_FIELDS + CAPTURED_DEAD] != 0);
+            if (!player.isDead()) {
+                playingAIs.add(player);
+            }
+        }
+        currentAIindex = checkpoint.turnIndex();
+        step = checkpoint.step();
+        memory.restoreCells(checkpoint.cells());
+        if (journal != null) {
+            journal.clear();
+        }
+        if (arena != null) {
+            for (int i = 0; i < totalIngameAIs.size(); i++) {
+                arena.writePlayer(i, totalIngameAIs.get(i));
+            }
+            arena.endTurn(currentAIindex);
+        }
+    }
+    
+    /**
+     * Gets the amount of turns that can be played backwards.
+     * @return The amount of turns in the journal, 0 if the game has none.
+     */
+    public int getUndoableSteps() {
+        return journal == null ? 0 : journal.size();
+    }
+    
+    /**
+     * Gets the arena the game is written to.
+     * @return The arena, empty if the game is not played in arena mode.
+     */
+    Optional<GameArena> getArena() {
+        return Optional.ofNullable(arena);
     }
     
     /**
@@ -60,7 +299,23 @@ public Codefight(String... aiNames) {
      * @return If the setup was successful.
      */
     public boolean wasSetupSuccess() {
-        return setupSuccess;
+        return setupError.isEmpty();
+    }
+    
+    /**
+     * Gets the error that occurred during setup, if the setup was not successful.
+     * @return The setup error message or empty, if the setup was successful.
+     */
+    public Optional<String> getSetupError() {
+        return setupError;
+    }
+    
+    /**
+     * Gets the session this game is played in.
+     * @return The session of the game.
+     */
+    public CodefightSession getSession() {
+        return session;
     }
     
     /**
@@ -71,6 +326,37 @@ public int getTotalPlayingAICount() {
         return totalIngameAIs.size();
     }
     
+    /**
+     * Gets the result of the game so far: every AI with the step it stopped in.
+     * <p></p>
+     * The steps are derived from the move counts: AIs take turns in the order they were placed, so the AI that
+     * stopped in its m-th move did so after every AI before it made its m-th move and every AI after it made
+     * its (m-1)-th move, as far as they were still running. This stays correct when the game is played backwards
+     * or jumps to another step.
+     * @return The result.
+     */
+    public MatchResult getResult() {
+        List<String> names = new ArrayList<>();
+        List<Long> deathSteps = new ArrayList<>();
+        for (int i = 0; i < totalIngameAIs.size(); i++) {
+            AIPlayer player = totalIngameAIs.get(i);
+            names.add(player.getAIName());
+            if (!player.isDead()) {
+                deathSteps.add(MatchResult.SURVIVED);
+                continue;
+            }
+            long deathStep = player.getMoveCount();
+            for (int j = 0; j < totalIngameAIs.size(); j++) {
+                if (j != i) {
+                    long movesBefore = j < i ? player.getMoveCount() : player.getMoveCount() - 1;
+                    deathStep += Math.min(totalIngameAIs.get(j).getMoveCount(), movesBefore);
+                }
+            }
+            deathSteps.add(deathStep);
+        }
+        return new MatchResult(step, names, deathSteps);
+    }
+    
     /**
      * Gets a copy of all ingame AIs, dead or alive.
      * @return List of all AIs.
@@ -83,6 +369,14 @@ public List<AIPlayer> getTotalIngameAIs() {
         return copy;
     }
     
+    /**
+     * Gets the amount of AIs that are still alive.
+     * @return The amount of alive AIs.
+     */
+    public int getAliveAICount() {
+        return playingAIs.size();
+    }
+    
     /**
      * Gets a copy of all alive AIs. Players are copies.
      * @return List of all alive AIs.
@@ -108,6 +402,33 @@ int getNextAIAddress() {
         return playingAIs.get(currentAIindex).getMemoryPtr();
     }
     
+    /**
+     * Gets the addresses the memory pointers of the alive AIs point to.
+     * @return The addresses of the alive AIs.
+     */
+    BitSet getAliveAIAddresses() {
+        BitSet addresses = new BitSet(memory.getMemorySize());
+        for (AIPlayer player : playingAIs) {
+            addresses.set(player.getMemoryPtr());
+        }
+        return addresses;
+    }
+    
+    /**
+     * Gets if the memory pointer of any alive AI points to an address.
+     * Does not copy the AIs, unlike {@link #getAliveAIs()}.
+     * @param address The sanitized address.
+     * @return If an alive AI is at the address.
+     */
+    boolean isAnyAIAt(int address) {
+        for (AIPlayer player : playingAIs) {
+            if (player.getMemoryPtr() == address) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * Gets a currently playing AI by name. If no AI with that name is found returns empty optional.
      * @param aiName The name of the AI.
@@ -127,10 +448,84 @@ public Optional<AIPlayer> getPlayingAIbyName(String aiName) {
      * If only 1 AI remains alive, the turns are ended prematurely
      * and the game is declared over.
      * @param steps The amount of turns.
+     * @return The amount of played turns, less than the given amount if the game ended.
      */
-    public void next(int steps) {
-        for (int i = 0; i < steps && !playingAIs.isEmpty(); ++i) {
-            nextTurn();
+    public long next(long steps) {
+        return next(steps, Long.MAX_VALUE);
+    }
+    
+    /**
+     * Plays a given number of turns, but stops once a time budget is used up. The clock is only read every
+     * {@value #CLOCK_CHECK_STEPS} turns, so the budget may be exceeded by the time these turns take.
+     * @param steps The amount of turns.
+     * @param budgetNanos The time budget in nanoseconds, {@link Long#MAX_VALUE} for no budget.
+     * @return The amount of played turns, less than the given amount if the game ended or the budget was used up.
+     */
+    public long next(long steps, long budgetNanos) {
+        long start = System.nanoTime();
+        long executedSteps = 0;
+        while (executedSteps < steps && !playingAIs.isEmpty()) {
+            executedSteps += play((int) Math.min(steps - executedSteps, CLOCK_CHECK_STEPS));
+            if (budgetNanos != Long.MAX_VALUE && System.nanoTime() - start >= budgetNanos) {
+                break;
+            }
+        }
+        EngineMetrics.recordSteps(executedSteps);
+        return executedSteps;
+    }
+    
+    /**
+     * Plays a given number of turns without reading the clock.
+     * @return The amount of played turns, less than the given amount if the game ended.
+     */
+    private int play(int steps) {
+        int executedSteps = 0;
+        while (executedSteps < steps && !playingAIs.isEmpty()) {
+            if (parallelTurns != null && playingAIs.size() >= parallelTurns.getMinBatch()) {
+                executedSteps += nextTurns(steps - executedSteps);
+            } else {
+                nextTurn();
+                executedSteps++;
+            }
+        }
+        return executedSteps;
+    }
+    
+    /**
+     * Plays a given number of turns backwards, restoring the memory and the AIs as they were before those turns.
+     * AIs that died in these turns are alive again. Every turn only restores the cells it wrote, so this costs
+     * as much as playing the turns.
+     * @throws IllegalStateException If the journal does not contain enough turns.
+     * @param steps The amount of turns, at most {@link #getUndoableSteps()}.
+     */
+    public void previous(int steps) {
+        if (steps > getUndoableSteps()) {
+            throw new IllegalStateException(NOT_ENOUGH_UNDO_STEPS.formatted(getUndoableSteps()));
+        }
+        for (int i = 0; i < steps; i++) {
+            previousTurn();
+        }
+    }
+    
+    /**
+     * Plays the last turn of the journal backwards.
+     */
+    private void previousTurn() {
+        int playerIndex = journal.getLastPlayer();
+        AIPlayer player = totalIngameAIs.get(playerIndex);
+        if (arena != null) {
+            arena.beginTurn();
+        }
+        currentAIindex = journal.getLastTurnIndex();
+        if (journal.hasLastPlayerDied()) {
+            playingAIs.add(currentAIindex, player);
+        }
+        player.restore(journal.getLastPointer(), player.getMoveCount() - 1, false);
+        step--;
+        journal.undoLastTurn(memory);
+        if (arena != null) {
+            arena.writePlayer(playerIndex, player);
+            arena.endTurn(currentAIindex);
         }
     }
     
@@ -143,98 +538,121 @@ public void next(int steps) {
      */
     private void nextTurn() {
         AIPlayer player = playingAIs.get(currentAIindex);
+        startTurn(player, player.getMemoryPtr());
         AICommand cmd = memory.readMemory(player.getMemoryPtr()).getCommand();
         cmd.execute(player);
-        if (player.isDead()) {
-            playingAIs.remove(player);
-            // Check for overflow
-            if (currentAIindex >= playingAIs.size()) {
-                currentAIindex = START_INDEX;
-            }
-        } else {
-            // Account for list shrinking because of removal
-            increaseAICounter();
-        }
-        player.increaseMoveCount();
+        finishTurn(player);
     }
     
     /**
-     * Increases the AI counter by one. Basically advances to the next player.
+     * Plays a batch of turns that can be played in parallel, see {@link ParallelTurnExecutor}.
+     * The batch consists of the next turns in their order, up to the first turn that conflicts with an earlier one.
+     * Batches that are too small are played sequentially.
+     * @param maxSteps The maximum amount of turns to play.
+     * @return The amount of played turns.
      */
-    private void increaseAICounter() {
-        if (currentAIindex >= playingAIs.size() - 1) {
-            currentAIindex = START_INDEX;
-        } else {
-            currentAIindex++;
+    private int nextTurns(int maxSteps) {
+        int maxBatch = Math.min(maxSteps, playingAIs.size());
+        if (checkpoints != null) {
+            // Only the last turn of a batch may be followed by a checkpoint, the others are not finished before
+            maxBatch = (int) Math.min(maxBatch, checkpoints.getInterval() - step % checkpoints.getInterval());
         }
+        batch.plan(memory, playingAIs, currentAIindex, maxBatch);
+        List<AIPlayer> players = batch.getPlayers();
+        if (players.size() < parallelTurns.getMinBatch()) {
+            for (int i = 0; i < players.size(); i++) {
+                nextTurn();
+            }
+            return players.size();
+        }
+        
+        memory.deferWrites(true);
+        try {
+            parallelTurns.execute(players, memory);
+        } finally {
+            memory.deferWrites(false);
+        }
+        for (int i = 0; i < players.size(); i++) {
+            startTurn(players.get(i), batch.getPointer(i));
+            batch.commitWrites(i, memory);
+            finishTurn(players.get(i));
+        }
+        return players.size();
     }
     
     /**
-     * Sets up the memory for the Codefight games. This will reset the memory if it's already in use.
-     * @param memorySize The size of the memory
-     * @param memoryInitType The initialization type of unpopulated memory cells.
-     * @param seed The seed for the random generator. If init type is STOP_FILL, parameter will be ignored.
-     */
-    public static void initMemory(int memorySize, MemoryInitType memoryInitType, long seed) {
-        Memory.initMemory(memorySize, memoryInitType, seed);
-        memory = new Memory();
-    }
-    
-    /**
-     * Adds an AI to be available for a future game. AI is only
-     * added if it's not already added.
-     * @param player The AI player
+     * Does everything that happens before the command of a turn is executed.
+     * @param player The AI whose turn it is.
+     * @param pointer The memory pointer of the AI before the turn.
      */
-    public static void addAI(AIPlayer player) {
-        if (!AVAILABLE_AI_PLAYERS.contains(player)) {
-            AVAILABLE_AI_PLAYERS.add(player);
+    private void startTurn(AIPlayer player, int pointer) {
+        if (arena != null) {
+            arena.beginTurn();
+        }
+        if (journal != null) {
+            journal.beginTurn(indexOf(player), pointer, currentAIindex);
         }
     }
     
     /**
-     * Removes an AI by names from the list of available AIs.
-     * Returns true if the player was removed successfully, false if no
-     * AI with that name could be found.
-     * @param playerName The name of the AI
-     * @return True if removed, false if not
+     * Does everything that happens after the command of a turn was executed.
+     * Removes the AI that played from the playing AIs if it's dead after the turn.
+     * @param player The AI whose turn it is.
      */
-    public static boolean removeAI(String playerName) {
-        for (AIPlayer player : AVAILABLE_AI_PLAYERS) {
-            if (player.getAIName().equals(playerName)) {
-                AVAILABLE_AI_PLAYERS.remove(player);
-                return true;
+    private void finishTurn(AIPlayer player) {
+        if (player.isDead()) {
+            if (!silent && perishMessages != null) {
+                perishMessages.accept(player.getPerishMessage());
+            } else if (!silent) {
+                output.print(player.getPerishMessage());
+            }
+            playingAIs.remove(player);
+            // Check for overflow
+            if (currentAIindex >= playingAIs.size()) {
+                currentAIindex = START_INDEX;
             }
+        } else {
+            // Account for list shrinking because of removal
+            increaseAICounter();
+        }
+        player.increaseMoveCount();
+        step++;
+        if (journal != null) {
+            journal.endTurn(player.isDead());
+        }
+        if (checkpoints != null && checkpoints.isDue(step)) {
+            checkpoints.add(captureCheckpoint());
+        }
+        if (territory != null && territory.isDue(step)) {
+            territory.sample(step, memory);
+        }
+        if (arena != null) {
+            arena.writePlayer(indexOf(player), player);
+            arena.endTurn(currentAIindex);
         }
-        return false;
     }
     
     /**
-     * If an AI by the specified name is already registered.
-     * @param aiName The name of the AI.
-     * @return If an AI by the name exists.
+     * Gets the index of an AI in the game. AIs are compared by identity, since duplicates of the same AI are equal.
      */
-    public static boolean containsAI(String aiName) {
-        for (AIPlayer player : AVAILABLE_AI_PLAYERS) {
-            if (player.getAIName().equals(aiName)) {
-                return true;
+    private int indexOf(AIPlayer player) {
+        for (int i = 0; i < totalIngameAIs.size(); i++) {
+            if (totalIngameAIs.get(i) == player) {
+                return i;
             }
         }
-        return false;
+        throw new IllegalStateException(NOT_IN_GAME);
     }
     
     /**
-     * Gets an AI by name. If no AI with that name is found returns empty optional.
-     * Note that current states of ingame AIs cannot be retrieved accurately using this method.
-     * @param aiName The name of the AI.
-     * @return Optional AI player with the given name.
+     * Increases the AI counter by one. Basically advances to the next player.
      */
-    private static Optional<AIPlayer> getAIbyName(String aiName) {
-        for (AIPlayer player : AVAILABLE_AI_PLAYERS) {
-            if (player.getAIName().equals(aiName)) {
-                return Optional.of(player);
-            }
+    private void increaseAICounter() {
+        if (currentAIindex >= playingAIs.size() - 1) {
+            currentAIindex = START_INDEX;
+        } else {
+            currentAIindex++;
         }
-        return Optional.empty();
     }
     
     /**
@@ -252,7 +670,7 @@ private List<AIPlayer> getAIsByName(String... names) {
         
         for (String name : names) {
             int occurrence = nameOccurrences.getOrDefault(name, FIRST_OCCURRENCE_ID);
-            Optional<AIPlayer> player = getAIbyName(name);
+            Optional<AIPlayer> player = session.getAIbyName(name);
             if (player.isEmpty()) {
                 continue;
             }
@@ -275,11 +693,11 @@ private List<AIPlayer> getAIsByName(String... names) {
     }
     
     /**
-     * Gets the global memory. Not immutable, changes are
-     * reflected in the current game.
+     * Gets the memory of this game. Not immutable, changes are
+     * reflected in the game.
      * @return The game's memory.
      */
-    public static Memory getMemory() {
+    public Memory getMemory() {
         return memory;
     }
 }
@@ -0,0 +1,780 @@
+package edu.kit.kastel.codefight.model;
+
+import edu.kit.kastel.codefight.metrics.EngineMetrics;
+import edu.kit.kastel.codefight.ratings.MatchResult;
+import edu.kit.kastel.codefight.ratings.RatingTable;
+import edu.kit.kastel.codefight.ratings.ResultLog;
+import edu.kit.kastel.codefight.spectator.SpectatorHub;
+import edu.kit.kastel.codefight.usercommands.CommandHandler;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+import java.util.function.LongConsumer;
+import java.util.regex.Pattern;
+
+/**
+ * A single Codefight session. Holds everything that used to be global: the memory settings,
+ * the output symbols, the registered AIs, the current game phase and the currently played game.
+ * <p></p>
+ * Besides its default game, a session can play any number of named games side by side. Every game has its own
+ * phase, memory, AIs and background run. Commands act on the selected game, which is the default game unless
+ * a named one is {@link #selectGame(String) selected}. A named game only exists while it is played, so an unused
+ * name costs nothing. The spectators and the arena file of the session follow the default game, named games are
+ * persisted next to that arena file.
+ * <p></p>
+ * Sessions are fully isolated from each other, so any number of them can exist in the same JVM.
+ * A session itself is not thread-safe and must only be used by one thread at a time. The only exception are
+ * {@link BackgroundRun background runs}: they play their games on a shared worker pool, so everything else that uses
+ * the session while a run exists must hold the {@link #getLock() lock of the session} and the
+ * {@link #getGameLock() lock of the selected game}.
+ *
+ * @author uwwfh
+ */
+public final class CodefightSession {
+    
+    private static final String INVALID_PHASE_START = "%stried to initialize a game while ingame.".formatted(CommandHandler.ERROR_PREFIX);
+    private static final String INVALID_PHASE_END = "%stried to end the game while not ingame.".formatted(CommandHandler.ERROR_PREFIX);
+    private static final String INVALID_PHASE_INGAME = "%stried to play while not ingame.".formatted(CommandHandler.ERROR_PREFIX);
+    private static final String RESULT_LOG_STOPPED = "%ssaving game results stopped: %s".formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final String ARENA_FAILED = "%scould not create arena, the game is not persisted: %s"
+            .formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final String INVALID_UNDO_STEPS = "%sthe undo journal must hold between 0 and %s turns."
+            .formatted(CommandHandler.ERROR_PREFIX, "%d");
+    private static final String INVALID_CHECKPOINT_BUDGET = "%sthe checkpoint budget must not be negative."
+            .formatted(CommandHandler.ERROR_PREFIX);
+    private static final String INVALID_TERRITORY_INTERVAL = "%sthe territory sampling interval must not be negative."
+            .formatted(CommandHandler.ERROR_PREFIX);
+    private static final String RUN_ACTIVE = "%sa background run is already active in this game."
+            .formatted(CommandHandler.ERROR_PREFIX);
+    private static final String INVALID_GAME_ID = "%sinvalid game name: %s".formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final String NAMED_ARENA_FORMAT = "%s.%s";
+    private static final Pattern GAME_ID = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+    private static final int INIT_MODE_STOP_SEED = 0;
+    
+    /**
+     * The maximum amount of turns the undo journal of a game can hold, see {@link #setUndoSteps(int)}.
+     */
+    public static final int MAX_UNDO_STEPS = 1_000_000;
+    
+    private final int memorySize;
+    private final String[] memoryChars;
+    private final List<AIPrintWrapper> printWrappers;
+    private final PrintStream output;
+    private final PrintStream errorOutput;
+    private final List<AIPlayer> availableAIPlayers;
+    
+    private MemoryInitType memoryInitType;
+    private long cellGenerationSeed;
+    private final GameSlot defaultGame = new GameSlot();
+    private final Map<String, GameSlot> namedGames = new ConcurrentHashMap<>();
+    private GameSlot selectedGame = defaultGame;
+    private String selectedId;
+    private SpectatorHub spectators;
+    private Path arenaFile;
+    private int undoSteps;
+    private long checkpointBudget;
+    private int territoryInterval;
+    private ParallelTurnExecutor parallelTurns;
+    private final RatingTable ratings = new RatingTable();
+    private ResultLog resultLog;
+    private volatile SessionOutputListener outputListener;
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private volatile boolean closed;
+    
+    /**
+     * Creates a new session in the initialization phase. The memory is initialized with the stop init mode.
+     * @throws IllegalArgumentException If the memory size is out of the allowed bounds.
+     * @param memorySize The size of the memory of every game in this session.
+     * @param memoryChars The symbols used to print memory, in order of their symbol index.
+     * @param printWrappers The print wrappers for the AIs, in order of the AIs of a game.
+     * @param output The stream for regular output of this session.
+     * @param errorOutput The stream for error output of this session.
+     */
+    public CodefightSession(int memorySize, String[] memoryChars, List<AIPrintWrapper> printWrappers,
+                            PrintStream output, PrintStream errorOutput) {
+        Memory.validateMemorySize(memorySize);
+        this.memorySize = memorySize;
+        this.memoryChars = memoryChars.clone();
+        this.printWrappers = List.copyOf(printWrappers);
+        this.output = output;
+        this.errorOutput = errorOutput;
+        this.availableAIPlayers = new ArrayList<>();
+        this.memoryInitType = MemoryInitType.INIT_MODE_STOP;
+        this.cellGenerationSeed = INIT_MODE_STOP_SEED;
+    }
+    
+    /**
+     * Gets the stream for regular output of this session.
+     * @return The output stream.
+     */
+    public PrintStream getOutput() {
+        return output;
+    }
+    
+    /**
+     * Gets the stream for error output of this session.
+     * @return The error output stream.
+     */
+    public PrintStream getErrorOutput() {
+        return errorOutput;
+    }
+    
+    /**
+     * Gets the current phase of the selected game.
+     * @return The current phase.
+     */
+    public GamePhase getCurrentPhase() {
+        return selectedGame.phase;
+    }
+    
+    /**
+     * Gets if a name can be used for a named game: 1 to 32 letters, digits, underscores or hyphens. The name is part
+     * of the file name of the arena of the game, so it must not be able to name another file.
+     * @param id The name.
+     * @return If the name is valid.
+     */
+    public static boolean isValidGameId(String id) {
+        return GAME_ID.matcher(id).matches();
+    }
+    
+    /**
+     * Selects a named game, so the following calls act on it instead of the default game. The game is created
+     * in the INITIALIZATION phase if it does not exist. Must be called while holding the {@link #getLock() lock}.
+     * @throws IllegalArgumentException If the name is not {@link #isValidGameId(String) valid}.
+     * @param id The name of the game.
+     */
+    public void selectGame(String id) {
+        if (!isValidGameId(id)) {
+            throw new IllegalArgumentException(INVALID_GAME_ID.formatted(id));
+        }
+        selectedGame = namedGames.computeIfAbsent(id, ignored -> new GameSlot());
+        selectedId = id;
+    }
+    
+    /**
+     * Selects the default game again. A named game that is not played is dropped.
+     * Must be called while holding the {@link #getLock() lock}.
+     */
+    public void selectDefaultGame() {
+        if (selectedGame != defaultGame && selectedGame.phase == GamePhase.INITIALIZATION) {
+            namedGames.remove(selectedId);
+        }
+        selectedGame = defaultGame;
+        selectedId = null;
+    }
+    
+    /**
+     * Gets the name of the selected game.
+     * @return The name, empty if the default game is selected.
+     */
+    public Optional<String> getSelectedGameId() {
+        return Optional.ofNullable(selectedId);
+    }
+    
+    /**
+     * Gets the size of the memory of games in this session.
+     * @return The memory size.
+     */
+    public int getMemorySize() {
+        return memorySize;
+    }
+    
+    /**
+     * Gets the memory init type for future games.
+     * @return The memory init type.
+     */
+    public MemoryInitType getMemoryInitType() {
+        return memoryInitType;
+    }
+    
+    /**
+     * Gets the seed used for cell generation in future games.
+     * @return The cell generation seed.
+     */
+    public long getCellGenerationSeed() {
+        return cellGenerationSeed;
+    }
+    
+    /**
+     * Sets the memory init type and the seed for the random generator for future games.
+     * Setting the seed is only required if init mode is random.
+     * @param memoryInitType The initialization type of unpopulated memory cells.
+     * @param seed The seed for the random generator. If init type is STOP_FILL, parameter will be ignored.
+     */
+    public void setMemoryInitType(MemoryInitType memoryInitType, long seed) {
+        this.memoryInitType = memoryInitType;
+        if (memoryInitType == MemoryInitType.INIT_MODE_RANDOM) {
+            this.cellGenerationSeed = seed;
+        }
+    }
+    
+    /**
+     * Gets the memory representation symbol based on the cell's priority level.
+     * As some characters take up more than 16 bits, a character is represented using a String object.
+     * <p></p>
+     * If the priority is out of range, returns the default (lowest) priority character.
+     *
+     * @param priority The symbol priority
+     * @return The character representing the cell.
+     */
+    public String getMemorySymbol(int priority) {
+        if (priority >= memoryChars.length || priority < 0) {
+            return memoryChars[memoryChars.length - 1];
+        }
+        return memoryChars[priority];
+    }
+    
+    /**
+     * Gets a PrintWrapper from the ones initially specified by command line arguments.
+     * If an invalid index is given, returns null wrapper.
+     * @param index The index of the PrintWrapper.
+     * @return The PrintWrapper of the given index.
+     */
+    public AIPrintWrapper getPrintWrapper(int index) {
+        if (index < 0 || index >= printWrappers.size()) {
+            return AIPrintWrapper.NULL_WRAPPER;
+        }
+        return printWrappers.get(index);
+    }
+    
+    /**
+     * Gets the total amount of available PrintWrappers.
+     * @return The amount of PrintWrappers.
+     */
+    public int getPrintWrapperCount() {
+        return printWrappers.size();
+    }
+    
+    /**
+     * Sets the hub that the games of this session are broadcast to. Null disables broadcasting.
+     * @param spectators The spectator hub or null.
+     */
+    public void setSpectatorHub(SpectatorHub spectators) {
+        this.spectators = spectators;
+    }
+    
+    /**
+     * Sets the file the games of this session are persisted to, see {@link GameArena}. Null disables arena mode.
+     * @param arenaFile The arena file or null.
+     */
+    public void setArenaFile(Path arenaFile) {
+        this.arenaFile = arenaFile;
+    }
+    
+    /**
+     * Gets the file the games of this session are persisted to.
+     * @return The arena file, empty if arena mode is disabled.
+     */
+    public Optional<Path> getArenaFile() {
+        return Optional.ofNullable(arenaFile);
+    }
+    
+    /**
+     * Sets the amount of turns of future games that can be played backwards with {@link #previous(int)}.
+     * 0 disables the undo journal.
+     * @throws IllegalArgumentException If the amount is negative or larger than {@link #MAX_UNDO_STEPS}.
+     * @param undoSteps The capacity of the undo journal.
+     */
+    public void setUndoSteps(int undoSteps) {
+        if (undoSteps < 0 || undoSteps > MAX_UNDO_STEPS) {
+            throw new IllegalArgumentException(INVALID_UNDO_STEPS.formatted(MAX_UNDO_STEPS));
+        }
+        this.undoSteps = undoSteps;
+    }
+    
+    /**
+     * Gets the amount of turns of a game that can be played backwards.
+     * @return The capacity of the undo journal, 0 if it is disabled.
+     */
+    public int getUndoSteps() {
+        return undoSteps;
+    }
+    
+    /**
+     * Sets the memory budget for the checkpoints of future games, which allow to {@link #seek(long) seek} to any step.
+     * 0 disables checkpoints.
+     * @throws IllegalArgumentException If the budget is negative.
+     * @param checkpointBudget The maximum amount of bytes of the checkpoints of a game.
+     */
+    public void setCheckpointBudget(long checkpointBudget) {
+        if (checkpointBudget < 0) {
+            throw new IllegalArgumentException(INVALID_CHECKPOINT_BUDGET);
+        }
+        this.checkpointBudget = checkpointBudget;
+    }
+    
+    /**
+     * Gets the memory budget for the checkpoints of a game.
+     * @return The maximum amount of bytes of the checkpoints, 0 if they are disabled.
+     */
+    public long getCheckpointBudget() {
+        return checkpointBudget;
+    }
+    
+    /**
+     * Sets the amount of steps between the samples of the {@link TerritoryHistory territory history} of future games.
+     * 0 disables the history.
+     * @throws IllegalArgumentException If the interval is negative.
+     * @param territoryInterval The sampling interval in steps.
+     */
+    public void setTerritoryInterval(int territoryInterval) {
+        if (territoryInterval < 0) {
+            throw new IllegalArgumentException(INVALID_TERRITORY_INTERVAL);
+        }
+        this.territoryInterval = territoryInterval;
+    }
+    
+    /**
+     * Sets the executor that plays independent turns of future games in parallel. Null plays all turns sequentially.
+     * @param parallelTurns The executor or null.
+     */
+    public void setParallelTurns(ParallelTurnExecutor parallelTurns) {
+        this.parallelTurns = parallelTurns;
+    }
+    
+    /**
+     * Gets the ratings of the AIs, updated with the result of every game that is ended in this session.
+     * @return The ratings.
+     */
+    public RatingTable getRatings() {
+        return ratings;
+    }
+    
+    /**
+     * Sets the log the result of every game that is ended in this session is appended to. Null disables saving results.
+     * @param resultLog The log or null.
+     */
+    public void setResultLog(ResultLog resultLog) {
+        this.resultLog = resultLog;
+    }
+    
+    /**
+     * Sets the listener that passes on the output background runs print between commands.
+     * Null if the output streams of the session are written by themselves, like the standard output.
+     * @param outputListener The listener or null.
+     */
+    public void setOutputListener(SessionOutputListener outputListener) {
+        this.outputListener = outputListener;
+    }
+    
+    /**
+     * Notifies the output listener that a background run printed output.
+     * Must be called while holding the {@link #getLock() lock of the session}.
+     */
+    void outputPrinted() {
+        SessionOutputListener listener = outputListener;
+        if (listener != null) {
+            listener.outputPrinted();
+        }
+    }
+    
+    /**
+     * Gets if the output listener did not pass on too much of the output yet, see {@link SessionOutputListener}.
+     * @return If the output is backlogged, false without a listener.
+     */
+    boolean isOutputBacklogged() {
+        SessionOutputListener listener = outputListener;
+        return listener != null && listener.isBacklogged();
+    }
+    
+    /**
+     * Returns the current game of codefight or null, if no game is played.
+     * @return Current Codefight or null.
+     */
+    public Codefight getCodefight() {
+        return selectedGame.game;
+    }
+    
+    /**
+     * Gets the lock that serializes the commands on this session and the output of background runs.
+     * The lock is fair and reentrant.
+     * @return The lock.
+     */
+    public Lock getLock() {
+        return lock;
+    }
+    
+    /**
+     * Gets the lock of the selected game, which serializes the commands on the game with the chunks of its
+     * background run. The lock is fair and reentrant. Must be acquired after the {@link #getLock() lock of the session}.
+     * @return The lock.
+     */
+    public Lock getGameLock() {
+        return selectedGame.lock;
+    }
+    
+    /**
+     * Starts playing steps of the current game on the worker pool, see {@link BackgroundRun}.
+     * Must be called while holding the {@link #getGameLock() lock of the game}.
+     * @throws IllegalStateException If there is no game or a run of it is still {@link BackgroundRun#isActive() active}.
+     * @param steps The amount of steps, {@link Long#MAX_VALUE} to play until the time budget is used up.
+     * @param budgetNanos The time budget in nanoseconds, {@link Long#MAX_VALUE} for no budget.
+     * @param chunkListener Receives the amount of steps of every played chunk, while the lock is held.
+     * @return The started run.
+     */
+    public BackgroundRun startBackgroundRun(long steps, long budgetNanos, LongConsumer chunkListener) {
+        return startRun(steps, budgetNanos, null, chunkListener);
+    }
+    
+    /**
+     * Starts a real-time playback of the current game on the worker pool, see {@link PlaybackScheduler}.
+     * The playback runs until the game ends or it is stopped.
+     * Must be called while holding the {@link #getGameLock() lock of the game}.
+     * @throws IllegalStateException If there is no game or a run of it is still {@link BackgroundRun#isActive() active}.
+     * @param playback The schedule of the playback.
+     * @param chunkListener Receives the amount of steps of every played chunk, while the lock is held.
+     * @return The started run.
+     */
+    public BackgroundRun startPlayback(PlaybackScheduler playback, LongConsumer chunkListener) {
+        return startRun(Long.MAX_VALUE, Long.MAX_VALUE, playback, chunkListener);
+    }
+    
+    private BackgroundRun startRun(long steps, long budgetNanos, PlaybackScheduler playback, LongConsumer chunkListener) {
+        GameSlot slot = selectedGame;
+        if (slot.game == null) {
+            throw new IllegalStateException(INVALID_PHASE_INGAME);
+        }
+        if (slot.backgroundRun != null && slot.backgroundRun.isActive()) {
+            throw new IllegalStateException(RUN_ACTIVE);
+        }
+        slot.backgroundRun = new BackgroundRun(this, slot.game, slot.lock, steps, budgetNanos, playback, chunkListener);
+        slot.backgroundRun.start();
+        return slot.backgroundRun;
+    }
+    
+    /**
+     * Gets the latest background run of the current game, which may have finished already.
+     * @return The run, empty if none was started in this game.
+     */
+    public Optional<BackgroundRun> getBackgroundRun() {
+        return Optional.ofNullable(selectedGame.backgroundRun);
+    }
+    
+    /**
+     * Cancels the background runs of all games before their next chunk, without waiting for them.
+     * May be called by any thread, for example when the user quits.
+     */
+    public void stopBackgroundRuns() {
+        defaultGame.cancelRun();
+        for (GameSlot slot : namedGames.values()) {
+            slot.cancelRun();
+        }
+    }
+    
+    /**
+     * Closes the session, for example when its client disconnects: the background runs of all games are cancelled
+     * and their AIs stop counting as alive in the {@link EngineMetrics metrics}. The games are not ended, so no results
+     * are recorded. May be called by any thread and more than once, the session must not play games afterwards.
+     */
+    public void close() {
+        closed = true;
+        stopBackgroundRuns();
+        defaultGame.unregisterAliveAIs();
+        for (GameSlot slot : namedGames.values()) {
+            slot.unregisterAliveAIs();
+        }
+    }
+    
+    /**
+     * Waits until the background runs of all games stopped after they finished or were cancelled.
+     * Must not be called while holding the {@link #getLock() lock} or the lock of a game.
+     */
+    public void awaitBackgroundRuns() {
+        defaultGame.awaitRun();
+        for (GameSlot slot : namedGames.values()) {
+            slot.awaitRun();
+        }
+    }
+    
+    /**
+     * Enters the INGAME Phase and plays Codefight on the current model.
+     * @throws IllegalStateException If a game is already on.
+     * @param model The model to play the game on.
+     */
+    public void playCodefight(Codefight model) {
+        if (selectedGame.phase != GamePhase.INITIALIZATION) {
+            throw new IllegalStateException(INVALID_PHASE_START);
+        }
+        selectedGame.phase = GamePhase.INGAME;
+        selectedGame.game = model;
+        IntSupplier aliveAIs = model::getAliveAICount;
+        selectedGame.aliveAIs = aliveAIs;
+        EngineMetrics.registerLiveGame(aliveAIs);
+        if (closed) {
+            // Closed by another thread while the game was started, after it unregistered the games
+            EngineMetrics.unregisterLiveGame(aliveAIs);
+        }
+        if (undoSteps > 0) {
+            model.attachJournal(new UndoJournal(undoSteps));
+        }
+        if (checkpointBudget > 0) {
+            model.attachCheckpoints(new CheckpointIndex(checkpointBudget));
+        }
+        if (territoryInterval > 0) {
+            model.attachTerritory(new TerritoryHistory(territoryInterval, model.getTotalIngameAIs().size()));
+        }
+        if (parallelTurns != null) {
+            model.attachParallelTurns(parallelTurns);
+        }
+        if (arenaFile != null && model.getArena().isEmpty()) {
+            // Named games were validated when selected, so the name only adds a suffix to the file name
+            Path file = selectedId == null ? arenaFile
+                    : arenaFile.resolveSibling(NAMED_ARENA_FORMAT.formatted(arenaFile.getFileName(), selectedId));
+            try {
+                model.attachArena(GameArena.create(file, model.getMemory(), model.getTotalIngameAIs()));
+            } catch (IOException e) {
+                errorOutput.println(ARENA_FAILED.formatted(e.getMessage()));
+            }
+        }
+        if (spectators != null && selectedGame == defaultGame) {
+            spectators.startGame(model);
+        }
+    }
+    
+    /**
+     * Resumes a suspended game from its arena and enters the INGAME phase. The arena must belong to a game
+     * with the memory size of this session that was not ended, see {@link GameArena#getStatus()}.
+     * @throws IllegalStateException If a game is already on.
+     * @param arena The arena of the game.
+     */
+    public void resumeGame(GameArena arena) {
+        Codefight model = new Codefight(this, arena);
+        model.attachArena(arena);
+        arena.setStatus(GameArena.ArenaStatus.RUNNING);
+        playCodefight(model);
+    }
+    
+    /**
+     * Suspends the current game: its arena is written to the storage device and the session returns to the
+     * INITIALIZATION phase, without ending the game in the arena.
+     * @throws IllegalStateException If there is no game to suspend.
+     * @return If the game was suspended, false if it is not played in arena mode.
+     */
+    public boolean suspendGame() {
+        if (selectedGame.phase != GamePhase.INGAME) {
+            throw new IllegalStateException(INVALID_PHASE_END);
+        }
+        Optional<GameArena> arena = selectedGame.game.getArena();
+        if (arena.isEmpty()) {
+            return false;
+        }
+        arena.get().setStatus(GameArena.ArenaStatus.SUSPENDED);
+        arena.get().force();
+        leaveGame();
+        return true;
+    }
+    
+    /**
+     * Plays a given number of moves in the current codefight game.
+     * @throws IllegalStateException If there is no game to perform the steps on.
+     * @param steps The number of steps.
+     * @return The number of played steps, less than the given number if the game ended.
+     */
+    public long next(long steps) {
+        return next(steps, Long.MAX_VALUE);
+    }
+    
+    /**
+     * Plays a given number of moves in the current codefight game, but stops once a time budget is used up,
+     * see {@link Codefight#next(long, long)}.
+     * @throws IllegalStateException If there is no game to perform the steps on.
+     * @param steps The number of steps.
+     * @param budgetNanos The time budget in nanoseconds, {@link Long#MAX_VALUE} for no budget.
+     * @return The number of played steps.
+     */
+    public long next(long steps, long budgetNanos) {
+        if (selectedGame.game == null) {
+            throw new IllegalStateException(INVALID_PHASE_INGAME);
+        }
+        return play(selectedGame.game, steps, budgetNanos);
+    }
+    
+    /**
+     * Plays moves of a game of this session and publishes them if it is the default game.
+     * Must be called while holding the lock of the game, a background run calls it without the lock of the session.
+     * @param game The game.
+     * @param steps The number of steps.
+     * @param budgetNanos The time budget in nanoseconds, {@link Long#MAX_VALUE} for no budget.
+     * @return The number of played steps.
+     */
+    long play(Codefight game, long steps, long budgetNanos) {
+        long playedSteps = game.next(steps, budgetNanos);
+        if (spectators != null && game == defaultGame.game) {
+            spectators.publish(game);
+        }
+        return playedSteps;
+    }
+    
+    private void publish() {
+        if (spectators != null && selectedGame == defaultGame) {
+            spectators.publish(selectedGame.game);
+        }
+    }
+    
+    /**
+     * Plays a given number of moves of the current codefight game backwards.
+     * @throws IllegalStateException If there is no game or its undo journal does not contain enough moves,
+     *        see {@link Codefight#getUndoableSteps()}.
+     * @param steps The number of steps.
+     */
+    public void previous(int steps) {
+        if (selectedGame.game == null) {
+            throw new IllegalStateException(INVALID_PHASE_INGAME);
+        }
+        selectedGame.game.previous(steps);
+        publish();
+    }
+    
+    /**
+     * Jumps to a step of the current codefight game, see {@link Codefight#seek(long)}.
+     * @throws IllegalStateException If there is no game or the game cannot seek to the step.
+     * @param step The step to jump to.
+     */
+    public void seek(long step) {
+        if (selectedGame.game == null) {
+            throw new IllegalStateException(INVALID_PHASE_INGAME);
+        }
+        selectedGame.game.seek(step);
+        publish();
+    }
+    
+    /**
+     * Ends the currently active Codefight game.
+     * @throws IllegalStateException If there is no game to end.
+     */
+    public void endGame() {
+        if (selectedGame.phase != GamePhase.INGAME) {
+            throw new IllegalStateException(INVALID_PHASE_END);
+        }
+        assert selectedGame.game != null;
+        selectedGame.game.getArena().ifPresent(arena -> arena.setStatus(GameArena.ArenaStatus.ENDED));
+        recordResult();
+        leaveGame();
+    }
+    
+    /**
+     * Rates the result of the current game and saves it. If saving fails, the error is reported once
+     * and no further results are saved.
+     */
+    private void recordResult() {
+        MatchResult result = selectedGame.game.getResult();
+        ratings.record(result);
+        if (resultLog != null) {
+            try {
+                resultLog.append(result);
+            } catch (IOException e) {
+                resultLog = null;
+                errorOutput.println(RESULT_LOG_STOPPED.formatted(e.getMessage()));
+            }
+        }
+    }
+    
+    /**
+     * Returns to the INITIALIZATION phase after a game was ended or suspended.
+     */
+    private void leaveGame() {
+        selectedGame.cancelRun();
+        selectedGame.backgroundRun = null;
+        if (spectators != null && selectedGame == defaultGame) {
+            spectators.endGame(selectedGame.game);
+        }
+        selectedGame.unregisterAliveAIs();
+        selectedGame.aliveAIs = null;
+        selectedGame.phase = GamePhase.INITIALIZATION;
+        selectedGame.game = null;
+    }
+    
+    /**
+     * Adds an AI to be available for a future game. AI is only
+     * added if it's not already added.
+     * @param player The AI player
+     */
+    public void addAI(AIPlayer player) {
+        if (!availableAIPlayers.contains(player)) {
+            availableAIPlayers.add(player);
+        }
+    }
+    
+    /**
+     * Removes an AI by names from the list of available AIs.
+     * Returns true if the player was removed successfully, false if no
+     * AI with that name could be found.
+     * @param playerName The name of the AI
+     * @return True if removed, false if not
+     */
+    public boolean removeAI(String playerName) {
+        for (AIPlayer player : availableAIPlayers) {
+            if (player.getAIName().equals(playerName)) {
+                availableAIPlayers.remove(player);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * If an AI by the specified name is already registered.
+     * @param aiName The name of the AI.
+     * @return If an AI by the name exists.
+     */
+    public boolean containsAI(String aiName) {
+        return getAIbyName(aiName).isPresent();
+    }
+    
+    /**
+     * Gets an AI by name. If no AI with that name is found returns empty optional.
+     * Note that current states of ingame AIs cannot be retrieved accurately using this method.
+     * @param aiName The name of the AI.
+     * @return Optional AI player with the given name.
+     */
+    Optional<AIPlayer> getAIbyName(String aiName) {
+        for (AIPlayer player : availableAIPlayers) {
+            if (player.getAIName().equals(aiName)) {
+                return Optional.of(player);
+            }
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * The phase, the game and the latest background run of one game of the session, guarded by the lock of the game.
+     */
+    private static final class GameSlot {
+        
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private GamePhase phase = GamePhase.INITIALIZATION;
+        private Codefight game;
+        private volatile BackgroundRun backgroundRun;
+        private volatile IntSupplier aliveAIs;
+        
+        private void cancelRun() {
+            BackgroundRun run = backgroundRun;
+            if (run != null) {
+                run.cancel();
+            }
+        }
+        
+        private void unregisterAliveAIs() {
+            IntSupplier registered = aliveAIs;
+            if (registered != null) {
+                EngineMetrics.unregisterLiveGame(registered);
+            }
+        }
+        
+        private void awaitRun() {
+            BackgroundRun run = backgroundRun;
+            if (run != null) {
+                run.awaitStop();
+            }
+        }
+    }
+}
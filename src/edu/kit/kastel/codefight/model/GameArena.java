@@ -0,0 +1,464 @@
+package edu.kit.kastel.codefight.model;
+
+import edu.kit.kastel.codefight.Main;
+import edu.kit.kastel.codefight.aicommands.AICommand;
+import edu.kit.kastel.codefight.aicommands.AICommandFactory;
+import edu.kit.kastel.codefight.aicommands.AICommandType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The state of a game in a memory-mapped file, so it survives the JVM. While a game is played in arena mode,
+ * every cell write, the registers of the AI that moved and the turn index are written through to the mapping.
+ * A suspended game, or a game whose JVM died between two turns, is resumed from the file without replaying or
+ * parsing anything. Other processes may map the file read-only to inspect a running game.
+ * <p></p>
+ * The layout, version 2, all numbers big-endian:
+ * <pre>
+ * header   64 bytes  magic "CFAR", version, memory size, init mode, seed (long), AI count, turn index,
+ *                    status, in-turn flag, offset and length of the program section, reserved
+ * AIs      16 bytes  per AI: memory pointer, dead flag, turn count (long)
+ * cells    12 bytes  per cell: command type (byte), flags (byte, 1 = modified), owner (short, -1 = none),
+ *                    argument A, argument B
+ * programs           per AI: name (short length and UTF-8 bytes), instruction count,
+ *                    per instruction: command type (byte), argument A, argument B
+ * </pre>
+ * The in-turn flag is set while a turn is written, a file with the flag set was left in the middle of a turn
+ * and cannot be resumed.
+ * <p></p>
+ * Files of another version, like the ones of development builds that stored the turn count as int, are rejected.
+ *
+ * @author uwwfh
+ */
+public final class GameArena {
+    
+    /**
+     * The version of the layout written by this class.
+     */
+    public static final int VERSION = 2;
+    
+    private static final int MAGIC = 0x43464152;
+    private static final int OFFSET_MAGIC = 0;
+    private static final int OFFSET_VERSION = 4;
+    private static final int OFFSET_MEMORY_SIZE = 8;
+    private static final int OFFSET_INIT_MODE = 12;
+    private static final int OFFSET_SEED = 16;
+    private static final int OFFSET_PLAYER_COUNT = 24;
+    private static final int OFFSET_TURN_INDEX = 28;
+    private static final int OFFSET_STATUS = 32;
+    private static final int OFFSET_IN_TURN = 36;
+    private static final int OFFSET_PROGRAMS = 40;
+    private static final int OFFSET_PROGRAMS_LENGTH = 44;
+    private static final int HEADER_SIZE = 64;
+    private static final int PLAYER_SIZE = 16;
+    private static final int PLAYER_OFFSET_POINTER = 0;
+    private static final int PLAYER_OFFSET_DEAD = 4;
+    private static final int PLAYER_OFFSET_TURNS = 8;
+    private static final int CELL_SIZE = 12;
+    private static final int CELL_OFFSET_TYPE = 0;
+    private static final int CELL_OFFSET_FLAGS = 1;
+    private static final int CELL_OFFSET_OWNER = 2;
+    private static final int CELL_OFFSET_ARGUMENT_A = 4;
+    private static final int CELL_OFFSET_ARGUMENT_B = 8;
+    private static final int INSTRUCTION_SIZE = 9;
+    private static final int NAME_LENGTH_SIZE = 2;
+    private static final int INSTRUCTION_COUNT_SIZE = 4;
+    private static final int FLAG_MODIFIED = 1;
+    private static final int TRUE = 1;
+    private static final int FALSE = 0;
+    
+    private static final String ERROR_NOT_AN_ARENA = "not an arena file";
+    private static final String ERROR_UNSUPPORTED_VERSION = "unsupported arena version %d";
+    private static final String ERROR_CORRUPT = "corrupt arena file";
+    
+    private final MappedByteBuffer buffer;
+    private final int memorySize;
+    private final int playerCount;
+    private final int cellsOffset;
+    private final List<String> names;
+    private final List<List<AICommand>> programs;
+    
+    private GameArena(MappedByteBuffer buffer, List<String> names, List<List<AICommand>> programs) {
+        this.buffer = buffer;
+        this.memorySize = buffer.getInt(OFFSET_MEMORY_SIZE);
+        this.playerCount = buffer.getInt(OFFSET_PLAYER_COUNT);
+        this.cellsOffset = HEADER_SIZE + playerCount * PLAYER_SIZE;
+        this.names = List.copyOf(names);
+        this.programs = List.copyOf(programs);
+    }
+    
+    /**
+     * Creates a new arena file for a game, replacing an existing file. Only the header and the programs are
+     * written, the cells and AIs are written by the game when it is attached.
+     * @param file The file.
+     * @param memory The memory of the game.
+     * @param players All AIs of the game, in their order.
+     * @return The arena.
+     * @throws IOException If the file could not be created or mapped.
+     */
+    static GameArena create(Path file, Memory memory, List<AIPlayer> players) throws IOException {
+        List<String> names = new ArrayList<>();
+        List<List<AICommand>> programs = new ArrayList<>();
+        int programsLength = 0;
+        for (AIPlayer player : players) {
+            names.add(player.getAIName());
+            programs.add(player.getInstructions());
+            programsLength += NAME_LENGTH_SIZE + player.getAIName().getBytes(StandardCharsets.UTF_8).length
+                    + INSTRUCTION_COUNT_SIZE + player.getInstructions().size() * INSTRUCTION_SIZE;
+        }
+        int programsOffset = HEADER_SIZE + players.size() * PLAYER_SIZE + memory.getMemorySize() * CELL_SIZE;
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, programsOffset + programsLength);
+        }
+        buffer.putInt(OFFSET_VERSION, VERSION);
+        buffer.putInt(OFFSET_MEMORY_SIZE, memory.getMemorySize());
+        buffer.putInt(OFFSET_INIT_MODE, memory.getMemoryInitType().ordinal());
+        buffer.putLong(OFFSET_SEED, memory.getCellGenerationSeed());
+        buffer.putInt(OFFSET_PLAYER_COUNT, players.size());
+        buffer.putInt(OFFSET_STATUS, ArenaStatus.RUNNING.ordinal());
+        buffer.putInt(OFFSET_PROGRAMS, programsOffset);
+        buffer.putInt(OFFSET_PROGRAMS_LENGTH, programsLength);
+        ByteBuffer section = buffer.slice(programsOffset, programsLength);
+        for (int i = 0; i < players.size(); i++) {
+            byte[] name = names.get(i).getBytes(StandardCharsets.UTF_8);
+            section.putShort((short) name.length);
+            section.put(name);
+            section.putInt(programs.get(i).size());
+            for (AICommand command : programs.get(i)) {
+                section.put((byte) command.getType().ordinal());
+                section.putInt(command.getFirstArgument());
+                section.putInt(command.getSecondArgument());
+            }
+        }
+        // The magic is written last, a file without it was never completely created
+        buffer.putInt(OFFSET_MAGIC, MAGIC);
+        return new GameArena(buffer, names, programs);
+    }
+    
+    /**
+     * Maps an existing arena file and validates its layout.
+     * @param file The file.
+     * @param readOnly If the file is only inspected. A read-only arena must not be resumed.
+     * @return The arena.
+     * @throws IOException If the file could not be mapped or is not a valid arena of a supported version.
+     */
+    public static GameArena open(Path file, boolean readOnly) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = readOnly ? FileChannel.open(file, StandardOpenOption.READ)
+                : FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(ERROR_NOT_AN_ARENA);
+            }
+            buffer = channel.map(readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        if (buffer.getInt(OFFSET_MAGIC) != MAGIC) {
+            throw new IOException(ERROR_NOT_AN_ARENA);
+        }
+        int version = buffer.getInt(OFFSET_VERSION);
+        if (version != VERSION) {
+            throw new IOException(ERROR_UNSUPPORTED_VERSION.formatted(version));
+        }
+        int memorySize = buffer.getInt(OFFSET_MEMORY_SIZE);
+        int playerCount = buffer.getInt(OFFSET_PLAYER_COUNT);
+        int programsOffset = buffer.getInt(OFFSET_PROGRAMS);
+        int programsLength = buffer.getInt(OFFSET_PROGRAMS_LENGTH);
+        int initMode = buffer.getInt(OFFSET_INIT_MODE);
+        int status = buffer.getInt(OFFSET_STATUS);
+        if (memorySize < Main.MIN_MEMORY_SIZE || memorySize > Main.MAX_MEMORY_SIZE || playerCount <= 0
+                || playerCount > memorySize || initMode < 0 || initMode >= MemoryInitType.values().length
+                || status < 0 || status >= ArenaStatus.values().length
+                || programsOffset != HEADER_SIZE + playerCount * PLAYER_SIZE + memorySize * CELL_SIZE
+                || programsLength < 0 || (long) programsOffset + programsLength != buffer.capacity()) {
+            throw new IOException(ERROR_CORRUPT);
+        }
+        List<String> names = new ArrayList<>();
+        List<List<AICommand>> programs = new ArrayList<>();
+        readPrograms(buffer.slice(programsOffset, programsLength), playerCount, names, programs);
+        GameArena arena = new GameArena(buffer, names, programs);
+        arena.validateState();
+        return arena;
+    }
+    
+    private static void readPrograms(ByteBuffer section, int playerCount, List<String> names,
+                                     List<List<AICommand>> programs) throws IOException {
+        AICommandType[] types = AICommandType.values();
+        try {
+            for (int i = 0; i < playerCount; i++) {
+                byte[] name = new byte[section.getShort()];
+                section.get(name);
+                names.add(new String(name, StandardCharsets.UTF_8));
+                int instructionCount = section.getInt();
+                if (instructionCount <= 0 || instructionCount > section.remaining() / INSTRUCTION_SIZE) {
+                    throw new IOException(ERROR_CORRUPT);
+                }
+                List<AICommand> program = new ArrayList<>();
+                for (int j = 0; j < instructionCount; j++) {
+                    int type = section.get();
+                    if (type < 0 || type >= types.length) {
+                        throw new IOException(ERROR_CORRUPT);
+                    }
+                    program.add(AICommandFactory.createCommand(types[type], section.getInt(), section.getInt()));
+                }
+                programs.add(program);
+            }
+        } catch (RuntimeException e) {
+            // Negative lengths and reads past the end of the section
+            throw new IOException(ERROR_CORRUPT, e);
+        }
+    }
+    
+    private void validateState() throws IOException {
+        int types = AICommandType.values().length;
+        for (int address = 0; address < memorySize; address++) {
+            int type = buffer.get(cellsOffset + address * CELL_SIZE + CELL_OFFSET_TYPE);
+            int owner = getCellOwner(address);
+            if (type < 0 || type >= types || owner < Memory.NO_OWNER || owner >= playerCount) {
+                throw new IOException(ERROR_CORRUPT);
+            }
+        }
+        int alive = 0;
+        for (int player = 0; player < playerCount; player++) {
+            if (getPlayerPointer(player) < 0 || getPlayerPointer(player) >= memorySize || getPlayerTurns(player) < 0) {
+                throw new IOException(ERROR_CORRUPT);
+            }
+            alive += isPlayerDead(player) ? 0 : 1;
+        }
+        if (getTurnIndex() < 0 || getTurnIndex() >= Math.max(alive, 1)) {
+            throw new IOException(ERROR_CORRUPT);
+        }
+    }
+    
+    /**
+     * Writes a cell.
+     * @param address The sanitized address.
+     * @param cell The cell.
+     * @param owner The index of the AI that owns the cell or {@link Memory#NO_OWNER}.
+     */
+    void writeCell(int address, MemoryCell cell, int owner) {
+        int offset = cellsOffset + address * CELL_SIZE;
+        buffer.put(offset + CELL_OFFSET_TYPE, (byte) cell.getSavedCommandType().ordinal());
+        buffer.put(offset + CELL_OFFSET_FLAGS, (byte) (cell.isUnmodified() ? 0 : FLAG_MODIFIED));
+        buffer.putShort(offset + CELL_OFFSET_OWNER, (short) owner);
+        buffer.putInt(offset + CELL_OFFSET_ARGUMENT_A, cell.getArgumentA());
+        buffer.putInt(offset + CELL_OFFSET_ARGUMENT_B, cell.getArgumentB());
+    }
+    
+    /**
+     * Writes the registers of an AI.
+     * @param index The index of the AI in the game.
+     * @param player The AI.
+     */
+    void writePlayer(int index, AIPlayer player) {
+        int offset = HEADER_SIZE + index * PLAYER_SIZE;
+        buffer.putInt(offset + PLAYER_OFFSET_POINTER, player.getMemoryPtr());
+        buffer.putLong(offset + PLAYER_OFFSET_TURNS, player.getMoveCount());
+        buffer.putInt(offset + PLAYER_OFFSET_DEAD, player.isDead() ? TRUE : FALSE);
+    }
+    
+    /**
+     * Marks the start of a turn. Until {@link #endTurn(int)}, the file is not consistent.
+     */
+    void beginTurn() {
+        buffer.putInt(OFFSET_IN_TURN, TRUE);
+    }
+    
+    /**
+     * Marks the end of a turn.
+     * @param turnIndex The index of the AI that plays the next turn, among the alive AIs.
+     */
+    void endTurn(int turnIndex) {
+        buffer.putInt(OFFSET_TURN_INDEX, turnIndex);
+        buffer.putInt(OFFSET_IN_TURN, FALSE);
+    }
+    
+    /**
+     * Sets the status of the game.
+     * @param status The new status.
+     */
+    void setStatus(ArenaStatus status) {
+        buffer.putInt(OFFSET_STATUS, status.ordinal());
+    }
+    
+    /**
+     * Writes all changes to the storage device, not only to the page cache.
+     */
+    void force() {
+        buffer.force();
+    }
+    
+    /**
+     * Gets the memory size of the game.
+     * @return The memory size.
+     */
+    public int getMemorySize() {
+        return memorySize;
+    }
+    
+    /**
+     * Gets the memory init mode of the game.
+     * @return The init mode.
+     */
+    public MemoryInitType getInitMode() {
+        return MemoryInitType.values()[buffer.getInt(OFFSET_INIT_MODE)];
+    }
+    
+    /**
+     * Gets the cell generation seed of the game.
+     * @return The seed.
+     */
+    public long getSeed() {
+        return buffer.getLong(OFFSET_SEED);
+    }
+    
+    /**
+     * Gets the status of the game.
+     * @return The status.
+     */
+    public ArenaStatus getStatus() {
+        return ArenaStatus.values()[buffer.getInt(OFFSET_STATUS)];
+    }
+    
+    /**
+     * Gets if the file was left in the middle of a turn.
+     * @return If a turn was not completely written.
+     */
+    public boolean isInTurn() {
+        return buffer.getInt(OFFSET_IN_TURN) != FALSE;
+    }
+    
+    /**
+     * Gets the index of the AI that plays the next turn, among the alive AIs.
+     * @return The turn index.
+     */
+    public int getTurnIndex() {
+        return buffer.getInt(OFFSET_TURN_INDEX);
+    }
+    
+    /**
+     * Gets the amount of AIs of the game, dead or alive.
+     * @return The amount of AIs.
+     */
+    public int getPlayerCount() {
+        return playerCount;
+    }
+    
+    /**
+     * Gets the name of an AI.
+     * @param player The index of the AI.
+     * @return The name.
+     */
+    public String getPlayerName(int player) {
+        return names.get(player);
+    }
+    
+    /**
+     * Gets the program of an AI, as it was added.
+     * @param player The index of the AI.
+     * @return The instructions.
+     */
+    public List<AICommand> getPlayerProgram(int player) {
+        return programs.get(player);
+    }
+    
+    /**
+     * Gets the memory pointer of an AI.
+     * @param player The index of the AI.
+     * @return The memory pointer.
+     */
+    public int getPlayerPointer(int player) {
+        return buffer.getInt(HEADER_SIZE + player * PLAYER_SIZE + PLAYER_OFFSET_POINTER);
+    }
+    
+    /**
+     * Gets the amount of turns an AI played.
+     * @param player The index of the AI.
+     * @return The amount of turns.
+     */
+    public long getPlayerTurns(int player) {
+        int offset = HEADER_SIZE + player * PLAYER_SIZE;
+        return buffer.getLong(offset + PLAYER_OFFSET_TURNS);
+    }
+    
+    /**
+     * Gets if an AI stopped.
+     * @param player The index of the AI.
+     * @return If the AI is dead.
+     */
+    public boolean isPlayerDead(int player) {
+        int offset = HEADER_SIZE + player * PLAYER_SIZE;
+        return buffer.getInt(offset + PLAYER_OFFSET_DEAD) != FALSE;
+    }
+    
+    /**
+     * Gets the command type of a cell.
+     * @param address The sanitized address.
+     * @return The command type.
+     */
+    public AICommandType getCellType(int address) {
+        return AICommandType.values()[buffer.get(cellsOffset + address * CELL_SIZE + CELL_OFFSET_TYPE)];
+    }
+    
+    /**
+     * Gets if a cell was modified by an AI.
+     * @param address The sanitized address.
+     * @return If the cell was modified.
+     */
+    public boolean isCellModified(int address) {
+        return (buffer.get(cellsOffset + address * CELL_SIZE + CELL_OFFSET_FLAGS) & FLAG_MODIFIED) != 0;
+    }
+    
+    /**
+     * Gets the owner of a cell.
+     * @param address The sanitized address.
+     * @return The index of the AI that wrote the cell last or {@link Memory#NO_OWNER}.
+     */
+    public int getCellOwner(int address) {
+        return buffer.getShort(cellsOffset + address * CELL_SIZE + CELL_OFFSET_OWNER);
+    }
+    
+    /**
+     * Gets the first argument of a cell.
+     * @param address The sanitized address.
+     * @return The first argument.
+     */
+    public int getCellArgumentA(int address) {
+        return buffer.getInt(cellsOffset + address * CELL_SIZE + CELL_OFFSET_ARGUMENT_A);
+    }
+    
+    /**
+     * Gets the second argument of a cell.
+     * @param address The sanitized address.
+     * @return The second argument.
+     */
+    public int getCellArgumentB(int address) {
+        return buffer.getInt(cellsOffset + address * CELL_SIZE + CELL_OFFSET_ARGUMENT_B);
+    }
+    
+    /**
+     * The status of the game in an arena.
+     */
+    public enum ArenaStatus {
+        /**
+         * The game is played, or the JVM playing it died.
+         */
+        RUNNING,
+        /**
+         * The game was suspended and can be resumed.
+         */
+        SUSPENDED,
+        /**
+         * The game was ended and cannot be resumed.
+         */
+        ENDED
+    }
+}
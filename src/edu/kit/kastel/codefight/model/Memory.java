@@ -3,16 +3,34 @@
 import edu.kit.kastel.codefight.Main;
 import edu.kit.kastel.codefight.aicommands.AICommand;
 import edu.kit.kastel.codefight.aicommands.AICommandType;
+import edu.kit.kastel.codefight.metrics.EngineMetrics;
 import edu.kit.kastel.codefight.model.diagnostic.InvalidPointerException;
 import edu.kit.kastel.codefight.usercommands.CommandHandler;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Random;
+import java.util.Optional;
 
 /**
  * The entire memory / playing field of the game.
- * Generates new memory on the fly as soon as it's needed and saves it till the end.
+ * <p></p>
+ * The cells a game starts with are read from a {@link BaseImage base image} that all games with the same memory size,
+ * init mode and seed share. The memory itself only stores the cells that were written or modified since, in an array
+ * indexed by their address, a cell is copied from the image when it is modified the first time. So a game holds
+ * about as many cell objects as its AIs have touched, and reading a cell allocates nothing.
+ * <p></p>
+ * Next to the cells, the memory keeps the classification of every cell up to date as it is written: a bitset
+ * of all bombs and the owner of every cell, also as one bitset per owner, the amount of cells and bombs per owner,
+ * and {@link BlockCounters block counters} for the zoomed out view. Rendering and statistics use these instead of inspecting the cells.
+ * <p></p>
+ * A reset takes time and space linear in the memory size nevertheless: it visits every address to drop the stored
+ * cells, marks every cell as changed and creates the classification, whose block counters hold two arrays of the
+ * memory size per AI. Every game resets a new memory, so there is nothing to reuse. With at most
+ * {@value Main#MAX_MEMORY_SIZE} cells, a reset for two AIs takes about 30 microseconds and 30 kilobytes, little next
+ * to generating the cells, which the shared image saves. So the memory does not track the written addresses to
+ * clear only those.
  *
  * @author uwwfh
  */
@@ -23,53 +41,92 @@ public final class Memory {
             .formatted(CommandHandler.ERROR_PREFIX, INTEGER_FORMAT);
     private static final String ERROR_MIN_MEM = "%stoo little memory allocated. Minimum size is %s."
             .formatted(CommandHandler.ERROR_PREFIX, INTEGER_FORMAT);
-    private static final String ERROR_INIT_OUT_OF_MEMORY = "%stoo little memory for too much instructions at setup!"
-            .formatted(CommandHandler.ERROR_PREFIX);
-    private static final String ERROR_AI_INSTRUCTION_OUT_OF_MEM = "%sAI is setting up too many instructions in too little space."
-            .formatted(CommandHandler.ERROR_PREFIX);
+    private static final String ERROR_INIT_OUT_OF_MEMORY = "too little memory for too much instructions at setup!";
+    private static final String ERROR_AI_INSTRUCTION_OUT_OF_MEM = "AI is setting up too many instructions in too little space.";
     private static final String ERROR_INVALID_POINTER = "%sinvalid Memory Address: %s"
             .formatted(CommandHandler.ERROR_PREFIX, INTEGER_FORMAT);
     
     private static final int BEGIN_ADDRESS_PTR = 0;
-    
-    private static Random randomCellGenerator;
-    private static long cellGenerationSeed;
-    private static MemoryInitType memoryInitType;
-    private static int memorySize;
-    
-    private final HashMap<Integer, MemoryCell> memory;
+    private static final int CAPTURED_CELL_FIELDS = 5;
+    private static final int CAPTURED_TYPE = 0;
+    private static final int CAPTURED_ARGUMENT_A = 1;
+    private static final int CAPTURED_ARGUMENT_B = 2;
+    private static final int CAPTURED_OWNER = 3;
+    private static final int CAPTURED_MODIFIED = 4;
+    private static final AICommandType[] COMMAND_TYPES = AICommandType.values();
     
     /**
-     * Creates a new memory object.
+     * The owner of cells that were never written by an AI.
      */
-    public Memory() {
-        memory = new HashMap<>();
-    }
+    public static final int NO_OWNER = -1;
+    
+    private final Codefight game;
+    private final int memorySize;
+    private final MemoryInitType memoryInitType;
+    private final long cellGenerationSeed;
+    private BaseImage base;
+    
+    private final MemoryCell[] memory;
+    private final BitSet changedCells;
+    private final BitSet bombCells;
+    private final int[] cellOwners;
+    private final List<AIPrintWrapper> owners;
+    private final List<BitSet> ownedCells;
+    private int[] ownedCounts;
+    private int[] bombCounts;
+    private BlockCounters blockCounters;
+    private GameArena arena;
+    private UndoJournal journal;
+    private MemoryCell[] pendingCells;
+    private boolean deferringWrites;
     
     /**
-     * Initializes memory size, init type and seed parameters.
+     * Creates a new memory object for a game.
      * @throws IllegalArgumentException If the specified memory size is smaller than the minimum required memory size
      *        or larger than the maximum memory size.
+     * @param game The game that is played on this memory. Used to render AI positions.
      * @param memorySize The size of the memory unit.
      * @param memoryInitType The initialization type of unpopulated memory cells.
      * @param seed The seed for the random generator. If init type is STOP_FILL, parameter will be ignored.
      */
-    static void initMemory(int memorySize, MemoryInitType memoryInitType, long seed) {
+    Memory(Codefight game, int memorySize, MemoryInitType memoryInitType, long seed) {
+        validateMemorySize(memorySize);
+        this.game = game;
+        this.memorySize = memorySize;
+        this.memoryInitType = memoryInitType;
+        this.cellGenerationSeed = seed;
+        this.memory = new MemoryCell[memorySize];
+        this.changedCells = new BitSet(memorySize);
+        this.bombCells = new BitSet(memorySize);
+        this.cellOwners = new int[memorySize];
+        Arrays.fill(cellOwners, NO_OWNER);
+        this.owners = new ArrayList<>();
+        this.ownedCells = new ArrayList<>();
+        this.blockCounters = new BlockCounters(memorySize, 0);
+        this.ownedCounts = new int[0];
+        this.bombCounts = new int[0];
+    }
+    
+    /**
+     * Validates that a memory size lies within the allowed bounds.
+     * @throws IllegalArgumentException If the specified memory size is smaller than the minimum required memory size
+     *        or larger than the maximum memory size.
+     * @param memorySize The memory size to validate.
+     */
+    static void validateMemorySize(int memorySize) {
         if (memorySize > Main.MAX_MEMORY_SIZE) {
             throw new IllegalArgumentException(ERROR_MAX_MEM.formatted(Main.MAX_MEMORY_SIZE));
         }
         if (memorySize < Main.MIN_MEMORY_SIZE) {
             throw new IllegalArgumentException(ERROR_MIN_MEM.formatted(Main.MIN_MEMORY_SIZE));
         }
-        setMemoryInitType(memoryInitType, seed);
-        Memory.memorySize = memorySize;
     }
 
     /**
      * Gets the size of the memory.
      * @return The memory size.
      */
-    public static int getMemorySize() {
+    public int getMemorySize() {
         return memorySize;
     }
     
@@ -77,7 +134,7 @@ public static int getMemorySize() {
      * Gets the memory init type.
      * @return The memory init type.
      */
-    public static MemoryInitType getMemoryInitType() {
+    public MemoryInitType getMemoryInitType() {
         return memoryInitType;
     }
     
@@ -85,28 +142,17 @@ public static MemoryInitType getMemoryInitType() {
      * Gets the seed used for cell generation.
      * @return The cell generation seed.
      */
-    public static long getCellGenerationSeed() {
+    public long getCellGenerationSeed() {
         return cellGenerationSeed;
     }
-    
-    /**
-     * Sets the memory init type and the seed for the random generator.
-     * Setting the seed is only required if init mode is random.
-     * @param memoryInitType The initialization type of unpopulated memory cells.
-     * @param seed The seed for the random generator. If init type is STOP_FILL, parameter will be ignored.
-     */
-    public static void setMemoryInitType(MemoryInitType memoryInitType, long seed) {
-        Memory.memoryInitType = memoryInitType;
-        if (memoryInitType == MemoryInitType.INIT_MODE_RANDOM) {
-            randomCellGenerator = new Random(seed);
-            cellGenerationSeed = seed;
-        }
-    }
 
     /**
      * Gets the memory cell at a given address.
      * Address is modified to fit inside the bounds, overflow
      * is not possible.
+     * The cell must only be read: a cell that was not written since the reset is the read-only cell of the base image
+     * shared by all games, which throws if it is modified. Writes must go through {@link #modifyMemory(int)}, which
+     * copies such a cell into this memory first and records the change.
      *
      * @throws InvalidPointerException If the pointer is not registered in the memory.
      * @param address The memory address.
@@ -114,12 +160,72 @@ public static void setMemoryInitType(MemoryInitType memoryInitType, long seed) {
      */
     public MemoryCell readMemory(final int address) {
         int sanitizedAddr = sanitizeAddress(address);
-        if (memory.containsKey(sanitizedAddr)) {
-            return memory.get(sanitizedAddr);
+        if (deferringWrites && pendingCells[sanitizedAddr] != null) {
+            return pendingCells[sanitizedAddr];
+        }
+        MemoryCell cell = memory[sanitizedAddr];
+        if (cell != null) {
+            return cell;
+        }
+        if (base != null) {
+            return base.getCell(sanitizedAddr);
         }
         throw new InvalidPointerException(ERROR_INVALID_POINTER.formatted(address));
     }
     
+    /**
+     * Gets the cell stored at an address, or the read-only cell of the base image if it was not written since the reset.
+     * @param address The sanitized address.
+     * @return The cell.
+     */
+    private MemoryCell getCell(int address) {
+        MemoryCell cell = memory[address];
+        return cell != null ? cell : base.getCell(address);
+    }
+    
+    /**
+     * Gets the memory cell at a given address to modify it in place.
+     * Address is modified to fit inside the bounds, overflow
+     * is not possible.
+     * Unlike {@link #readMemory(int)}, the cell is recorded as changed.
+     *
+     * @throws InvalidPointerException If the pointer is not registered in the memory.
+     * @param address The memory address.
+     * @return The memory cell at that address.
+     */
+    public MemoryCell modifyMemory(final int address) {
+        MemoryCell cell = readMemory(address);
+        int sanitizedAddr = sanitizeAddress(address);
+        if (deferringWrites) {
+            if (pendingCells[sanitizedAddr] == null) {
+                // The copy is not placed, so modifying it does not classify it
+                pendingCells[sanitizedAddr] = cell.copy();
+            }
+            return pendingCells[sanitizedAddr];
+        }
+        if (memory[sanitizedAddr] == null) {
+            // Copy on write: the cell of the base image is shared, so a copy is stored and modified
+            cell = cell.copy();
+            memory[sanitizedAddr] = cell;
+            cell.place(this, sanitizedAddr);
+        }
+        if (journal != null) {
+            journal.recordCell(sanitizedAddr, cell, cellOwners[sanitizedAddr]);
+        }
+        changedCells.set(sanitizedAddr);
+        return cell;
+    }
+    
+    /**
+     * Gets the addresses of all cells that were written or modified since the last call and forgets them.
+     * @return The changed addresses.
+     */
+    public BitSet takeChangedCells() {
+        BitSet changed = (BitSet) changedCells.clone();
+        changedCells.clear();
+        return changed;
+    }
+    
     /**
      * Writes a given memory cell content to an address of the memory.
      * Address is modified to fit inside the bounds, overflow
@@ -149,7 +255,267 @@ private void writeToMemory(final int address, final MemoryCell content, AIPrintW
     private void writeToMemory(final int address, final MemoryCell content, AIPrintWrapper lastModifiedWrapper, boolean isUnmodified) {
         int sanitizedAddr = sanitizeAddress(address);
         content.setLastModifiedBy(lastModifiedWrapper, !isUnmodified);
-        memory.put(sanitizedAddr, content);
+        if (deferringWrites) {
+            pendingCells[sanitizedAddr] = content;
+            EngineMetrics.recordCellWrite();
+            return;
+        }
+        if (journal != null && !isUnmodified) {
+            journal.recordCell(sanitizedAddr, getCell(sanitizedAddr), cellOwners[sanitizedAddr]);
+        }
+        MemoryCell replaced = memory[sanitizedAddr];
+        memory[sanitizedAddr] = content;
+        if (replaced != null) {
+            replaced.place(null, sanitizedAddr);
+        }
+        content.place(this, sanitizedAddr);
+        classifyCell(sanitizedAddr, content);
+        changedCells.set(sanitizedAddr);
+        if (!isUnmodified) {
+            EngineMetrics.recordCellWrite();
+        }
+    }
+    
+    /**
+     * Starts or stops deferring the writes of AIs, so turns that write different cells can be played in parallel.
+     * <p></p>
+     * While writes are deferred, written and modified cells are kept aside instead of being stored, and reading
+     * them returns the kept cell. Nothing else of the memory changes, so reading other cells is safe from any thread.
+     * Once writes are not deferred anymore, all kept cells must be stored with {@link #commitDeferredWrite(int)}.
+     * Writes to the same cell from different threads are not allowed.
+     * @param defer If writes are deferred from now on.
+     */
+    void deferWrites(boolean defer) {
+        if (defer && pendingCells == null) {
+            pendingCells = new MemoryCell[memorySize];
+        }
+        deferringWrites = defer;
+    }
+    
+    /**
+     * Stores the cell kept aside for an address while writes are deferred, like an AI that writes it right now.
+     * Does nothing if the cell was not written.
+     * @param address The sanitized address of the cell.
+     */
+    void commitDeferredWrite(int address) {
+        MemoryCell cell = pendingCells[address];
+        if (cell == null) {
+            return;
+        }
+        pendingCells[address] = null;
+        if (journal != null) {
+            journal.recordCell(address, getCell(address), cellOwners[address]);
+        }
+        MemoryCell replaced = memory[address];
+        memory[address] = cell;
+        if (replaced != null) {
+            replaced.place(null, address);
+        }
+        cell.place(this, address);
+        classifyCell(address, cell);
+        changedCells.set(address);
+    }
+    
+    /**
+     * Updates the classification of a cell after it was written or modified.
+     * @param address The sanitized address of the cell.
+     * @param cell The cell stored at the address.
+     */
+    void classifyCell(int address, MemoryCell cell) {
+        boolean wasBomb = bombCells.get(address);
+        boolean isBomb = cell.isBomb();
+        bombCells.set(address, isBomb);
+        int owner = getOwnerIndex(cell.getPrintWrapper());
+        int previousOwner = cellOwners[address];
+        if (owner != previousOwner || wasBomb != isBomb) {
+            blockCounters.update(address, previousOwner, wasBomb, owner, isBomb);
+            if (previousOwner != NO_OWNER) {
+                ownedCounts[previousOwner]--;
+                bombCounts[previousOwner] -= wasBomb ? 1 : 0;
+            }
+            if (owner != NO_OWNER) {
+                ownedCounts[owner]++;
+                bombCounts[owner] += isBomb ? 1 : 0;
+            }
+        }
+        if (owner != previousOwner) {
+            if (previousOwner != NO_OWNER) {
+                ownedCells.get(previousOwner).clear(address);
+            }
+            if (owner != NO_OWNER) {
+                ownedCells.get(owner).set(address);
+            }
+            cellOwners[address] = owner;
+        }
+        if (arena != null) {
+            arena.writeCell(address, cell, owner);
+        }
+    }
+    
+    /**
+     * Writes all cells to an arena and from then on every change of a cell as well.
+     * @param arena The arena of the game.
+     */
+    void attachArena(GameArena arena) {
+        for (int address = BEGIN_ADDRESS_PTR; address < memorySize; address++) {
+            arena.writeCell(address, getCell(address), cellOwners[address]);
+        }
+        this.arena = arena;
+    }
+    
+    /**
+     * Records the previous content of every cell an AI writes from then on, see {@link UndoJournal}.
+     * @param journal The journal of the game.
+     */
+    void attachJournal(UndoJournal journal) {
+        this.journal = journal;
+    }
+    
+    /**
+     * Puts back the content of a cell when a turn is played backwards. Unlike the writes of AIs,
+     * the cell is not recorded in the journal.
+     * @param address The sanitized address of the cell.
+     * @param type The command type of the cell.
+     * @param argumentA The first argument of the cell.
+     * @param argumentB The second argument of the cell.
+     * @param owner The owner of the cell, see {@link #getOwner(int)}.
+     * @param modified If the cell was modified by an AI.
+     */
+    void restoreCell(int address, AICommandType type, int argumentA, int argumentB, int owner, boolean modified) {
+        MemoryCell cell = new MemoryCell(type, argumentA, argumentB);
+        cell.setLastModifiedBy(owner == NO_OWNER ? null : owners.get(owner), modified);
+        MemoryCell replaced = memory[address];
+        memory[address] = cell;
+        if (replaced != null) {
+            replaced.place(null, address);
+        }
+        cell.place(this, address);
+        classifyCell(address, cell);
+        changedCells.set(address);
+    }
+    
+    /**
+     * Captures the content of all cells: command type, arguments, owner and modified flag.
+     * @return The cells, in the form accepted by {@link #restoreCells(int[])}.
+     */
+    int[] captureCells() {
+        int[] cells = new int[memorySize * CAPTURED_CELL_FIELDS];
+        for (int address = BEGIN_ADDRESS_PTR; address < memorySize; address++) {
+            MemoryCell cell = getCell(address);
+            int offset = address * CAPTURED_CELL_FIELDS;
+            cells[offset + CAPTURED_TYPE] = cell.getSavedCommandType().ordinal();
+            cells[offset + CAPTURED_ARGUMENT_A] = cell.getArgumentA();
+            cells[offset + CAPTURED_ARGUMENT_B] = cell.getArgumentB();
+            cells[offset + CAPTURED_OWNER] = cellOwners[address];
+            cells[offset + CAPTURED_MODIFIED] = cell.isUnmodified() ? 0 : 1;
+        }
+        return cells;
+    }
+    
+    /**
+     * Puts back the content of all cells as captured by {@link #captureCells()}. Cells that did not change
+     * since are kept, so they are not reported as {@link #takeChangedCells() changed}.
+     * @param cells The captured cells.
+     */
+    void restoreCells(int[] cells) {
+        for (int address = BEGIN_ADDRESS_PTR; address < memorySize; address++) {
+            int offset = address * CAPTURED_CELL_FIELDS;
+            MemoryCell cell = getCell(address);
+            if (cell.getSavedCommandType().ordinal() == cells[offset + CAPTURED_TYPE]
+                    && cell.getArgumentA() == cells[offset + CAPTURED_ARGUMENT_A]
+                    && cell.getArgumentB() == cells[offset + CAPTURED_ARGUMENT_B]
+                    && cellOwners[address] == cells[offset + CAPTURED_OWNER]
+                    && cell.isUnmodified() == (cells[offset + CAPTURED_MODIFIED] == 0)) {
+                continue;
+            }
+            restoreCell(address, COMMAND_TYPES[cells[offset + CAPTURED_TYPE]], cells[offset + CAPTURED_ARGUMENT_A],
+                    cells[offset + CAPTURED_ARGUMENT_B], cells[offset + CAPTURED_OWNER], cells[offset + CAPTURED_MODIFIED] != 0);
+        }
+    }
+    
+    /**
+     * Restores the cells of a game from an arena, instead of {@link #reset(List) resetting} the memory.
+     * Only the cells that differ from the base image are stored.
+     * @param arena The arena of the game.
+     * @param players All AIs of the game, in their order.
+     */
+    void restore(GameArena arena, List<AIPlayer> players) {
+        setOwners(players);
+        clearCells();
+        for (int address = BEGIN_ADDRESS_PTR; address < memorySize; address++) {
+            int owner = arena.getCellOwner(address);
+            if (owner == NO_OWNER && !arena.isCellModified(address) && base.matches(address, arena.getCellType(address),
+                    arena.getCellArgumentA(address), arena.getCellArgumentB(address))) {
+                continue;
+            }
+            MemoryCell cell = new MemoryCell(arena.getCellType(address), arena.getCellArgumentA(address),
+                    arena.getCellArgumentB(address));
+            cell.setLastModifiedBy(owner == NO_OWNER ? null : players.get(owner).getPrintWrapper(), arena.isCellModified(address));
+            memory[address] = cell;
+            cell.place(this, address);
+            classifyCell(address, cell);
+        }
+    }
+    
+    /**
+     * Gets the owner index of a print wrapper. Wrappers are compared by identity, since the AIs of a game
+     * share the wrapper objects of their session.
+     */
+    private int getOwnerIndex(AIPrintWrapper printWrapper) {
+        if (printWrapper == null) {
+            return NO_OWNER;
+        }
+        for (int i = 0; i < owners.size(); i++) {
+            if (owners.get(i) == printWrapper) {
+                return i;
+            }
+        }
+        return NO_OWNER;
+    }
+    
+    /**
+     * Gets the owner of a cell, so the AI that wrote it last, including the setup.
+     * @param address The sanitized address of the cell.
+     * @return The index of the AI in the game or {@link #NO_OWNER}.
+     */
+    public int getOwner(int address) {
+        return cellOwners[address];
+    }
+    
+    /**
+     * Gets if the cell at an address is a bomb, see {@link MemoryCell#isBomb()}.
+     * @param address The sanitized address of the cell.
+     * @return If the cell is a bomb.
+     */
+    public boolean isBomb(int address) {
+        return bombCells.get(address);
+    }
+    
+    /**
+     * Gets the amount of cells an AI owns, see {@link #getOwner(int)}. The count is kept up to date as cells
+     * are written, so this takes constant time.
+     * @param owner The index of the AI in the game.
+     * @return The amount of owned cells.
+     */
+    public int countOwnedCells(int owner) {
+        return ownedCounts[owner];
+    }
+    
+    /**
+     * Gets the amount of bombs an AI owns, in constant time like {@link #countOwnedCells(int)}.
+     * @param owner The index of the AI in the game.
+     * @return The amount of owned bombs.
+     */
+    public int countBombs(int owner) {
+        return bombCounts[owner];
+    }
+    
+    /**
+     * Gets the amount of bombs in the memory.
+     * @return The amount of bombs.
+     */
+    public int countBombs() {
+        return bombCells.cardinality();
     }
     
     /**
@@ -193,43 +559,26 @@ public void cloneMemory(final int addressFrom, final int addressTo, AIPrintWrapp
      * @param address The address.
      * @return Sanitized (valid) address
      */
-    public static int sanitizeAddress(int address) {
-        int sanitized = address % getMemorySize();
+    public int sanitizeAddress(int address) {
+        int sanitized = address % memorySize;
         if (sanitized < 0) {
-            sanitized += getMemorySize();
+            sanitized += memorySize;
         }
         return sanitized;
     }
     
-    /**
-     * Generates and populates a new MemoryCell based on the setting
-     * on how to deal with generating memory.
-     *
-     * @return The new MemoryCell object, unassigned.
-     */
-    private MemoryCell generateNewMemoryContent() {
-        if (memoryInitType == MemoryInitType.INIT_MODE_STOP) {
-            return new MemoryCell();
-        }
-        AICommandType[] cmdTypes = AICommandType.values();
-        AICommandType nextType = cmdTypes[randomCellGenerator.nextInt(cmdTypes.length)];
-        int argA = randomCellGenerator.nextInt();
-        int argB = randomCellGenerator.nextInt();
-        return new MemoryCell(nextType, argA, argB);
-    }
-    
     /**
      * Resets the Memory and populates memory using the player's initial data.
-     * Populates the remaining spaces according to the memory fill type.
+     * The remaining cells are the ones of the base image of the memory fill type and seed.
      * <p></p>
-     * Also resets the cell generation Random object.
-     * Returns true if the reset failed.
+     * Returns the error message if the reset failed.
      *
      * @param players The players that will be playing this round.
-     * @return If the reset was successful.
+     * @return The error message, empty if the reset was successful.
      */
-    boolean reset(List<AIPlayer> players) {
-        populateEntireMemory();
+    Optional<String> reset(List<AIPlayer> players) {
+        setOwners(players);
+        clearCells();
         final double spacing = (double) memorySize / players.size();
         double currentPtr = BEGIN_ADDRESS_PTR;
         // First, assert space validity
@@ -237,12 +586,10 @@ boolean reset(List<AIPlayer> players) {
             AIPlayer player = players.get(i);
             // Only take spacing like this into account if it's not the last player
             if (spacing < player.getInstructions().size() && i < players.size() - 1) {
-                System.err.println(ERROR_AI_INSTRUCTION_OUT_OF_MEM);
-                return false;
+                return Optional.of(ERROR_AI_INSTRUCTION_OUT_OF_MEM);
             }
             if ((int) currentPtr + player.getInstructions().size() > memorySize) {
-                System.err.println(ERROR_INIT_OUT_OF_MEMORY);
-                return false;
+                return Optional.of(ERROR_INIT_OUT_OF_MEMORY);
             }
             currentPtr += spacing;
         }
@@ -258,30 +605,185 @@ boolean reset(List<AIPlayer> players) {
             player.setMemoryPtr(ptr);
             currentPtr += spacing;
         }
-        return true;
+        return Optional.empty();
     }
     
     /**
-     * Populates the entire memory with brand-new cells.
-     * Resets the cell generator.
+     * Sets the AIs that may own cells. Their index is the owner index of {@link #getOwner(int)}.
      */
-    private void populateEntireMemory() {
-        randomCellGenerator = new Random(cellGenerationSeed);
-        for (int ptr = BEGIN_ADDRESS_PTR; ptr < memorySize; ++ptr) {
-            writeToMemory(ptr, generateNewMemoryContent(), null, true);
+    private void setOwners(List<AIPlayer> players) {
+        owners.clear();
+        ownedCells.clear();
+        Arrays.fill(cellOwners, NO_OWNER);
+        bombCells.clear();
+        blockCounters = new BlockCounters(memorySize, players.size());
+        ownedCounts = new int[players.size()];
+        bombCounts = new int[players.size()];
+        for (AIPlayer player : players) {
+            owners.add(player.getPrintWrapper());
+            ownedCells.add(new BitSet(memorySize));
+        }
+    }
+    
+    /**
+     * Drops all stored cells, so every cell is the one of the base image again, and marks all cells as changed.
+     * Visits every address, see the cost of a reset in the {@link Memory class description}.
+     * The classification must have been reset before, the cells of the image are unowned and no bombs.
+     */
+    private void clearCells() {
+        base = BaseImage.of(memorySize, memoryInitType, cellGenerationSeed);
+        for (int address = BEGIN_ADDRESS_PTR; address < memorySize; address++) {
+            if (memory[address] != null) {
+                memory[address].place(null, address);
+                memory[address] = null;
+            }
         }
+        changedCells.set(BEGIN_ADDRESS_PTR, memorySize);
     }
     
     @Override
     public String toString() {
         StringBuilder memoryBuilder = new StringBuilder();
-        for (int ptr = BEGIN_ADDRESS_PTR; ptr < memorySize; ptr++) {
-            assert memory.containsKey(ptr);
-            memoryBuilder.append(getSingleCharacterRepresentation(ptr));
+        for (MemoryRun run : encodeRuns()) {
+            memoryBuilder.append(run.symbol().repeat(run.length()));
         }
         return memoryBuilder.toString();
     }
     
+    /**
+     * Renders a range of cells to a buffer, with the same symbols as {@link #toString()}. Only the cells of the
+     * range are visited, so the cost depends on the length of the range and not on the memory size.
+     * The range wraps around the end of the memory.
+     * @param from The address of the first cell, is sanitized.
+     * @param length The amount of cells, at most the memory size.
+     * @param sink The buffer to append the symbols to.
+     */
+    public void render(int from, int length, StringBuilder sink) {
+        for (int offset = 0; offset < length; offset++) {
+            sink.append(getSingleCharacterRepresentation(sanitizeAddress(from + offset)));
+        }
+    }
+    
+    /**
+     * Renders a zoomed out view of the memory to a buffer, one symbol per block of cells. The block of an AI pointer
+     * gets its symbol as in {@link #toString()}. Otherwise the block gets the symbol of the owner of most of its cells,
+     * the unmodified symbol if most cells have no owner, and the bomb symbol if the block contains a bomb. If unowned
+     * cells dominate a block with bombs, the AI with the most bombs in it is shown. Ties go to the unowned cells,
+     * then to the earlier AI.
+     * <p></p>
+     * Blocks are counted with the block counters and the AI pointers, so every block costs time logarithmic in the
+     * memory size and independent of the block size.
+     * @param from The address of the first cell of the first block.
+     * @param blocks The amount of blocks. The last block is cut off at the end of the memory.
+     * @param blockSize The amount of cells per block.
+     * @param sink The buffer to append the symbols to.
+     */
+    public void renderOverview(int from, int blocks, int blockSize, StringBuilder sink) {
+        BitSet aiCells = game.getAliveAIAddresses();
+        int nextAI = game.getNextAIAddress();
+        for (int block = 0; block < blocks; block++) {
+            int start = from + block * blockSize;
+            int end = Math.min(start + blockSize, memorySize);
+            int firstAI = aiCells.nextSetBit(start);
+            if (nextAI >= start && nextAI < end) {
+                sink.append(getMemorySymbol(Main.INDEX_NEXT_AI_COMMAND));
+            } else if (firstAI >= 0 && firstAI < end) {
+                sink.append(getMemorySymbol(Main.INDEX_ANY_AI_COMMAND));
+            } else {
+                sink.append(getBlockSymbol(start, end));
+            }
+        }
+    }
+    
+    /**
+     * Gets the symbol of a block without AI pointers, see {@link #renderOverview(int, int, int, StringBuilder)}.
+     */
+    private String getBlockSymbol(int start, int end) {
+        int dominant = NO_OWNER;
+        int dominantCells = 0;
+        int ownedCells = 0;
+        int mostBombs = NO_OWNER;
+        int mostBombCount = 0;
+        for (int owner = 0; owner < blockCounters.getOwnerCount(); owner++) {
+            int cells = blockCounters.countOwned(owner, start, end);
+            int bombs = blockCounters.countBombs(owner, start, end);
+            ownedCells += cells;
+            if (cells > dominantCells) {
+                dominant = owner;
+                dominantCells = cells;
+            }
+            if (bombs > mostBombCount) {
+                mostBombs = owner;
+                mostBombCount = bombs;
+            }
+        }
+        if (end - start - ownedCells >= dominantCells) {
+            dominant = mostBombs;
+        }
+        if (dominant == NO_OWNER) {
+            return getMemorySymbol(Main.INDEX_UNMODIFIED);
+        }
+        return mostBombCount > 0 ? owners.get(dominant).bombSymbol() : owners.get(dominant).defaultSymbol();
+    }
+    
+    /**
+     * Encodes the memory as runs of cells with the same symbol, as rendered by {@link #toString()}.
+     * The runs are found with the bomb and owner bitsets, so the time depends on the amount of runs
+     * and not on the memory size. Adjacent runs never share a symbol.
+     * @return The runs in memory order.
+     */
+    public List<MemoryRun> encodeRuns() {
+        List<MemoryRun> runs = new ArrayList<>();
+        BitSet aiCells = game.getAliveAIAddresses();
+        int address = BEGIN_ADDRESS_PTR;
+        while (address < memorySize) {
+            String symbol;
+            int end;
+            if (aiCells.get(address)) {
+                symbol = getSingleCharacterRepresentation(address);
+                end = address + 1;
+            } else {
+                symbol = getCellSymbol(address);
+                int nextAI = aiCells.nextSetBit(address);
+                end = Math.min(nextAI < 0 ? memorySize : nextAI, Math.min(nextOwnerChange(address), nextBombChange(address)));
+            }
+            int lastIndex = runs.size() - 1;
+            if (lastIndex >= 0 && runs.get(lastIndex).symbol().equals(symbol)) {
+                runs.set(lastIndex, new MemoryRun(symbol, runs.get(lastIndex).length() + end - address));
+            } else {
+                runs.add(new MemoryRun(symbol, end - address));
+            }
+            address = end;
+        }
+        return runs;
+    }
+    
+    /**
+     * Gets the first address after an address whose owner differs.
+     */
+    private int nextOwnerChange(int address) {
+        int owner = cellOwners[address];
+        if (owner != NO_OWNER) {
+            return Math.min(ownedCells.get(owner).nextClearBit(address), memorySize);
+        }
+        int next = memorySize;
+        for (BitSet owned : ownedCells) {
+            int nextOwned = owned.nextSetBit(address);
+            if (nextOwned >= 0) {
+                next = Math.min(next, nextOwned);
+            }
+        }
+        return next;
+    }
+    
+    /**
+     * Gets the first address after an address whose bomb state differs.
+     */
+    private int nextBombChange(int address) {
+        int next = bombCells.get(address) ? bombCells.nextClearBit(address) : bombCells.nextSetBit(address);
+        return next < 0 ? memorySize : Math.min(next, memorySize);
+    }
+    
     /**
      * Converts the Memory to its string representation by the rules given by the task.
      * Also inserts edge markers at the specified start and end addresses.
@@ -290,16 +792,16 @@ public String toString() {
      * @return The Memory object as String with markers
      */
     public String toString(int startAddressMarker, int endAddressMarker) {
+        assert base != null;
         StringBuilder memoryBuilder = new StringBuilder();
         for (int ptr = BEGIN_ADDRESS_PTR; ptr < memorySize; ptr++) {
-            assert memory.containsKey(ptr);
             // Separate If Statements to account for start = end
             if (ptr == startAddressMarker) {
-                memoryBuilder.append(Main.getMemorySymbol(Main.INDEX_EDGE_SYMBOL));
+                memoryBuilder.append(getMemorySymbol(Main.INDEX_EDGE_SYMBOL));
             }
             memoryBuilder.append(getSingleCharacterRepresentation(ptr));
             if (ptr == endAddressMarker) {
-                memoryBuilder.append(Main.getMemorySymbol(Main.INDEX_EDGE_SYMBOL));
+                memoryBuilder.append(getMemorySymbol(Main.INDEX_EDGE_SYMBOL));
             }
         }
         return memoryBuilder.toString();
@@ -311,26 +813,39 @@ public String toString(int startAddressMarker, int endAddressMarker) {
      * @return Single character representation.
      */
     public String getSingleCharacterRepresentation(int cellAddress) {
-        if (Main.getCodefight().getNextAIAddress() == cellAddress) {
-            return Main.getMemorySymbol(Main.INDEX_NEXT_AI_COMMAND);
+        if (game.getNextAIAddress() == cellAddress) {
+            return getMemorySymbol(Main.INDEX_NEXT_AI_COMMAND);
         }
         // Check if address is any other's next address.
-        for (AIPlayer player : Main.getCodefight().getAliveAIs()) {
-            if (player.getMemoryPtr() == cellAddress) {
-                return Main.getMemorySymbol(Main.INDEX_ANY_AI_COMMAND);
-            }
+        if (game.isAnyAIAt(cellAddress)) {
+            return getMemorySymbol(Main.INDEX_ANY_AI_COMMAND);
         }
         
-        MemoryCell cell = readMemory(cellAddress);
-        AIPrintWrapper printWrapper = cell.getPrintWrapper();
-        
-        if (cell.isBomb() && printWrapper != null) {
-            return printWrapper.bombSymbol();
+        return getCellSymbol(cellAddress);
+    }
+    
+    /**
+     * Gets the symbol of a cell, ignoring AIs that point to it.
+     * @param cellAddress The sanitized cell address.
+     * @return Single character representation of the cell.
+     */
+    private String getCellSymbol(int cellAddress) {
+        int owner = cellOwners[cellAddress];
+        if (owner == NO_OWNER) {
+            return getMemorySymbol(Main.INDEX_UNMODIFIED);
         }
-        
-        // InUnmodified is asserted because of isBomb(). If it was modified, printWrapper would be != null.
-        
-        return printWrapper == null ? Main.getMemorySymbol(Main.INDEX_UNMODIFIED) : printWrapper.defaultSymbol();
+        // Bombs are always modified, so they always have an owner
+        AIPrintWrapper printWrapper = owners.get(owner);
+        return bombCells.get(cellAddress) ? printWrapper.bombSymbol() : printWrapper.defaultSymbol();
+    }
+    
+    /**
+     * Gets the memory representation symbol of the session the game is played in.
+     * @param priority The symbol priority
+     * @return The character representing the cell.
+     */
+    private String getMemorySymbol(int priority) {
+        return game.getSession().getMemorySymbol(priority);
     }
 
 }
@@ -3,33 +3,37 @@
 import edu.kit.kastel.codefight.aicommands.AICommand;
 import edu.kit.kastel.codefight.aicommands.AICommandFactory;
 import edu.kit.kastel.codefight.aicommands.AICommandType;
+import edu.kit.kastel.codefight.metrics.EngineMetrics;
 
 /**
  * A single memory unit. Stores the command as enum and two
  * integer parameters.
+ * <p></p>
+ * The cells of a {@link BaseImage base image} are read-only, since they are shared by all games of the image.
+ * Modifying them throws an {@link IllegalStateException}, the memory copies them on the first write.
  *
  * @author uwwfh
  */
 public final class MemoryCell {
     
     private static final int DEFAULT_ARG_VALUE = 0;
+    private static final String ERROR_READ_ONLY = "the cell is shared by the base image, write it with Memory.modifyMemory.";
     
     private final AICommandType commandType;
+    private final boolean readOnly;
     private int argumentA;
     private int argumentB;
     private AIPrintWrapper lastModifiedPrinter;
     private boolean isUnmodified;
+    private Memory memory;
+    private int address;
     
     /**
      * Creates a new and empty AI command.
      * The Command Type will be STOP, all arguments are 0.
      */
     MemoryCell() {
-        this.commandType = AICommandType.STOP;
-        this.argumentA = DEFAULT_ARG_VALUE;
-        this.argumentB = DEFAULT_ARG_VALUE;
-        this.lastModifiedPrinter = null;
-        isUnmodified = true;
+        this(AICommandType.STOP, DEFAULT_ARG_VALUE, DEFAULT_ARG_VALUE);
     }
     
     /**
@@ -39,10 +43,22 @@ public final class MemoryCell {
      * @param argB The second argument
      */
     MemoryCell(AICommandType commandType, int argA, int argB) {
+        this(commandType, argA, argB, false);
+    }
+    
+    /**
+     * Creates a new unmodified cell without owner.
+     * @param commandType The command type
+     * @param argA The first argument
+     * @param argB The second argument
+     * @param readOnly If the cell is shared by a base image and must not be modified.
+     */
+    MemoryCell(AICommandType commandType, int argA, int argB, boolean readOnly) {
         this.commandType = commandType;
         this.argumentA = argA;
         this.argumentB = argB;
         this.lastModifiedPrinter = null;
+        this.readOnly = readOnly;
         isUnmodified = true;
     }
     
@@ -55,14 +71,27 @@ public final class MemoryCell {
         this.argumentA = command.getFirstArgument();
         this.argumentB = command.getSecondArgument();
         this.lastModifiedPrinter = null;
+        this.readOnly = false;
         isUnmodified = true;
     }
     
+    /**
+     * Places the cell at an address of a memory. From then on the memory is notified about changes of the
+     * cell, so it can keep its classification of the cell up to date.
+     * @param memory The memory the cell is stored in, null if the cell was removed from it.
+     * @param address The sanitized address of the cell.
+     */
+    void place(Memory memory, int address) {
+        checkWritable();
+        this.memory = memory;
+        this.address = address;
+    }
+    
     /**
      * Gets the printWrapper of the AI that last modified the Cell.
      * @return The cell's printWrapper.
      */
-    AIPrintWrapper getPrintWrapper() {
+    public AIPrintWrapper getPrintWrapper() {
         return lastModifiedPrinter;
     }
     
@@ -82,12 +111,21 @@ private void setLastModifiedBy(AIPrintWrapper printWrapper) {
      * @param markAsModified If the cell should be marked as modified.
      */
     void setLastModifiedBy(AIPrintWrapper printWrapper, boolean markAsModified) {
+        checkWritable();
         lastModifiedPrinter = printWrapper;
         if (printWrapper != null && markAsModified) {
             this.setUnmodified(false);
         }
     }
     
+    /**
+     * Gets if the cell was not modified by an AI since the game started. Cells written at setup are unmodified.
+     * @return If the cell is unmodified.
+     */
+    public boolean isUnmodified() {
+        return isUnmodified;
+    }
+    
     /**
      * Sets the unmodified parameter of the cell to true or false.
      * @param unmodified If the cell is unmodified.
@@ -118,8 +156,13 @@ public int getArgumentA() {
      * @param printWrapper The printWrapper of the AI that modified the cell.
      */
     public void setArgumentA(int value, AIPrintWrapper printWrapper) {
+        checkWritable();
         this.argumentA = value;
         setLastModifiedBy(printWrapper);
+        EngineMetrics.recordCellWrite();
+        if (memory != null) {
+            memory.classifyCell(address, this);
+        }
     }
     
     /**
@@ -136,8 +179,13 @@ public int getArgumentB() {
      * @param printWrapper The printWrapper of the AI that modified the cell.
      */
     public void setArgumentB(int value, AIPrintWrapper printWrapper) {
+        checkWritable();
         this.argumentB = value;
         setLastModifiedBy(printWrapper);
+        EngineMetrics.recordCellWrite();
+        if (memory != null) {
+            memory.classifyCell(address, this);
+        }
     }
     
     /**
@@ -166,7 +214,7 @@ boolean isBomb() {
     }
     
     /**
-     * Generates an exact copy of the memory cell.
+     * Generates an exact copy of the memory cell, which is never read-only.
      * Copied values: Command details, lastModifiedBy, isUnmodified.
      * @return A copy of the cell.
      */
@@ -176,4 +224,10 @@ MemoryCell copy() {
         memorycell.setUnmodified(isUnmodified);
         return memorycell;
     }
+    
+    private void checkWritable() {
+        if (readOnly) {
+            throw new IllegalStateException(ERROR_READ_ONLY);
+        }
+    }
 }
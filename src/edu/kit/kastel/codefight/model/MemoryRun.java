@@ -0,0 +1,33 @@
+package edu.kit.kastel.codefight.model;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * A run of consecutive memory cells that are shown with the same symbol, the unit of the run-length
+ * encoded memory dump of {@link Memory#encodeRuns()}.
+ *
+ * @param symbol The symbol of every cell of the run.
+ * @param length The amount of cells in the run, at least 1.
+ * @author uwwfh
+ */
+public record MemoryRun(String symbol, int length) {
+    
+    private static final String RUN_FORMAT = "%dx%s";
+    private static final String RUN_SEPARATOR = " ";
+    
+    /**
+     * Formats runs as compact text. Every run is written as its length, an x and its symbol, runs are
+     * separated by a space, for example {@code 12x. 1x* 3xA}. The length ends at the first x, so symbols
+     * may contain digits and x as well.
+     * @param runs The runs in memory order.
+     * @return The runs as text.
+     */
+    public static String format(List<MemoryRun> runs) {
+        StringJoiner joiner = new StringJoiner(RUN_SEPARATOR);
+        for (MemoryRun run : runs) {
+            joiner.add(RUN_FORMAT.formatted(run.length, run.symbol));
+        }
+        return joiner.toString();
+    }
+}
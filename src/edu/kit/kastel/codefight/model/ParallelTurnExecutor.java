@@ -0,0 +1,138 @@
+package edu.kit.kastel.codefight.model;
+
+import edu.kit.kastel.codefight.aicommands.AICommand;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays the turns of games with many AIs on several threads. A game hands over batches of consecutive turns of
+ * different AIs that neither read nor write cells another turn of the batch writes, see {@link TurnFootprint}.
+ * These turns are independent, so they are executed in parallel while the memory defers their writes, and the game
+ * then finishes them one by one in their order. The result is exactly the result of playing them one after another.
+ * <p></p>
+ * One executor can be shared by any number of games. Batches smaller than the minimum batch size are played
+ * sequentially, since handing them to other threads costs more than executing them.
+ * <p></p>
+ * A batch holds at most one turn per alive AI and ends at the first turn that conflicts with an earlier one, so the
+ * executor only engages in games with at least as many alive AIs as the minimum batch size whose turns rarely touch the
+ * same cells. On a memory of 1337 cells, with the default minimum of {@value #DEFAULT_MIN_BATCH}, all turns of 64 or
+ * more imps ({@code MOV_R,0,1}) are played in parallel, about 15 to 35 percent of the turns of 64 to 256 dwarfs, and
+ * none of the turns of AIs with random short programs, whose batches average two to three turns. A smaller minimum
+ * batch size engages more often, but only pays off if a turn costs more than handing it to another thread.
+ *
+ * @author uwwfh
+ */
+public final class ParallelTurnExecutor {
+    
+    /**
+     * The default minimum amount of turns a batch needs to be executed in parallel.
+     */
+    public static final int DEFAULT_MIN_BATCH = 64;
+    /**
+     * The smallest allowed minimum batch size, a batch of a single turn is never executed in parallel.
+     */
+    public static final int SMALLEST_MIN_BATCH = 2;
+    
+    private static final String THREAD_NAME = "codefight-turns-%d";
+    private static final String ERROR_THREADS = "the amount of threads must be positive.";
+    private static final String ERROR_MIN_BATCH = "the minimum batch size must be at least %d.".formatted(SMALLEST_MIN_BATCH);
+    private static final String ERROR_TURN_FAILED = "a turn failed while played in parallel: %s";
+    
+    private final ExecutorService workers;
+    private final int threads;
+    private final int minBatch;
+    
+    /**
+     * Creates a new executor with the {@link #DEFAULT_MIN_BATCH default minimum batch size}.
+     * @throws IllegalArgumentException If the amount of threads is not positive.
+     * @param threads The amount of threads a batch is split across, including the thread of the game.
+     */
+    public ParallelTurnExecutor(int threads) {
+        this(threads, DEFAULT_MIN_BATCH);
+    }
+    
+    /**
+     * Creates a new executor.
+     * @throws IllegalArgumentException If the amount of threads is not positive or the minimum batch size is below
+     *        {@link #SMALLEST_MIN_BATCH}.
+     * @param threads The amount of threads a batch is split across, including the thread of the game.
+     * @param minBatch The minimum amount of turns a batch needs to be executed in parallel.
+     */
+    public ParallelTurnExecutor(int threads, int minBatch) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException(ERROR_THREADS);
+        }
+        if (minBatch < SMALLEST_MIN_BATCH) {
+            throw new IllegalArgumentException(ERROR_MIN_BATCH);
+        }
+        this.threads = threads;
+        this.minBatch = minBatch;
+        this.workers = threads > 1 ? Executors.newFixedThreadPool(threads - 1, createThreadFactory()) : null;
+    }
+    
+    /**
+     * Gets the minimum amount of turns a batch needs to be executed in parallel.
+     * @return The minimum batch size.
+     */
+    int getMinBatch() {
+        return minBatch;
+    }
+    
+    /**
+     * Executes the commands at the memory pointers of AIs in parallel. The memory must defer its writes.
+     * @throws IllegalStateException If a command failed.
+     * @param players The AIs of the batch, at most one turn per AI.
+     * @param memory The memory of the game.
+     */
+    void execute(List<AIPlayer> players, Memory memory) {
+        int chunks = workers == null ? 1 : Math.min(threads, players.size());
+        List<Future<?>> results = new ArrayList<>();
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            List<AIPlayer> part = players.subList(chunk * players.size() / chunks, (chunk + 1) * players.size() / chunks);
+            results.add(workers.submit(() -> executeAll(part, memory)));
+        }
+        executeAll(players.subList(0, players.size() / chunks), memory);
+        try {
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(ERROR_TURN_FAILED.formatted(e.getCause().getMessage()), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ERROR_TURN_FAILED.formatted(e.getMessage()), e);
+        }
+    }
+    
+    /**
+     * Stops the threads of the executor. Games must not play with it afterwards.
+     */
+    public void shutdown() {
+        if (workers != null) {
+            workers.shutdown();
+        }
+    }
+    
+    private static void executeAll(List<AIPlayer> players, Memory memory) {
+        for (AIPlayer player : players) {
+            AICommand command = memory.readMemory(player.getMemoryPtr()).getCommand();
+            command.execute(player);
+        }
+    }
+    
+    private static ThreadFactory createThreadFactory() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME.formatted(threadCount.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,146 @@
+package edu.kit.kastel.codefight.model;
+
+/**
+ * The schedule of a real-time playback: a {@link BackgroundRun} that plays a fixed amount of steps per second
+ * and shows the memory at a fixed amount of frames per second, to watch a game.
+ * <p></p>
+ * Both rates are measured on the time the run was not paused. The steps that are due at a time are derived from
+ * the time alone, so the simulation does not drift and catches up after a slow frame. Frames are only shown
+ * at their cadence, every frame shows the state after all steps played since the frame before. A frame whose time
+ * has passed when the previous one is done is dropped, so a slow display never slows down the simulation. So is
+ * a frame that is due while the output of the session is backlogged, so a slow client only sees fewer frames.
+ *
+ * @author uwwfh
+ */
+public final class PlaybackScheduler {
+    
+    /**
+     * The maximum amount of steps per second.
+     */
+    public static final int MAX_STEPS_PER_SECOND = 1_000_000;
+    /**
+     * The maximum amount of frames per second.
+     */
+    public static final int MAX_FRAMES_PER_SECOND = 1000;
+    
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final String ERROR_RATES = "the rates must be positive and at most the maximum.";
+    
+    private final int stepsPerSecond;
+    private final int framesPerSecond;
+    private final long frameNanos;
+    private long nextFrame;
+    private long shownFrames;
+    private long droppedFrames;
+    
+    /**
+     * Creates the schedule of a playback that shows its first frame right away.
+     * @throws IllegalArgumentException If a rate is not positive or above its maximum.
+     * @param stepsPerSecond The amount of steps per second, at most {@link #MAX_STEPS_PER_SECOND}.
+     * @param framesPerSecond The amount of frames per second, at most {@link #MAX_FRAMES_PER_SECOND}.
+     */
+    public PlaybackScheduler(int stepsPerSecond, int framesPerSecond) {
+        if (stepsPerSecond <= 0 || stepsPerSecond > MAX_STEPS_PER_SECOND || framesPerSecond <= 0
+                || framesPerSecond > MAX_FRAMES_PER_SECOND) {
+            throw new IllegalArgumentException(ERROR_RATES);
+        }
+        this.stepsPerSecond = stepsPerSecond;
+        this.framesPerSecond = framesPerSecond;
+        this.frameNanos = NANOS_PER_SECOND / framesPerSecond;
+    }
+    
+    /**
+     * Gets the amount of steps per second.
+     * @return The steps per second.
+     */
+    public int getStepsPerSecond() {
+        return stepsPerSecond;
+    }
+    
+    /**
+     * Gets the amount of frames per second.
+     * @return The frames per second.
+     */
+    public int getFramesPerSecond() {
+        return framesPerSecond;
+    }
+    
+    /**
+     * Gets the amount of frames that were shown.
+     * @return The shown frames.
+     */
+    public long getShownFrames() {
+        return shownFrames;
+    }
+    
+    /**
+     * Gets the amount of frames that were dropped because their time had passed or the output was backlogged.
+     * @return The dropped frames.
+     */
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+    
+    /**
+     * Gets how many steps are due but not played yet.
+     * @param activeNanos The time the playback was not paused.
+     * @param playedSteps The amount of steps played so far.
+     * @return The amount of due steps, never negative.
+     */
+    long getDueSteps(long activeNanos, long playedSteps) {
+        long dueSteps = activeNanos / NANOS_PER_SECOND * stepsPerSecond
+                + activeNanos % NANOS_PER_SECOND * stepsPerSecond / NANOS_PER_SECOND;
+        return Math.max(dueSteps - playedSteps, 0);
+    }
+    
+    /**
+     * Gets if the next frame is due.
+     * @param activeNanos The time the playback was not paused.
+     * @return If a frame should be shown.
+     */
+    boolean isFrameDue(long activeNanos) {
+        return activeNanos >= nextFrame;
+    }
+    
+    /**
+     * Schedules the frame after a shown one, dropping every frame whose time has passed meanwhile.
+     * @param activeNanos The time the playback was not paused, after the frame was shown.
+     */
+    void frameShown(long activeNanos) {
+        shownFrames++;
+        scheduleNextFrame(activeNanos);
+    }
+    
+    /**
+     * Drops the due frame without showing it, for example because the output is backlogged,
+     * and schedules the frame after it like {@link #frameShown(long)}.
+     * @param activeNanos The time the playback was not paused.
+     */
+    void frameDropped(long activeNanos) {
+        droppedFrames++;
+        scheduleNextFrame(activeNanos);
+    }
+    
+    private void scheduleNextFrame(long activeNanos) {
+        nextFrame += frameNanos;
+        if (nextFrame <= activeNanos) {
+            long missed = (activeNanos - nextFrame) / frameNanos + 1;
+            droppedFrames += missed;
+            nextFrame += missed * frameNanos;
+        }
+    }
+    
+    /**
+     * Gets how long to wait until the next step or frame is due.
+     * @param activeNanos The time the playback was not paused.
+     * @param playedSteps The amount of steps played so far.
+     * @return The time to wait in nanoseconds, 0 if something is due already.
+     */
+    long getNanosUntilDue(long activeNanos, long playedSteps) {
+        long nextStep = playedSteps + 1;
+        // Rounded up, so the step is due when the wait is over
+        long nextStepNanos = nextStep / stepsPerSecond * NANOS_PER_SECOND
+                + (nextStep % stepsPerSecond * NANOS_PER_SECOND + stepsPerSecond - 1) / stepsPerSecond;
+        return Math.max(Math.min(nextStepNanos, nextFrame) - activeNanos, 0);
+    }
+}
@@ -0,0 +1,24 @@
+package edu.kit.kastel.codefight.model;
+
+/**
+ * Passes on the output that the {@link BackgroundRun background runs} of a {@link CodefightSession session} print
+ * between commands, for a session whose output streams are not written anywhere by themselves, like the session
+ * of a client of a server.
+ *
+ * @author uwwfh
+ */
+public interface SessionOutputListener {
+    
+    /**
+     * Called after a background run printed to the output streams of the session,
+     * while holding the {@link CodefightSession#getLock() lock of the session}.
+     */
+    void outputPrinted();
+    
+    /**
+     * Gets if too much of the output of the session was not passed on yet. Background runs wait instead of
+     * printing more while the output is backlogged.
+     * @return If the output is backlogged.
+     */
+    boolean isBacklogged();
+}
@@ -0,0 +1,118 @@
+package edu.kit.kastel.codefight.model;
+
+/**
+ * A sampled time series of the territory of every AI of a game, so how many cells each AI owns, for plotting.
+ * <p></p>
+ * A sample is taken at every step that is a multiple of the interval, and when the history is attached.
+ * The history has a fixed capacity: once it is full, every second sample is dropped and the interval doubles,
+ * so a game of any length is covered from its start with a bounded amount of samples. Games are deterministic, so
+ * samples after the step a game is played backwards to stay valid and are not taken again.
+ *
+ * @author uwwfh
+ */
+public final class TerritoryHistory {
+    
+    /**
+     * The amount of samples a history keeps at most.
+     */
+    public static final int CAPACITY = 1024;
+    
+    private static final String ERROR_INTERVAL = "the sampling interval must be positive.";
+    
+    private final int owners;
+    private final long[] steps;
+    private final int[] cells;
+    private long interval;
+    private int size;
+    
+    /**
+     * Creates an empty history.
+     * @throws IllegalArgumentException If the interval is not positive.
+     * @param interval The amount of steps between samples, until the history is full the first time.
+     * @param owners The amount of AIs of the game.
+     */
+    public TerritoryHistory(int interval, int owners) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException(ERROR_INTERVAL);
+        }
+        this.interval = interval;
+        this.owners = owners;
+        this.steps = new long[CAPACITY];
+        this.cells = new int[CAPACITY * owners];
+    }
+    
+    /**
+     * Gets the amount of samples.
+     * @return The amount of samples.
+     */
+    public int getSampleCount() {
+        return size;
+    }
+    
+    /**
+     * Gets the step a sample was taken at.
+     * @param sample The index of the sample, oldest first.
+     * @return The step.
+     */
+    public long getStep(int sample) {
+        return steps[sample];
+    }
+    
+    /**
+     * Gets the amount of cells an AI owned at a sample.
+     * @param sample The index of the sample, oldest first.
+     * @param owner The index of the AI in the game.
+     * @return The amount of owned cells.
+     */
+    public int getCells(int sample, int owner) {
+        return cells[sample * owners + owner];
+    }
+    
+    /**
+     * Gets if a sample is due at a step.
+     * @param step The step.
+     * @return If the step is a multiple of the current interval.
+     */
+    boolean isDue(long step) {
+        return step % interval == 0;
+    }
+    
+    /**
+     * Samples the territory of every AI at a step, unless the latest sample is already at or after that step,
+     * or the history is full and the step is not a multiple of the doubled interval.
+     * @param step The current step of the game.
+     * @param memory The memory of the game.
+     */
+    void sample(long step, Memory memory) {
+        if (size > 0 && steps[size - 1] >= step) {
+            return;
+        }
+        if (size == CAPACITY) {
+            thin();
+            if (!isDue(step)) {
+                return;
+            }
+        }
+        steps[size] = step;
+        for (int owner = 0; owner < owners; owner++) {
+            cells[size * owners + owner] = memory.countOwnedCells(owner);
+        }
+        size++;
+    }
+    
+    /**
+     * Keeps the first sample and the ones at multiples of the doubled interval.
+     */
+    private void thin() {
+        interval *= 2;
+        int kept = 1;
+        for (int sample = 1; sample < size; sample++) {
+            if (steps[sample] % interval == 0) {
+                steps[kept] = steps[sample];
+                System.arraycopy(cells, sample * owners, cells, kept * owners, owners);
+                kept++;
+            }
+        }
+        size = kept;
+    }
+}
@@ -0,0 +1,91 @@
+package edu.kit.kastel.codefight.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A batch of consecutive turns of a game that can be played in parallel, see {@link ParallelTurnExecutor}.
+ * Holds the AIs of the turns with their memory pointers before the turns and the cells the turns write,
+ * so the game can finish the turns in their order afterwards. A batch is reused for every batch of a game.
+ *
+ * @author uwwfh
+ */
+final class TurnBatch {
+    
+    private final TurnFootprint footprint = new TurnFootprint();
+    private final BitSet touched;
+    private final BitSet written;
+    private final List<AIPlayer> players = new ArrayList<>();
+    private final int[] pointers;
+    private final int[] writeCounts;
+    private final int[] writes;
+    
+    /**
+     * Creates a new empty batch.
+     * @param memorySize The size of the memory of the game.
+     * @param playerCount The amount of AIs of the game.
+     */
+    TurnBatch(int memorySize, int playerCount) {
+        this.touched = new BitSet(memorySize);
+        this.written = new BitSet(memorySize);
+        this.pointers = new int[playerCount];
+        this.writeCounts = new int[playerCount];
+        this.writes = new int[playerCount * TurnFootprint.MAX_WRITES];
+    }
+    
+    /**
+     * Fills the batch with the next turns in their order, up to the first turn that conflicts with an earlier one.
+     * @param memory The memory of the game.
+     * @param playingAIs The alive AIs in the order of their turns.
+     * @param turnIndex The index of the AI whose turn is next.
+     * @param maxTurns The maximum amount of turns, at most the amount of alive AIs.
+     */
+    void plan(Memory memory, List<AIPlayer> playingAIs, int turnIndex, int maxTurns) {
+        touched.clear();
+        written.clear();
+        players.clear();
+        for (int i = 0; i < maxTurns; i++) {
+            AIPlayer player = playingAIs.get((turnIndex + i) % playingAIs.size());
+            footprint.predict(memory, player.getMemoryPtr());
+            if (footprint.conflictsWith(touched, written)) {
+                return;
+            }
+            footprint.addTo(touched, written);
+            pointers[i] = player.getMemoryPtr();
+            writeCounts[i] = footprint.getWriteCount();
+            for (int write = 0; write < footprint.getWriteCount(); write++) {
+                writes[i * TurnFootprint.MAX_WRITES + write] = footprint.getWrite(write);
+            }
+            players.add(player);
+        }
+    }
+    
+    /**
+     * Gets the AIs of the turns, in their order.
+     * @return The AIs of the batch.
+     */
+    List<AIPlayer> getPlayers() {
+        return players;
+    }
+    
+    /**
+     * Gets the memory pointer of the AI of a turn before the batch was played.
+     * @param turn The index of the turn in the batch.
+     * @return The memory pointer.
+     */
+    int getPointer(int turn) {
+        return pointers[turn];
+    }
+    
+    /**
+     * Stores the cells a turn wrote while the memory deferred its writes.
+     * @param turn The index of the turn in the batch.
+     * @param memory The memory of the game.
+     */
+    void commitWrites(int turn, Memory memory) {
+        for (int write = 0; write < writeCounts[turn]; write++) {
+            memory.commitDeferredWrite(writes[turn * TurnFootprint.MAX_WRITES + write]);
+        }
+    }
+}
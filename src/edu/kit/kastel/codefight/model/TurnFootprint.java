@@ -0,0 +1,129 @@
+package edu.kit.kastel.codefight.model;
+
+import java.util.BitSet;
+
+/**
+ * The cells a turn reads and writes, predicted from the command at the memory pointer of the AI before the turn
+ * is played. Used to find turns that can be played in parallel. The prediction must cover every cell the
+ * {@link edu.kit.kastel.codefight.aicommands.AICommand#execute(AIPlayer) execution} of the command reads or writes.
+ * <p></p>
+ * The target of MOV_I depends on the cell at its B address, so it is predicted from the current content of that cell.
+ * That cell is a read of the turn, so the prediction stays valid as long as no earlier turn writes it.
+ *
+ * @author uwwfh
+ */
+final class TurnFootprint {
+    
+    /**
+     * The maximum amount of cells a turn writes.
+     */
+    static final int MAX_WRITES = 2;
+    
+    private static final int MAX_READS = 3;
+    
+    private final int[] reads = new int[MAX_READS];
+    private final int[] writes = new int[MAX_WRITES];
+    private int readCount;
+    private int writeCount;
+    
+    /**
+     * Predicts the cells a turn reads and writes, replacing the previous prediction.
+     * @param memory The memory of the game, as it is before the turn.
+     * @param pointer The memory pointer of the AI.
+     */
+    void predict(Memory memory, int pointer) {
+        readCount = 0;
+        writeCount = 0;
+        MemoryCell instruction = memory.readMemory(pointer);
+        int argumentA = instruction.getArgumentA();
+        int argumentB = instruction.getArgumentB();
+        addRead(pointer);
+        switch (instruction.getSavedCommandType()) {
+            case ADD -> addWrite(pointer);
+            case ADD_R -> addWrite(memory.sanitizeAddress(pointer + argumentB));
+            case CMP -> {
+                addRead(memory.sanitizeAddress(pointer + argumentA));
+                addRead(memory.sanitizeAddress(pointer + argumentB));
+            }
+            case JMZ -> addRead(memory.sanitizeAddress(pointer + argumentB));
+            case MOV_I -> {
+                int destination = memory.sanitizeAddress(pointer + argumentB);
+                addRead(memory.sanitizeAddress(pointer + argumentA));
+                addRead(destination);
+                addWrite(memory.sanitizeAddress(destination + memory.sanitizeAddress(memory.readMemory(destination).getArgumentB())));
+            }
+            case MOV_R -> {
+                addRead(memory.sanitizeAddress(pointer + argumentA));
+                addWrite(memory.sanitizeAddress(pointer + argumentB));
+            }
+            case SWAP -> {
+                addWrite(memory.sanitizeAddress(pointer + argumentA));
+                addWrite(memory.sanitizeAddress(pointer + argumentB));
+            }
+            default -> {
+                // JMP and STOP only change the AI
+            }
+        }
+    }
+    
+    /**
+     * Gets if the turn conflicts with turns played before it in parallel: it reads or writes a cell they write,
+     * or writes a cell they read.
+     * @param touched The cells read or written by the other turns.
+     * @param written The cells written by the other turns.
+     * @return If the turn conflicts.
+     */
+    boolean conflictsWith(BitSet touched, BitSet written) {
+        for (int i = 0; i < readCount; i++) {
+            if (written.get(reads[i])) {
+                return true;
+            }
+        }
+        for (int i = 0; i < writeCount; i++) {
+            if (touched.get(writes[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Adds the cells of the turn to the cells of other turns.
+     * @param touched The cells read or written by the other turns.
+     * @param written The cells written by the other turns.
+     */
+    void addTo(BitSet touched, BitSet written) {
+        for (int i = 0; i < readCount; i++) {
+            touched.set(reads[i]);
+        }
+        for (int i = 0; i < writeCount; i++) {
+            touched.set(writes[i]);
+            written.set(writes[i]);
+        }
+    }
+    
+    /**
+     * Gets the amount of cells the turn writes.
+     * @return The amount of writes.
+     */
+    int getWriteCount() {
+        return writeCount;
+    }
+    
+    /**
+     * Gets a cell the turn writes.
+     * @param index The index of the write, in the order the turn writes.
+     * @return The sanitized address of the cell.
+     */
+    int getWrite(int index) {
+        return writes[index];
+    }
+    
+    private void addRead(int address) {
+        reads[readCount++] = address;
+    }
+    
+    private void addWrite(int address) {
+        writes[writeCount++] = address;
+    }
+}
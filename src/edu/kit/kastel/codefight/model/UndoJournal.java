@@ -0,0 +1,194 @@
+package edu.kit.kastel.codefight.model;
+
+import edu.kit.kastel.codefight.aicommands.AICommandType;
+
+/**
+ * A bounded journal of the most recent turns of a game, used to play them backwards.
+ * <p></p>
+ * Every turn records the AI that played, its memory pointer and the turn index before the turn and if it died,
+ * as well as the previous content of every cell the turn wrote: command type, arguments, owner and modified flag.
+ * Turns write at most two cells, so the journal consists of two primitive ring buffers and does not allocate
+ * while a game is played. Once the journal is full, the oldest turn is forgotten.
+ *
+ * @author uwwfh
+ */
+final class UndoJournal {
+    
+    private static final int MAX_CELLS_PER_TURN = 2;
+    
+    private static final int TURN_FIELDS = 5;
+    private static final int TURN_PLAYER = 0;
+    private static final int TURN_POINTER = 1;
+    private static final int TURN_INDEX = 2;
+    private static final int TURN_DIED = 3;
+    private static final int TURN_CELLS = 4;
+    
+    private static final int CELL_FIELDS = 6;
+    private static final int CELL_ADDRESS = 0;
+    private static final int CELL_TYPE = 1;
+    private static final int CELL_ARGUMENT_A = 2;
+    private static final int CELL_ARGUMENT_B = 3;
+    private static final int CELL_OWNER = 4;
+    private static final int CELL_MODIFIED = 5;
+    
+    private static final String ERROR_CAPACITY = "the undo journal must hold between 1 and %d turns."
+            .formatted(CodefightSession.MAX_UNDO_STEPS);
+    private static final String ERROR_TOO_MANY_CELLS = "a turn wrote more than %d cells.".formatted(MAX_CELLS_PER_TURN);
+    private static final AICommandType[] TYPES = AICommandType.values();
+    
+    private final int capacity;
+    private final int cellCapacity;
+    private final int[] turns;
+    private final int[] cells;
+    private int firstTurn;
+    private int turnCount;
+    private int firstCell;
+    private int cellCount;
+    
+    /**
+     * Creates a new empty journal.
+     * @throws IllegalArgumentException If the capacity is not positive or larger than {@link CodefightSession#MAX_UNDO_STEPS}.
+     * @param capacity The maximum amount of turns that can be played backwards.
+     */
+    UndoJournal(int capacity) {
+        if (capacity <= 0 || capacity > CodefightSession.MAX_UNDO_STEPS) {
+            throw new IllegalArgumentException(ERROR_CAPACITY);
+        }
+        this.capacity = capacity;
+        this.cellCapacity = capacity * MAX_CELLS_PER_TURN;
+        this.turns = new int[capacity * TURN_FIELDS];
+        this.cells = new int[cellCapacity * CELL_FIELDS];
+    }
+    
+    /**
+     * Gets the amount of turns that can be played backwards.
+     * @return The amount of recorded turns.
+     */
+    int size() {
+        return turnCount;
+    }
+    
+    /**
+     * Forgets all turns, for example after the game jumped to another step.
+     */
+    void clear() {
+        turnCount = 0;
+        cellCount = 0;
+    }
+    
+    /**
+     * Starts recording a turn, before it is played.
+     * @param player The index of the AI in the game.
+     * @param pointer The memory pointer of the AI.
+     * @param turnIndex The index of the AI among the alive AIs.
+     */
+    void beginTurn(int player, int pointer, int turnIndex) {
+        if (turnCount == capacity) {
+            forgetOldestTurn();
+        }
+        int turn = turnOffset(turnCount);
+        turns[turn + TURN_PLAYER] = player;
+        turns[turn + TURN_POINTER] = pointer;
+        turns[turn + TURN_INDEX] = turnIndex;
+        turns[turn + TURN_DIED] = 0;
+        turns[turn + TURN_CELLS] = 0;
+        turnCount++;
+    }
+    
+    /**
+     * Records the content of a cell before the current turn writes it.
+     * @param address The sanitized address of the cell.
+     * @param cell The cell before it is written.
+     * @param owner The owner of the cell, see {@link Memory#getOwner(int)}.
+     */
+    void recordCell(int address, MemoryCell cell, int owner) {
+        if (turnCount == 0) {
+            return;
+        }
+        int turn = turnOffset(turnCount - 1);
+        if (turns[turn + TURN_CELLS] == MAX_CELLS_PER_TURN) {
+            throw new IllegalStateException(ERROR_TOO_MANY_CELLS);
+        }
+        int entry = cellOffset(cellCount);
+        cells[entry + CELL_ADDRESS] = address;
+        cells[entry + CELL_TYPE] = cell.getSavedCommandType().ordinal();
+        cells[entry + CELL_ARGUMENT_A] = cell.getArgumentA();
+        cells[entry + CELL_ARGUMENT_B] = cell.getArgumentB();
+        cells[entry + CELL_OWNER] = owner;
+        cells[entry + CELL_MODIFIED] = cell.isUnmodified() ? 0 : 1;
+        cellCount++;
+        turns[turn + TURN_CELLS]++;
+    }
+    
+    /**
+     * Finishes recording the current turn.
+     * @param died If the AI died in the turn.
+     */
+    void endTurn(boolean died) {
+        turns[turnOffset(turnCount - 1) + TURN_DIED] = died ? 1 : 0;
+    }
+    
+    /**
+     * Gets the index of the AI that played the last recorded turn.
+     * @return The index of the AI in the game.
+     */
+    int getLastPlayer() {
+        return turns[turnOffset(turnCount - 1) + TURN_PLAYER];
+    }
+    
+    /**
+     * Gets the memory pointer of the AI before the last recorded turn.
+     * @return The memory pointer.
+     */
+    int getLastPointer() {
+        return turns[turnOffset(turnCount - 1) + TURN_POINTER];
+    }
+    
+    /**
+     * Gets the index of the AI among the alive AIs before the last recorded turn.
+     * @return The turn index.
+     */
+    int getLastTurnIndex() {
+        return turns[turnOffset(turnCount - 1) + TURN_INDEX];
+    }
+    
+    /**
+     * Gets if the AI died in the last recorded turn.
+     * @return If the AI died.
+     */
+    boolean hasLastPlayerDied() {
+        return turns[turnOffset(turnCount - 1) + TURN_DIED] != 0;
+    }
+    
+    /**
+     * Restores the cells written by the last recorded turn and forgets the turn.
+     * The cells are restored in reverse order, so a cell written twice gets its oldest content.
+     * @param memory The memory of the game.
+     */
+    void undoLastTurn(Memory memory) {
+        int turn = turnOffset(turnCount - 1);
+        for (int i = turns[turn + TURN_CELLS]; i > 0; i--) {
+            int entry = cellOffset(cellCount - 1);
+            memory.restoreCell(cells[entry + CELL_ADDRESS], TYPES[cells[entry + CELL_TYPE]], cells[entry + CELL_ARGUMENT_A],
+                    cells[entry + CELL_ARGUMENT_B], cells[entry + CELL_OWNER], cells[entry + CELL_MODIFIED] != 0);
+            cellCount--;
+        }
+        turnCount--;
+    }
+    
+    private void forgetOldestTurn() {
+        int forgottenCells = turns[turnOffset(0) + TURN_CELLS];
+        firstCell = (firstCell + forgottenCells) % cellCapacity;
+        cellCount -= forgottenCells;
+        firstTurn = (firstTurn + 1) % capacity;
+        turnCount--;
+    }
+    
+    private int turnOffset(int turn) {
+        return (firstTurn + turn) % capacity * TURN_FIELDS;
+    }
+    
+    private int cellOffset(int cell) {
+        return (firstCell + cell) % cellCapacity * CELL_FIELDS;
+    }
+}
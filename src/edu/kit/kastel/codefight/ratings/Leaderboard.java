@@ -0,0 +1,70 @@
+package edu.kit.kastel.codefight.ratings;
+
+import edu.kit.kastel.codefight.usercommands.CommandHandler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Rates a saved {@link ResultLog results file} from scratch in one pass and prints the leaderboard.
+ * <p></p>
+ * Usage: {@code Leaderboard <results file> [count]}. Without a count, every AI is printed.
+ *
+ * @author uwwfh
+ */
+public final class Leaderboard {
+    
+    private static final String ENTRY_FORMAT = "%d. %s: rating %.0f, deviation %.0f, %d games";
+    private static final String USAGE = "Usage: Leaderboard <results file> [count]";
+    private static final String SUMMARY_FORMAT = "Rated %d games of %d AIs.";
+    private static final String ERROR_FAILED = "%scould not rate the results: %s".formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final int MIN_ARGUMENTS = 1;
+    private static final int MAX_ARGUMENTS = 2;
+    
+    private Leaderboard() { }
+    
+    /**
+     * Prints the leaderboard.
+     * @param args The results file and optionally the amount of AIs to print.
+     */
+    public static void main(String[] args) {
+        if (args.length < MIN_ARGUMENTS || args.length > MAX_ARGUMENTS) {
+            System.err.println(USAGE);
+            return;
+        }
+        RatingTable ratings = new RatingTable();
+        int count;
+        try {
+            count = args.length == MAX_ARGUMENTS ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+            ResultLog.replay(Path.of(args[0]), ratings);
+        } catch (NumberFormatException e) {
+            System.err.println(USAGE);
+            return;
+        } catch (IOException e) {
+            System.err.println(ERROR_FAILED.formatted(e.getMessage()));
+            return;
+        }
+        List<RatingTable.Rating> leaderboard = ratings.getLeaderboard();
+        System.out.println(SUMMARY_FORMAT.formatted(ratings.getRatedGames(), leaderboard.size()));
+        format(leaderboard, count).forEach(System.out::println);
+    }
+    
+    /**
+     * Formats the best ratings of a leaderboard, one line per AI.
+     * @param leaderboard The leaderboard, best first.
+     * @param count The maximum amount of AIs.
+     * @return The lines.
+     */
+    public static List<String> format(List<RatingTable.Rating> leaderboard, int count) {
+        List<String> lines = new ArrayList<>();
+        for (int rank = 0; rank < Math.min(count, leaderboard.size()); rank++) {
+            RatingTable.Rating rating = leaderboard.get(rank);
+            lines.add(String.format(Locale.ROOT, ENTRY_FORMAT, rank + 1, rating.name(), rating.rating(), rating.deviation(),
+                    rating.games()));
+        }
+        return lines;
+    }
+}
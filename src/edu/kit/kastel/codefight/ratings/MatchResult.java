@@ -0,0 +1,107 @@
+package edu.kit.kastel.codefight.ratings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The result of a finished game: the AIs in the order they were placed and the step each of them stopped in.
+ * An AI that outlived another one beat it, AIs that were both still running when the game ended drew.
+ * <p></p>
+ * A result is saved as a single line, for example {@code 1200 Imp:- Dwarf:731}, so a file of results can be
+ * read again in one pass, see {@link ResultLog}.
+ *
+ * @param steps The amount of steps played in the game.
+ * @param names The names of the AIs in the order they were placed.
+ * @param deathSteps The step each AI stopped in, {@link #SURVIVED} if it was still running.
+ * @author uwwfh
+ */
+public record MatchResult(long steps, List<String> names, List<Long> deathSteps) {
+    
+    /**
+     * The death step of an AI that was still running when the game ended.
+     */
+    public static final long SURVIVED = -1;
+    
+    private static final String SEPARATOR = " ";
+    private static final String DEATH_SEPARATOR = ":";
+    private static final String SURVIVED_MARKER = "-";
+    private static final String ERROR_SIZES = "every AI needs a death step.";
+    private static final double WIN = 1;
+    private static final double DRAW = 0.5;
+    private static final double LOSS = 0;
+    
+    /**
+     * Constructs a new result.
+     *
+     * @param steps The amount of steps played in the game.
+     * @param names The names of the AIs in the order they were placed.
+     * @param deathSteps The step each AI stopped in, {@link #SURVIVED} if it was still running.
+     * @throws IllegalArgumentException If the amount of names and death steps differ.
+     */
+    public MatchResult {
+        if (names.size() != deathSteps.size()) {
+            throw new IllegalArgumentException(ERROR_SIZES);
+        }
+        names = List.copyOf(names);
+        deathSteps = List.copyOf(deathSteps);
+    }
+    
+    /**
+     * Gets the score of an AI against another AI of the game.
+     * @param player The index of the AI.
+     * @param opponent The index of the other AI.
+     * @return 1 if the AI outlived the other one, 0.5 if both survived and 0 otherwise.
+     */
+    public double getScore(int player, int opponent) {
+        long death = deathSteps.get(player);
+        long opponentDeath = deathSteps.get(opponent);
+        if (death == opponentDeath) {
+            return DRAW;
+        }
+        if (death == SURVIVED) {
+            return WIN;
+        }
+        return opponentDeath != SURVIVED && death > opponentDeath ? WIN : LOSS;
+    }
+    
+    /**
+     * Formats the result as a single line, without line break.
+     * @return The line.
+     */
+    public String toLine() {
+        StringBuilder line = new StringBuilder().append(steps);
+        for (int i = 0; i < names.size(); i++) {
+            long death = deathSteps.get(i);
+            line.append(SEPARATOR).append(names.get(i)).append(DEATH_SEPARATOR)
+                    .append(death == SURVIVED ? SURVIVED_MARKER : String.valueOf(death));
+        }
+        return line.toString();
+    }
+    
+    /**
+     * Parses a line written by {@link #toLine()}.
+     * @param line The line.
+     * @return The result, empty if the line is malformed.
+     */
+    public static Optional<MatchResult> parse(String line) {
+        String[] fields = line.trim().split(SEPARATOR);
+        List<String> names = new ArrayList<>();
+        List<Long> deathSteps = new ArrayList<>();
+        try {
+            long steps = Long.parseLong(fields[0]);
+            for (int i = 1; i < fields.length; i++) {
+                int separator = fields[i].lastIndexOf(DEATH_SEPARATOR);
+                if (separator <= 0) {
+                    return Optional.empty();
+                }
+                String death = fields[i].substring(separator + 1);
+                names.add(fields[i].substring(0, separator));
+                deathSteps.add(death.equals(SURVIVED_MARKER) ? SURVIVED : Long.parseLong(death));
+            }
+            return Optional.of(new MatchResult(steps, names, deathSteps));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package edu.kit.kastel.codefight.ratings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Glicko ratings of AIs, updated incrementally with every {@link MatchResult}.
+ * <p></p>
+ * Every game is a rating period in which each AI played every other AI of the game, with the score of
+ * {@link MatchResult#getScore(int, int)}. All AIs of a game are updated from the ratings they had before it,
+ * so the order of the AIs does not matter. A game costs time quadratic in its AIs and independent of the amount
+ * of rated games, so a results file is processed in a single linear pass.
+ * <p></p>
+ * Ratings are stored in primitive arrays indexed by the order the AIs were first rated in. Elo is the special case
+ * of a fixed deviation, Glicko additionally lets the ratings of AIs with few games move faster.
+ *
+ * @author uwwfh
+ */
+public final class RatingTable {
+    
+    /**
+     * The rating of an AI without games.
+     */
+    public static final double INITIAL_RATING = 1500;
+    /**
+     * The rating deviation of an AI without games.
+     */
+    public static final double INITIAL_DEVIATION = 350;
+    
+    private static final double MIN_DEVIATION = 30;
+    private static final double Q = Math.log(10) / 400;
+    private static final double RATING_SCALE = 400;
+    private static final double LOGISTIC_BASE = 10;
+    private static final double DEVIATION_FACTOR = 3 * Q * Q / (Math.PI * Math.PI);
+    private static final int INITIAL_CAPACITY = 16;
+    
+    private final Map<String, Integer> indices;
+    private String[] names;
+    private double[] ratings;
+    private double[] deviations;
+    private int[] games;
+    private int size;
+    private long ratedGames;
+    private int[] gamePlayers;
+    private double[] newRatings;
+    private double[] newDeviations;
+    
+    /**
+     * Creates a new empty table.
+     */
+    public RatingTable() {
+        this.indices = new HashMap<>();
+        this.names = new String[INITIAL_CAPACITY];
+        this.ratings = new double[INITIAL_CAPACITY];
+        this.deviations = new double[INITIAL_CAPACITY];
+        this.games = new int[INITIAL_CAPACITY];
+        this.gamePlayers = new int[0];
+        this.newRatings = new double[0];
+        this.newDeviations = new double[0];
+    }
+    
+    /**
+     * Gets the amount of games that were rated.
+     * @return The amount of rated games.
+     */
+    public long getRatedGames() {
+        return ratedGames;
+    }
+    
+    /**
+     * Updates the ratings of the AIs of a game. AIs without rating start at {@link #INITIAL_RATING}.
+     * Games with less than two AIs are counted but do not change any rating.
+     * @param result The result of the game.
+     */
+    public void record(MatchResult result) {
+        int count = result.names().size();
+        if (gamePlayers.length < count) {
+            gamePlayers = new int[count];
+            newRatings = new double[count];
+            newDeviations = new double[count];
+        }
+        for (int i = 0; i < count; i++) {
+            gamePlayers[i] = indexOf(result.names().get(i));
+        }
+        for (int i = 0; i < count; i++) {
+            update(result, i, count);
+        }
+        for (int i = 0; i < count; i++) {
+            int player = gamePlayers[i];
+            ratings[player] = newRatings[i];
+            deviations[player] = newDeviations[i];
+            games[player]++;
+        }
+        ratedGames++;
+    }
+    
+    /**
+     * Gets the ratings of all AIs, best first. Equal ratings are ordered by name.
+     * @return The leaderboard.
+     */
+    public List<Rating> getLeaderboard() {
+        List<Rating> leaderboard = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            leaderboard.add(new Rating(names[i], ratings[i], deviations[i], games[i]));
+        }
+        leaderboard.sort(Comparator.comparingDouble(Rating::rating).reversed().thenComparing(Rating::name));
+        return leaderboard;
+    }
+    
+    /**
+     * Computes the rating of an AI after a game from the ratings of all AIs before it, with the Glicko formulas.
+     */
+    private void update(MatchResult result, int player, int count) {
+        int index = gamePlayers[player];
+        double rating = ratings[index];
+        double deviation = deviations[index];
+        double scoreSum = 0;
+        double varianceSum = 0;
+        for (int opponent = 0; opponent < count; opponent++) {
+            int opponentIndex = gamePlayers[opponent];
+            if (opponentIndex == index) {
+                continue;
+            }
+            double g = 1 / Math.sqrt(1 + DEVIATION_FACTOR * deviations[opponentIndex] * deviations[opponentIndex]);
+            double expected = 1 / (1 + Math.pow(LOGISTIC_BASE, -g * (rating - ratings[opponentIndex]) / RATING_SCALE));
+            scoreSum += g * (result.getScore(player, opponent) - expected);
+            varianceSum += g * g * expected * (1 - expected);
+        }
+        if (varianceSum == 0) {
+            newRatings[player] = rating;
+            newDeviations[player] = deviation;
+            return;
+        }
+        double precision = 1 / (deviation * deviation) + Q * Q * varianceSum;
+        newRatings[player] = rating + Q / precision * scoreSum;
+        newDeviations[player] = Math.max(MIN_DEVIATION, Math.sqrt(1 / precision));
+    }
+    
+    private int indexOf(String name) {
+        Integer index = indices.get(name);
+        if (index != null) {
+            return index;
+        }
+        if (size == names.length) {
+            int capacity = size * 2;
+            names = Arrays.copyOf(names, capacity);
+            ratings = Arrays.copyOf(ratings, capacity);
+            deviations = Arrays.copyOf(deviations, capacity);
+            games = Arrays.copyOf(games, capacity);
+        }
+        names[size] = name;
+        ratings[size] = INITIAL_RATING;
+        deviations[size] = INITIAL_DEVIATION;
+        indices.put(name, size);
+        return size++;
+    }
+    
+    /**
+     * The rating of an AI.
+     *
+     * @param name The name of the AI.
+     * @param rating The rating.
+     * @param deviation The rating deviation, the uncertainty of the rating.
+     * @param games The amount of rated games of the AI.
+     */
+    public record Rating(String name, double rating, double deviation, int games) { }
+}
@@ -0,0 +1,84 @@
+package edu.kit.kastel.codefight.ratings;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * An append-only file of {@link MatchResult results}, one line per game. Opening a log rates every saved game
+ * again in a single pass, so the ratings survive a restart without being stored themselves.
+ * Every result is flushed right away, so the log is complete up to the last game even if the program is killed.
+ *
+ * @author uwwfh
+ */
+public final class ResultLog implements Closeable {
+    
+    private static final String ERROR_MALFORMED = "line %d of %s is not a game result";
+    
+    private final BufferedWriter writer;
+    
+    private ResultLog(BufferedWriter writer) {
+        this.writer = writer;
+    }
+    
+    /**
+     * Rates every result of a file and opens it to append further results. The file is created if it does not exist.
+     * @param file The file.
+     * @param ratings The table to rate the saved results in.
+     * @return The log.
+     * @throws IOException If the file could not be read or opened, or contains a line that is not a result.
+     */
+    public static ResultLog open(Path file, RatingTable ratings) throws IOException {
+        if (Files.exists(file)) {
+            replay(file, ratings);
+        }
+        return new ResultLog(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+    }
+    
+    /**
+     * Rates every result of a file in the order they were saved.
+     * @param file The file.
+     * @param ratings The table to rate the results in.
+     * @throws IOException If the file could not be read or contains a line that is not a result.
+     */
+    public static void replay(Path file, RatingTable ratings) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                Optional<MatchResult> result = MatchResult.parse(line);
+                if (result.isEmpty()) {
+                    throw new IOException(ERROR_MALFORMED.formatted(lineNumber, file));
+                }
+                ratings.record(result.get());
+            }
+        }
+    }
+    
+    /**
+     * Appends a result.
+     * @param result The result.
+     * @throws IOException If writing failed.
+     */
+    public void append(MatchResult result) throws IOException {
+        writer.write(result.toLine());
+        writer.newLine();
+        writer.flush();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
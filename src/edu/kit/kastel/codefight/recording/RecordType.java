@@ -0,0 +1,100 @@
+package edu.kit.kastel.codefight.recording;
+
+import java.util.Optional;
+
+/**
+ * The types of records in a session recording. Every type corresponds to a user command,
+ * the ordinal is written as opcode, so new types must only be appended.
+ *
+ * @author uwwfh
+ */
+public enum RecordType {
+    /**
+     * Registers an AI. Arguments: name, program.
+     */
+    ADD_AI("add-ai", true),
+    /**
+     * Removes an AI. Argument: name.
+     */
+    REMOVE_AI("remove-ai", true),
+    /**
+     * Sets the memory init mode. Arguments: mode and, for the random mode, the seed.
+     */
+    SET_INIT_MODE("set-init-mode", true),
+    /**
+     * Starts a game. Arguments: the AI names. The init mode and seed of the game are recorded in addition.
+     */
+    START_GAME("start-game", true),
+    /**
+     * Plays steps. Argument: the amount of steps.
+     */
+    NEXT("next", true),
+    /**
+     * Ends the game. No arguments.
+     */
+    END_GAME("end-game", true),
+    /**
+     * Prints the memory. Only affects the output.
+     */
+    SHOW_MEMORY("show-memory", false),
+    /**
+     * Prints an AI. Only affects the output.
+     */
+    SHOW_AI("show-ai", false),
+    /**
+     * Plays steps backwards. Argument: the amount of steps, absent for a single step.
+     */
+    PREV("prev", true),
+    /**
+     * Jumps to a step of the game. Argument: the step.
+     */
+    SEEK("seek", true);
+    
+    private final String commandName;
+    private final boolean changesState;
+    
+    RecordType(String commandName, boolean changesState) {
+        this.commandName = commandName;
+        this.changesState = changesState;
+    }
+    
+    /**
+     * Gets the name of the user command of this type.
+     * @return The command name.
+     */
+    public String getCommandName() {
+        return commandName;
+    }
+    
+    /**
+     * Gets if commands of this type change the session, or only print.
+     * @return If the command changes the session.
+     */
+    public boolean changesState() {
+        return changesState;
+    }
+    
+    /**
+     * Gets the record type of a user command.
+     * @param commandName The name of the command.
+     * @return The record type, empty if the command is not recorded.
+     */
+    public static Optional<RecordType> fromCommandName(String commandName) {
+        for (RecordType type : values()) {
+            if (type.commandName.equals(commandName)) {
+                return Optional.of(type);
+            }
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Gets the record type of an opcode.
+     * @param opcode The opcode.
+     * @return The record type, empty if the opcode is unknown.
+     */
+    static Optional<RecordType> fromOpcode(int opcode) {
+        RecordType[] types = values();
+        return opcode >= 0 && opcode < types.length ? Optional.of(types[opcode]) : Optional.empty();
+    }
+}
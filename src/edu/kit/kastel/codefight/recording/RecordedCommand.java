@@ -0,0 +1,42 @@
+package edu.kit.kastel.codefight.recording;
+
+import edu.kit.kastel.codefight.model.MemoryInitType;
+
+import java.util.List;
+
+/**
+ * A single command read from a session recording.
+ *
+ * @param type The type of the command.
+ * @param arguments The arguments of the command, as typed by the user.
+ * @param initMode The init mode of the started game, null for types other than {@link RecordType#START_GAME}.
+ * @param seed The seed of the started game, 0 for types other than {@link RecordType#START_GAME}.
+ * @author uwwfh
+ */
+public record RecordedCommand(RecordType type, List<String> arguments, MemoryInitType initMode, long seed) {
+    
+    private static final String ARGUMENT_SEPARATOR = " ";
+    
+    /**
+     * Constructs a new recorded command.
+     *
+     * @param type The type of the command.
+     * @param arguments The arguments of the command, as typed by the user.
+     * @param initMode The init mode of the started game, null for types other than {@link RecordType#START_GAME}.
+     * @param seed The seed of the started game, 0 for types other than {@link RecordType#START_GAME}.
+     */
+    public RecordedCommand {
+        arguments = List.copyOf(arguments);
+    }
+    
+    /**
+     * Gets the line of user input that executes this command again.
+     * @return The command line.
+     */
+    public String toCommandLine() {
+        if (arguments.isEmpty()) {
+            return type.getCommandName();
+        }
+        return type.getCommandName() + ARGUMENT_SEPARATOR + String.join(ARGUMENT_SEPARATOR, arguments);
+    }
+}
@@ -0,0 +1,104 @@
+package edu.kit.kastel.codefight.recording;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Constants and primitives of the binary session recording format.
+ * <p></p>
+ * A recording starts with {@link #MAGIC}, the {@link #VERSION} and the command line arguments of the
+ * program. Every record follows as opcode of its {@link RecordType}, the amount of arguments and the
+ * arguments. Step counts are written as variable length integers instead of text, because {@code next}
+ * is by far the most frequent record. They are longs, which take the same bytes as ints for the same value,
+ * so recordings of version 1 that were written with int step counts stay readable. A game start additionally
+ * stores the init mode and the seed.
+ *
+ * @author uwwfh
+ */
+final class RecordingFormat {
+    
+    /**
+     * The first four bytes of every recording.
+     */
+    static final int MAGIC = 0x43465253;
+    /**
+     * The version of the format.
+     */
+    static final int VERSION = 1;
+    
+    private static final int VARINT_PAYLOAD_BITS = 7;
+    private static final int VARINT_PAYLOAD_MASK = 0x7F;
+    private static final int VARINT_CONTINUE = 0x80;
+    private static final int MAX_VARINT_SHIFT = 28;
+    private static final int MAX_VARLONG_SHIFT = 63;
+    private static final String ERROR_VARINT = "malformed variable length integer";
+    
+    private RecordingFormat() { }
+    
+    /**
+     * Writes a non-negative integer in one to five bytes, seven bits per byte.
+     * @param out The output to write to.
+     * @param value The non-negative value.
+     * @throws IOException If writing fails.
+     */
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~VARINT_PAYLOAD_MASK) != 0) {
+            out.writeByte((remaining & VARINT_PAYLOAD_MASK) | VARINT_CONTINUE);
+            remaining >>>= VARINT_PAYLOAD_BITS;
+        }
+        out.writeByte(remaining);
+    }
+    
+    /**
+     * Reads an integer written by {@link #writeVarInt(DataOutput, int)}.
+     * @param in The input to read from.
+     * @return The value.
+     * @throws IOException If reading fails or the integer is malformed.
+     */
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift <= MAX_VARINT_SHIFT; shift += VARINT_PAYLOAD_BITS) {
+            int next = in.readUnsignedByte();
+            value |= (next & VARINT_PAYLOAD_MASK) << shift;
+            if ((next & VARINT_CONTINUE) == 0) {
+                return value;
+            }
+        }
+        throw new IOException(ERROR_VARINT);
+    }
+    
+    /**
+     * Writes a non-negative long in one to ten bytes, seven bits per byte.
+     * @param out The output to write to.
+     * @param value The non-negative value.
+     * @throws IOException If writing fails.
+     */
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~VARINT_PAYLOAD_MASK) != 0) {
+            out.writeByte((int) (remaining & VARINT_PAYLOAD_MASK) | VARINT_CONTINUE);
+            remaining >>>= VARINT_PAYLOAD_BITS;
+        }
+        out.writeByte((int) remaining);
+    }
+    
+    /**
+     * Reads a long written by {@link #writeVarLong(DataOutput, long)}.
+     * @param in The input to read from.
+     * @return The value.
+     * @throws IOException If reading fails or the long is malformed.
+     */
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift <= MAX_VARLONG_SHIFT; shift += VARINT_PAYLOAD_BITS) {
+            int next = in.readUnsignedByte();
+            value |= (long) (next & VARINT_PAYLOAD_MASK) << shift;
+            if ((next & VARINT_CONTINUE) == 0) {
+                return value;
+            }
+        }
+        throw new IOException(ERROR_VARINT);
+    }
+}
@@ -0,0 +1,106 @@
+package edu.kit.kastel.codefight.recording;
+
+import edu.kit.kastel.codefight.model.MemoryInitType;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads a session recording written by a {@link SessionRecorder}, one command at a time.
+ *
+ * @author uwwfh
+ */
+public final class RecordingReader implements Closeable {
+    
+    private static final String ERROR_NOT_A_RECORDING = "not a session recording";
+    private static final String ERROR_UNSUPPORTED_VERSION = "unsupported recording version %d";
+    private static final String ERROR_UNKNOWN_OPCODE = "unknown record opcode %d";
+    private static final String ERROR_UNKNOWN_INIT_MODE = "unknown init mode %d";
+    
+    private final DataInputStream input;
+    private final String[] programArguments;
+    
+    private RecordingReader(DataInputStream input, String[] programArguments) {
+        this.input = input;
+        this.programArguments = programArguments;
+    }
+    
+    /**
+     * Opens a recording and reads its header.
+     * @param file The recording file.
+     * @return The reader, positioned at the first command.
+     * @throws IOException If the file could not be read or is not a recording.
+     */
+    public static RecordingReader open(Path file) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+        try {
+            if (input.readInt() != RecordingFormat.MAGIC) {
+                throw new IOException(ERROR_NOT_A_RECORDING);
+            }
+            int version = input.readUnsignedByte();
+            if (version != RecordingFormat.VERSION) {
+                throw new IOException(ERROR_UNSUPPORTED_VERSION.formatted(version));
+            }
+            String[] programArguments = new String[RecordingFormat.readVarInt(input)];
+            for (int i = 0; i < programArguments.length; i++) {
+                programArguments[i] = input.readUTF();
+            }
+            return new RecordingReader(input, programArguments);
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Gets the command line arguments the recorded session was created with.
+     * @return The program arguments.
+     */
+    public String[] getProgramArguments() {
+        return programArguments.clone();
+    }
+    
+    /**
+     * Reads the next command.
+     * @return The next command, empty at the end of the recording.
+     * @throws IOException If reading fails or the recording is corrupt.
+     */
+    public Optional<RecordedCommand> next() throws IOException {
+        int opcode = input.read();
+        if (opcode < 0) {
+            return Optional.empty();
+        }
+        RecordType type = RecordType.fromOpcode(opcode)
+                .orElseThrow(() -> new IOException(ERROR_UNKNOWN_OPCODE.formatted(opcode)));
+        List<String> arguments = new ArrayList<>();
+        if (type == RecordType.NEXT) {
+            arguments.add(String.valueOf(RecordingFormat.readVarLong(input)));
+        } else {
+            int argumentCount = RecordingFormat.readVarInt(input);
+            for (int i = 0; i < argumentCount; i++) {
+                arguments.add(input.readUTF());
+            }
+        }
+        if (type != RecordType.START_GAME) {
+            return Optional.of(new RecordedCommand(type, arguments, null, 0));
+        }
+        int mode = input.readUnsignedByte();
+        MemoryInitType[] modes = MemoryInitType.values();
+        if (mode >= modes.length) {
+            throw new IOException(ERROR_UNKNOWN_INIT_MODE.formatted(mode));
+        }
+        return Optional.of(new RecordedCommand(type, arguments, modes[mode], input.readLong()));
+    }
+    
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
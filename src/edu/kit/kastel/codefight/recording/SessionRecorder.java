@@ -0,0 +1,95 @@
+package edu.kit.kastel.codefight.recording;
+
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.usercommands.CommandHandler;
+import edu.kit.kastel.codefight.usercommands.CommandRecorder;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Records the commands of a session into a compact binary log, see {@link RecordingFormat}.
+ * Only successfully executed commands are recorded, since failed commands do not change the session.
+ * <p></p>
+ * Every record is flushed right away, so the recording is complete up to the last command even if
+ * the program is killed. If writing fails, recording stops and the error is reported once.
+ *
+ * @author uwwfh
+ */
+public final class SessionRecorder implements CommandRecorder, Closeable {
+    
+    private static final String ERROR_RECORDING_STOPPED = "%srecording stopped: %s".formatted(CommandHandler.ERROR_PREFIX, "%s");
+    
+    private final CodefightSession session;
+    private final DataOutputStream output;
+    private boolean failed;
+    
+    private SessionRecorder(CodefightSession session, DataOutputStream output) {
+        this.session = session;
+        this.output = output;
+    }
+    
+    /**
+     * Creates a new recording file, replacing an existing one, and writes the header.
+     * @param file The file to record to.
+     * @param programArguments The command line arguments the session was created with.
+     * @param session The recorded session, used to record the seed of started games.
+     * @return The recorder.
+     * @throws IOException If the file could not be created.
+     */
+    public static SessionRecorder create(Path file, String[] programArguments, CodefightSession session) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        try {
+            output.writeInt(RecordingFormat.MAGIC);
+            output.writeByte(RecordingFormat.VERSION);
+            RecordingFormat.writeVarInt(output, programArguments.length);
+            for (String argument : programArguments) {
+                output.writeUTF(argument);
+            }
+            output.flush();
+        } catch (IOException e) {
+            output.close();
+            throw e;
+        }
+        return new SessionRecorder(session, output);
+    }
+    
+    @Override
+    public void record(String commandName, String[] commandArguments) {
+        Optional<RecordType> type = RecordType.fromCommandName(commandName);
+        // Background runs record the steps of every chunk as a plain next command when they are played
+        if (failed || type.isEmpty() || type.get() == RecordType.NEXT && commandArguments.length > 1) {
+            return;
+        }
+        try {
+            output.writeByte(type.get().ordinal());
+            if (type.get() == RecordType.NEXT) {
+                // Validated by the command, absent means a single step
+                RecordingFormat.writeVarLong(output, commandArguments.length == 0 ? 1 : Long.parseLong(commandArguments[0]));
+            } else {
+                RecordingFormat.writeVarInt(output, commandArguments.length);
+                for (String argument : commandArguments) {
+                    output.writeUTF(argument);
+                }
+            }
+            if (type.get() == RecordType.START_GAME) {
+                output.writeByte(session.getMemoryInitType().ordinal());
+                output.writeLong(session.getCellGenerationSeed());
+            }
+            output.flush();
+        } catch (IOException e) {
+            failed = true;
+            session.getErrorOutput().println(ERROR_RECORDING_STOPPED.formatted(e.getMessage()));
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+}
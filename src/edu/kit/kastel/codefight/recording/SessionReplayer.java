@@ -0,0 +1,160 @@
+package edu.kit.kastel.codefight.recording;
+
+import edu.kit.kastel.codefight.Main;
+import edu.kit.kastel.codefight.model.AIPlayer;
+import edu.kit.kastel.codefight.model.Codefight;
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.usercommands.CommandHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a session recording as fast as the engine can go and prints the resulting state.
+ * <p></p>
+ * Consecutive {@code next} records are merged into a single command, which plays exactly the same steps,
+ * since a game stops early only once a single AI is left. Commands that only print, like {@code show-memory},
+ * are skipped and the output of the replayed commands is discarded, unless {@code --render} is given,
+ * which reproduces the output of the recorded session instead.
+ * Recordings that take back moves with {@code prev} must be replayed with an undo journal at least as large
+ * as the one of the recorded session, see the system property {@code codefight.undo.steps}. Likewise, recordings
+ * with {@code seek} need checkpoints, see {@code codefight.checkpoint.budget}.
+ * <p></p>
+ * Usage: {@code SessionReplayer <recording> [--render]}.
+ *
+ * @author uwwfh
+ */
+public final class SessionReplayer {
+    
+    private static final String USAGE = "Usage: SessionReplayer <recording> [--render]";
+    private static final String RENDER_FLAG = "--render";
+    private static final String ERROR_READ_FAILED = "%scould not read recording: %s".formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final String ERROR_SEED_MISMATCH = "%sreplay diverged, game %s was recorded with %s %s but replays with %s %s."
+            .formatted(CommandHandler.ERROR_PREFIX, "%d", "%s", "%d", "%s", "%d");
+    private static final String SUMMARY_FORMAT = "Replayed %d recorded commands as %d commands in %.3f ms.";
+    private static final String FINAL_MEMORY_FORMAT = "Memory: %s";
+    private static final String RUNNING_AIS_FORMAT = "Running AIs: %s";
+    private static final String NO_GAME = "No game running.";
+    private static final String AI_SEPARATOR = ", ";
+    private static final String NEXT_FORMAT = "%s %d";
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    
+    private final CodefightSession session;
+    private final CommandHandler handler;
+    private final boolean render;
+    private long pendingSteps;
+    private int recordedCommands;
+    private int executedCommands;
+    private int startedGames;
+    
+    private SessionReplayer(CodefightSession session, boolean render) {
+        this.session = session;
+        this.handler = new CommandHandler(session);
+        this.render = render;
+    }
+    
+    /**
+     * Replays a recording.
+     * @param args The recording file and optionally the render flag.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2 || args.length == 2 && !args[1].equals(RENDER_FLAG)) {
+            System.err.println(USAGE);
+            return;
+        }
+        boolean render = args.length == 2;
+        try (RecordingReader reader = RecordingReader.open(Path.of(args[0]))) {
+            Optional<String> argumentError = Main.parseArguments(reader.getProgramArguments());
+            if (argumentError.isPresent()) {
+                System.err.println(argumentError.get());
+                return;
+            }
+            PrintStream output = render ? System.out : new PrintStream(OutputStream.nullOutputStream());
+            SessionReplayer replayer = new SessionReplayer(Main.createSession(output, System.err), render);
+            long start = System.nanoTime();
+            boolean completed = replayer.replay(reader);
+            long elapsed = System.nanoTime() - start;
+            System.out.println(SUMMARY_FORMAT.formatted(replayer.recordedCommands, replayer.executedCommands,
+                    elapsed / NANOS_PER_MILLI));
+            if (completed) {
+                replayer.printState();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(ERROR_READ_FAILED.formatted(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Replays all commands of a recording.
+     * @param reader The reader positioned at the first command.
+     * @return False if the replay diverged from the recording.
+     * @throws IOException If reading fails.
+     */
+    private boolean replay(RecordingReader reader) throws IOException {
+        Optional<RecordedCommand> next = reader.next();
+        while (next.isPresent()) {
+            RecordedCommand command = next.get();
+            recordedCommands++;
+            if (command.type() == RecordType.NEXT) {
+                long steps = Long.parseLong(command.arguments().get(0));
+                if (pendingSteps > Long.MAX_VALUE - steps) {
+                    flushSteps();
+                }
+                pendingSteps += steps;
+            } else if (command.type().changesState() || render) {
+                flushSteps();
+                if (command.type() == RecordType.START_GAME && !verifySeed(command)) {
+                    return false;
+                }
+                execute(command.toCommandLine());
+            }
+            next = reader.next();
+        }
+        flushSteps();
+        return true;
+    }
+    
+    private boolean verifySeed(RecordedCommand command) {
+        startedGames++;
+        if (session.getMemoryInitType() == command.initMode() && session.getCellGenerationSeed() == command.seed()) {
+            return true;
+        }
+        System.err.println(ERROR_SEED_MISMATCH.formatted(startedGames, command.initMode(), command.seed(),
+                session.getMemoryInitType(), session.getCellGenerationSeed()));
+        return false;
+    }
+    
+    /**
+     * Plays the merged steps of all consecutive next records read so far.
+     */
+    private void flushSteps() {
+        if (pendingSteps > 0) {
+            execute(NEXT_FORMAT.formatted(RecordType.NEXT.getCommandName(), pendingSteps));
+            pendingSteps = 0;
+        }
+    }
+    
+    private void execute(String commandLine) {
+        handler.executeCommand(commandLine);
+        executedCommands++;
+    }
+    
+    private void printState() {
+        Codefight game = session.getCodefight();
+        if (game == null) {
+            System.out.println(NO_GAME);
+            return;
+        }
+        System.out.println(FINAL_MEMORY_FORMAT.formatted(game.getMemory()));
+        StringJoiner names = new StringJoiner(AI_SEPARATOR);
+        for (AIPlayer player : game.getAliveAIs()) {
+            names.add(player.getAIName());
+        }
+        System.out.println(RUNNING_AIS_FORMAT.formatted(names));
+    }
+}
@@ -0,0 +1,276 @@
+package edu.kit.kastel.codefight.server;
+
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.model.SessionOutputListener;
+import edu.kit.kastel.codefight.usercommands.CommandHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A single client connected to the {@link GameServer game server}. Every connection owns an isolated
+ * {@link CodefightSession session} with its own command handler.
+ * <p></p>
+ * Bytes are read and written by the selector thread only. Complete lines are queued and executed by
+ * a worker thread, at most one worker per connection at a time, so the session is never accessed concurrently.
+ * The output that background runs of the session print between commands is queued as soon as it is printed.
+ *
+ * @author uwwfh
+ */
+final class ClientConnection implements SessionOutputListener {
+    
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final int INITIAL_OUTPUT_SIZE = 256;
+    private static final String EMPTY_SUFFIX = "";
+    
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final CodefightSession session;
+    private final CommandHandler handler;
+    private final ByteArrayOutputStream sessionOutput;
+    private final ByteArrayOutputStream lineBuffer;
+    private final int maxLineLength;
+    private final long maxQueuedOutputBytes;
+    private final Consumer<ClientConnection> outputQueued;
+    
+    private final Queue<String> pendingLines;
+    private final Queue<ByteBuffer> outgoing;
+    private final AtomicLong queuedOutputBytes;
+    private final AtomicBoolean scheduled;
+    private volatile boolean closing;
+    private volatile boolean inputEnded;
+    
+    /**
+     * Creates a new connection.
+     * @param channel The socket channel of the client.
+     * @param key The selection key the channel is registered with.
+     * @param sessionFactory The factory to create the session of the client with.
+     * @param maxLineLength The maximum length of a single line of input in bytes.
+     * @param maxQueuedOutputBytes The amount of queued output bytes above which the output is backlogged.
+     * @param outputQueued Notified on a worker thread after output of a background run was queued.
+     */
+    ClientConnection(SocketChannel channel, SelectionKey key, SessionFactory sessionFactory, int maxLineLength,
+                     long maxQueuedOutputBytes, Consumer<ClientConnection> outputQueued) {
+        this.channel = channel;
+        this.key = key;
+        this.maxLineLength = maxLineLength;
+        this.maxQueuedOutputBytes = maxQueuedOutputBytes;
+        this.outputQueued = outputQueued;
+        this.sessionOutput = new ByteArrayOutputStream(INITIAL_OUTPUT_SIZE);
+        this.lineBuffer = new ByteArrayOutputStream(INITIAL_OUTPUT_SIZE);
+        this.pendingLines = new ConcurrentLinkedQueue<>();
+        this.outgoing = new ConcurrentLinkedQueue<>();
+        this.queuedOutputBytes = new AtomicLong();
+        this.scheduled = new AtomicBoolean();
+        PrintStream output = new PrintStream(sessionOutput, false, StandardCharsets.UTF_8);
+        this.session = sessionFactory.createSession(output, output);
+        this.handler = new CommandHandler(session);
+        session.setOutputListener(this);
+    }
+    
+    /**
+     * Gets the socket channel of the client.
+     * @return The socket channel.
+     */
+    SocketChannel getChannel() {
+        return channel;
+    }
+    
+    /**
+     * Gets the selection key of the client.
+     * @return The selection key.
+     */
+    SelectionKey getKey() {
+        return key;
+    }
+    
+    /**
+     * Splits received bytes into lines and queues them for execution. Called by the selector thread.
+     * @param received The received bytes, in read mode.
+     * @return False if a line exceeded the maximum line length, true otherwise.
+     */
+    boolean receive(ByteBuffer received) {
+        while (received.hasRemaining()) {
+            byte next = received.get();
+            if (next == LINE_FEED) {
+                pendingLines.add(lineBuffer.toString(StandardCharsets.UTF_8));
+                lineBuffer.reset();
+            } else if (next != CARRIAGE_RETURN) {
+                if (lineBuffer.size() >= maxLineLength) {
+                    return false;
+                }
+                lineBuffer.write(next);
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Gets the amount of lines that were received, but not executed yet.
+     * @return The amount of pending lines.
+     */
+    int getPendingLineCount() {
+        return pendingLines.size();
+    }
+    
+    /**
+     * Tries to mark the connection as scheduled for execution.
+     * @return True if the connection was not scheduled before and the caller must schedule it.
+     */
+    boolean trySchedule() {
+        return !closing && !pendingLines.isEmpty() && scheduled.compareAndSet(false, true);
+    }
+    
+    /**
+     * Executes the next pending line on the session of the client and queues its output, followed by the prompt.
+     * Called by a worker thread.
+     * @param prompt The prompt to send after the output, unless the client quit.
+     * @return True if there are more lines to execute and the connection stays scheduled.
+     */
+    boolean executeNextLine(String prompt) {
+        String line = pendingLines.poll();
+        if (line != null && !closing) {
+            // The lock keeps the background runs of the session from writing between the command and the flush
+            session.getLock().lock();
+            try {
+                handler.executeCommand(line);
+                if (!handler.isRunning()) {
+                    markClosing();
+                }
+                flushSessionOutput(closing ? EMPTY_SUFFIX : prompt);
+            } finally {
+                session.getLock().unlock();
+            }
+        }
+        if (closing) {
+            pendingLines.clear();
+        }
+        scheduled.set(false);
+        return trySchedule();
+    }
+    
+    /**
+     * Queues the output a background run printed, unless the connection is closing. Called by the thread of the run.
+     */
+    @Override
+    public void outputPrinted() {
+        if (closing) {
+            sessionOutput.reset();
+            return;
+        }
+        if (flushSessionOutput(EMPTY_SUFFIX) > 0) {
+            outputQueued.accept(this);
+        }
+    }
+    
+    /**
+     * Gets if more output bytes are queued than the server allows, so the output is backlogged.
+     * @return If the output is backlogged.
+     */
+    @Override
+    public boolean isBacklogged() {
+        return queuedOutputBytes.get() > maxQueuedOutputBytes;
+    }
+    
+    /**
+     * Moves everything the session wrote into the outgoing queue, followed by the given text.
+     * Must be called while holding the lock of the session, or before the session executed any command.
+     * @param suffix Text to append after the session output, may be empty.
+     * @return The amount of bytes queued.
+     */
+    int flushSessionOutput(String suffix) {
+        sessionOutput.writeBytes(suffix.getBytes(StandardCharsets.UTF_8));
+        if (sessionOutput.size() == 0) {
+            return 0;
+        }
+        byte[] bytes = sessionOutput.toByteArray();
+        sessionOutput.reset();
+        outgoing.add(ByteBuffer.wrap(bytes));
+        queuedOutputBytes.addAndGet(bytes.length);
+        return bytes.length;
+    }
+    
+    /**
+     * Gets the outgoing buffers. Only the selector thread removes buffers from this queue.
+     * @return The outgoing buffers.
+     */
+    Queue<ByteBuffer> getOutgoing() {
+        return outgoing;
+    }
+    
+    /**
+     * Records that bytes were written to the client.
+     * @param bytes The amount of written bytes.
+     */
+    void onWritten(int bytes) {
+        queuedOutputBytes.addAndGet(-bytes);
+    }
+    
+    /**
+     * Gets the amount of output bytes that were not written to the client yet.
+     * @return The amount of queued bytes.
+     */
+    long getQueuedOutputBytes() {
+        return queuedOutputBytes.get();
+    }
+    
+    /**
+     * Gets if the client quit and the connection is closed as soon as all output was written.
+     * @return If the connection is closing.
+     */
+    boolean isClosing() {
+        return closing;
+    }
+    
+    /**
+     * Marks the connection to be closed as soon as all output was written.
+     * Lines that were not executed yet are dropped and the session is {@link CodefightSession#close() closed}.
+     */
+    void markClosing() {
+        closing = true;
+        session.close();
+    }
+    
+    /**
+     * Marks that the client will not send any more input. Lines that were already
+     * received are still executed.
+     */
+    void markInputEnded() {
+        inputEnded = true;
+    }
+    
+    /**
+     * Gets if the client will not send any more input.
+     * @return If the input ended.
+     */
+    boolean hasInputEnded() {
+        return inputEnded;
+    }
+    
+    /**
+     * Gets if nothing is left to execute for this connection, because the client quit
+     * or the input ended and all received lines were executed.
+     * @return If the connection is finished.
+     */
+    boolean isFinished() {
+        return closing || inputEnded && pendingLines.isEmpty() && !scheduled.get();
+    }
+    
+    /**
+     * Gets if a worker currently executes or is about to execute lines of this connection.
+     * @return If the connection is scheduled.
+     */
+    boolean isScheduled() {
+        return scheduled.get();
+    }
+}
@@ -0,0 +1,337 @@
+package edu.kit.kastel.codefight.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A TCP server that hosts many concurrent Codefight sessions in a single JVM.
+ * <p></p>
+ * One selector thread accepts connections and does all socket reads and writes without blocking.
+ * Every connection gets its own isolated session. Received lines are executed as user commands on a
+ * pool of worker threads, one command per task, so a long {@code next} never blocks the selector thread
+ * and sessions with many queued commands take turns with the others.
+ * <p></p>
+ * Reading from a client is paused while too much of its output is not yet written or too many of its
+ * lines are not yet executed, and its background runs wait while too much of its output is not yet written,
+ * so a single client cannot exhaust the memory of the server.
+ *
+ * @author uwwfh
+ */
+public final class GameServer {
+    
+    /**
+     * The prompt sent to a client whenever the server is ready for the next command.
+     */
+    public static final String PROMPT = "> ";
+    
+    private static final String WORKER_THREAD_NAME = "codefight-worker-%d";
+    private static final String LINE_FORMAT = "%s%n";
+    private static final int ACCEPT_BACKLOG = 1024;
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final int MAX_LINE_LENGTH = 65536;
+    private static final int MAX_PENDING_LINES = 64;
+    private static final long MAX_QUEUED_OUTPUT_BYTES = 1 << 20;
+    private static final int END_OF_STREAM = -1;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+    
+    private final InetSocketAddress address;
+    private final SessionFactory sessionFactory;
+    private final String welcomeMessage;
+    private final ExecutorService workers;
+    private final ByteBuffer readBuffer;
+    private final Queue<ClientConnection> interestUpdates;
+    private final AtomicInteger connectionCount;
+    
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private volatile boolean running;
+    
+    /**
+     * Creates a new game server. The server does not listen before {@link #open()} or {@link #run()} is called.
+     * @param address The address to listen on.
+     * @param sessionFactory The factory to create the session of every client with.
+     * @param welcomeMessage The message sent to every client after connecting.
+     * @param workerThreads The amount of threads that execute user commands.
+     */
+    public GameServer(InetSocketAddress address, SessionFactory sessionFactory, String welcomeMessage, int workerThreads) {
+        this.address = address;
+        this.sessionFactory = sessionFactory;
+        this.welcomeMessage = welcomeMessage;
+        this.workers = Executors.newFixedThreadPool(workerThreads, createWorkerThreadFactory());
+        this.readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        this.interestUpdates = new ConcurrentLinkedQueue<>();
+        this.connectionCount = new AtomicInteger();
+    }
+    
+    /**
+     * Opens the server socket. Must be called before {@link #run()}.
+     * @return The address the server is listening on, with the actual port if port 0 was requested.
+     * @throws IOException If the socket could not be opened.
+     */
+    public synchronized InetSocketAddress open() throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(address, ACCEPT_BACKLOG);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        return (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+    
+    /**
+     * Runs the selector loop on the calling thread until the server is {@link #stop() stopped}.
+     * @throws IOException If the selector fails.
+     */
+    public void run() throws IOException {
+        if (selector == null) {
+            open();
+        }
+        try {
+            while (running) {
+                selector.select();
+                applyInterestUpdates();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handleKey(key);
+                }
+            }
+        } catch (ClosedSelectorException ignored) {
+            // Stopped from another thread
+        } finally {
+            shutdown();
+        }
+    }
+    
+    /**
+     * Stops the server. Open connections are closed and queued commands are dropped.
+     */
+    public void stop() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+    
+    /**
+     * Gets the amount of currently connected clients.
+     * @return The amount of connections.
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+    
+    private void handleKey(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        try {
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            ClientConnection connection = (ClientConnection) key.attachment();
+            if (key.isReadable()) {
+                read(connection);
+            }
+            if (key.isValid() && key.isWritable()) {
+                write(connection);
+            }
+        } catch (IOException e) {
+            close(key);
+        }
+    }
+    
+    /**
+     * Accepts all pending connections, so bursts of new clients do not overflow the accept backlog.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        while (channel != null) {
+            try {
+                register(channel);
+            } catch (IOException e) {
+                // Only this client is lost, keep accepting the others
+                channel.close();
+            }
+            channel = serverChannel.accept();
+        }
+    }
+    
+    private void register(SocketChannel channel) throws IOException {
+        channel.configureBlocking(false);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        ClientConnection connection = new ClientConnection(channel, key, sessionFactory, MAX_LINE_LENGTH,
+                MAX_QUEUED_OUTPUT_BYTES, this::wakeUp);
+        key.attach(connection);
+        connectionCount.incrementAndGet();
+        connection.flushSessionOutput(LINE_FORMAT.formatted(welcomeMessage) + PROMPT);
+        updateInterest(connection);
+    }
+    
+    private void read(ClientConnection connection) throws IOException {
+        readBuffer.clear();
+        int read = connection.getChannel().read(readBuffer);
+        if (read == END_OF_STREAM) {
+            connection.markInputEnded();
+            updateInterest(connection);
+            return;
+        }
+        readBuffer.flip();
+        if (!connection.receive(readBuffer)) {
+            close(connection.getKey());
+            return;
+        }
+        schedule(connection);
+        updateInterest(connection);
+    }
+    
+    private void write(ClientConnection connection) throws IOException {
+        Queue<ByteBuffer> outgoing = connection.getOutgoing();
+        ByteBuffer next = outgoing.peek();
+        while (next != null) {
+            int written = connection.getChannel().write(next);
+            connection.onWritten(written);
+            if (next.hasRemaining()) {
+                // Socket buffer is full, continue when writable again
+                break;
+            }
+            outgoing.poll();
+            next = outgoing.peek();
+        }
+        updateInterest(connection);
+    }
+    
+    /**
+     * Recomputes the interest set of a connection. Must be called on the selector thread.
+     * Closes the connection once it is finished, idle and has written all output.
+     */
+    private void updateInterest(ClientConnection connection) {
+        SelectionKey key = connection.getKey();
+        if (!key.isValid()) {
+            return;
+        }
+        boolean hasOutput = !connection.getOutgoing().isEmpty();
+        if (connection.isFinished() && !hasOutput && !connection.isScheduled()) {
+            close(key);
+            return;
+        }
+        int interest = 0;
+        boolean overloaded = connection.getQueuedOutputBytes() > MAX_QUEUED_OUTPUT_BYTES
+                || connection.getPendingLineCount() > MAX_PENDING_LINES;
+        if (!connection.isClosing() && !connection.hasInputEnded() && !overloaded) {
+            interest |= SelectionKey.OP_READ;
+        }
+        if (hasOutput) {
+            interest |= SelectionKey.OP_WRITE;
+        }
+        key.interestOps(interest);
+    }
+    
+    private void applyInterestUpdates() {
+        ClientConnection connection = interestUpdates.poll();
+        while (connection != null) {
+            updateInterest(connection);
+            connection = interestUpdates.poll();
+        }
+    }
+    
+    private void schedule(ClientConnection connection) {
+        if (connection.trySchedule()) {
+            submit(connection);
+        }
+    }
+    
+    private void submit(ClientConnection connection) {
+        try {
+            workers.execute(() -> execute(connection));
+        } catch (RejectedExecutionException ignored) {
+            // Server is shutting down
+        }
+    }
+    
+    /**
+     * Executes a single command of a connection on a worker thread and hands the output to the selector thread.
+     * Resubmits the connection instead of looping, so other sessions get their turn in between.
+     */
+    private void execute(ClientConnection connection) {
+        boolean hasMore;
+        try {
+            hasMore = connection.executeNextLine(PROMPT);
+        } catch (RuntimeException e) {
+            connection.markClosing();
+            hasMore = false;
+        }
+        wakeUp(connection);
+        if (hasMore) {
+            submit(connection);
+        }
+    }
+    
+    /**
+     * Hands new output of a connection to the selector thread. Called by any thread.
+     */
+    private void wakeUp(ClientConnection connection) {
+        interestUpdates.add(connection);
+        selector.wakeup();
+    }
+    
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+            // Nothing left to do for this client
+        }
+        if (key.attachment() != null) {
+            ((ClientConnection) key.attachment()).markClosing();
+            key.attach(null);
+            connectionCount.decrementAndGet();
+        }
+    }
+    
+    private void shutdown() {
+        workers.shutdownNow();
+        try {
+            workers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            for (SelectionKey key : selector.keys()) {
+                if (key.channel() instanceof SocketChannel) {
+                    close(key);
+                }
+            }
+            selector.close();
+            serverChannel.close();
+        } catch (IOException | ClosedSelectorException ignored) {
+            // Server is down either way
+        }
+    }
+    
+    private static ThreadFactory createWorkerThreadFactory() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, WORKER_THREAD_NAME.formatted(threadCount.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,161 @@
+package edu.kit.kastel.codefight.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A loopback load test for the {@link GameServer game server}. Opens many concurrent client connections,
+ * plays the same scripted game on every connection and reports command throughput and latency percentiles.
+ * <p></p>
+ * Usage: {@code LoadGenerator <port> <clients> <rounds> <steps per next>}. The server must have been started
+ * with at least two AI print wrappers and a memory size of at least 14.
+ *
+ * @author uwwfh
+ */
+public final class LoadGenerator {
+    
+    private static final String USAGE = "Usage: LoadGenerator <port> <clients> <rounds> <steps per next>";
+    private static final String RESULT_FORMAT = "clients=%d commands=%d errors=%d time=%.2fs throughput=%.0f cmd/s "
+            + "latency p50=%.3fms p99=%.3fms max=%.3fms%n";
+    private static final String[] SETUP_SCRIPT = {
+        "add-ai Imp MOV_R,0,1",
+        "add-ai Dwarf ADD,4,0,MOV_I,2,-1,JMP,-2,0,STOP,0,0",
+        "set-init-mode INIT_MODE_RANDOM 42",
+        "start-game Imp Dwarf",
+    };
+    private static final String NEXT_FORMAT = "next %d";
+    private static final String SHOW_MEMORY = "show-memory";
+    private static final String END_GAME = "end-game";
+    private static final String QUIT = "quit";
+    private static final String ERROR_MARKER = "Error, ";
+    private static final byte[] PROMPT_BYTES = GameServer.PROMPT.getBytes(StandardCharsets.UTF_8);
+    private static final String LINE_END = "\n";
+    private static final String ERROR_NO_PROMPT = "connection closed or response too large before the prompt";
+    
+    private static final int ARG_PORT = 0;
+    private static final int ARG_CLIENTS = 1;
+    private static final int ARG_ROUNDS = 2;
+    private static final int ARG_STEPS = 3;
+    private static final int ARGUMENT_COUNT = 4;
+    private static final int BUFFER_SIZE = 65536;
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final double MEDIAN = 0.5;
+    private static final double PERCENTILE_99 = 0.99;
+    
+    private LoadGenerator() { }
+    
+    /**
+     * Runs the load test.
+     * @param args port, amount of clients, rounds per client and steps per next command
+     * @throws InterruptedException If interrupted while waiting for the clients.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length != ARGUMENT_COUNT) {
+            System.err.println(USAGE);
+            return;
+        }
+        InetSocketAddress address = new InetSocketAddress("localhost", Integer.parseInt(args[ARG_PORT]));
+        int clients = Integer.parseInt(args[ARG_CLIENTS]);
+        int rounds = Integer.parseInt(args[ARG_ROUNDS]);
+        int steps = Integer.parseInt(args[ARG_STEPS]);
+        
+        List<long[]> latencies = new ArrayList<>();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(clients);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            long[] clientLatencies = new long[SETUP_SCRIPT.length + 2 * rounds + 2];
+            latencies.add(clientLatencies);
+            Thread thread = new Thread(() -> {
+                try {
+                    runClient(address, rounds, steps, clientLatencies, errors);
+                } catch (IOException e) {
+                    errors.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+            threads.add(thread);
+        }
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).filter(latency -> latency > 0).sorted().toArray();
+        if (all.length == 0) {
+            System.err.println(USAGE);
+            return;
+        }
+        System.out.printf(RESULT_FORMAT, clients, all.length, errors.get(), elapsed / NANOS_PER_SECOND,
+                all.length / (elapsed / NANOS_PER_SECOND),
+                all[(int) (all.length * MEDIAN)] / NANOS_PER_MILLI,
+                all[(int) (all.length * PERCENTILE_99)] / NANOS_PER_MILLI,
+                all[all.length - 1] / NANOS_PER_MILLI);
+    }
+    
+    private static void runClient(InetSocketAddress address, int rounds, int steps, long[] latencies, AtomicInteger errors)
+            throws IOException {
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            awaitPrompt(channel, buffer);
+            int index = 0;
+            for (String command : SETUP_SCRIPT) {
+                latencies[index++] = send(channel, buffer, command, errors);
+            }
+            for (int round = 0; round < rounds; round++) {
+                latencies[index++] = send(channel, buffer, NEXT_FORMAT.formatted(steps), errors);
+                latencies[index++] = send(channel, buffer, SHOW_MEMORY, errors);
+            }
+            latencies[index] = send(channel, buffer, END_GAME, errors);
+            channel.write(ByteBuffer.wrap((QUIT + LINE_END).getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+    
+    private static long send(SocketChannel channel, ByteBuffer buffer, String command, AtomicInteger errors)
+            throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer request = ByteBuffer.wrap((command + LINE_END).getBytes(StandardCharsets.UTF_8));
+        while (request.hasRemaining()) {
+            channel.write(request);
+        }
+        String response = awaitPrompt(channel, buffer);
+        if (response.contains(ERROR_MARKER)) {
+            errors.incrementAndGet();
+        }
+        return System.nanoTime() - start;
+    }
+    
+    private static String awaitPrompt(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (!endsWithPrompt(buffer)) {
+            if (!buffer.hasRemaining() || channel.read(buffer) < 0) {
+                throw new IOException(ERROR_NO_PROMPT);
+            }
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+    
+    private static boolean endsWithPrompt(ByteBuffer buffer) {
+        int end = buffer.position();
+        if (end < PROMPT_BYTES.length) {
+            return false;
+        }
+        for (int i = 0; i < PROMPT_BYTES.length; i++) {
+            if (buffer.get(end - PROMPT_BYTES.length + i) != PROMPT_BYTES[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,22 @@
+package edu.kit.kastel.codefight.server;
+
+import edu.kit.kastel.codefight.model.CodefightSession;
+
+import java.io.PrintStream;
+
+/**
+ * Creates the isolated {@link CodefightSession session} of a client connected to the {@link GameServer game server}.
+ *
+ * @author uwwfh
+ */
+@FunctionalInterface
+public interface SessionFactory {
+    
+    /**
+     * Creates a new session writing all output to the given streams.
+     * @param output The output stream of the session.
+     * @param errorOutput The error output stream of the session.
+     * @return The new session.
+     */
+    CodefightSession createSession(PrintStream output, PrintStream errorOutput);
+}
@@ -0,0 +1,137 @@
+package edu.kit.kastel.codefight.spectator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A single frame sent to spectators. A keyframe contains the symbol of every memory cell and the position
+ * of every AI, a delta frame only the cells whose symbol changed and the AIs that moved or died since the
+ * previous frame. Owner changes and bombs show up as changed symbols.
+ *
+ * @param sequence The number of the frame, increasing with every published frame.
+ * @param keyframe If the frame contains the complete memory.
+ * @param gameOver If the game ended with this frame.
+ * @param cells The changed cells, ordered by address.
+ * @param pointers The moved AIs.
+ * @author uwwfh
+ */
+public record SpectatorFrame(long sequence, boolean keyframe, boolean gameOver, List<CellChange> cells,
+                             List<PointerMove> pointers) {
+    
+    /**
+     * The address reported for AIs that died.
+     */
+    public static final int DEAD_ADDRESS = -1;
+    
+    private static final int FLAG_KEYFRAME = 1;
+    private static final int FLAG_GAME_OVER = 2;
+    
+    /**
+     * Constructs a new frame.
+     *
+     * @param sequence The number of the frame, increasing with every published frame.
+     * @param keyframe If the frame contains the complete memory.
+     * @param gameOver If the game ended with this frame.
+     * @param cells The changed cells, ordered by address.
+     * @param pointers The moved AIs.
+     */
+    public SpectatorFrame {
+        cells = List.copyOf(cells);
+        pointers = List.copyOf(pointers);
+    }
+    
+    /**
+     * Gets if the frame does not change anything for the spectator.
+     * @return If the frame is empty.
+     */
+    public boolean isEmpty() {
+        return !keyframe && !gameOver && cells.isEmpty() && pointers.isEmpty();
+    }
+    
+    /**
+     * Combines this frame with the frame that followed it into one frame with the same effect.
+     * Used to coalesce frames for spectators that cannot keep up.
+     * @param next The frame that followed this frame.
+     * @return The combined frame.
+     */
+    SpectatorFrame merge(SpectatorFrame next) {
+        if (next.keyframe) {
+            return next;
+        }
+        Map<Integer, String> mergedCells = new TreeMap<>();
+        cells.forEach(cell -> mergedCells.put(cell.address(), cell.symbol()));
+        next.cells.forEach(cell -> mergedCells.put(cell.address(), cell.symbol()));
+        Map<String, Integer> mergedPointers = new TreeMap<>();
+        pointers.forEach(pointer -> mergedPointers.put(pointer.aiName(), pointer.address()));
+        next.pointers.forEach(pointer -> mergedPointers.put(pointer.aiName(), pointer.address()));
+        
+        List<CellChange> cellList = new ArrayList<>();
+        mergedCells.forEach((address, symbol) -> cellList.add(new CellChange(address, symbol)));
+        List<PointerMove> pointerList = new ArrayList<>();
+        mergedPointers.forEach((name, address) -> pointerList.add(new PointerMove(name, address)));
+        return new SpectatorFrame(next.sequence, keyframe, gameOver || next.gameOver, cellList, pointerList);
+    }
+    
+    /**
+     * Writes the frame in its compact binary form.
+     * @param out The output to write to.
+     * @throws IOException If writing fails.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeByte((keyframe ? FLAG_KEYFRAME : 0) | (gameOver ? FLAG_GAME_OVER : 0));
+        out.writeLong(sequence);
+        out.writeInt(cells.size());
+        for (CellChange cell : cells) {
+            out.writeShort(cell.address());
+            out.writeUTF(cell.symbol());
+        }
+        out.writeInt(pointers.size());
+        for (PointerMove pointer : pointers) {
+            out.writeUTF(pointer.aiName());
+            out.writeShort(pointer.address());
+        }
+    }
+    
+    /**
+     * Reads a frame that was written by {@link #writeTo(DataOutput)}.
+     * @param in The input to read from.
+     * @return The read frame.
+     * @throws IOException If reading fails.
+     */
+    public static SpectatorFrame readFrom(DataInput in) throws IOException {
+        int flags = in.readByte();
+        long sequence = in.readLong();
+        int cellCount = in.readInt();
+        List<CellChange> cells = new ArrayList<>(cellCount);
+        for (int i = 0; i < cellCount; i++) {
+            cells.add(new CellChange(in.readShort(), in.readUTF()));
+        }
+        int pointerCount = in.readInt();
+        List<PointerMove> pointers = new ArrayList<>(pointerCount);
+        for (int i = 0; i < pointerCount; i++) {
+            pointers.add(new PointerMove(in.readUTF(), in.readShort()));
+        }
+        return new SpectatorFrame(sequence, (flags & FLAG_KEYFRAME) != 0, (flags & FLAG_GAME_OVER) != 0, cells, pointers);
+    }
+    
+    /**
+     * A memory cell whose symbol changed.
+     *
+     * @param address The address of the cell.
+     * @param symbol The new symbol of the cell, as printed by show-memory.
+     */
+    public record CellChange(int address, String symbol) { }
+    
+    /**
+     * An AI whose memory pointer moved.
+     *
+     * @param aiName The name of the AI.
+     * @param address The new address of the memory pointer, {@link #DEAD_ADDRESS} if the AI died.
+     */
+    public record PointerMove(String aiName, int address) { }
+}
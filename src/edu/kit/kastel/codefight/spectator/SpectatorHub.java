@@ -0,0 +1,226 @@
+package edu.kit.kastel.codefight.spectator;
+
+import edu.kit.kastel.codefight.model.AIPlayer;
+import edu.kit.kastel.codefight.model.Codefight;
+import edu.kit.kastel.codefight.model.Memory;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Broadcasts the memory of the games of a session to any number of spectators.
+ * <p></p>
+ * The hub keeps the symbols it published last. After every batch of steps, only the cells the memory
+ * reports as changed and the cells under the old and new AI pointers are rendered again, and only
+ * symbols that actually differ are published. The resulting frame is shared by all spectators, so the
+ * cost of a batch grows with the amount of changes, not with the memory size or the amount of spectators.
+ * <p></p>
+ * Games are published by the thread that plays them, spectators may subscribe from any thread.
+ *
+ * @author uwwfh
+ */
+public final class SpectatorHub {
+    
+    /**
+     * The default amount of frames queued for a single spectator before frames are coalesced.
+     */
+    public static final int DEFAULT_MAILBOX_CAPACITY = 16;
+    
+    private static final String DELIVERY_THREAD_NAME = "codefight-spectator-%d";
+    
+    private final int mailboxCapacity;
+    private final ExecutorService delivery;
+    private final Map<SpectatorListener, Subscription> subscriptions;
+    
+    private String[] lastSymbols;
+    private Map<String, Integer> lastPointers;
+    private long sequence;
+    
+    /**
+     * Creates a new hub without spectators.
+     * @param mailboxCapacity The amount of frames queued for a single spectator before frames are coalesced.
+     */
+    public SpectatorHub(int mailboxCapacity) {
+        this.mailboxCapacity = mailboxCapacity;
+        this.delivery = Executors.newCachedThreadPool(createDeliveryThreadFactory());
+        this.subscriptions = new LinkedHashMap<>();
+        this.lastPointers = new HashMap<>();
+    }
+    
+    /**
+     * Subscribes a spectator. If a game is running, the spectator immediately receives a keyframe of the
+     * last published state, otherwise with the start of the next game.
+     * @param listener The spectator.
+     */
+    public synchronized void subscribe(SpectatorListener listener) {
+        if (subscriptions.containsKey(listener)) {
+            return;
+        }
+        Subscription subscription = new Subscription(this, listener, mailboxCapacity, delivery);
+        subscriptions.put(listener, subscription);
+        if (lastSymbols != null) {
+            subscription.offer(createKeyframe(Math.max(sequence - 1, 0)));
+        }
+    }
+    
+    /**
+     * Unsubscribes a spectator. Frames that were not delivered yet are dropped.
+     * @param listener The spectator.
+     */
+    public void unsubscribe(SpectatorListener listener) {
+        Subscription subscription;
+        synchronized (this) {
+            subscription = subscriptions.remove(listener);
+        }
+        if (subscription != null) {
+            subscription.close();
+        }
+    }
+    
+    /**
+     * Unsubscribes a subscription after its listener failed.
+     * @param subscription The subscription.
+     */
+    void unsubscribe(Subscription subscription) {
+        synchronized (this) {
+            subscriptions.values().remove(subscription);
+        }
+        subscription.close();
+    }
+    
+    /**
+     * Gets the amount of current spectators.
+     * @return The amount of spectators.
+     */
+    public synchronized int getSubscriberCount() {
+        return subscriptions.size();
+    }
+    
+    /**
+     * Publishes a keyframe of a game that just started.
+     * @param game The game.
+     */
+    public synchronized void startGame(Codefight game) {
+        Memory memory = game.getMemory();
+        memory.takeChangedCells();
+        lastSymbols = new String[memory.getMemorySize()];
+        for (int address = 0; address < lastSymbols.length; address++) {
+            lastSymbols[address] = memory.getSingleCharacterRepresentation(address);
+        }
+        lastPointers = getPointers(game);
+        broadcast(createKeyframe(sequence++));
+    }
+    
+    /**
+     * Publishes the changes of a game since the last published frame. Nothing is sent if nothing changed.
+     * @param game The game.
+     */
+    public synchronized void publish(Codefight game) {
+        if (lastSymbols == null) {
+            return;
+        }
+        SpectatorFrame frame = createDelta(game, false);
+        if (!frame.isEmpty()) {
+            broadcast(frame);
+        }
+    }
+    
+    /**
+     * Publishes the last changes of a game that just ended.
+     * @param game The game.
+     */
+    public synchronized void endGame(Codefight game) {
+        if (lastSymbols == null) {
+            return;
+        }
+        broadcast(createDelta(game, true));
+        lastSymbols = null;
+        lastPointers = new HashMap<>();
+    }
+    
+    /**
+     * Unsubscribes all spectators and stops the delivery threads.
+     */
+    public void close() {
+        List<SpectatorListener> listeners;
+        synchronized (this) {
+            listeners = new ArrayList<>(subscriptions.keySet());
+        }
+        listeners.forEach(this::unsubscribe);
+        delivery.shutdownNow();
+    }
+    
+    private SpectatorFrame createDelta(Codefight game, boolean gameOver) {
+        Memory memory = game.getMemory();
+        BitSet dirty = memory.takeChangedCells();
+        Map<String, Integer> pointers = getPointers(game);
+        List<SpectatorFrame.PointerMove> moves = new ArrayList<>();
+        // The symbols under all old and new pointers may change, even if the pointer did not move
+        for (Map.Entry<String, Integer> pointer : pointers.entrySet()) {
+            Integer previous = lastPointers.get(pointer.getKey());
+            if (!pointer.getValue().equals(previous)) {
+                moves.add(new SpectatorFrame.PointerMove(pointer.getKey(), pointer.getValue()));
+            }
+            markAddress(dirty, previous);
+            markAddress(dirty, pointer.getValue());
+        }
+        lastPointers = pointers;
+        
+        List<SpectatorFrame.CellChange> changes = new ArrayList<>();
+        for (int address = dirty.nextSetBit(0); address >= 0; address = dirty.nextSetBit(address + 1)) {
+            String symbol = memory.getSingleCharacterRepresentation(address);
+            if (!symbol.equals(lastSymbols[address])) {
+                lastSymbols[address] = symbol;
+                changes.add(new SpectatorFrame.CellChange(address, symbol));
+            }
+        }
+        return new SpectatorFrame(sequence++, false, gameOver, changes, moves);
+    }
+    
+    private SpectatorFrame createKeyframe(long frameSequence) {
+        List<SpectatorFrame.CellChange> cells = new ArrayList<>(lastSymbols.length);
+        for (int address = 0; address < lastSymbols.length; address++) {
+            cells.add(new SpectatorFrame.CellChange(address, lastSymbols[address]));
+        }
+        List<SpectatorFrame.PointerMove> pointers = new ArrayList<>();
+        lastPointers.forEach((name, address) -> pointers.add(new SpectatorFrame.PointerMove(name, address)));
+        return new SpectatorFrame(frameSequence, true, false, cells, pointers);
+    }
+    
+    private void broadcast(SpectatorFrame frame) {
+        for (Subscription subscription : subscriptions.values()) {
+            subscription.offer(frame);
+        }
+    }
+    
+    private static Map<String, Integer> getPointers(Codefight game) {
+        Map<String, Integer> pointers = new LinkedHashMap<>();
+        for (AIPlayer player : game.getTotalIngameAIs()) {
+            pointers.put(player.getAIName(), player.isDead() ? SpectatorFrame.DEAD_ADDRESS : player.getMemoryPtr());
+        }
+        return pointers;
+    }
+    
+    private static void markAddress(BitSet dirty, Integer address) {
+        if (address != null && address != SpectatorFrame.DEAD_ADDRESS) {
+            dirty.set(address);
+        }
+    }
+    
+    private static ThreadFactory createDeliveryThreadFactory() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, DELIVERY_THREAD_NAME.formatted(threadCount.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
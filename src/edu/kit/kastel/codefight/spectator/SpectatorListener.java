@@ -0,0 +1,24 @@
+package edu.kit.kastel.codefight.spectator;
+
+/**
+ * Receives the frames of a {@link SpectatorHub}. Frames of one listener are delivered in order and
+ * never concurrently, but not on the thread that plays the game.
+ *
+ * @author uwwfh
+ */
+@FunctionalInterface
+public interface SpectatorListener {
+    
+    /**
+     * Receives the next frame. The first frame a listener receives is always a keyframe.
+     * Throwing an exception unsubscribes the listener.
+     * @param frame The frame.
+     * @throws Exception If the listener cannot take any more frames.
+     */
+    void onFrame(SpectatorFrame frame) throws Exception;
+    
+    /**
+     * Called once after the listener was unsubscribed, for example to release a socket.
+     */
+    default void onClose() { }
+}
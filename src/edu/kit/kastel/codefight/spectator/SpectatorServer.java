@@ -0,0 +1,99 @@
+package edu.kit.kastel.codefight.spectator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * Accepts spectators over TCP and subscribes them to a {@link SpectatorHub}. Every spectator receives
+ * a stream of frames in the binary form of {@link SpectatorFrame#writeTo(java.io.DataOutput)}.
+ * Spectators do not send anything, closing the connection unsubscribes them.
+ *
+ * @author uwwfh
+ */
+public final class SpectatorServer {
+    
+    private static final String ACCEPT_THREAD_NAME = "codefight-spectator-accept";
+    
+    private final SpectatorHub hub;
+    private final ServerSocket serverSocket;
+    private final Thread acceptThread;
+    
+    /**
+     * Opens the server socket and starts accepting spectators on a background thread.
+     * @param hub The hub the spectators subscribe to.
+     * @param address The address to listen on.
+     * @throws IOException If the socket could not be opened.
+     */
+    public SpectatorServer(SpectatorHub hub, InetSocketAddress address) throws IOException {
+        this.hub = hub;
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(address);
+        this.acceptThread = new Thread(this::acceptSpectators, ACCEPT_THREAD_NAME);
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+    
+    /**
+     * Gets the address the server is listening on.
+     * @return The local address.
+     */
+    public InetSocketAddress getAddress() {
+        return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+    }
+    
+    /**
+     * Stops accepting spectators. Spectators that are already subscribed stay subscribed.
+     */
+    public void stop() {
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+            // Not accepting anymore either way
+        }
+    }
+    
+    private void acceptSpectators() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                hub.subscribe(new SocketSpectator(socket));
+            } catch (IOException e) {
+                // Closed by stop() or a single failed accept, the loop condition decides
+            }
+        }
+    }
+    
+    /**
+     * A spectator connected over a socket. Blocking writes only ever block the delivery of this spectator.
+     */
+    private static final class SocketSpectator implements SpectatorListener {
+        
+        private final Socket socket;
+        private final DataOutputStream output;
+        
+        SocketSpectator(Socket socket) throws IOException {
+            this.socket = socket;
+            this.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+        
+        @Override
+        public void onFrame(SpectatorFrame frame) throws IOException {
+            frame.writeTo(output);
+            output.flush();
+        }
+        
+        @Override
+        public void onClose() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Spectator is gone either way
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package edu.kit.kastel.codefight.spectator;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A minimal spectator client. Connects to a {@link SpectatorServer}, applies the received frames to a
+ * local copy of the memory and prints the memory after every frame, like show-memory without markers.
+ * <p></p>
+ * Usage: {@code SpectatorViewer <port>}.
+ *
+ * @author uwwfh
+ */
+public final class SpectatorViewer {
+    
+    private static final String USAGE = "Usage: SpectatorViewer <port>";
+    private static final String FRAME_FORMAT = "#%d %s%s%n%s%n";
+    private static final String KEYFRAME_MARKER = "keyframe";
+    private static final String DELTA_FORMAT = "delta of %d cells";
+    private static final String GAME_OVER_MARKER = ", game over";
+    private static final String EMPTY_STRING = "";
+    
+    private SpectatorViewer() { }
+    
+    /**
+     * Runs the viewer until the server closes the connection.
+     * @param args The port of the spectator server.
+     * @throws IOException If the connection fails.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println(USAGE);
+            return;
+        }
+        List<String> memory = new ArrayList<>();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]));
+             DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (true) {
+                SpectatorFrame frame = SpectatorFrame.readFrom(input);
+                if (frame.keyframe()) {
+                    memory.clear();
+                }
+                for (SpectatorFrame.CellChange cell : frame.cells()) {
+                    while (memory.size() <= cell.address()) {
+                        memory.add(EMPTY_STRING);
+                    }
+                    memory.set(cell.address(), cell.symbol());
+                }
+                System.out.printf(FRAME_FORMAT, frame.sequence(),
+                        frame.keyframe() ? KEYFRAME_MARKER : DELTA_FORMAT.formatted(frame.cells().size()),
+                        frame.gameOver() ? GAME_OVER_MARKER : EMPTY_STRING, String.join(EMPTY_STRING, memory));
+            }
+        } catch (EOFException ignored) {
+            // Server closed the connection
+        }
+    }
+}
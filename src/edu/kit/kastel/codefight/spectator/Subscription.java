@@ -0,0 +1,105 @@
+package edu.kit.kastel.codefight.spectator;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+
+/**
+ * The bounded mailbox of a single spectator. If the spectator falls behind and the mailbox is full,
+ * new frames are merged into the newest queued frame instead of being queued, so a slow spectator
+ * costs at most one memory worth of cells and never slows down the game or other spectators.
+ *
+ * @author uwwfh
+ */
+final class Subscription {
+    
+    private final SpectatorListener listener;
+    private final int capacity;
+    private final Executor executor;
+    private final Deque<SpectatorFrame> mailbox;
+    private final SpectatorHub hub;
+    private boolean scheduled;
+    private boolean closed;
+    private long coalescedFrames;
+    
+    /**
+     * Creates a new subscription.
+     * @param hub The hub the subscription belongs to.
+     * @param listener The listener to deliver the frames to.
+     * @param capacity The maximum amount of queued frames.
+     * @param executor The executor the frames are delivered on.
+     */
+    Subscription(SpectatorHub hub, SpectatorListener listener, int capacity, Executor executor) {
+        this.hub = hub;
+        this.listener = listener;
+        this.capacity = capacity;
+        this.executor = executor;
+        this.mailbox = new ArrayDeque<>(capacity);
+    }
+    
+    /**
+     * Queues a frame for delivery. Never blocks.
+     * @param frame The frame to queue.
+     */
+    void offer(SpectatorFrame frame) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (mailbox.size() >= capacity) {
+                mailbox.addLast(mailbox.pollLast().merge(frame));
+                coalescedFrames++;
+            } else {
+                mailbox.addLast(frame);
+            }
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        executor.execute(this::deliver);
+    }
+    
+    /**
+     * Gets the amount of frames that were merged because the spectator was too slow.
+     * @return The amount of coalesced frames.
+     */
+    synchronized long getCoalescedFrames() {
+        return coalescedFrames;
+    }
+    
+    /**
+     * Stops the delivery of frames and notifies the listener.
+     */
+    void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            mailbox.clear();
+        }
+        listener.onClose();
+    }
+    
+    private void deliver() {
+        SpectatorFrame frame = next();
+        while (frame != null) {
+            try {
+                listener.onFrame(frame);
+            } catch (Exception e) {
+                hub.unsubscribe(this);
+                return;
+            }
+            frame = next();
+        }
+    }
+    
+    private synchronized SpectatorFrame next() {
+        SpectatorFrame frame = closed ? null : mailbox.pollFirst();
+        if (frame == null) {
+            scheduled = false;
+        }
+        return frame;
+    }
+}
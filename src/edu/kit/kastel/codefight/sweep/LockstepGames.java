@@ -0,0 +1,464 @@
+package edu.kit.kastel.codefight.sweep;
+
+import edu.kit.kastel.codefight.aicommands.AICommand;
+import edu.kit.kastel.codefight.aicommands.AICommandType;
+import edu.kit.kastel.codefight.model.Memory;
+import edu.kit.kastel.codefight.model.MemoryInitType;
+import edu.kit.kastel.codefight.usercommands.CommandHandler;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Plays many games of the same AIs on the same memory size in lockstep, one game per lane, that only differ
+ * in the seed of their memory initialization. Used for seed sweeps, where thousands of such games are played.
+ * <p></p>
+ * The state of all games is stored as a structure of arrays: cell {@code address} of lane {@code lane} is at
+ * index {@code address * lanes + lane}, the state of AI {@code player} at {@code player * lanes + lane}.
+ * Every round plays one turn in every lane, so lanes that still follow the same path read neighbouring
+ * elements, and no cell or command objects are created. Lanes whose games end are split off, so later rounds
+ * only visit the lanes that are still running. Every lane plays exactly by the rules of {@link Memory}.
+ * <p></p>
+ * The rounds are played by a {@link LockstepKernel kernel}. By default every lane plays its turn on its own. With
+ * the system property {@value #VECTOR_PROPERTY} set to true, the rounds are played by the vector kernel of the
+ * optional source set {@code src-vector} instead, which needs the incubator module {@code jdk.incubator.vector}
+ * (Maven profile {@code vector}, run with {@code --add-modules jdk.incubator.vector}). If it is not available,
+ * the games are played on their own lanes as before.
+ *
+ * @author uwwfh
+ */
+public final class LockstepGames {
+    
+    /**
+     * The owner of a cell that no AI ever wrote.
+     */
+    public static final int NO_OWNER = Memory.NO_OWNER;
+    
+    private static final AICommandType[] TYPES = AICommandType.values();
+    private static final byte STOP = (byte) AICommandType.STOP.ordinal();
+    private static final int BEGIN_ADDRESS = 0;
+    private static final int NO_LANE = -1;
+    private static final String ERROR_NO_LANES = "a sweep needs at least one seed.";
+    private static final String VECTOR_PROPERTY = "codefight.lockstep.vector";
+    private static final String VECTOR_KERNEL_CLASS = "edu.kit.kastel.codefight.sweep.VectorLockstepKernel";
+    private static final String ERROR_NO_VECTOR_KERNEL = "%sthe vector kernel is not available, lanes are played on their own: %s"
+            .formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final int SINGLE_STEP = 1;
+    private static final int ANY_ALIVE = 1;
+    private static final LockstepKernel KERNEL = loadKernel();
+    
+    // The state is package-private for the kernels, see the class comment for the layout
+    final int memorySize;
+    final int lanes;
+    final int playerCount;
+    private final boolean setupSuccess;
+    
+    final byte[] types;
+    final int[] argumentsA;
+    final int[] argumentsB;
+    final int[] owners;
+    final boolean[] modified;
+    
+    final int[] pointers;
+    final long[] moveCounts;
+    final boolean[] dead;
+    final int[] turnOrder;
+    final int[] aliveCounts;
+    final int[] currentIndices;
+    
+    final int[] laneSteps;
+    private final int[] activeLanes;
+    int trackedLane = NO_LANE;
+    BitSet trackedCells;
+    
+    /**
+     * Sets up a game per seed. AIs are placed in the order of their programs, exactly like {@link Memory} does.
+     * @throws IllegalArgumentException If there are no seeds.
+     * @param memorySize The size of the memory of every game.
+     * @param initMode The initialization mode of the memory of every game.
+     * @param seeds The seeds of the memory initializations, one per lane.
+     * @param programs The programs of the AIs.
+     */
+    public LockstepGames(int memorySize, MemoryInitType initMode, long[] seeds, List<List<AICommand>> programs) {
+        if (seeds.length == 0) {
+            throw new IllegalArgumentException(ERROR_NO_LANES);
+        }
+        this.memorySize = memorySize;
+        this.lanes = seeds.length;
+        this.playerCount = programs.size();
+        int cells = memorySize * lanes;
+        this.types = new byte[cells];
+        this.argumentsA = new int[cells];
+        this.argumentsB = new int[cells];
+        this.owners = new int[cells];
+        this.modified = new boolean[cells];
+        this.pointers = new int[playerCount * lanes];
+        this.moveCounts = new long[playerCount * lanes];
+        this.dead = new boolean[playerCount * lanes];
+        this.turnOrder = new int[playerCount * lanes];
+        this.aliveCounts = new int[lanes];
+        this.currentIndices = new int[lanes];
+        this.activeLanes = new int[lanes];
+        this.laneSteps = new int[lanes];
+        
+        for (int lane = 0; lane < lanes; lane++) {
+            Random random = new Random(seeds[lane]);
+            for (int address = BEGIN_ADDRESS; address < memorySize; address++) {
+                int cell = address * lanes + lane;
+                if (initMode == MemoryInitType.INIT_MODE_RANDOM) {
+                    types[cell] = (byte) random.nextInt(TYPES.length);
+                    argumentsA[cell] = random.nextInt();
+                    argumentsB[cell] = random.nextInt();
+                } else {
+                    types[cell] = STOP;
+                }
+                owners[cell] = NO_OWNER;
+            }
+        }
+        this.setupSuccess = placePrograms(programs);
+    }
+    
+    /**
+     * Gets if the AIs fit into the memory. The same for every lane, since the lanes only differ in their seeds.
+     * If not, the games must not be played.
+     * @return If the setup was successful.
+     */
+    public boolean wasSetupSuccess() {
+        return setupSuccess;
+    }
+    
+    /**
+     * Gets the amount of games.
+     * @return The amount of lanes.
+     */
+    public int getLaneCount() {
+        return lanes;
+    }
+    
+    /**
+     * Gets the amount of AIs of every game.
+     * @return The amount of AIs.
+     */
+    public int getPlayerCount() {
+        return playerCount;
+    }
+    
+    /**
+     * Reports the cells written in a lane from now on, for example to compare the lane against another engine.
+     * Only one lane can be tracked.
+     * @param lane The lane to track.
+     * @param changed The set the addresses of written cells are added to.
+     */
+    public void trackChanges(int lane, BitSet changed) {
+        this.trackedLane = lane;
+        this.trackedCells = changed;
+    }
+    
+    /**
+     * Plays one turn in every lane whose game is not over.
+     */
+    public void step() {
+        play(SINGLE_STEP, ANY_ALIVE);
+    }
+    
+    /**
+     * Plays every game in lockstep until fewer than a minimum amount of its AIs are alive or it played the
+     * maximum amount of turns in this call.
+     * @param maxSteps The maximum amount of turns per lane.
+     * @param minAlive The amount of alive AIs a game needs to be played on. At least 1.
+     */
+    public void play(int maxSteps, int minAlive) {
+        KERNEL.play(this, maxSteps, minAlive);
+    }
+    
+    /**
+     * The default kernel, plays the turn of every running lane on its own and splits off the lanes that are done.
+     */
+    void playLanes(int maxSteps, int minAlive) {
+        int activeCount = 0;
+        for (int lane = 0; lane < lanes; lane++) {
+            laneSteps[lane] = 0;
+            activeLanes[activeCount] = lane;
+            activeCount++;
+        }
+        while (activeCount > 0) {
+            int running = 0;
+            for (int i = 0; i < activeCount; i++) {
+                int lane = activeLanes[i];
+                if (laneSteps[lane] < maxSteps && aliveCounts[lane] >= minAlive) {
+                    playTurn(lane);
+                    laneSteps[lane]++;
+                    // Split off finished lanes, the order of the lanes does not matter
+                    activeLanes[running] = lane;
+                    running++;
+                }
+            }
+            activeCount = running;
+        }
+    }
+    
+    /**
+     * Gets if the game of a lane is over, so every AI stopped.
+     * @param lane The lane.
+     * @return If the game is over.
+     */
+    public boolean isOver(int lane) {
+        return aliveCounts[lane] == 0;
+    }
+    
+    /**
+     * Gets the amount of AIs that did not stop yet in a lane.
+     * @param lane The lane.
+     * @return The amount of alive AIs.
+     */
+    public int getAliveCount(int lane) {
+        return aliveCounts[lane];
+    }
+    
+    /**
+     * Gets if an AI stopped in a lane.
+     * @param lane The lane.
+     * @param player The index of the AI.
+     * @return If the AI is dead.
+     */
+    public boolean isDead(int lane, int player) {
+        return dead[player * lanes + lane];
+    }
+    
+    /**
+     * Gets the memory pointer of an AI in a lane.
+     * @param lane The lane.
+     * @param player The index of the AI.
+     * @return The memory pointer.
+     */
+    public int getPointer(int lane, int player) {
+        return pointers[player * lanes + lane];
+    }
+    
+    /**
+     * Gets the amount of turns an AI played in a lane, including the turn it stopped in.
+     * @param lane The lane.
+     * @param player The index of the AI.
+     * @return The amount of turns.
+     */
+    public long getMoveCount(int lane, int player) {
+        return moveCounts[player * lanes + lane];
+    }
+    
+    /**
+     * Gets the command type of a cell in a lane.
+     * @param lane The lane.
+     * @param address The sanitized address of the cell.
+     * @return The command type.
+     */
+    public AICommandType getCommandType(int lane, int address) {
+        return TYPES[types[address * lanes + lane]];
+    }
+    
+    /**
+     * Gets the first argument of a cell in a lane.
+     * @param lane The lane.
+     * @param address The sanitized address of the cell.
+     * @return The first argument.
+     */
+    public int getArgumentA(int lane, int address) {
+        return argumentsA[address * lanes + lane];
+    }
+    
+    /**
+     * Gets the second argument of a cell in a lane.
+     * @param lane The lane.
+     * @param address The sanitized address of the cell.
+     * @return The second argument.
+     */
+    public int getArgumentB(int lane, int address) {
+        return argumentsB[address * lanes + lane];
+    }
+    
+    /**
+     * Gets the index of the AI that wrote a cell in a lane last, including the setup.
+     * @param lane The lane.
+     * @param address The sanitized address of the cell.
+     * @return The index of the AI or {@link #NO_OWNER}.
+     */
+    public int getOwner(int lane, int address) {
+        return owners[address * lanes + lane];
+    }
+    
+    /**
+     * Gets if a cell in a lane was modified by an AI since the setup.
+     * @param lane The lane.
+     * @param address The sanitized address of the cell.
+     * @return If the cell was modified.
+     */
+    public boolean isModified(int lane, int address) {
+        return modified[address * lanes + lane];
+    }
+    
+    /**
+     * Loads the vector kernel if it is enabled. It is compiled in its own source set, so it is looked up by name.
+     */
+    private static LockstepKernel loadKernel() {
+        if (!Boolean.getBoolean(VECTOR_PROPERTY)) {
+            return LockstepGames::playLanes;
+        }
+        try {
+            return Class.forName(VECTOR_KERNEL_CLASS).asSubclass(LockstepKernel.class).getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Not compiled in, or the incubator module was not added
+            System.err.println(ERROR_NO_VECTOR_KERNEL.formatted(e));
+            return LockstepGames::playLanes;
+        }
+    }
+    
+    /**
+     * Places the programs in every lane and moves the pointers to the first command that is not STOP.
+     */
+    private boolean placePrograms(List<List<AICommand>> programs) {
+        double spacing = (double) memorySize / playerCount;
+        double start = BEGIN_ADDRESS;
+        for (int player = 0; player < playerCount; player++) {
+            int length = programs.get(player).size();
+            if (spacing < length && player < playerCount - 1 || (int) start + length > memorySize) {
+                return false;
+            }
+            start += spacing;
+        }
+        
+        for (int lane = 0; lane < lanes; lane++) {
+            start = BEGIN_ADDRESS;
+            for (int player = 0; player < playerCount; player++) {
+                int address = (int) start;
+                for (AICommand command : programs.get(player)) {
+                    int cell = sanitize(address++) * lanes + lane;
+                    types[cell] = (byte) command.getType().ordinal();
+                    argumentsA[cell] = command.getFirstArgument();
+                    argumentsB[cell] = command.getSecondArgument();
+                    owners[cell] = player;
+                }
+                int pointer = (int) start;
+                while (types[sanitize(pointer) * lanes + lane] == STOP) {
+                    pointer++;
+                }
+                pointers[player * lanes + lane] = sanitize(pointer);
+                turnOrder[player * lanes + lane] = player;
+                start += spacing;
+            }
+            aliveCounts[lane] = playerCount;
+        }
+        return true;
+    }
+    
+    /**
+     * Plays the next turn of a lane. Follows the rules of {@link Memory} and the AI commands exactly.
+     */
+    void playTurn(int lane) {
+        int currentIndex = currentIndices[lane];
+        int player = turnOrder[currentIndex * lanes + lane];
+        int playerSlot = player * lanes + lane;
+        int pointer = pointers[playerSlot];
+        int cell = pointer * lanes + lane;
+        int argumentA = argumentsA[cell];
+        int argumentB = argumentsB[cell];
+        switch (TYPES[types[cell]]) {
+            case STOP -> dead[playerSlot] = true;
+            case MOV_R -> {
+                copyCell(lane, sanitize(pointer + argumentA), sanitize(pointer + argumentB), player);
+                pointers[playerSlot] = sanitize(pointer + 1);
+            }
+            case MOV_I -> {
+                int destination = sanitize(pointer + argumentB);
+                destination += sanitize(argumentsB[destination * lanes + lane]);
+                copyCell(lane, sanitize(pointer + argumentA), sanitize(destination), player);
+                pointers[playerSlot] = sanitize(pointer + 1);
+            }
+            case ADD -> {
+                argumentsB[cell] = argumentA + argumentB;
+                markModified(lane, pointer, player);
+                pointers[playerSlot] = sanitize(pointer + 1);
+            }
+            case ADD_R -> {
+                int target = sanitize(pointer + argumentB);
+                argumentsB[target * lanes + lane] += argumentA;
+                markModified(lane, target, player);
+                pointers[playerSlot] = sanitize(pointer + 1);
+            }
+            case JMP -> pointers[playerSlot] = sanitize(pointer + argumentA);
+            case JMZ -> pointers[playerSlot] = argumentsB[sanitize(pointer + argumentB) * lanes + lane] == 0
+                    ? sanitize(pointer + argumentA) : sanitize(pointer + 1);
+            case CMP -> {
+                boolean equal = argumentsA[sanitize(pointer + argumentA) * lanes + lane]
+                        == argumentsB[sanitize(pointer + argumentB) * lanes + lane];
+                pointers[playerSlot] = sanitize(pointer + (equal ? 1 : 2));
+            }
+            case SWAP -> {
+                int first = sanitize(pointer + argumentA) * lanes + lane;
+                int second = sanitize(pointer + argumentB) * lanes + lane;
+                int temp = argumentsA[first];
+                argumentsA[first] = argumentsB[second];
+                markModified(lane, sanitize(pointer + argumentA), player);
+                argumentsB[second] = temp;
+                markModified(lane, sanitize(pointer + argumentB), player);
+                pointers[playerSlot] = sanitize(pointer + 1);
+            }
+        }
+        finishTurn(lane, currentIndex, playerSlot);
+    }
+    
+    /**
+     * Counts the turn of an AI and passes the turn on, removing the AI from the turn order if it stopped.
+     * @param lane The lane.
+     * @param currentIndex The index of the AI in the turn order.
+     * @param playerSlot The index of the state of the AI.
+     */
+    void finishTurn(int lane, int currentIndex, int playerSlot) {
+        moveCounts[playerSlot]++;
+        
+        int aliveCount = aliveCounts[lane];
+        if (dead[playerSlot]) {
+            for (int i = currentIndex + 1; i < aliveCount; i++) {
+                turnOrder[(i - 1) * lanes + lane] = turnOrder[i * lanes + lane];
+            }
+            aliveCounts[lane] = --aliveCount;
+            if (currentIndex >= aliveCount) {
+                currentIndices[lane] = 0;
+            }
+        } else {
+            currentIndices[lane] = currentIndex >= aliveCount - 1 ? 0 : currentIndex + 1;
+        }
+    }
+    
+    /**
+     * Copies a cell of a lane including its owner and modified state, then marks the copy as modified by the player.
+     */
+    private void copyCell(int lane, int origin, int destination, int player) {
+        int from = origin * lanes + lane;
+        int to = destination * lanes + lane;
+        types[to] = types[from];
+        argumentsA[to] = argumentsA[from];
+        argumentsB[to] = argumentsB[from];
+        markModified(lane, destination, player);
+    }
+    
+    void markModified(int lane, int address, int player) {
+        int cell = address * lanes + lane;
+        owners[cell] = player;
+        modified[cell] = true;
+        if (lane == trackedLane) {
+            trackedCells.set(address);
+        }
+    }
+    
+    /**
+     * Wraps an address into the memory. Most addresses are already in range, so these skip the division.
+     */
+    int sanitize(int address) {
+        if (address >= 0 && address < memorySize) {
+            return address;
+        }
+        int sanitized = address % memorySize;
+        return sanitized < 0 ? sanitized + memorySize : sanitized;
+    }
+}
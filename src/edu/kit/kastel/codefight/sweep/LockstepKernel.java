@@ -0,0 +1,21 @@
+package edu.kit.kastel.codefight.sweep;
+
+/**
+ * Plays the rounds of {@link LockstepGames}. The default kernel plays the turn of every lane on its own, the vector
+ * kernel plays the lanes that follow the same path together. Either must play every lane exactly like
+ * {@link LockstepGames#playTurn(int)} does.
+ *
+ * @author uwwfh
+ */
+@FunctionalInterface
+interface LockstepKernel {
+    
+    /**
+     * Plays every game in lockstep until fewer than a minimum amount of its AIs are alive or it played the
+     * maximum amount of turns in this call. Counts the turns of every lane in {@link LockstepGames#laneSteps}.
+     * @param games The games to play.
+     * @param maxSteps The maximum amount of turns per lane.
+     * @param minAlive The amount of alive AIs a game needs to be played on. At least 1.
+     */
+    void play(LockstepGames games, int maxSteps, int minAlive);
+}
@@ -0,0 +1,100 @@
+package edu.kit.kastel.codefight.tournament;
+
+import edu.kit.kastel.codefight.aicommands.AICommand;
+import edu.kit.kastel.codefight.aicommands.AIProgramParser;
+import edu.kit.kastel.codefight.model.MemoryInitType;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Everything the outcome of a match depends on. The programs are identified by a hash of their instructions,
+ * so the key does not depend on the names of the AIs and stays the same across runs and machines,
+ * unlike {@link edu.kit.kastel.codefight.model.AIPlayer#hashCode()}.
+ *
+ * @param firstProgram The {@link #hashProgram(List) hash} of the program of the AI that moves first.
+ * @param secondProgram The hash of the program of the AI that moves second.
+ * @param memorySize The memory size.
+ * @param initType The memory initialization type.
+ * @param seed The seed of the memory initialization.
+ * @param maxSteps The maximum amount of steps of the match.
+ * @author uwwfh
+ */
+public record MatchKey(String firstProgram, String secondProgram, int memorySize, MemoryInitType initType, long seed,
+                       int maxSteps) {
+    
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int HASH_BYTES = 16;
+    private static final String SEPARATOR = " ";
+    private static final String LINE_FORMAT = "%s %s %d %s %d %d";
+    private static final int FIELDS = 6;
+    private static final int FIELD_FIRST_PROGRAM = 0;
+    private static final int FIELD_SECOND_PROGRAM = 1;
+    private static final int FIELD_MEMORY_SIZE = 2;
+    private static final int FIELD_INIT_TYPE = 3;
+    private static final int FIELD_SEED = 4;
+    private static final int FIELD_MAX_STEPS = 5;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    
+    /**
+     * Computes the content hash of a program: the first 128 bits of the SHA-256 of its instructions in the format
+     * of the add-ai command, as hexadecimal string.
+     * @param program The instructions.
+     * @return The hash.
+     */
+    public static String hashProgram(List<AICommand> program) {
+        try {
+            byte[] digest = MessageDigest.getInstance(HASH_ALGORITHM)
+                    .digest(AIProgramParser.format(program).getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest, 0, HASH_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Computes a 64-bit fingerprint of the key that is stable across runs. Different keys may share a fingerprint.
+     * @return The fingerprint.
+     */
+    public long fingerprint() {
+        String line = toLine();
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < line.length(); i++) {
+            hash = (hash ^ line.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+    
+    /**
+     * Formats the key as a single line, without line break.
+     * @return The line.
+     */
+    public String toLine() {
+        return LINE_FORMAT.formatted(firstProgram, secondProgram, memorySize, initType, seed, maxSteps);
+    }
+    
+    /**
+     * Parses a line written by {@link #toLine()}.
+     * @param line The line.
+     * @return The key, empty if the line is malformed.
+     */
+    public static Optional<MatchKey> parse(String line) {
+        String[] fields = line.split(SEPARATOR);
+        if (fields.length != FIELDS) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new MatchKey(fields[FIELD_FIRST_PROGRAM], fields[FIELD_SECOND_PROGRAM],
+                    Integer.parseInt(fields[FIELD_MEMORY_SIZE]), MemoryInitType.valueOf(fields[FIELD_INIT_TYPE]),
+                    Long.parseLong(fields[FIELD_SEED]), Integer.parseInt(fields[FIELD_MAX_STEPS])));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package edu.kit.kastel.codefight.tournament;
+
+import java.util.Optional;
+
+/**
+ * The outcome of a single match of a tournament, as seen from the AI that moves first.
+ *
+ * @author uwwfh
+ */
+public enum MatchOutcome {
+    
+    /**
+     * Only the AI that moves first is still running.
+     */
+    FIRST_WON('F'),
+    /**
+     * Only the AI that moves second is still running.
+     */
+    SECOND_WON('S'),
+    /**
+     * Both AIs are still running after the maximum amount of steps.
+     */
+    DRAW('D'),
+    /**
+     * The AIs do not fit into the memory next to each other, so nobody scores.
+     */
+    NOT_PLAYED('X');
+    
+    private final char symbol;
+    
+    MatchOutcome(char symbol) {
+        this.symbol = symbol;
+    }
+    
+    /**
+     * Gets the symbol of the outcome in the protocol between coordinator and workers.
+     * @return The symbol.
+     */
+    public char getSymbol() {
+        return symbol;
+    }
+    
+    /**
+     * Finds the outcome of a symbol.
+     * @param symbol The symbol.
+     * @return The outcome, empty if no outcome has the symbol.
+     */
+    public static Optional<MatchOutcome> fromSymbol(char symbol) {
+        for (MatchOutcome outcome : values()) {
+            if (outcome.symbol == symbol) {
+                return Optional.of(outcome);
+            }
+        }
+        return Optional.empty();
+    }
+}
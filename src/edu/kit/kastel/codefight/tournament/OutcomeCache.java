@@ -0,0 +1,253 @@
+package edu.kit.kastel.codefight.tournament;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A persistent cache of match outcomes, so a tournament only simulates the matches it did not play before.
+ * <p></p>
+ * The outcomes are stored in an append-only file, one line per match: the {@link MatchKey key} followed by the
+ * {@link MatchOutcome#getSymbol() symbol} of the outcome. Opening the file reads it once and only remembers the
+ * offset of every line by the {@link MatchKey#fingerprint() fingerprint} of its key, in two primitive arrays.
+ * Recently used outcomes are kept in a least recently used map of bounded size, everything else is read from the
+ * file on demand, and the key of the line is compared, so colliding fingerprints are a miss and never a wrong outcome.
+ * A line that was cut off by a crash is dropped when the file is opened.
+ * <p></p>
+ * All methods are synchronized, the cache is shared by all worker slots of a tournament.
+ *
+ * @author uwwfh
+ */
+public final class OutcomeCache implements Closeable {
+    
+    private static final String FILE_MODE = "rw";
+    private static final char LINE_END = '\n';
+    private static final String OUTCOME_SEPARATOR = " ";
+    private static final String ERROR_CAPACITY = "the cache needs room for at least one outcome.";
+    private static final float LOAD_FACTOR = 0.75f;
+    
+    private final RandomAccessFile file;
+    private final Map<MatchKey, MatchOutcome> recent;
+    private final OffsetIndex offsets;
+    private long hits;
+    private long misses;
+    
+    private OutcomeCache(RandomAccessFile file, int capacity) {
+        this.file = file;
+        this.recent = new LinkedHashMap<>(capacity, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MatchKey, MatchOutcome> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.offsets = new OffsetIndex();
+    }
+    
+    /**
+     * Opens a cache file and indexes the outcomes it contains. The file is created if it does not exist.
+     * @param path The file.
+     * @param capacity The maximum amount of outcomes kept in memory.
+     * @return The cache.
+     * @throws IOException If the file could not be read or opened.
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+    public static OutcomeCache open(Path path, int capacity) throws IOException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(ERROR_CAPACITY);
+        }
+        OutcomeCache cache = new OutcomeCache(new RandomAccessFile(path.toFile(), FILE_MODE), capacity);
+        try {
+            cache.index(path);
+        } catch (IOException e) {
+            cache.close();
+            throw e;
+        }
+        return cache;
+    }
+    
+    /**
+     * Gets the cached outcome of a match.
+     * @param key The key of the match.
+     * @return The outcome, empty if the match was not played before.
+     * @throws IOException If the file could not be read.
+     */
+    public synchronized Optional<MatchOutcome> get(MatchKey key) throws IOException {
+        MatchOutcome outcome = recent.get(key);
+        if (outcome == null) {
+            outcome = read(key);
+        }
+        if (outcome == null) {
+            misses++;
+            return Optional.empty();
+        }
+        hits++;
+        recent.put(key, outcome);
+        return Optional.of(outcome);
+    }
+    
+    /**
+     * Adds the outcome of a match to the cache and appends it to the file.
+     * @param key The key of the match.
+     * @param outcome The outcome.
+     * @throws IOException If the file could not be written.
+     */
+    public synchronized void put(MatchKey key, MatchOutcome outcome) throws IOException {
+        long offset = file.length();
+        file.seek(offset);
+        file.write((key.toLine() + OUTCOME_SEPARATOR + outcome.getSymbol() + LINE_END).getBytes(StandardCharsets.US_ASCII));
+        offsets.put(key.fingerprint(), offset);
+        recent.put(key, outcome);
+    }
+    
+    /**
+     * Gets how many lookups found an outcome.
+     * @return The amount of hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    /**
+     * Gets how many lookups did not find an outcome.
+     * @return The amount of misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        file.close();
+    }
+    
+    /**
+     * Reads the outcome of a key from the file, null if the fingerprint is unknown or belongs to another key.
+     */
+    private MatchOutcome read(MatchKey key) throws IOException {
+        long offset = offsets.get(key.fingerprint());
+        if (offset < 0) {
+            return null;
+        }
+        file.seek(offset);
+        String line = file.readLine();
+        int separator = line.lastIndexOf(OUTCOME_SEPARATOR);
+        if (separator < 0 || separator != line.length() - 2 || !line.substring(0, separator).equals(key.toLine())) {
+            return null;
+        }
+        return MatchOutcome.fromSymbol(line.charAt(separator + 1)).orElse(null);
+    }
+    
+    /**
+     * Remembers the offset of every complete line and cuts off a trailing incomplete one, so appends start on
+     * a new line. A later line of the same key replaces an earlier one.
+     */
+    private void index(Path path) throws IOException {
+        long offset = 0;
+        long lineStart = 0;
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(path))) {
+            int next;
+            while ((next = input.read()) >= 0) {
+                offset++;
+                if (next != LINE_END) {
+                    line.write(next);
+                    continue;
+                }
+                String text = line.toString(StandardCharsets.US_ASCII);
+                int separator = text.lastIndexOf(OUTCOME_SEPARATOR);
+                Optional<MatchKey> key = separator > 0 ? MatchKey.parse(text.substring(0, separator)) : Optional.empty();
+                if (key.isPresent()) {
+                    offsets.put(key.get().fingerprint(), lineStart);
+                }
+                line.reset();
+                lineStart = offset;
+            }
+        }
+        if (lineStart < offset) {
+            file.setLength(lineStart);
+        }
+    }
+    
+    /**
+     * A hash map from fingerprints to file offsets with open addressing in two primitive arrays, so indexing
+     * millions of outcomes costs 32 bytes each instead of two boxed objects and an entry.
+     */
+    private static final class OffsetIndex {
+        
+        private static final int INITIAL_CAPACITY = 1024;
+        private static final long EMPTY = 0;
+        private static final long NOT_FOUND = -1;
+        
+        private long[] fingerprints = new long[INITIAL_CAPACITY];
+        private long[] offsets = new long[INITIAL_CAPACITY];
+        private int size;
+        
+        /**
+         * Gets the offset of a fingerprint.
+         * @return The offset, negative if the fingerprint is unknown.
+         */
+        long get(long fingerprint) {
+            long stored = stored(fingerprint);
+            int mask = fingerprints.length - 1;
+            for (int slot = slot(stored, mask); fingerprints[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (fingerprints[slot] == stored) {
+                    return offsets[slot];
+                }
+            }
+            return NOT_FOUND;
+        }
+        
+        /**
+         * Sets the offset of a fingerprint, replacing a previous one.
+         */
+        void put(long fingerprint, long offset) {
+            if ((size + 1) * 2 > fingerprints.length) {
+                grow();
+            }
+            long stored = stored(fingerprint);
+            int mask = fingerprints.length - 1;
+            int slot = slot(stored, mask);
+            while (fingerprints[slot] != EMPTY && fingerprints[slot] != stored) {
+                slot = (slot + 1) & mask;
+            }
+            if (fingerprints[slot] == EMPTY) {
+                size++;
+            }
+            fingerprints[slot] = stored;
+            offsets[slot] = offset;
+        }
+        
+        private void grow() {
+            long[] oldFingerprints = fingerprints;
+            long[] oldOffsets = offsets;
+            fingerprints = new long[oldFingerprints.length * 2];
+            offsets = new long[oldOffsets.length * 2];
+            size = 0;
+            for (int i = 0; i < oldFingerprints.length; i++) {
+                if (oldFingerprints[i] != EMPTY) {
+                    put(oldFingerprints[i], oldOffsets[i]);
+                }
+            }
+        }
+        
+        /**
+         * Maps the fingerprint that marks empty slots to another one, the line comparison resolves the collision.
+         */
+        private static long stored(long fingerprint) {
+            return fingerprint == EMPTY ? EMPTY + 1 : fingerprint;
+        }
+        
+        private static int slot(long fingerprint, int mask) {
+            return (int) (fingerprint ^ (fingerprint >>> Integer.SIZE)) & mask;
+        }
+    }
+}
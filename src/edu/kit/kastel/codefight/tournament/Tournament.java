@@ -0,0 +1,393 @@
+package edu.kit.kastel.codefight.tournament;
+
+import edu.kit.kastel.codefight.Main;
+import edu.kit.kastel.codefight.aicommands.AICommand;
+import edu.kit.kastel.codefight.aicommands.AIProgramParser;
+import edu.kit.kastel.codefight.evolution.NamedProgram;
+import edu.kit.kastel.codefight.model.MemoryInitType;
+import edu.kit.kastel.codefight.usercommands.CommandHandler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The coordinator of a round-robin tournament that is played by several worker processes on the same machine,
+ * so a large tournament is not limited by the heap and garbage collection of a single JVM.
+ * <p></p>
+ * Every AI of the pool plays every other AI in both seatings on consecutive seeds. The matches are split into
+ * {@link WorkUnit work units} of a seating and a few seeds, which {@link WorkerSlot worker slots} hand to
+ * {@link TournamentWorker worker processes} over loopback sockets. A unit of a crashed worker is played again
+ * by another worker. Results are stored by unit and evaluated in unit order once all units are played,
+ * and every match is deterministic, so the standings do not depend on the workers or the order they finished in.
+ * AIs with the same program only differ by name, so they form a class and every pairing of classes is simulated
+ * once, its outcomes count for every pair of their members. With a cache file, matches that were played before with the same programs and parameters are taken from the
+ * {@link OutcomeCache cache} and only the remaining ones are split into work units.
+ * <p></p>
+ * Usage: {@code Tournament pool=<file> [key=value ...]} with the keys memory, seeds, first-seed, steps,
+ * unit-seeds, workers, restarts, unit-timeout (in seconds), worker-heap (a size as for {@code -Xmx}),
+ * cache (a file) and cache-entries (the amount of outcomes the cache keeps in memory).
+ * The pool file contains one AI per line as {@code <name> <program>}.
+ *
+ * @author uwwfh
+ */
+public final class Tournament {
+    
+    private static final String USAGE = "Usage: Tournament pool=<file> [memory=64] [seeds=8] [first-seed=1] [steps=10000] "
+            + "[unit-seeds=8] [workers=2] [restarts=3] [unit-timeout=600] [worker-heap=<size>] [cache=<file>] [cache-entries=65536]";
+    private static final String OPTION_SEPARATOR = "=";
+    private static final String POOL_SEPARATOR_REGEX = " +";
+    private static final String COMMENT_PREFIX = "#";
+    private static final String HEADER_FORMAT = "%d matches of %d AIs played by %d workers in %d work units.";
+    private static final String CLASSES_FORMAT = "The AIs have %d distinct programs, so %d matches were simulated.";
+    private static final String CACHED_FORMAT = "%d matches were taken from the cache.";
+    private static final String REASSIGNED_FORMAT = "%d work units were reassigned after worker failures.";
+    private static final String STANDING_FORMAT = "%d. %s: %d points, %d wins, %d draws, %d losses";
+    private static final String ERROR_PREFIX = CommandHandler.ERROR_PREFIX;
+    private static final String ERROR_INVALID_AI = "invalid AI: %s";
+    private static final String ERROR_TOO_FEW_AIS = "%sa tournament needs at least two AIs.";
+    private static final String ERROR_UNFINISHED = "%sall workers failed, %d work units were not played.";
+    private static final String ERROR_FAILED = "%stournament failed: %s";
+    private static final String ERROR_CACHE_FAILED = "%scould not cache outcomes, caching stopped: %s";
+    private static final int OPTION_FIELDS = 2;
+    private static final int POOL_FIELDS = 2;
+    private static final int MIN_AIS = 2;
+    private static final int WIN_POINTS = 2;
+    private static final int DRAW_POINTS = 1;
+    private static final long POLL_MILLIS = 100;
+    private static final int MILLIS_PER_SECOND = 1000;
+    
+    private final List<NamedProgram> pool;
+    private final List<List<Integer>> classes;
+    private final List<String> programHashes;
+    private final List<WorkUnit> units;
+    private final List<int[]> seatings;
+    private final List<List<MatchOutcome>> results;
+    private final BlockingQueue<WorkUnit> pendingUnits;
+    private final AtomicInteger remainingUnits;
+    private final AtomicInteger reassignedUnits;
+    private int cachedMatches;
+    private OutcomeCache cache;
+    
+    /**
+     * Creates the work units of the matches that are not cached. Seatings are pairs of classes, a class is seated
+     * against itself if it has several members. Results are stored by entry: every unit and every seating with cached
+     * matches has one, and the id of a unit is the index of its entry.
+     */
+    private Tournament(List<NamedProgram> pool, int memorySize, int seeds, long firstSeed, int maxSteps, int unitSeeds,
+                       Optional<OutcomeCache> cache) throws IOException {
+        this.pool = List.copyOf(pool);
+        this.classes = new ArrayList<>();
+        this.programHashes = new ArrayList<>();
+        groupPrograms();
+        this.cache = cache.orElse(null);
+        this.units = new ArrayList<>();
+        this.seatings = new ArrayList<>();
+        this.results = new ArrayList<>();
+        for (int first = 0; first < classes.size(); first++) {
+            for (int second = 0; second < classes.size(); second++) {
+                if (first != second || classes.get(first).size() > 1) {
+                    addSeating(first, second, memorySize, seeds, firstSeed, maxSteps, unitSeeds);
+                }
+            }
+        }
+        this.pendingUnits = new LinkedBlockingQueue<>(units);
+        this.remainingUnits = new AtomicInteger(units.size());
+        this.reassignedUnits = new AtomicInteger();
+    }
+    
+    /**
+     * Groups the AIs of the pool by the {@link MatchKey#hashProgram(List) hash} of their program, in pool order.
+     */
+    private void groupPrograms() {
+        Map<String, Integer> classIndices = new HashMap<>();
+        for (int ai = 0; ai < pool.size(); ai++) {
+            String hash = MatchKey.hashProgram(pool.get(ai).program());
+            Integer index = classIndices.get(hash);
+            if (index == null) {
+                index = classes.size();
+                classIndices.put(hash, index);
+                classes.add(new ArrayList<>());
+                programHashes.add(hash);
+            }
+            classes.get(index).add(ai);
+        }
+    }
+    
+    private List<AICommand> getProgram(int programClass) {
+        return pool.get(classes.get(programClass).get(0)).program();
+    }
+    
+    /**
+     * Adds the cached outcomes of a seating as one entry and splits every run of consecutive seeds that are not
+     * cached into units of at most the given amount of seeds.
+     */
+    private void addSeating(int first, int second, int memorySize, int seeds, long firstSeed, int maxSteps, int unitSeeds)
+            throws IOException {
+        List<MatchOutcome> cached = new ArrayList<>();
+        int runStart = 0;
+        for (int seed = 0; seed <= seeds; seed++) {
+            Optional<MatchOutcome> outcome = seed < seeds
+                    ? getCached(getKey(first, second, memorySize, firstSeed + seed, maxSteps)) : Optional.empty();
+            boolean runEnds = seed == seeds || outcome.isPresent() || seed - runStart == unitSeeds;
+            if (runEnds && seed > runStart) {
+                units.add(new WorkUnit(results.size(), memorySize, maxSteps, firstSeed + runStart, seed - runStart,
+                        getProgram(first), getProgram(second)));
+                seatings.add(new int[] {first, second});
+                results.add(null);
+            }
+            if (outcome.isPresent()) {
+                cached.add(outcome.get());
+                runStart = seed + 1;
+            } else if (runEnds) {
+                runStart = seed;
+            }
+        }
+        if (!cached.isEmpty()) {
+            seatings.add(new int[] {first, second});
+            results.add(List.copyOf(cached));
+            cachedMatches += cached.size();
+        }
+    }
+    
+    private Optional<MatchOutcome> getCached(MatchKey key) throws IOException {
+        return cache == null ? Optional.empty() : cache.get(key);
+    }
+    
+    private MatchKey getKey(int first, int second, int memorySize, long seed, int maxSteps) {
+        return new MatchKey(programHashes.get(first), programHashes.get(second), memorySize, MemoryInitType.INIT_MODE_RANDOM,
+                seed, maxSteps);
+    }
+    
+    /**
+     * Runs the tournament.
+     * @param args The options as key=value pairs.
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String argument : args) {
+            String[] option = argument.split(OPTION_SEPARATOR, OPTION_FIELDS);
+            if (option.length != OPTION_FIELDS) {
+                System.err.println(USAGE);
+                return;
+            }
+            options.put(option[0], option[1]);
+        }
+        try {
+            run(options);
+        } catch (IllegalArgumentException e) {
+            System.err.println(USAGE);
+        } catch (IOException e) {
+            System.err.println(ERROR_FAILED.formatted(ERROR_PREFIX, e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void run(Map<String, String> options) throws IOException, InterruptedException {
+        int memorySize = Integer.parseInt(options.getOrDefault("memory", "64"));
+        int seeds = Integer.parseInt(options.getOrDefault("seeds", "8"));
+        long firstSeed = Long.parseLong(options.getOrDefault("first-seed", "1"));
+        int maxSteps = Integer.parseInt(options.getOrDefault("steps", "10000"));
+        int unitSeeds = Integer.parseInt(options.getOrDefault("unit-seeds", "8"));
+        int workers = Integer.parseInt(options.getOrDefault("workers", "2"));
+        int restarts = Integer.parseInt(options.getOrDefault("restarts", "3"));
+        int unitTimeout = Integer.parseInt(options.getOrDefault("unit-timeout", "600"));
+        Optional<String> workerHeap = Optional.ofNullable(options.get("worker-heap"));
+        int cacheEntries = Integer.parseInt(options.getOrDefault("cache-entries", "65536"));
+        if (!options.containsKey("pool") || memorySize < Main.MIN_MEMORY_SIZE || memorySize > Main.MAX_MEMORY_SIZE
+                || seeds <= 0 || maxSteps <= 0 || unitSeeds <= 0 || workers <= 0 || restarts < 0 || unitTimeout <= 0
+                || cacheEntries <= 0) {
+            throw new IllegalArgumentException();
+        }
+        List<NamedProgram> pool = readPool(Path.of(options.get("pool")), memorySize);
+        if (pool.size() < MIN_AIS) {
+            System.err.println(ERROR_TOO_FEW_AIS.formatted(ERROR_PREFIX));
+            return;
+        }
+        
+        Optional<OutcomeCache> cache = options.containsKey("cache")
+                ? Optional.of(OutcomeCache.open(Path.of(options.get("cache")), cacheEntries)) : Optional.empty();
+        try {
+            play(new Tournament(pool, memorySize, seeds, firstSeed, maxSteps, unitSeeds, cache), workers, restarts,
+                    unitTimeout, workerHeap);
+        } finally {
+            if (cache.isPresent()) {
+                cache.get().close();
+            }
+        }
+    }
+    
+    private static void play(Tournament tournament, int workers, int restarts, int unitTimeout, Optional<String> workerHeap)
+            throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            threads.add(new Thread(new WorkerSlot(i, tournament, restarts, unitTimeout * MILLIS_PER_SECOND, workerHeap)));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!tournament.isFinished()) {
+            System.err.println(ERROR_UNFINISHED.formatted(ERROR_PREFIX, tournament.remainingUnits.get()));
+            return;
+        }
+        tournament.printStandings(workers);
+    }
+    
+    /**
+     * Gets if every work unit was played.
+     * @return If the tournament is finished.
+     */
+    boolean isFinished() {
+        return remainingUnits.get() == 0;
+    }
+    
+    /**
+     * Takes the next unit to play. Waits while units are played by other workers, since they may be reassigned.
+     * @return The unit, empty once every unit was played.
+     * @throws IllegalStateException If the thread was interrupted.
+     */
+    Optional<WorkUnit> takeUnit() {
+        try {
+            while (!isFinished()) {
+                WorkUnit unit = pendingUnits.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (unit != null) {
+                    return Optional.of(unit);
+                }
+            }
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Stores the outcomes of a unit that was played.
+     * @param unit The unit.
+     * @param outcomes The outcomes of its matches in seed order.
+     */
+    void complete(WorkUnit unit, List<MatchOutcome> outcomes) {
+        synchronized (results) {
+            results.set(unit.id(), List.copyOf(outcomes));
+            int[] seating = seatings.get(unit.id());
+            try {
+                for (int i = 0; i < outcomes.size() && cache != null; i++) {
+                    cache.put(getKey(seating[0], seating[1], unit.memorySize(), unit.firstSeed() + i, unit.maxSteps()),
+                            outcomes.get(i));
+                }
+            } catch (IOException e) {
+                // The standings do not depend on the cache, so the tournament goes on without it
+                cache = null;
+                System.err.println(ERROR_CACHE_FAILED.formatted(ERROR_PREFIX, e.getMessage()));
+            }
+        }
+        remainingUnits.decrementAndGet();
+    }
+    
+    /**
+     * Hands a unit that could not be played to the next worker that takes a unit.
+     * @param unit The unit.
+     */
+    void reassign(WorkUnit unit) {
+        reassignedUnits.incrementAndGet();
+        pendingUnits.add(unit);
+    }
+    
+    private void printStandings(int workers) {
+        int[] points = new int[pool.size()];
+        int[] wins = new int[pool.size()];
+        int[] draws = new int[pool.size()];
+        int[] losses = new int[pool.size()];
+        int matches = 0;
+        int simulatedMatches = 0;
+        for (int entry = 0; entry < results.size(); entry++) {
+            simulatedMatches += results.get(entry).size();
+            for (int first : classes.get(seatings.get(entry)[0])) {
+                for (int second : classes.get(seatings.get(entry)[1])) {
+                    if (first == second) {
+                        continue;
+                    }
+                    for (MatchOutcome outcome : results.get(entry)) {
+                        matches++;
+                        score(outcome, first, second, points, wins, draws, losses);
+                    }
+                }
+            }
+        }
+        System.out.println(HEADER_FORMAT.formatted(matches, pool.size(), workers, units.size()));
+        if (classes.size() < pool.size()) {
+            System.out.println(CLASSES_FORMAT.formatted(classes.size(), simulatedMatches));
+        }
+        if (cachedMatches > 0) {
+            System.out.println(CACHED_FORMAT.formatted(cachedMatches));
+        }
+        if (reassignedUnits.get() > 0) {
+            System.out.println(REASSIGNED_FORMAT.formatted(reassignedUnits.get()));
+        }
+        List<Integer> ranking = new ArrayList<>();
+        for (int i = 0; i < pool.size(); i++) {
+            ranking.add(i);
+        }
+        // Equal points keep the pool order
+        ranking.sort(Comparator.comparing((Integer ai) -> points[ai]).reversed());
+        for (int rank = 0; rank < ranking.size(); rank++) {
+            int ai = ranking.get(rank);
+            System.out.println(STANDING_FORMAT.formatted(rank + 1, pool.get(ai).name(), points[ai], wins[ai], draws[ai],
+                    losses[ai]));
+        }
+    }
+    
+    private static void score(MatchOutcome outcome, int first, int second, int[] points, int[] wins, int[] draws,
+                              int[] losses) {
+        switch (outcome) {
+            case FIRST_WON -> {
+                points[first] += WIN_POINTS;
+                wins[first]++;
+                losses[second]++;
+            }
+            case SECOND_WON -> {
+                points[second] += WIN_POINTS;
+                wins[second]++;
+                losses[first]++;
+            }
+            case DRAW -> {
+                points[first] += DRAW_POINTS;
+                points[second] += DRAW_POINTS;
+                draws[first]++;
+                draws[second]++;
+            }
+            default -> {
+                // Nobody scores if the AIs do not fit into the memory
+            }
+        }
+    }
+    
+    private static List<NamedProgram> readPool(Path file, int memorySize) throws IOException {
+        List<NamedProgram> pool = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank() || line.startsWith(COMMENT_PREFIX)) {
+                continue;
+            }
+            String[] entry = line.trim().split(POOL_SEPARATOR_REGEX);
+            Optional<List<AICommand>> program = entry.length == POOL_FIELDS ? AIProgramParser.parse(entry[1]) : Optional.empty();
+            if (program.isEmpty() || AIProgramParser.validate(program.get(), memorySize).isPresent()) {
+                throw new IOException(ERROR_INVALID_AI.formatted(line.trim()));
+            }
+            pool.add(new NamedProgram(entry[0], program.get()));
+        }
+        return pool;
+    }
+}
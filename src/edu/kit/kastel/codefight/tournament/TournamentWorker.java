@@ -0,0 +1,123 @@
+package edu.kit.kastel.codefight.tournament;
+
+import edu.kit.kastel.codefight.model.AIPlayer;
+import edu.kit.kastel.codefight.model.AIPrintWrapper;
+import edu.kit.kastel.codefight.model.Codefight;
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.model.MemoryInitType;
+import edu.kit.kastel.codefight.usercommands.CommandHandler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A worker process of a {@link Tournament}. Connects to the coordinator, plays every {@link WorkUnit} it receives
+ * and answers with one line per unit: the id of the unit and the symbols of the {@link MatchOutcome outcomes}
+ * of its matches in seed order. Every match is a new game in a {@link CodefightSession session} of its unit, so the
+ * outcome only depends on the unit and not on the worker or the units it played before.
+ * <p></p>
+ * Usage: {@code TournamentWorker <host> <port>}. Started by the coordinator, the worker stops once the
+ * coordinator closes the connection.
+ *
+ * @author uwwfh
+ */
+public final class TournamentWorker {
+    
+    private static final String USAGE = "Usage: TournamentWorker <host> <port>";
+    private static final String ERROR_MALFORMED_UNIT = "%smalformed work unit: %s".formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final String ERROR_CONNECTION = "%sconnection to the coordinator failed: %s"
+            .formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final String RESULT_FORMAT = "%d %s%n";
+    private static final String FIRST_NAME = "first";
+    private static final String SECOND_NAME = "second";
+    private static final String[] MEMORY_SYMBOLS = {".", "[", "*", "+"};
+    private static final List<AIPrintWrapper> PRINT_WRAPPERS = List.of(new AIPrintWrapper("a", "A"), new AIPrintWrapper("b", "B"));
+    private static final int ARGUMENT_COUNT = 2;
+    private static final int SINGLE_STEP = 1;
+    private static final int MIN_DECIDING_ALIVE = 2;
+    
+    private final PrintStream silentOutput = new PrintStream(OutputStream.nullOutputStream());
+    
+    private TournamentWorker() { }
+    
+    /**
+     * Runs the worker.
+     * @param args The host and port of the coordinator.
+     */
+    public static void main(String[] args) {
+        if (args.length != ARGUMENT_COUNT) {
+            System.err.println(USAGE);
+            return;
+        }
+        try (Socket socket = new Socket(args[0], Integer.parseInt(args[1]));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            socket.setTcpNoDelay(true);
+            new TournamentWorker().serve(reader, writer);
+        } catch (NumberFormatException e) {
+            System.err.println(USAGE);
+        } catch (IOException e) {
+            System.err.println(ERROR_CONNECTION.formatted(e.getMessage()));
+        }
+    }
+    
+    private void serve(BufferedReader reader, Writer writer) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            Optional<WorkUnit> unit = WorkUnit.parse(line);
+            if (unit.isEmpty()) {
+                // Answering nothing makes the coordinator treat this worker as crashed and reassign the unit
+                throw new IOException(ERROR_MALFORMED_UNIT.formatted(line));
+            }
+            writer.write(RESULT_FORMAT.formatted(unit.get().id(), play(unit.get())));
+            writer.flush();
+        }
+    }
+    
+    /**
+     * Plays every match of a unit.
+     * @return The symbols of the outcomes in seed order.
+     */
+    private String play(WorkUnit unit) {
+        CodefightSession session = new CodefightSession(unit.memorySize(), MEMORY_SYMBOLS, PRINT_WRAPPERS,
+                silentOutput, silentOutput);
+        session.addAI(new AIPlayer(FIRST_NAME, unit.firstProgram()));
+        session.addAI(new AIPlayer(SECOND_NAME, unit.secondProgram()));
+        StringBuilder outcomes = new StringBuilder();
+        for (int i = 0; i < unit.seeds(); i++) {
+            outcomes.append(playMatch(session, unit.maxSteps(), unit.firstSeed() + i).getSymbol());
+        }
+        return outcomes.toString();
+    }
+    
+    /**
+     * Plays a single match until at most one AI is running or the maximum amount of steps is reached.
+     */
+    private static MatchOutcome playMatch(CodefightSession session, int maxSteps, long seed) {
+        session.setMemoryInitType(MemoryInitType.INIT_MODE_RANDOM, seed);
+        Codefight game = new Codefight(session, FIRST_NAME, SECOND_NAME);
+        if (!game.wasSetupSuccess()) {
+            return MatchOutcome.NOT_PLAYED;
+        }
+        session.playCodefight(game);
+        for (int step = 0; step < maxSteps && game.getAliveAICount() >= MIN_DECIDING_ALIVE; step++) {
+            session.next(SINGLE_STEP);
+        }
+        boolean firstAlive = !game.getPlayingAIbyName(FIRST_NAME).orElseThrow().isDead();
+        boolean secondAlive = !game.getPlayingAIbyName(SECOND_NAME).orElseThrow().isDead();
+        session.endGame();
+        if (firstAlive && secondAlive) {
+            return MatchOutcome.DRAW;
+        }
+        return firstAlive ? MatchOutcome.FIRST_WON : MatchOutcome.SECOND_WON;
+    }
+}
@@ -0,0 +1,84 @@
+package edu.kit.kastel.codefight.tournament;
+
+import edu.kit.kastel.codefight.aicommands.AICommand;
+import edu.kit.kastel.codefight.aicommands.AIProgramParser;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One seating of a pairing of a tournament, played on several consecutive seeds by a single worker.
+ * A unit is sent to a worker as a single line, so it contains everything needed to play it.
+ *
+ * @param id The index of the unit in the tournament.
+ * @param memorySize The memory size the matches are played on.
+ * @param maxSteps The maximum amount of steps of a single match.
+ * @param firstSeed The seed of the memory initialization of the first match.
+ * @param seeds The amount of matches, one per seed.
+ * @param firstProgram The program of the AI that moves first.
+ * @param secondProgram The program of the AI that moves second.
+ * @author uwwfh
+ */
+public record WorkUnit(int id, int memorySize, int maxSteps, long firstSeed, int seeds,
+                       List<AICommand> firstProgram, List<AICommand> secondProgram) {
+    
+    private static final String SEPARATOR = " ";
+    private static final String LINE_FORMAT = "%d %d %d %d %d %s %s";
+    private static final int FIELDS = 7;
+    private static final int FIELD_ID = 0;
+    private static final int FIELD_MEMORY_SIZE = 1;
+    private static final int FIELD_MAX_STEPS = 2;
+    private static final int FIELD_FIRST_SEED = 3;
+    private static final int FIELD_SEEDS = 4;
+    private static final int FIELD_FIRST_PROGRAM = 5;
+    private static final int FIELD_SECOND_PROGRAM = 6;
+    
+    /**
+     * Constructs a new unit.
+     *
+     * @param id The index of the unit in the tournament.
+     * @param memorySize The memory size the matches are played on.
+     * @param maxSteps The maximum amount of steps of a single match.
+     * @param firstSeed The seed of the memory initialization of the first match.
+     * @param seeds The amount of matches, one per seed.
+     * @param firstProgram The program of the AI that moves first.
+     * @param secondProgram The program of the AI that moves second.
+     */
+    public WorkUnit {
+        firstProgram = List.copyOf(firstProgram);
+        secondProgram = List.copyOf(secondProgram);
+    }
+    
+    /**
+     * Formats the unit as a line of the protocol, without line break.
+     * @return The line.
+     */
+    public String toLine() {
+        return LINE_FORMAT.formatted(id, memorySize, maxSteps, firstSeed, seeds,
+                AIProgramParser.format(firstProgram), AIProgramParser.format(secondProgram));
+    }
+    
+    /**
+     * Parses a line written by {@link #toLine()}.
+     * @param line The line.
+     * @return The unit, empty if the line is malformed.
+     */
+    public static Optional<WorkUnit> parse(String line) {
+        String[] fields = line.split(SEPARATOR);
+        if (fields.length != FIELDS) {
+            return Optional.empty();
+        }
+        Optional<List<AICommand>> firstProgram = AIProgramParser.parse(fields[FIELD_FIRST_PROGRAM]);
+        Optional<List<AICommand>> secondProgram = AIProgramParser.parse(fields[FIELD_SECOND_PROGRAM]);
+        if (firstProgram.isEmpty() || secondProgram.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new WorkUnit(Integer.parseInt(fields[FIELD_ID]), Integer.parseInt(fields[FIELD_MEMORY_SIZE]),
+                    Integer.parseInt(fields[FIELD_MAX_STEPS]), Long.parseLong(fields[FIELD_FIRST_SEED]),
+                    Integer.parseInt(fields[FIELD_SEEDS]), firstProgram.get(), secondProgram.get()));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
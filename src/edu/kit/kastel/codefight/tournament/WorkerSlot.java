@@ -0,0 +1,162 @@
+package edu.kit.kastel.codefight.tournament;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs one worker process of a {@link Tournament} and feeds it work units until all units are played.
+ * <p></p>
+ * Every worker process gets its own loopback server socket, so the slot always talks to the process it started.
+ * The worker has one unit at a time. If the process dies, closes the connection, answers garbage or takes longer
+ * than the unit timeout, the unit goes back to the tournament for any slot to take, and the slot starts a new
+ * process until it runs out of restarts.
+ *
+ * @author uwwfh
+ */
+final class WorkerSlot implements Runnable {
+    
+    private static final String RESULT_SEPARATOR = " ";
+    private static final int RESULT_FIELDS = 2;
+    private static final int ACCEPT_BACKLOG = 1;
+    private static final int CONNECT_TIMEOUT_MILLIS = 30_000;
+    private static final long EXIT_TIMEOUT_SECONDS = 5;
+    private static final String DEFAULT_JAVA_COMMAND = "java";
+    private static final String CLASS_PATH_PROPERTY = "java.class.path";
+    private static final String CLASS_PATH_OPTION = "-cp";
+    private static final String HEAP_OPTION = "-Xmx%s";
+    private static final String ERROR_CLOSED = "the worker closed the connection";
+    private static final String ERROR_BAD_RESULT = "the worker answered %s";
+    private static final String WORKER_FAILED = "Worker %d failed: %s";
+    private static final String UNIT_REASSIGNED = "%s, work unit %d is reassigned";
+    
+    private final int index;
+    private final Tournament tournament;
+    private final int restarts;
+    private final int unitTimeoutMillis;
+    private final Optional<String> heap;
+    
+    /**
+     * Creates a new slot. The worker process is started once the slot runs.
+     * @param index The index of the slot, used in messages.
+     * @param tournament The tournament to play the units of.
+     * @param restarts How often a failed worker process is replaced.
+     * @param unitTimeoutMillis How long a worker may take for a unit before it is considered hung.
+     * @param heap The maximum heap of the worker process in the format of {@code -Xmx}, empty for the default.
+     */
+    WorkerSlot(int index, Tournament tournament, int restarts, int unitTimeoutMillis, Optional<String> heap) {
+        this.index = index;
+        this.tournament = tournament;
+        this.restarts = restarts;
+        this.unitTimeoutMillis = unitTimeoutMillis;
+        this.heap = heap;
+    }
+    
+    @Override
+    public void run() {
+        int starts = 0;
+        while (!tournament.isFinished() && starts <= restarts) {
+            starts++;
+            try {
+                runWorker();
+            } catch (IOException e) {
+                System.err.println(WORKER_FAILED.formatted(index, e.getMessage()));
+            }
+        }
+    }
+    
+    private void runWorker() throws IOException {
+        try (ServerSocket server = new ServerSocket(0, ACCEPT_BACKLOG, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+            Process process = startProcess(server.getLocalPort());
+            try (Socket socket = server.accept();
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                 Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+                socket.setTcpNoDelay(true);
+                socket.setSoTimeout(unitTimeoutMillis);
+                feed(reader, writer);
+            } finally {
+                stopProcess(process);
+            }
+        }
+    }
+    
+    /**
+     * Sends units to the worker one at a time until all units are played.
+     */
+    private void feed(BufferedReader reader, Writer writer) throws IOException {
+        Optional<WorkUnit> next;
+        while ((next = tournament.takeUnit()).isPresent()) {
+            WorkUnit unit = next.get();
+            try {
+                writer.write(unit.toLine());
+                writer.write(System.lineSeparator());
+                writer.flush();
+                tournament.complete(unit, readResult(reader, unit));
+            } catch (IOException e) {
+                tournament.reassign(unit);
+                throw new IOException(UNIT_REASSIGNED.formatted(e.getMessage(), unit.id()), e);
+            }
+        }
+    }
+    
+    private static List<MatchOutcome> readResult(BufferedReader reader, WorkUnit unit) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new IOException(ERROR_CLOSED);
+        }
+        String[] fields = line.split(RESULT_SEPARATOR);
+        if (fields.length != RESULT_FIELDS || !fields[0].equals(String.valueOf(unit.id()))
+                || fields[1].length() != unit.seeds()) {
+            throw new IOException(ERROR_BAD_RESULT.formatted(line));
+        }
+        List<MatchOutcome> outcomes = new ArrayList<>();
+        for (char symbol : fields[1].toCharArray()) {
+            Optional<MatchOutcome> outcome = MatchOutcome.fromSymbol(symbol);
+            if (outcome.isEmpty()) {
+                throw new IOException(ERROR_BAD_RESULT.formatted(line));
+            }
+            outcomes.add(outcome.get());
+        }
+        return outcomes;
+    }
+    
+    private Process startProcess(int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse(DEFAULT_JAVA_COMMAND));
+        heap.ifPresent(size -> command.add(HEAP_OPTION.formatted(size)));
+        command.add(CLASS_PATH_OPTION);
+        command.add(System.getProperty(CLASS_PATH_PROPERTY));
+        command.add(TournamentWorker.class.getName());
+        command.add(InetAddress.getLoopbackAddress().getHostAddress());
+        command.add(String.valueOf(port));
+        return new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+    
+    /**
+     * Waits for the worker to exit after its connection was closed and kills it if it does not.
+     */
+    private static void stopProcess(Process process) {
+        try {
+            if (!process.waitFor(EXIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
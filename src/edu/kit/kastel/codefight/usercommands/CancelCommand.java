@@ -0,0 +1,73 @@
+package edu.kit.kastel.codefight.usercommands;
+
+import edu.kit.kastel.codefight.model.BackgroundRun;
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.model.GamePhase;
+
+import java.util.Optional;
+
+/**
+ * This command stops the background run of the running game for good and reports how many steps it played.
+ *
+ * @author uwwfh
+ */
+final class CancelCommand implements Command {
+    
+    private static final int ARGUMENTS_REQUIRED = 0;
+    private static final int ARGUMENTS_OPTIONAL = 0;
+    
+    private static final String COMMAND_DESCRIPTION = "cancel: Stops the background run of the current game for good and"
+            + " shows how many steps it played. Format: cancel";
+    private static final String NO_RUN = "No background run was started in this game.";
+    private static final String NOT_ACTIVE = "The background run is not running or paused.";
+    private static final String SUCCESS_FORMAT = "Cancelled the background run after %d steps at game step %d.";
+    
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new cancel command.
+     * @param session The session the command is executed on.
+     */
+    CancelCommand(CodefightSession session) {
+        this.session = session;
+    }
+    
+    /**
+     * Executes the command.
+     *
+     * @param commandArguments the arguments of the command
+     * @return the result of the command
+     */
+    @Override
+    public CommandResult execute(String[] commandArguments) {
+        Optional<BackgroundRun> run = session.getBackgroundRun();
+        if (run.isEmpty()) {
+            return new CommandResult(CommandResultType.FAILURE, NO_RUN);
+        }
+        if (!run.get().stop()) {
+            return new CommandResult(CommandResultType.FAILURE, NOT_ACTIVE);
+        }
+        return new CommandResult(CommandResultType.SUCCESS,
+                SUCCESS_FORMAT.formatted(run.get().getDoneSteps(), run.get().getGame().getStep()));
+    }
+    
+    @Override
+    public int getRequiredArgumentCount() {
+        return ARGUMENTS_REQUIRED;
+    }
+    
+    @Override
+    public int getOptionalArgumentCount() {
+        return ARGUMENTS_OPTIONAL;
+    }
+    
+    @Override
+    public boolean isValidInGamePhase(GamePhase gamePhase) {
+        return gamePhase == GamePhase.INGAME;
+    }
+    
+    @Override
+    public String getCommandDescription() {
+        return COMMAND_DESCRIPTION;
+    }
+}
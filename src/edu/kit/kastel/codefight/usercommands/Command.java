@@ -43,6 +43,16 @@ public interface Command {
      */
     boolean isValidInGamePhase(GamePhase gamePhase);
     
+    /**
+     * Gets if the command acts on a game, so it can be given the name of a game to act on instead of the default one.
+     * Commands that only act on the session, like managing the registered AIs, do not.
+     *
+     * @return True if the command acts on a game.
+     */
+    default boolean actsOnGame() {
+        return true;
+    }
+    
     /**
      * Gets the command description for this command.
      * @return The description of the command.
@@ -1,6 +1,7 @@
 package edu.kit.kastel.codefight.usercommands;
 
-import edu.kit.kastel.codefight.Main;
+import edu.kit.kastel.codefight.metrics.EngineMetrics;
+import edu.kit.kastel.codefight.model.CodefightSession;
 import edu.kit.kastel.codefight.model.GamePhase;
 
 import java.util.ArrayList;
@@ -10,9 +11,16 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.locks.Lock;
+import java.util.function.LongConsumer;
 
 /**
- * This class handles the user input and executes the commands.
+ * This class handles the user input and executes the commands of a single {@link CodefightSession session}.
+ * All output is written to the output streams of the session.
+ * <p></p>
+ * A command that acts on a game can be given {@value #GAME_ID_FLAG} and the name of a game right after its name,
+ * like {@code next --id g1 1000}, to act on that named game instead of the default game of the session. A name
+ * consists of 1 to 32 letters, digits, underscores or hyphens. Only the commands on the default game are recorded.
  *
  * @author Programmieren-Team
  * @author uwwfh
@@ -23,50 +31,59 @@ public final class CommandHandler {
      * The prefix for any error messages.
      */
     public static final String ERROR_PREFIX = "Error, ";
-    private static final String COMMAND_HANDLER_NOT_INITIALIZED =
-            "%sthe CommandHandler has not yet been initialized. Call CommandHandler.initialize() first.".formatted(ERROR_PREFIX);
     private static final String COMMAND_SEPARATOR_REGEX = " +";
     private static final String COMMAND_NOT_FOUND_FORMAT = "Command '%s' not found!";
     private static final String WRONG_ARGUMENTS_COUNT_FORMAT = "Wrong number of arguments for command '%s'!";
     private static final String WRONG_GAMEPHASE_FORMAT = "This command is not valid in the GamePhase %s";
+    private static final String NOT_ON_GAME_FORMAT = "Command '%s' does not act on a game and takes no %s!";
+    private static final String INVALID_GAME_ID_FORMAT = "Invalid game name '%s', it must consist of 1 to 32 letters, "
+            + "digits, '_' or '-'!";
+    private static final String GAME_ID_FLAG = "--id";
     private static final String ADD_AI_COMMAND_NAME = "add-ai";
     private static final String SHOW_AI_COMMAND_NAME = "show-ai";
     private static final String REMOVE_AI_COMMAND_NAME = "remove-ai";
     private static final String SET_INIT_MODE_COMMAND_NAME = "set-init-mode";
     private static final String START_GAME_COMMAND_NAME = "start-game";
     private static final String NEXT_COMMAND_NAME = "next";
+    private static final String PREV_COMMAND_NAME = "prev";
+    private static final String SEEK_COMMAND_NAME = "seek";
     private static final String END_GAME_COMMAND_NAME = "end-game";
     private static final String SHOW_MEMORY_COMMAND_NAME = "show-memory";
+    private static final String SHOW_LEADERBOARD_COMMAND_NAME = "show-leaderboard";
+    private static final String SHOW_TERRITORY_COMMAND_NAME = "show-territory";
+    private static final String SUSPEND_GAME_COMMAND_NAME = "suspend-game";
+    private static final String RESUME_GAME_COMMAND_NAME = "resume-game";
+    private static final String PAUSE_COMMAND_NAME = "pause";
+    private static final String RESUME_COMMAND_NAME = "resume";
+    private static final String STATUS_COMMAND_NAME = "status";
+    private static final String CANCEL_COMMAND_NAME = "cancel";
+    private static final String RUN_FOR_COMMAND_NAME = "run-for";
+    private static final String PLAY_COMMAND_NAME = "play";
     private static final String HELP_COMMAND_NAME = "help";
     private static final String QUIT_COMMAND_NAME = "quit";
     private static final String INVALID_RESULT_TYPE_FORMAT = "Unexpected value: %s";
     
-    private static Map<String, Command> commands;
-    private static boolean running = false;
-    
-    private CommandHandler() { }
+    private final CodefightSession session;
+    private final Map<String, Command> commands;
+    private boolean running;
+    private CommandRecorder recorder;
     
     /**
-     * Initializes the CommandHandler. Must be executed before any calls can be made.
-     * References to Codefight are via the current Codefight instance in Main.
+     * Creates a new CommandHandler for the given session.
+     * @param session The session the commands are executed on.
      */
-    public static void initialize() {
-        commands = new HashMap<>();
+    public CommandHandler(CodefightSession session) {
+        this.session = session;
+        this.commands = new HashMap<>();
+        this.running = true;
         initCommands();
     }
     
     /**
-     * Starts the interaction with the user.
-     * CommandHandler must be initialized.
+     * Starts the interaction with the user on the standard input.
+     * Returns when the user quits or the input ends.
      */
-    public static void handleUserInput() {
-        if (commands == null) {
-            System.err.println(COMMAND_HANDLER_NOT_INITIALIZED);
-            return;
-        }
-        
-        running = true;
-        
+    public void handleUserInput() {
         try (Scanner scanner = new Scanner(System.in)) {
             while (running && scanner.hasNextLine()) {
                 executeCommand(scanner.nextLine());
@@ -74,48 +91,135 @@ public static void handleUserInput() {
         }
     }
     
+    /**
+     * Gets if the handler still accepts commands, so the user has not quit yet.
+     * @return If the handler is running.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * Sets the recorder that receives every successfully executed command. Null disables recording.
+     * @param recorder The recorder or null.
+     */
+    public void setRecorder(CommandRecorder recorder) {
+        this.recorder = recorder;
+    }
+    
     /**
      * Quits the interaction with the user.
      */
-    static void quit() {
+    void quit() {
         running = false;
     }
     
-    private static void executeCommand(String commandWithArguments) {
+    /**
+     * Gets the recorder for steps of the selected game that are not played by a next command, like the chunks of
+     * a background run or the steps of run-for. They are recorded as a next command, so a recording replays them
+     * at the same point between the other commands. Steps of a named game are not recorded.
+     * The recorder must be called while the lock of the game is held.
+     * @return The recorder of the steps.
+     */
+    LongConsumer getStepRecorder() {
+        if (session.getSelectedGameId().isPresent()) {
+            return steps -> { };
+        }
+        return steps -> {
+            if (steps > 0) {
+                record(NEXT_COMMAND_NAME, new String[] {Long.toString(steps)});
+            }
+        };
+    }
+    
+    /**
+     * Records a command. Synchronized, since the chunks of background runs record their steps on worker threads.
+     */
+    private synchronized void record(String commandName, String[] commandArguments) {
+        if (recorder != null) {
+            recorder.record(commandName, commandArguments);
+        }
+    }
+    
+    /**
+     * Executes a single line of user input, consisting of the command name and its arguments.
+     * The command holds the lock of the session and the lock of its game, so it never overlaps a chunk
+     * of a background run of that game.
+     * @param commandWithArguments The line of user input.
+     */
+    public void executeCommand(String commandWithArguments) {
+        long commandStart = System.nanoTime();
         String[] splittedCommand = commandWithArguments.trim().split(COMMAND_SEPARATOR_REGEX);
         String commandName = splittedCommand[0];
         String[] commandArguments = Arrays.copyOfRange(splittedCommand, 1, splittedCommand.length);
         
-        executeCommand(commandName, commandArguments);
+        session.getLock().lock();
+        try {
+            executeCommand(commandName, commandArguments);
+        } finally {
+            session.getLock().unlock();
+        }
+        EngineMetrics.recordCommand(System.nanoTime() - commandStart);
     }
     
-    private static void executeCommand(String commandName, String[] commandArguments) {
+    private void executeCommand(String commandName, String[] arguments) {
         if (!commands.containsKey(commandName)) {
-            System.err.println(ERROR_PREFIX + COMMAND_NOT_FOUND_FORMAT.formatted(commandName));
+            session.getErrorOutput().println(ERROR_PREFIX + COMMAND_NOT_FOUND_FORMAT.formatted(commandName));
             return;
         }
         
         Command command = commands.get(commandName);
-        if (!command.isValidInGamePhase(Main.getCurrentPhase())) {
-            System.err.println(ERROR_PREFIX + WRONG_GAMEPHASE_FORMAT.formatted(Main.getCurrentPhase()));
+        String[] commandArguments = arguments;
+        if (arguments.length > 0 && arguments[0].equals(GAME_ID_FLAG)) {
+            if (!command.actsOnGame()) {
+                session.getErrorOutput().println(ERROR_PREFIX + NOT_ON_GAME_FORMAT.formatted(commandName, GAME_ID_FLAG));
+                return;
+            }
+            if (arguments.length < 2) {
+                session.getErrorOutput().println(ERROR_PREFIX + WRONG_ARGUMENTS_COUNT_FORMAT.formatted(commandName));
+                return;
+            }
+            if (!CodefightSession.isValidGameId(arguments[1])) {
+                session.getErrorOutput().println(ERROR_PREFIX + INVALID_GAME_ID_FORMAT.formatted(arguments[1]));
+                return;
+            }
+            session.selectGame(arguments[1]);
+            commandArguments = Arrays.copyOfRange(arguments, 2, arguments.length);
+        }
+        Lock gameLock = session.getGameLock();
+        gameLock.lock();
+        try {
+            executeOnGame(commandName, command, commandArguments);
+        } finally {
+            gameLock.unlock();
+            session.selectDefaultGame();
+        }
+    }
+    
+    private void executeOnGame(String commandName, Command command, String[] commandArguments) {
+        if (!command.isValidInGamePhase(session.getCurrentPhase())) {
+            session.getErrorOutput().println(ERROR_PREFIX + WRONG_GAMEPHASE_FORMAT.formatted(session.getCurrentPhase()));
             return;
         }
         
         if (command.getRequiredArgumentCount() > commandArguments.length
             || command.getRequiredArgumentCount() + command.getOptionalArgumentCount() < commandArguments.length) {
-            System.err.println(ERROR_PREFIX + WRONG_ARGUMENTS_COUNT_FORMAT.formatted(commandName));
+            session.getErrorOutput().println(ERROR_PREFIX + WRONG_ARGUMENTS_COUNT_FORMAT.formatted(commandName));
             return;
         }
         
         CommandResult result = command.execute(commandArguments);
+        if (result.getType() == CommandResultType.SUCCESS && session.getSelectedGameId().isEmpty()) {
+            record(commandName, commandArguments);
+        }
         String output = switch (result.getType()) {
             case SUCCESS -> result.getMessage();
             case FAILURE -> ERROR_PREFIX + result.getMessage();
         };
         if (output != null) {
             switch (result.getType()) {
-                case SUCCESS -> System.out.println(output);
-                case FAILURE -> System.err.println(output);
+                case SUCCESS -> session.getOutput().println(output);
+                case FAILURE -> session.getErrorOutput().println(output);
                 default -> throw new IllegalStateException(INVALID_RESULT_TYPE_FORMAT.formatted(result.getType()));
             }
         }
@@ -124,17 +228,29 @@ private static void executeCommand(String commandName, String[] commandArguments
     /**
      * Initializes the commands.
      */
-    private static void initCommands() {
-        addCommand(ADD_AI_COMMAND_NAME, new AddAICommand());
-        addCommand(SHOW_AI_COMMAND_NAME, new ShowAICommand());
-        addCommand(REMOVE_AI_COMMAND_NAME, new RemoveAICommand());
-        addCommand(SET_INIT_MODE_COMMAND_NAME, new SetInitModeCommand());
-        addCommand(START_GAME_COMMAND_NAME, new StartCommand());
-        addCommand(NEXT_COMMAND_NAME, new NextCommand());
-        addCommand(END_GAME_COMMAND_NAME, new EndCommand());
-        addCommand(SHOW_MEMORY_COMMAND_NAME, new ShowMemoryCommand());
-        addCommand(HELP_COMMAND_NAME, new HelpCommand());
-        addCommand(QUIT_COMMAND_NAME, new QuitCommand());
+    private void initCommands() {
+        addCommand(ADD_AI_COMMAND_NAME, new AddAICommand(session));
+        addCommand(SHOW_AI_COMMAND_NAME, new ShowAICommand(session));
+        addCommand(REMOVE_AI_COMMAND_NAME, new RemoveAICommand(session));
+        addCommand(SET_INIT_MODE_COMMAND_NAME, new SetInitModeCommand(session));
+        addCommand(START_GAME_COMMAND_NAME, new StartCommand(session));
+        addCommand(NEXT_COMMAND_NAME, new NextCommand(this, session));
+        addCommand(RUN_FOR_COMMAND_NAME, new RunForCommand(this, session));
+        addCommand(PLAY_COMMAND_NAME, new PlayCommand(this, session));
+        addCommand(PREV_COMMAND_NAME, new PrevCommand(session));
+        addCommand(SEEK_COMMAND_NAME, new SeekCommand(session));
+        addCommand(END_GAME_COMMAND_NAME, new EndCommand(session));
+        addCommand(SHOW_MEMORY_COMMAND_NAME, new ShowMemoryCommand(session));
+        addCommand(SHOW_LEADERBOARD_COMMAND_NAME, new ShowLeaderboardCommand(session));
+        addCommand(SHOW_TERRITORY_COMMAND_NAME, new ShowTerritoryCommand(session));
+        addCommand(SUSPEND_GAME_COMMAND_NAME, new SuspendGameCommand(session));
+        addCommand(RESUME_GAME_COMMAND_NAME, new ResumeGameCommand(session));
+        addCommand(PAUSE_COMMAND_NAME, new PauseCommand(session));
+        addCommand(RESUME_COMMAND_NAME, new ResumeCommand(session));
+        addCommand(STATUS_COMMAND_NAME, new StatusCommand(session));
+        addCommand(CANCEL_COMMAND_NAME, new CancelCommand(session));
+        addCommand(HELP_COMMAND_NAME, new HelpCommand(this, session));
+        addCommand(QUIT_COMMAND_NAME, new QuitCommand(this));
     }
     
     /**
@@ -143,7 +259,7 @@ private static void initCommands() {
      * @param validPhase The valid GamePhase of the commands.
      * @return An alphabetically sorted list with all valid commands' descriptions from the game phase.
      */
-    static List<String> getCommandDescriptionsAlphabetically(GamePhase validPhase) {
+    List<String> getCommandDescriptionsAlphabetically(GamePhase validPhase) {
         List<String> descriptions = new ArrayList<>();
         for (Command command : commands.values()) {
             if (command.isValidInGamePhase(validPhase)) {
@@ -160,7 +276,7 @@ static List<String> getCommandDescriptionsAlphabetically(GamePhase validPhase) {
      * @param commandName The command name
      * @param command The executioner
      */
-    private static void addCommand(String commandName, Command command) {
+    private void addCommand(String commandName, Command command) {
         commands.put(commandName, command);
     }
     
@@ -0,0 +1,17 @@
+package edu.kit.kastel.codefight.usercommands;
+
+/**
+ * Receives every user command that was executed successfully by a {@link CommandHandler}, for example to record a session.
+ *
+ * @author uwwfh
+ */
+@FunctionalInterface
+public interface CommandRecorder {
+    
+    /**
+     * Records a successfully executed command. Called after the command changed the session.
+     * @param commandName The name of the command.
+     * @param commandArguments The arguments of the command.
+     */
+    void record(String commandName, String[] commandArguments);
+}
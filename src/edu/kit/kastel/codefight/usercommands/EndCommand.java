@@ -1,7 +1,7 @@
 package edu.kit.kastel.codefight.usercommands;
 
-import edu.kit.kastel.codefight.Main;
 import edu.kit.kastel.codefight.model.AIPlayer;
+import edu.kit.kastel.codefight.model.CodefightSession;
 import edu.kit.kastel.codefight.model.GamePhase;
 
 /**
@@ -22,6 +22,16 @@ final class EndCommand implements Command {
     private static final char LIST_SEPARATOR = ',';
     private static final String LISTING_FORMAT = " %s";
     
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new end-game command.
+     * @param session The session the command is executed on.
+     */
+    EndCommand(CodefightSession session) {
+        this.session = session;
+    }
+    
     /**
      * Executes the command.
      *
@@ -31,14 +41,14 @@ final class EndCommand implements Command {
     @Override
     public CommandResult execute(String[] commandArguments) {
         StringBuilder runningAIs = new StringBuilder(RUNNING_AI_BUILDER_PREFIX);
-        for (AIPlayer player : Main.getCodefight().getAliveAIs()) {
+        for (AIPlayer player : session.getCodefight().getAliveAIs()) {
             if (runningAIs.length() > RUNNING_AI_BUILDER_PREFIX.length()) {
                 runningAIs.append(LIST_SEPARATOR);
             }
             runningAIs.append(LISTING_FORMAT.formatted(player.getAIName()));
         }
         StringBuilder stoppedAIs = new StringBuilder(STOPPED_AI_BUILDER_PREFIX);
-        for (AIPlayer player : Main.getCodefight().getTotalIngameAIs()) {
+        for (AIPlayer player : session.getCodefight().getTotalIngameAIs()) {
             if (player.isDead()) {
                 if (stoppedAIs.length() > STOPPED_AI_BUILDER_PREFIX.length()) {
                     stoppedAIs.append(LIST_SEPARATOR);
@@ -58,7 +68,7 @@ public CommandResult execute(String[] commandArguments) {
             output.append(stoppedAIs);
         }
         
-        Main.endGame();
+        session.endGame();
         return new CommandResult(CommandResultType.SUCCESS, output.isEmpty() ? null : output.toString());
     }
     
@@ -1,6 +1,6 @@
 package edu.kit.kastel.codefight.usercommands;
 
-import edu.kit.kastel.codefight.Main;
+import edu.kit.kastel.codefight.model.CodefightSession;
 import edu.kit.kastel.codefight.model.GamePhase;
 
 import java.util.List;
@@ -17,6 +17,19 @@ final class HelpCommand implements Command {
     
     private static final String COMMAND_DESCRIPTION = "help: Displays all in this phase available commands.";
     
+    private final CommandHandler handler;
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new help command.
+     * @param handler The command handler that knows all commands.
+     * @param session The session the command is executed on.
+     */
+    HelpCommand(CommandHandler handler, CodefightSession session) {
+        this.handler = handler;
+        this.session = session;
+    }
+    
     /**
      * Executes the command.
      *
@@ -25,11 +38,8 @@ final class HelpCommand implements Command {
      */
     @Override
     public CommandResult execute(String[] commandArguments) {
-        List<String> commandDescriptions = CommandHandler.getCommandDescriptionsAlphabetically(Main.getCurrentPhase());
-        for (String help : commandDescriptions) {
-            System.out.println(help);
-        }
-        return new CommandResult(CommandResultType.SUCCESS, null);
+        List<String> commandDescriptions = handler.getCommandDescriptionsAlphabetically(session.getCurrentPhase());
+        return new CommandResult(CommandResultType.SUCCESS, String.join(System.lineSeparator(), commandDescriptions));
     }
     
     @Override
@@ -47,6 +57,11 @@ public boolean isValidInGamePhase(GamePhase gamePhase) {
         return true;
     }
     
+    @Override
+    public boolean actsOnGame() {
+        return false;
+    }
+    
     @Override
     public String getCommandDescription() {
         return COMMAND_DESCRIPTION;
@@ -1,6 +1,7 @@
 package edu.kit.kastel.codefight.usercommands;
 
-import edu.kit.kastel.codefight.Main;
+import edu.kit.kastel.codefight.model.BackgroundRun;
+import edu.kit.kastel.codefight.model.CodefightSession;
 import edu.kit.kastel.codefight.model.GamePhase;
 
 /**
@@ -11,11 +12,29 @@
 final class NextCommand implements Command {
     
     private static final int ARGUMENTS_REQUIRED = 0;
-    private static final int ARGUMENTS_OPTIONAL = 1;
+    private static final int ARGUMENTS_OPTIONAL = 2;
     
-    private static final String COMMAND_DESCRIPTION = "next: Makes a given number of moves in the current codefight game."
-            + "Format: next <steps>";
+    private static final String BACKGROUND_FLAG = "--background";
+    private static final String COMMAND_DESCRIPTION = ("next: Makes a given number of moves in the current codefight game."
+            + " With %s, the moves are made on a worker thread while further commands can be entered, see pause,"
+            + " resume and status. Format: next <steps> [%s]").formatted(BACKGROUND_FLAG, BACKGROUND_FLAG);
     private static final String STEPS_NOT_VALID_INT = "The steps must be specified as a non-negative integer.";
+    private static final String UNKNOWN_ARGUMENT = "Unknown argument %s, expected %s.";
+    private static final String RUN_ACTIVE = "A background run is already active, pause, cancel and status control it.";
+    private static final String RUN_STARTED_FORMAT = "Started a background run of %d steps.";
+    
+    private final CommandHandler handler;
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new next command.
+     * @param handler The command handler that records the steps of background runs.
+     * @param session The session the command is executed on.
+     */
+    NextCommand(CommandHandler handler, CodefightSession session) {
+        this.handler = handler;
+        this.session = session;
+    }
     
     /**
      * Executes the command.
@@ -25,10 +44,10 @@ final class NextCommand implements Command {
      */
     @Override
     public CommandResult execute(String[] commandArguments) {
-        int steps = 1;
+        long steps = 1;
         if (commandArguments != null && commandArguments.length > 0) {
             try {
-                steps = Integer.parseInt(commandArguments[0]);
+                steps = Long.parseLong(commandArguments[0]);
             } catch (NumberFormatException e) {
                 return new CommandResult(CommandResultType.FAILURE, STEPS_NOT_VALID_INT);
             }
@@ -36,7 +55,17 @@ public CommandResult execute(String[] commandArguments) {
                 return new CommandResult(CommandResultType.FAILURE, STEPS_NOT_VALID_INT);
             }
         }
-        Main.next(steps);
+        if (commandArguments != null && commandArguments.length > 1) {
+            if (!commandArguments[1].equals(BACKGROUND_FLAG)) {
+                return new CommandResult(CommandResultType.FAILURE, UNKNOWN_ARGUMENT.formatted(commandArguments[1], BACKGROUND_FLAG));
+            }
+            if (session.getBackgroundRun().filter(BackgroundRun::isActive).isPresent()) {
+                return new CommandResult(CommandResultType.FAILURE, RUN_ACTIVE);
+            }
+            session.startBackgroundRun(steps, Long.MAX_VALUE, handler.getStepRecorder());
+            return new CommandResult(CommandResultType.SUCCESS, RUN_STARTED_FORMAT.formatted(steps));
+        }
+        session.next(steps);
         return new CommandResult(CommandResultType.SUCCESS, null);
     }
     
@@ -0,0 +1,72 @@
+package edu.kit.kastel.codefight.usercommands;
+
+import edu.kit.kastel.codefight.model.BackgroundRun;
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.model.GamePhase;
+
+import java.util.Optional;
+
+/**
+ * This command pauses the background run of the running game after its current chunk of steps.
+ *
+ * @author uwwfh
+ */
+final class PauseCommand implements Command {
+    
+    private static final int ARGUMENTS_REQUIRED = 0;
+    private static final int ARGUMENTS_OPTIONAL = 0;
+    
+    private static final String COMMAND_DESCRIPTION = "pause: Pauses the background run of the current game, started with"
+            + " next <steps> --background or run-for <duration> --background. Format: pause";
+    private static final String NO_RUN = "No background run was started in this game.";
+    private static final String NOT_RUNNING = "The background run is not running.";
+    private static final String SUCCESS_FORMAT = "Paused the background run after %d steps.";
+    
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new pause command.
+     * @param session The session the command is executed on.
+     */
+    PauseCommand(CodefightSession session) {
+        this.session = session;
+    }
+    
+    /**
+     * Executes the command.
+     *
+     * @param commandArguments the arguments of the command
+     * @return the result of the command
+     */
+    @Override
+    public CommandResult execute(String[] commandArguments) {
+        Optional<BackgroundRun> run = session.getBackgroundRun();
+        if (run.isEmpty()) {
+            return new CommandResult(CommandResultType.FAILURE, NO_RUN);
+        }
+        if (!run.get().pause()) {
+            return new CommandResult(CommandResultType.FAILURE, NOT_RUNNING);
+        }
+        return new CommandResult(CommandResultType.SUCCESS, SUCCESS_FORMAT.formatted(run.get().getDoneSteps()));
+    }
+    
+    @Override
+    public int getRequiredArgumentCount() {
+        return ARGUMENTS_REQUIRED;
+    }
+    
+    @Override
+    public int getOptionalArgumentCount() {
+        return ARGUMENTS_OPTIONAL;
+    }
+    
+    @Override
+    public boolean isValidInGamePhase(GamePhase gamePhase) {
+        return gamePhase == GamePhase.INGAME;
+    }
+    
+    @Override
+    public String getCommandDescription() {
+        return COMMAND_DESCRIPTION;
+    }
+}
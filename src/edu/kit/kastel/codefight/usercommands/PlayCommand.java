@@ -0,0 +1,103 @@
+package edu.kit.kastel.codefight.usercommands;
+
+import edu.kit.kastel.codefight.model.BackgroundRun;
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.model.GamePhase;
+import edu.kit.kastel.codefight.model.PlaybackScheduler;
+
+/**
+ * This command plays the running Codefight game in real time on a worker thread: a fixed amount of steps per second,
+ * with the memory shown at a fixed amount of frames per second.
+ *
+ * @author uwwfh
+ */
+final class PlayCommand implements Command {
+    
+    private static final int ARGUMENTS_REQUIRED = 1;
+    private static final int ARGUMENTS_OPTIONAL = 1;
+    
+    private static final int DEFAULT_FRAMES_PER_SECOND = 30;
+    private static final String COMMAND_DESCRIPTION = ("play: Plays the current codefight game in real time on a worker"
+            + " thread and shows the memory once per frame, %d frames per second unless given. Frames that cannot be"
+            + " shown in time are dropped. pause, resume, cancel and status control the playback."
+            + " Format: play <steps per second> [frames per second]").formatted(DEFAULT_FRAMES_PER_SECOND);
+    private static final String STEPS_NOT_VALID = "The steps per second must be an integer between 1 and %d."
+            .formatted(PlaybackScheduler.MAX_STEPS_PER_SECOND);
+    private static final String FRAMES_NOT_VALID = "The frames per second must be an integer between 1 and %d."
+            .formatted(PlaybackScheduler.MAX_FRAMES_PER_SECOND);
+    private static final String RUN_ACTIVE = "A background run is already active, pause, cancel and status control it.";
+    private static final String SUCCESS_FORMAT = "Playing %d steps per second at %d frames per second.";
+    private static final int INVALID_RATE = -1;
+    
+    private final CommandHandler handler;
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new play command.
+     * @param handler The command handler that records the played steps.
+     * @param session The session the command is executed on.
+     */
+    PlayCommand(CommandHandler handler, CodefightSession session) {
+        this.handler = handler;
+        this.session = session;
+    }
+    
+    /**
+     * Executes the command.
+     *
+     * @param commandArguments the arguments of the command
+     * @return the result of the command
+     */
+    @Override
+    public CommandResult execute(String[] commandArguments) {
+        int stepsPerSecond = parseRate(commandArguments[0], PlaybackScheduler.MAX_STEPS_PER_SECOND);
+        if (stepsPerSecond == INVALID_RATE) {
+            return new CommandResult(CommandResultType.FAILURE, STEPS_NOT_VALID);
+        }
+        int framesPerSecond = DEFAULT_FRAMES_PER_SECOND;
+        if (commandArguments.length > 1) {
+            framesPerSecond = parseRate(commandArguments[1], PlaybackScheduler.MAX_FRAMES_PER_SECOND);
+            if (framesPerSecond == INVALID_RATE) {
+                return new CommandResult(CommandResultType.FAILURE, FRAMES_NOT_VALID);
+            }
+        }
+        if (session.getBackgroundRun().filter(BackgroundRun::isActive).isPresent()) {
+            return new CommandResult(CommandResultType.FAILURE, RUN_ACTIVE);
+        }
+        session.startPlayback(new PlaybackScheduler(stepsPerSecond, framesPerSecond), handler.getStepRecorder());
+        return new CommandResult(CommandResultType.SUCCESS, SUCCESS_FORMAT.formatted(stepsPerSecond, framesPerSecond));
+    }
+    
+    /**
+     * Parses a rate between 1 and a maximum.
+     * @return The rate, {@link #INVALID_RATE} if it is not a number in the range.
+     */
+    private static int parseRate(String rate, int max) {
+        try {
+            int parsed = Integer.parseInt(rate);
+            return parsed > 0 && parsed <= max ? parsed : INVALID_RATE;
+        } catch (NumberFormatException e) {
+            return INVALID_RATE;
+        }
+    }
+    
+    @Override
+    public int getRequiredArgumentCount() {
+        return ARGUMENTS_REQUIRED;
+    }
+    
+    @Override
+    public int getOptionalArgumentCount() {
+        return ARGUMENTS_OPTIONAL;
+    }
+    
+    @Override
+    public boolean isValidInGamePhase(GamePhase gamePhase) {
+        return gamePhase == GamePhase.INGAME;
+    }
+    
+    @Override
+    public String getCommandDescription() {
+        return COMMAND_DESCRIPTION;
+    }
+}
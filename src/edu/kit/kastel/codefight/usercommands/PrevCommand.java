@@ -0,0 +1,82 @@
+package edu.kit.kastel.codefight.usercommands;
+
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.model.GamePhase;
+
+/**
+ * This command plays moves of the running Codefight game backwards, undoing {@link NextCommand next}.
+ * Only as many moves as the undo journal of the game holds can be played backwards.
+ *
+ * @author uwwfh
+ */
+final class PrevCommand implements Command {
+    
+    private static final int ARGUMENTS_REQUIRED = 0;
+    private static final int ARGUMENTS_OPTIONAL = 1;
+    
+    private static final String COMMAND_DESCRIPTION = "prev: Takes back a given number of moves in the current codefight game. "
+            + "Format: prev <steps>";
+    private static final String STEPS_NOT_VALID_INT = "The steps must be specified as a non-negative integer.";
+    private static final String UNDO_DISABLED = "the undo journal is disabled, set the system property codefight.undo.steps.";
+    private static final String TOO_MANY_STEPS = "only %d moves can be taken back.";
+    
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new prev command.
+     * @param session The session the command is executed on.
+     */
+    PrevCommand(CodefightSession session) {
+        this.session = session;
+    }
+    
+    /**
+     * Executes the command.
+     *
+     * @param commandArguments the arguments of the command
+     * @return the result of the command
+     */
+    @Override
+    public CommandResult execute(String[] commandArguments) {
+        int steps = 1;
+        if (commandArguments != null && commandArguments.length > 0) {
+            try {
+                steps = Integer.parseInt(commandArguments[0]);
+            } catch (NumberFormatException e) {
+                return new CommandResult(CommandResultType.FAILURE, STEPS_NOT_VALID_INT);
+            }
+            if (steps < 0) {
+                return new CommandResult(CommandResultType.FAILURE, STEPS_NOT_VALID_INT);
+            }
+        }
+        if (session.getUndoSteps() == 0) {
+            return new CommandResult(CommandResultType.FAILURE, UNDO_DISABLED);
+        }
+        int undoableSteps = session.getCodefight().getUndoableSteps();
+        if (steps > undoableSteps) {
+            return new CommandResult(CommandResultType.FAILURE, TOO_MANY_STEPS.formatted(undoableSteps));
+        }
+        session.previous(steps);
+        return new CommandResult(CommandResultType.SUCCESS, null);
+    }
+    
+    @Override
+    public int getRequiredArgumentCount() {
+        return ARGUMENTS_REQUIRED;
+    }
+    
+    @Override
+    public int getOptionalArgumentCount() {
+        return ARGUMENTS_OPTIONAL;
+    }
+    
+    @Override
+    public boolean isValidInGamePhase(GamePhase gamePhase) {
+        return gamePhase == GamePhase.INGAME;
+    }
+    
+    @Override
+    public String getCommandDescription() {
+        return COMMAND_DESCRIPTION;
+    }
+}
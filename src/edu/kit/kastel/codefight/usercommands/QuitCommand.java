@@ -19,6 +19,16 @@ final class QuitCommand implements Command {
     
     private static final String COMMAND_DESCRIPTION = "quit: Quits the application immediately.";
     
+    private final CommandHandler handler;
+    
+    /**
+     * Constructs a new quit command.
+     * @param handler The command handler to quit.
+     */
+    QuitCommand(CommandHandler handler) {
+        this.handler = handler;
+    }
+    
     /**
      * Executes the command.
      *
@@ -27,7 +37,7 @@ final class QuitCommand implements Command {
      */
     @Override
     public CommandResult execute(String[] ignored) {
-        CommandHandler.quit();
+        handler.quit();
         return new CommandResult(CommandResultType.SUCCESS, null);
     }
     
@@ -46,6 +56,11 @@ public boolean isValidInGamePhase(GamePhase gamePhase) {
         return true;
     }
     
+    @Override
+    public boolean actsOnGame() {
+        return false;
+    }
+    
     @Override
     public String getCommandDescription() {
         return COMMAND_DESCRIPTION;
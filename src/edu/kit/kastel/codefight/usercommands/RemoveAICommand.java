@@ -1,6 +1,6 @@
 package edu.kit.kastel.codefight.usercommands;
 
-import edu.kit.kastel.codefight.model.Codefight;
+import edu.kit.kastel.codefight.model.CodefightSession;
 import edu.kit.kastel.codefight.model.GamePhase;
 
 /**
@@ -17,6 +17,16 @@ final class RemoveAICommand implements Command {
     private static final String COMMAND_DESCRIPTION = "remove-ai: Removes an existing AI from Codefight. Format: remove-ai <name>";
     private static final String ERROR_UNKNOWN_NAME = "Could not find AI with name %s.";
     
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new remove-ai command.
+     * @param session The session the command is executed on.
+     */
+    RemoveAICommand(CodefightSession session) {
+        this.session = session;
+    }
+    
     /**
      * Executes the command.
      *
@@ -25,7 +35,7 @@ final class RemoveAICommand implements Command {
      */
     @Override
     public CommandResult execute(String[] commandArguments) {
-        boolean success = Codefight.removeAI(commandArguments[0]);
+        boolean success = session.removeAI(commandArguments[0]);
         if (success) {
             return new CommandResult(CommandResultType.SUCCESS, commandArguments[0]);
         }
@@ -47,6 +57,11 @@ public boolean isValidInGamePhase(GamePhase gamePhase) {
         return gamePhase == GamePhase.INITIALIZATION;
     }
     
+    @Override
+    public boolean actsOnGame() {
+        return false;
+    }
+    
     @Override
     public String getCommandDescription() {
         return COMMAND_DESCRIPTION;
@@ -0,0 +1,73 @@
+package edu.kit.kastel.codefight.usercommands;
+
+import edu.kit.kastel.codefight.model.BackgroundRun;
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.model.GamePhase;
+
+import java.util.Optional;
+
+/**
+ * This command resumes the paused background run of the running game. Not to be confused with
+ * {@link ResumeGameCommand resume-game}, which resumes a suspended game.
+ *
+ * @author uwwfh
+ */
+final class ResumeCommand implements Command {
+    
+    private static final int ARGUMENTS_REQUIRED = 0;
+    private static final int ARGUMENTS_OPTIONAL = 0;
+    
+    private static final String COMMAND_DESCRIPTION = "resume: Resumes the paused background run of the current game."
+            + " Format: resume";
+    private static final String NO_RUN = "No background run was started in this game.";
+    private static final String NOT_PAUSED = "The background run is not paused.";
+    private static final String SUCCESS_MESSAGE = "Resumed the background run.";
+    
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new resume command.
+     * @param session The session the command is executed on.
+     */
+    ResumeCommand(CodefightSession session) {
+        this.session = session;
+    }
+    
+    /**
+     * Executes the command.
+     *
+     * @param commandArguments the arguments of the command
+     * @return the result of the command
+     */
+    @Override
+    public CommandResult execute(String[] commandArguments) {
+        Optional<BackgroundRun> run = session.getBackgroundRun();
+        if (run.isEmpty()) {
+            return new CommandResult(CommandResultType.FAILURE, NO_RUN);
+        }
+        if (!run.get().resume()) {
+            return new CommandResult(CommandResultType.FAILURE, NOT_PAUSED);
+        }
+        return new CommandResult(CommandResultType.SUCCESS, SUCCESS_MESSAGE);
+    }
+    
+    @Override
+    public int getRequiredArgumentCount() {
+        return ARGUMENTS_REQUIRED;
+    }
+    
+    @Override
+    public int getOptionalArgumentCount() {
+        return ARGUMENTS_OPTIONAL;
+    }
+    
+    @Override
+    public boolean isValidInGamePhase(GamePhase gamePhase) {
+        return gamePhase == GamePhase.INGAME;
+    }
+    
+    @Override
+    public String getCommandDescription() {
+        return COMMAND_DESCRIPTION;
+    }
+}
@@ -0,0 +1,94 @@
+package edu.kit.kastel.codefight.usercommands;
+
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.model.GameArena;
+import edu.kit.kastel.codefight.model.GamePhase;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * This command resumes the game of the arena file, after it was {@link SuspendGameCommand suspended}
+ * or its program was terminated between two turns.
+ *
+ * @author uwwfh
+ */
+final class ResumeGameCommand implements Command {
+    
+    private static final int ARGUMENTS_REQUIRED = 0;
+    private static final int ARGUMENTS_OPTIONAL = 0;
+    
+    private static final String COMMAND_DESCRIPTION = "resume-game: Resumes the game of the arena file. Format: resume-game";
+    private static final String NO_ARENA = "arena mode is disabled, set the system property codefight.arena.file.";
+    private static final String OPEN_FAILED = "could not open the arena: %s";
+    private static final String WRONG_MEMORY_SIZE = "the game of the arena is played on a memory of size %d.";
+    private static final String GAME_ENDED = "the game of the arena was ended.";
+    private static final String INCOMPLETE_TURN = "the arena was left in the middle of a turn.";
+    private static final String TOO_FEW_PRINTERS = "not enough String representations for AIs have been defined.";
+    private static final String SUCCESS_MESSAGE = "Game resumed.";
+    
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new resume-game command.
+     * @param session The session the command is executed on.
+     */
+    ResumeGameCommand(CodefightSession session) {
+        this.session = session;
+    }
+    
+    /**
+     * Executes the command.
+     *
+     * @param commandArguments the arguments of the command
+     * @return the result of the command
+     */
+    @Override
+    public CommandResult execute(String[] commandArguments) {
+        Optional<Path> file = session.getArenaFile();
+        if (file.isEmpty()) {
+            return new CommandResult(CommandResultType.FAILURE, NO_ARENA);
+        }
+        GameArena arena;
+        try {
+            arena = GameArena.open(file.get(), false);
+        } catch (IOException e) {
+            return new CommandResult(CommandResultType.FAILURE, OPEN_FAILED.formatted(e.getMessage()));
+        }
+        if (arena.getMemorySize() != session.getMemorySize()) {
+            return new CommandResult(CommandResultType.FAILURE, WRONG_MEMORY_SIZE.formatted(arena.getMemorySize()));
+        }
+        if (arena.getStatus() == GameArena.ArenaStatus.ENDED) {
+            return new CommandResult(CommandResultType.FAILURE, GAME_ENDED);
+        }
+        if (arena.isInTurn()) {
+            return new CommandResult(CommandResultType.FAILURE, INCOMPLETE_TURN);
+        }
+        if (arena.getPlayerCount() > session.getPrintWrapperCount()) {
+            return new CommandResult(CommandResultType.FAILURE, TOO_FEW_PRINTERS);
+        }
+        session.resumeGame(arena);
+        return new CommandResult(CommandResultType.SUCCESS, SUCCESS_MESSAGE);
+    }
+    
+    @Override
+    public int getRequiredArgumentCount() {
+        return ARGUMENTS_REQUIRED;
+    }
+    
+    @Override
+    public int getOptionalArgumentCount() {
+        return ARGUMENTS_OPTIONAL;
+    }
+    
+    @Override
+    public boolean isValidInGamePhase(GamePhase gamePhase) {
+        return gamePhase == GamePhase.INITIALIZATION;
+    }
+    
+    @Override
+    public String getCommandDescription() {
+        return COMMAND_DESCRIPTION;
+    }
+}
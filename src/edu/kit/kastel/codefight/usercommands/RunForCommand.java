@@ -0,0 +1,118 @@
+package edu.kit.kastel.codefight.usercommands;
+
+import edu.kit.kastel.codefight.model.BackgroundRun;
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.model.GamePhase;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This command plays moves in the running Codefight game until a time budget is used up or the game ends.
+ *
+ * @author uwwfh
+ */
+final class RunForCommand implements Command {
+    
+    private static final int ARGUMENTS_REQUIRED = 1;
+    private static final int ARGUMENTS_OPTIONAL = 1;
+    
+    private static final String BACKGROUND_FLAG = "--background";
+    private static final String COMMAND_DESCRIPTION = ("run-for: Makes moves in the current codefight game for a given time,"
+            + " like 500ms, 30s, 10m or 2h. With %s, the moves are made on a worker thread like next does."
+            + " Format: run-for <duration> [%s]").formatted(BACKGROUND_FLAG, BACKGROUND_FLAG);
+    private static final String DURATION_NOT_VALID = "The duration must be a positive integer followed by ms, s, m or h.";
+    private static final String UNKNOWN_ARGUMENT = "Unknown argument %s, expected %s.";
+    private static final String RUN_ACTIVE = "A background run is already active, pause, cancel and status control it.";
+    private static final String RUN_STARTED_FORMAT = "Started a background run for %s.";
+    private static final String PLAYED_FORMAT = "Played %d steps in %.3f s.";
+    private static final String[] UNIT_SUFFIXES = {"ms", "s", "m", "h"};
+    private static final TimeUnit[] UNITS = {TimeUnit.MILLISECONDS, TimeUnit.SECONDS, TimeUnit.MINUTES, TimeUnit.HOURS};
+    private static final double NANOS_PER_SECOND = 1e9;
+    
+    private final CommandHandler handler;
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new run-for command.
+     * @param handler The command handler that records the played steps.
+     * @param session The session the command is executed on.
+     */
+    RunForCommand(CommandHandler handler, CodefightSession session) {
+        this.handler = handler;
+        this.session = session;
+    }
+    
+    /**
+     * Executes the command.
+     *
+     * @param commandArguments the arguments of the command
+     * @return the result of the command
+     */
+    @Override
+    public CommandResult execute(String[] commandArguments) {
+        Optional<Long> budget = parseDuration(commandArguments[0]);
+        if (budget.isEmpty()) {
+            return new CommandResult(CommandResultType.FAILURE, DURATION_NOT_VALID);
+        }
+        if (commandArguments.length > 1) {
+            if (!commandArguments[1].equals(BACKGROUND_FLAG)) {
+                return new CommandResult(CommandResultType.FAILURE, UNKNOWN_ARGUMENT.formatted(commandArguments[1], BACKGROUND_FLAG));
+            }
+            if (session.getBackgroundRun().filter(BackgroundRun::isActive).isPresent()) {
+                return new CommandResult(CommandResultType.FAILURE, RUN_ACTIVE);
+            }
+            session.startBackgroundRun(Long.MAX_VALUE, budget.get(), handler.getStepRecorder());
+            return new CommandResult(CommandResultType.SUCCESS, RUN_STARTED_FORMAT.formatted(commandArguments[0]));
+        }
+        long start = System.nanoTime();
+        long steps = session.next(Long.MAX_VALUE, budget.get());
+        double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        // Recorded as the steps that were played, the time they take differs between runs
+        handler.getStepRecorder().accept(steps);
+        return new CommandResult(CommandResultType.SUCCESS, String.format(Locale.ROOT, PLAYED_FORMAT, steps, seconds));
+    }
+    
+    /**
+     * Parses a duration like 30s into nanoseconds.
+     * @return The duration, empty if it is malformed, not positive or too long to be counted in nanoseconds.
+     */
+    private static Optional<Long> parseDuration(String duration) {
+        // The longest suffix that matches first, so 500ms is not read as 500m followed by an s
+        for (int i = 0; i < UNIT_SUFFIXES.length; i++) {
+            if (!duration.endsWith(UNIT_SUFFIXES[i]) || !duration.substring(0, duration.length() - UNIT_SUFFIXES[i].length())
+                    .chars().allMatch(Character::isDigit)) {
+                continue;
+            }
+            try {
+                long amount = Long.parseLong(duration.substring(0, duration.length() - UNIT_SUFFIXES[i].length()));
+                long nanos = UNITS[i].toNanos(amount);
+                return amount > 0 && nanos < Long.MAX_VALUE ? Optional.of(nanos) : Optional.empty();
+            } catch (NumberFormatException e) {
+                return Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+    
+    @Override
+    public int getRequiredArgumentCount() {
+        return ARGUMENTS_REQUIRED;
+    }
+    
+    @Override
+    public int getOptionalArgumentCount() {
+        return ARGUMENTS_OPTIONAL;
+    }
+    
+    @Override
+    public boolean isValidInGamePhase(GamePhase gamePhase) {
+        return gamePhase == GamePhase.INGAME;
+    }
+    
+    @Override
+    public String getCommandDescription() {
+        return COMMAND_DESCRIPTION;
+    }
+}
@@ -0,0 +1,84 @@
+package edu.kit.kastel.codefight.usercommands;
+
+import edu.kit.kastel.codefight.model.Codefight;
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.model.GamePhase;
+
+import java.util.Optional;
+
+/**
+ * This command jumps to a step of the running Codefight game, forwards or backwards.
+ * The game restores its nearest earlier checkpoint and plays from there, so it must take checkpoints.
+ *
+ * @author uwwfh
+ */
+final class SeekCommand implements Command {
+    
+    private static final int ARGUMENTS_REQUIRED = 1;
+    private static final int ARGUMENTS_OPTIONAL = 0;
+    
+    private static final String COMMAND_DESCRIPTION = "seek: Jumps to a given step of the current codefight game. "
+            + "Format: seek <step>";
+    private static final String STEP_NOT_VALID = "The step must be specified as a non-negative integer.";
+    private static final String CHECKPOINTS_DISABLED = "checkpoints are disabled, set the system property codefight.checkpoint.budget.";
+    private static final String BEFORE_FIRST_CHECKPOINT = "cannot seek before step %d, the game was resumed there.";
+    
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new seek command.
+     * @param session The session the command is executed on.
+     */
+    SeekCommand(CodefightSession session) {
+        this.session = session;
+    }
+    
+    /**
+     * Executes the command.
+     *
+     * @param commandArguments the arguments of the command
+     * @return the result of the command
+     */
+    @Override
+    public CommandResult execute(String[] commandArguments) {
+        long step;
+        try {
+            step = Long.parseLong(commandArguments[0]);
+        } catch (NumberFormatException e) {
+            return new CommandResult(CommandResultType.FAILURE, STEP_NOT_VALID);
+        }
+        if (step < 0) {
+            return new CommandResult(CommandResultType.FAILURE, STEP_NOT_VALID);
+        }
+        Codefight game = session.getCodefight();
+        Optional<Long> firstStep = game.getFirstSeekableStep();
+        if (firstStep.isEmpty()) {
+            return new CommandResult(CommandResultType.FAILURE, CHECKPOINTS_DISABLED);
+        }
+        if (step < firstStep.get()) {
+            return new CommandResult(CommandResultType.FAILURE, BEFORE_FIRST_CHECKPOINT.formatted(firstStep.get()));
+        }
+        session.seek(step);
+        return new CommandResult(CommandResultType.SUCCESS, null);
+    }
+    
+    @Override
+    public int getRequiredArgumentCount() {
+        return ARGUMENTS_REQUIRED;
+    }
+    
+    @Override
+    public int getOptionalArgumentCount() {
+        return ARGUMENTS_OPTIONAL;
+    }
+    
+    @Override
+    public boolean isValidInGamePhase(GamePhase gamePhase) {
+        return gamePhase == GamePhase.INGAME;
+    }
+    
+    @Override
+    public String getCommandDescription() {
+        return COMMAND_DESCRIPTION;
+    }
+}
@@ -1,7 +1,7 @@
 package edu.kit.kastel.codefight.usercommands;
 
+import edu.kit.kastel.codefight.model.CodefightSession;
 import edu.kit.kastel.codefight.model.GamePhase;
-import edu.kit.kastel.codefight.model.Memory;
 import edu.kit.kastel.codefight.model.MemoryInitType;
 
 /**
@@ -30,6 +30,16 @@ final class SetInitModeCommand implements Command {
     private static final String INIT_MODE_RANDOM = "INIT_MODE_RANDOM";
     private static final String INIT_MODE_STOP = "INIT_MODE_STOP";
     
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new set-init-mode command.
+     * @param session The session the command is executed on.
+     */
+    SetInitModeCommand(CodefightSession session) {
+        this.session = session;
+    }
+    
     /**
      * Executes the command.
      *
@@ -64,10 +74,10 @@ public CommandResult execute(String[] commandArguments) {
             seed = 0;
         }
         
-        String strOldInitMode = getInitModeString(Memory.getMemoryInitType(), Memory.getCellGenerationSeed());
+        String strOldInitMode = getInitModeString(session.getMemoryInitType(), session.getCellGenerationSeed());
         String strNewInitMode = getInitModeString(type, seed);
         
-        Memory.setMemoryInitType(type, seed);
+        session.setMemoryInitType(type, seed);
         
         return strOldInitMode.equals(strNewInitMode) ? new CommandResult(CommandResultType.SUCCESS, null)
                 : new CommandResult(CommandResultType.SUCCESS, SUCCESS_OUTPUT.formatted(strOldInitMode, strNewInitMode));
@@ -109,6 +119,11 @@ public boolean isValidInGamePhase(GamePhase gamePhase) {
         return gamePhase == GamePhase.INITIALIZATION;
     }
     
+    @Override
+    public boolean actsOnGame() {
+        return false;
+    }
+    
     @Override
     public String getCommandDescription() {
         return COMMAND_DESCRIPTION;
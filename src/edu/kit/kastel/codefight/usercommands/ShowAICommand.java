@@ -1,7 +1,7 @@
 package edu.kit.kastel.codefight.usercommands;
 
-import edu.kit.kastel.codefight.Main;
 import edu.kit.kastel.codefight.model.AIPlayer;
+import edu.kit.kastel.codefight.model.CodefightSession;
 import edu.kit.kastel.codefight.model.GamePhase;
 
 import java.util.Optional;
@@ -19,6 +19,16 @@ final class ShowAICommand implements Command {
     private static final String COMMAND_DESCRIPTION = "show-ai: Shows the current state of an AI. Format: show-ai <name>";
     private static final String ERROR_UNKNOWN_NAME = "Could not find AI with name %s.";
     
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new show-ai command.
+     * @param session The session the command is executed on.
+     */
+    ShowAICommand(CodefightSession session) {
+        this.session = session;
+    }
+    
     /**
      * Executes the command.
      *
@@ -27,7 +37,7 @@ final class ShowAICommand implements Command {
      */
     @Override
     public CommandResult execute(String[] commandArguments) {
-        Optional<AIPlayer> player = Main.getCodefight().getPlayingAIbyName(commandArguments[0]);
+        Optional<AIPlayer> player = session.getCodefight().getPlayingAIbyName(commandArguments[0]);
         return player.map(aiPlayer -> new CommandResult(CommandResultType.SUCCESS, aiPlayer.toString())).orElseGet(() ->
                 new CommandResult(CommandResultType.FAILURE, ERROR_UNKNOWN_NAME.formatted(commandArguments[0])));
     }
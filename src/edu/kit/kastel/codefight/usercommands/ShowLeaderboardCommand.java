@@ -0,0 +1,86 @@
+package edu.kit.kastel.codefight.usercommands;
+
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.model.GamePhase;
+import edu.kit.kastel.codefight.ratings.Leaderboard;
+import edu.kit.kastel.codefight.ratings.RatingTable;
+
+import java.util.List;
+
+/**
+ * This command prints the best rated AIs of all games ended in this session and of the results file.
+ *
+ * @author uwwfh
+ */
+final class ShowLeaderboardCommand implements Command {
+    
+    private static final int ARGUMENTS_REQUIRED = 0;
+    private static final int ARGUMENTS_OPTIONAL = 1;
+    
+    private static final String COMMAND_DESCRIPTION = "show-leaderboard: Shows the AIs with the best ratings. "
+            + "Format: show-leaderboard <count>";
+    private static final String COUNT_NOT_VALID_INT = "The count must be specified as a positive integer.";
+    private static final String NO_RATINGS = "No games were rated yet.";
+    
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new show-leaderboard command.
+     * @param session The session the command is executed on.
+     */
+    ShowLeaderboardCommand(CodefightSession session) {
+        this.session = session;
+    }
+    
+    /**
+     * Executes the command.
+     *
+     * @param commandArguments the arguments of the command
+     * @return the result of the command
+     */
+    @Override
+    public CommandResult execute(String[] commandArguments) {
+        int count = Integer.MAX_VALUE;
+        if (commandArguments != null && commandArguments.length > 0) {
+            try {
+                count = Integer.parseInt(commandArguments[0]);
+            } catch (NumberFormatException e) {
+                return new CommandResult(CommandResultType.FAILURE, COUNT_NOT_VALID_INT);
+            }
+            if (count <= 0) {
+                return new CommandResult(CommandResultType.FAILURE, COUNT_NOT_VALID_INT);
+            }
+        }
+        List<RatingTable.Rating> leaderboard = session.getRatings().getLeaderboard();
+        if (leaderboard.isEmpty()) {
+            return new CommandResult(CommandResultType.SUCCESS, NO_RATINGS);
+        }
+        return new CommandResult(CommandResultType.SUCCESS, String.join(System.lineSeparator(),
+                Leaderboard.format(leaderboard, count)));
+    }
+    
+    @Override
+    public int getRequiredArgumentCount() {
+        return ARGUMENTS_REQUIRED;
+    }
+    
+    @Override
+    public int getOptionalArgumentCount() {
+        return ARGUMENTS_OPTIONAL;
+    }
+    
+    @Override
+    public boolean isValidInGamePhase(GamePhase gamePhase) {
+        return true;
+    }
+    
+    @Override
+    public boolean actsOnGame() {
+        return false;
+    }
+    
+    @Override
+    public String getCommandDescription() {
+        return COMMAND_DESCRIPTION;
+    }
+}
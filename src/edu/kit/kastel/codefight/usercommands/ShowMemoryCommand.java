@@ -1,9 +1,12 @@
 package edu.kit.kastel.codefight.usercommands;
 
-import edu.kit.kastel.codefight.model.Codefight;
+import edu.kit.kastel.codefight.model.CodefightSession;
 import edu.kit.kastel.codefight.model.GamePhase;
 import edu.kit.kastel.codefight.model.Memory;
 import edu.kit.kastel.codefight.model.MemoryCell;
+import edu.kit.kastel.codefight.model.MemoryRun;
+
+import java.io.PrintStream;
 
 /**
  * This command prints the memory to the console. It also provides the option
@@ -14,18 +17,40 @@
 final class ShowMemoryCommand implements Command {
     
     private static final int ARGUMENTS_REQUIRED = 0;
-    private static final int ARGUMENTS_OPTIONAL = 1;
+    private static final int ARGUMENTS_OPTIONAL = 2;
+    private static final int ARGUMENTS_RANGE = 2;
     
     private static final int DETAIL_SEGMENT_LENGTH = 10;
     private static final int STRING_START_INDEX = 0;
+    private static final String RUN_LENGTH_FLAG = "--rle";
+    private static final String ZOOM_FLAG = "--zoom";
+    private static final int PAGE_WIDTH = 64;
     private static final String COMMAND_DESCRIPTION = ("show-memory: Shows the entire memory and, if specified, a small section (%d cells)"
-            + " in greater detail. Format: show-memory [address of begin detailed segment]").formatted(DETAIL_SEGMENT_LENGTH);
+            + " in greater detail. With %s, shows the memory run-length encoded as <count>x<symbol> runs."
+            + " With two addresses, shows only the cells from the first to the second address, %d cells per line."
+            + " With %s, shows one symbol per block of cells: an AI pointer in it, else its main owner, bombs if any."
+            + " Format: show-memory [address of begin detailed segment | %s | <from> <to> | %s <cells per block>]")
+            .formatted(DETAIL_SEGMENT_LENGTH, RUN_LENGTH_FLAG, PAGE_WIDTH, ZOOM_FLAG, RUN_LENGTH_FLAG, ZOOM_FLAG);
+    private static final String RANGE_ADDRESS_NAN = "The addresses of the range must be numbers.";
+    private static final String BLOCK_SIZE_NOT_VALID = "The cells per block must be a positive number.";
+    private static final String PAGE_PREFIX_FORMAT = "%%%dd: ";
     private static final String DETAIL_ADDRESS_NAN = "The address to begin the detailed section must be a number.";
     private static final String ADDRESS_OUT_OF_BOUNDS = "The specified address is out of bounds of the memory.";
     private static final String CELL_DETAIL_FORMAT = "%s %s: %s | %s | %s";
     private static final String OUTPUT_FORMAT_DETAIL = "%s%n%s";
     private static final char SPACE = ' ';
     
+    private final CodefightSession session;
+    private final StringBuilder pageBuffer = new StringBuilder();
+    
+    /**
+     * Constructs a new show-memory command.
+     * @param session The session the command is executed on.
+     */
+    ShowMemoryCommand(CodefightSession session) {
+        this.session = session;
+    }
+    
     /**
      * Executes the command.
      *
@@ -34,8 +59,18 @@ final class ShowMemoryCommand implements Command {
      */
     @Override
     public CommandResult execute(String[] commandArguments) {
+        Memory memory = session.getCodefight().getMemory();
         if (commandArguments.length == 0) {
-            return new CommandResult(CommandResultType.SUCCESS, Codefight.getMemory().toString());
+            return new CommandResult(CommandResultType.SUCCESS, memory.toString());
+        }
+        if (commandArguments.length == ARGUMENTS_RANGE && commandArguments[0].equals(ZOOM_FLAG)) {
+            return showOverview(memory, commandArguments[1]);
+        }
+        if (commandArguments.length == ARGUMENTS_RANGE) {
+            return showRange(memory, commandArguments[0], commandArguments[1]);
+        }
+        if (commandArguments[0].equals(RUN_LENGTH_FLAG)) {
+            return new CommandResult(CommandResultType.SUCCESS, MemoryRun.format(memory.encodeRuns()));
         }
         
         // Insert Address edge sections and update memory string
@@ -47,11 +82,11 @@ public CommandResult execute(String[] commandArguments) {
             return new CommandResult(CommandResultType.FAILURE, DETAIL_ADDRESS_NAN);
         }
         
-        if (startAddress < 0 || startAddress >= Memory.getMemorySize()) {
+        if (startAddress < 0 || startAddress >= session.getMemorySize()) {
             return new CommandResult(CommandResultType.FAILURE, ADDRESS_OUT_OF_BOUNDS);
         }
         
-        final int actualSegmentLength = Math.min(DETAIL_SEGMENT_LENGTH, Memory.getMemorySize());
+        final int actualSegmentLength = Math.min(DETAIL_SEGMENT_LENGTH, session.getMemorySize());
         
         StringBuilder detailBuilder = new StringBuilder();
         
@@ -65,28 +100,97 @@ public CommandResult execute(String[] commandArguments) {
         // Also adds no padding for symbol length as that was not asked for.
         for (int ptr = 0; ptr < actualSegmentLength; ++ptr) {
             longestAddress = Math.max(longestAddress,
-                    String.valueOf(Memory.sanitizeAddress(ptr + startAddress)).length());
+                    String.valueOf(memory.sanitizeAddress(ptr + startAddress)).length());
             longestCmdName = Math.max(longestCmdName,
-                    String.valueOf(Codefight.getMemory().readMemory(ptr + startAddress).getSavedCommandType()).length());
+                    String.valueOf(memory.readMemory(ptr + startAddress).getSavedCommandType()).length());
             longestEntryColA = Math.max(longestEntryColA,
-                    String.valueOf(Codefight.getMemory().readMemory(ptr + startAddress).getArgumentA()).length());
+                    String.valueOf(memory.readMemory(ptr + startAddress).getArgumentA()).length());
             longestEntryColB = Math.max(longestEntryColB,
-                    String.valueOf(Codefight.getMemory().readMemory(ptr + startAddress).getArgumentB()).length());
+                    String.valueOf(memory.readMemory(ptr + startAddress).getArgumentB()).length());
         }
         
         for (int ptr = 0; ptr < actualSegmentLength; ++ptr) {
-            int address = Memory.sanitizeAddress(ptr + startAddress);
-            detailBuilder.append(getDetailedCellCommand(Codefight.getMemory().getSingleCharacterRepresentation(address),
+            int address = memory.sanitizeAddress(ptr + startAddress);
+            detailBuilder.append(getDetailedCellCommand(memory.getSingleCharacterRepresentation(address),
                     address, longestAddress, longestCmdName, longestEntryColA, longestEntryColB));
             if (ptr < actualSegmentLength - 1) {
                 detailBuilder.append(System.lineSeparator());
             }
         }
         
-        int endAddress = Memory.sanitizeAddress(startAddress + actualSegmentLength - 1);
-        String memory = Codefight.getMemory().toString(startAddress, endAddress);
+        int endAddress = memory.sanitizeAddress(startAddress + actualSegmentLength - 1);
+        String memoryString = memory.toString(startAddress, endAddress);
+        
+        return new CommandResult(CommandResultType.SUCCESS, OUTPUT_FORMAT_DETAIL.formatted(memoryString, detailBuilder));
+    }
+    
+    /**
+     * Shows a range of the memory, one page of cells per line, each line prefixed with the address of its first cell.
+     * The range wraps around the end of the memory if the last address is before the first.
+     * Every page is rendered into the same buffer and written to the output right away, so the cost depends
+     * on the length of the range and not on the memory size.
+     * @param memory The memory to show.
+     * @param fromArgument The address of the first cell.
+     * @param toArgument The address of the last cell.
+     * @return The result of the command, without message if successful.
+     */
+    private CommandResult showRange(Memory memory, String fromArgument, String toArgument) {
+        int from;
+        int to;
+        try {
+            from = Integer.parseInt(fromArgument);
+            to = Integer.parseInt(toArgument);
+        } catch (NumberFormatException e) {
+            return new CommandResult(CommandResultType.FAILURE, RANGE_ADDRESS_NAN);
+        }
+        int memorySize = memory.getMemorySize();
+        if (from < 0 || from >= memorySize || to < 0 || to >= memorySize) {
+            return new CommandResult(CommandResultType.FAILURE, ADDRESS_OUT_OF_BOUNDS);
+        }
+        
+        int length = Math.floorMod(to - from, memorySize) + 1;
+        String pagePrefix = PAGE_PREFIX_FORMAT.formatted(String.valueOf(memorySize - 1).length());
+        PrintStream output = session.getOutput();
+        for (int offset = 0; offset < length; offset += PAGE_WIDTH) {
+            int pageStart = memory.sanitizeAddress(from + offset);
+            pageBuffer.setLength(0);
+            pageBuffer.append(pagePrefix.formatted(pageStart));
+            memory.render(pageStart, Math.min(PAGE_WIDTH, length - offset), pageBuffer);
+            output.append(pageBuffer).println();
+        }
+        return new CommandResult(CommandResultType.SUCCESS, null);
+    }
+    
+    /**
+     * Shows the memory zoomed out, one symbol per block of cells and one page of blocks per line, each line prefixed
+     * with the address of its first cell. The cost depends on the amount of blocks and not on the memory size.
+     * @param memory The memory to show.
+     * @param blockSizeArgument The amount of cells per block.
+     * @return The result of the command, without message if successful.
+     */
+    private CommandResult showOverview(Memory memory, String blockSizeArgument) {
+        int blockSize;
+        try {
+            blockSize = Integer.parseInt(blockSizeArgument);
+        } catch (NumberFormatException e) {
+            return new CommandResult(CommandResultType.FAILURE, BLOCK_SIZE_NOT_VALID);
+        }
+        if (blockSize <= 0) {
+            return new CommandResult(CommandResultType.FAILURE, BLOCK_SIZE_NOT_VALID);
+        }
         
-        return new CommandResult(CommandResultType.SUCCESS, OUTPUT_FORMAT_DETAIL.formatted(memory, detailBuilder));
+        int memorySize = memory.getMemorySize();
+        int blocks = (memorySize + blockSize - 1) / blockSize;
+        String pagePrefix = PAGE_PREFIX_FORMAT.formatted(String.valueOf(memorySize - 1).length());
+        PrintStream output = session.getOutput();
+        for (int block = 0; block < blocks; block += PAGE_WIDTH) {
+            int pageStart = block * blockSize;
+            pageBuffer.setLength(0);
+            pageBuffer.append(pagePrefix.formatted(pageStart));
+            memory.renderOverview(pageStart, Math.min(PAGE_WIDTH, blocks - block), blockSize, pageBuffer);
+            output.append(pageBuffer).println();
+        }
+        return new CommandResult(CommandResultType.SUCCESS, null);
     }
     
     /**
@@ -102,7 +206,7 @@ private String getDetailedCellCommand(
             int longestCmdName,
             int longestEntryColA,
             int longestEntryColB) {
-        MemoryCell cell = Codefight.getMemory().readMemory(sanitizedAddress);
+        MemoryCell cell = session.getCodefight().getMemory().readMemory(sanitizedAddress);
         return CELL_DETAIL_FORMAT.formatted(symbol,
                 fillFront(sanitizedAddress, longestAddress),
                 fillFront(cell.getSavedCommandType(), longestCmdName),
@@ -0,0 +1,113 @@
+package edu.kit.kastel.codefight.usercommands;
+
+import edu.kit.kastel.codefight.model.AIPlayer;
+import edu.kit.kastel.codefight.model.Codefight;
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.model.GamePhase;
+import edu.kit.kastel.codefight.model.Memory;
+import edu.kit.kastel.codefight.model.TerritoryHistory;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+/**
+ * This command prints how many cells every AI of the running game owns, or the sampled history of it.
+ *
+ * @author uwwfh
+ */
+final class ShowTerritoryCommand implements Command {
+    
+    private static final int ARGUMENTS_REQUIRED = 0;
+    private static final int ARGUMENTS_OPTIONAL = 1;
+    
+    private static final String HISTORY_FLAG = "--history";
+    private static final String COMMAND_DESCRIPTION = ("show-territory: Shows how many cells and bombs every AI owns. With %s,"
+            + " shows the sampled amount of owned cells per step, one sample per line. Format: show-territory [%s]")
+            .formatted(HISTORY_FLAG, HISTORY_FLAG);
+    private static final String TERRITORY_FORMAT = "%s: %d cells (%.1f%%), %d bombs";
+    private static final String HISTORY_HEADER = "step";
+    private static final String COLUMN_SEPARATOR = " ";
+    private static final String UNKNOWN_ARGUMENT = "Unknown argument %s, expected %s.";
+    private static final String NOT_SAMPLED = "The territory of this game is not sampled.";
+    private static final double PERCENT = 100.0;
+    
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new show-territory command.
+     * @param session The session the command is executed on.
+     */
+    ShowTerritoryCommand(CodefightSession session) {
+        this.session = session;
+    }
+    
+    /**
+     * Executes the command.
+     *
+     * @param commandArguments the arguments of the command
+     * @return the result of the command
+     */
+    @Override
+    public CommandResult execute(String[] commandArguments) {
+        Codefight game = session.getCodefight();
+        List<AIPlayer> players = game.getTotalIngameAIs();
+        if (commandArguments.length > 0) {
+            if (!commandArguments[0].equals(HISTORY_FLAG)) {
+                return new CommandResult(CommandResultType.FAILURE, UNKNOWN_ARGUMENT.formatted(commandArguments[0], HISTORY_FLAG));
+            }
+            Optional<TerritoryHistory> history = game.getTerritory();
+            return history.map(territory -> new CommandResult(CommandResultType.SUCCESS, formatHistory(territory, players)))
+                    .orElseGet(() -> new CommandResult(CommandResultType.FAILURE, NOT_SAMPLED));
+        }
+        
+        Memory memory = game.getMemory();
+        StringJoiner territory = new StringJoiner(System.lineSeparator());
+        for (int owner = 0; owner < players.size(); owner++) {
+            int cells = memory.countOwnedCells(owner);
+            territory.add(String.format(Locale.ROOT, TERRITORY_FORMAT, players.get(owner).getAIName(), cells,
+                    PERCENT * cells / memory.getMemorySize(), memory.countBombs(owner)));
+        }
+        return new CommandResult(CommandResultType.SUCCESS, territory.toString());
+    }
+    
+    /**
+     * Formats the history as columns separated by spaces: a header with the AI names, then the step and the cells
+     * of every AI per sample.
+     */
+    private static String formatHistory(TerritoryHistory history, List<AIPlayer> players) {
+        StringJoiner lines = new StringJoiner(System.lineSeparator());
+        StringJoiner header = new StringJoiner(COLUMN_SEPARATOR).add(HISTORY_HEADER);
+        players.forEach(player -> header.add(player.getAIName()));
+        lines.add(header.toString());
+        for (int sample = 0; sample < history.getSampleCount(); sample++) {
+            StringJoiner line = new StringJoiner(COLUMN_SEPARATOR).add(String.valueOf(history.getStep(sample)));
+            for (int owner = 0; owner < players.size(); owner++) {
+                line.add(String.valueOf(history.getCells(sample, owner)));
+            }
+            lines.add(line.toString());
+        }
+        return lines.toString();
+    }
+    
+    @Override
+    public int getRequiredArgumentCount() {
+        return ARGUMENTS_REQUIRED;
+    }
+    
+    @Override
+    public int getOptionalArgumentCount() {
+        return ARGUMENTS_OPTIONAL;
+    }
+    
+    @Override
+    public boolean isValidInGamePhase(GamePhase gamePhase) {
+        return gamePhase == GamePhase.INGAME;
+    }
+    
+    @Override
+    public String getCommandDescription() {
+        return COMMAND_DESCRIPTION;
+    }
+}
@@ -1,7 +1,7 @@
 package edu.kit.kastel.codefight.usercommands;
 
-import edu.kit.kastel.codefight.Main;
 import edu.kit.kastel.codefight.model.Codefight;
+import edu.kit.kastel.codefight.model.CodefightSession;
 import edu.kit.kastel.codefight.model.GamePhase;
 
 /**
@@ -19,6 +19,16 @@ final class StartCommand implements Command {
     private static final String SUCCESS_MESSAGE = "Game started.";
     private static final int MINIMUM_AIS = 2;
     
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new start-game command.
+     * @param session The session the command is executed on.
+     */
+    StartCommand(CodefightSession session) {
+        this.session = session;
+    }
+    
     /**
      * Executes the command.
      *
@@ -27,19 +37,18 @@ final class StartCommand implements Command {
      */
     @Override
     public CommandResult execute(String[] commandArguments) {
-        Codefight model = new Codefight(commandArguments);
+        Codefight model = new Codefight(session, commandArguments);
         // Since invalid AIs and duplicates are not allowed, if any occur the numbers will not match
         if (model.getTotalPlayingAICount() != commandArguments.length) {
             return new CommandResult(CommandResultType.FAILURE, UNKNOWN_AIS_OR_DUPLICATES);
         }
-        if (model.getTotalPlayingAICount() > Main.getPrintWrapperCount()) {
+        if (model.getTotalPlayingAICount() > session.getPrintWrapperCount()) {
             return new CommandResult(CommandResultType.FAILURE, TOO_FEW_PRINTERS);
         }
         if (!model.wasSetupSuccess()) {
-            // Error was already printed. Mark as success as to not print an error.
-            return new CommandResult(CommandResultType.SUCCESS, null);
+            return new CommandResult(CommandResultType.FAILURE, model.getSetupError().orElseThrow());
         }
-        Main.playCodefight(model);
+        session.playCodefight(model);
         return new CommandResult(CommandResultType.SUCCESS, SUCCESS_MESSAGE);
     }
     
@@ -51,7 +60,7 @@ public int getRequiredArgumentCount() {
     @Override
     public int getOptionalArgumentCount() {
         // How many more could be added
-        return Main.getPrintWrapperCount() - MINIMUM_AIS;
+        return session.getPrintWrapperCount() - MINIMUM_AIS;
     }
     
     @Override
@@ -0,0 +1,93 @@
+package edu.kit.kastel.codefight.usercommands;
+
+import edu.kit.kastel.codefight.model.BackgroundRun;
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.model.GamePhase;
+import edu.kit.kastel.codefight.model.PlaybackScheduler;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * This command prints the progress of the background run of the running game: its state, the steps it played,
+ * its speed and how many AIs are alive.
+ *
+ * @author uwwfh
+ */
+final class StatusCommand implements Command {
+    
+    private static final int ARGUMENTS_REQUIRED = 0;
+    private static final int ARGUMENTS_OPTIONAL = 0;
+    
+    private static final String COMMAND_DESCRIPTION = "status: Shows the progress of the background run of the current game."
+            + " Format: status";
+    private static final String NO_RUN = "No background run was started in this game.";
+    private static final String STEPS_FORMAT = "%s: %d of %d steps, %.0f steps/s, %d AIs alive, game step %d.";
+    private static final String BUDGET_FORMAT = "%s: %d steps in %.1f of %.1f s, %.0f steps/s, %d AIs alive, game step %d.";
+    private static final String PLAYBACK_FORMAT = "%s: %d steps at %.0f of %d steps/s, %d frames shown, %d dropped,"
+            + " %d AIs alive, game step %d.";
+    private static final double NANOS_PER_SECOND = 1e9;
+    
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new status command.
+     * @param session The session the command is executed on.
+     */
+    StatusCommand(CodefightSession session) {
+        this.session = session;
+    }
+    
+    /**
+     * Executes the command.
+     *
+     * @param commandArguments the arguments of the command
+     * @return the result of the command
+     */
+    @Override
+    public CommandResult execute(String[] commandArguments) {
+        Optional<BackgroundRun> run = session.getBackgroundRun();
+        if (run.isEmpty()) {
+            return new CommandResult(CommandResultType.FAILURE, NO_RUN);
+        }
+        BackgroundRun backgroundRun = run.get();
+        String state = backgroundRun.getState().toString().toLowerCase(Locale.ROOT);
+        int alive = backgroundRun.getGame().getAliveAICount();
+        long step = backgroundRun.getGame().getStep();
+        String status;
+        Optional<PlaybackScheduler> playback = backgroundRun.getPlayback();
+        if (playback.isPresent()) {
+            status = String.format(Locale.ROOT, PLAYBACK_FORMAT, state, backgroundRun.getDoneSteps(),
+                    backgroundRun.getStepsPerSecond(), playback.get().getStepsPerSecond(), playback.get().getShownFrames(),
+                    playback.get().getDroppedFrames(), alive, step);
+        } else if (backgroundRun.getBudgetNanos() == Long.MAX_VALUE) {
+            status = String.format(Locale.ROOT, STEPS_FORMAT, state, backgroundRun.getDoneSteps(), backgroundRun.getSteps(),
+                    backgroundRun.getStepsPerSecond(), alive, step);
+        } else {
+            status = String.format(Locale.ROOT, BUDGET_FORMAT, state, backgroundRun.getDoneSteps(),
+                    backgroundRun.getActiveNanos() / NANOS_PER_SECOND, backgroundRun.getBudgetNanos() / NANOS_PER_SECOND,
+                    backgroundRun.getStepsPerSecond(), alive, step);
+        }
+        return new CommandResult(CommandResultType.SUCCESS, status);
+    }
+    
+    @Override
+    public int getRequiredArgumentCount() {
+        return ARGUMENTS_REQUIRED;
+    }
+    
+    @Override
+    public int getOptionalArgumentCount() {
+        return ARGUMENTS_OPTIONAL;
+    }
+    
+    @Override
+    public boolean isValidInGamePhase(GamePhase gamePhase) {
+        return gamePhase == GamePhase.INGAME;
+    }
+    
+    @Override
+    public String getCommandDescription() {
+        return COMMAND_DESCRIPTION;
+    }
+}
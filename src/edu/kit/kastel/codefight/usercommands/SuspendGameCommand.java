@@ -0,0 +1,65 @@
+package edu.kit.kastel.codefight.usercommands;
+
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.model.GamePhase;
+
+/**
+ * This command suspends the running game to its arena file, so it can be resumed later,
+ * also after a restart, with {@link ResumeGameCommand resume-game}.
+ *
+ * @author uwwfh
+ */
+final class SuspendGameCommand implements Command {
+    
+    private static final int ARGUMENTS_REQUIRED = 0;
+    private static final int ARGUMENTS_OPTIONAL = 0;
+    
+    private static final String COMMAND_DESCRIPTION = "suspend-game: Suspends the current game to the arena file, so it"
+            + " can be resumed with resume-game. Format: suspend-game";
+    private static final String NO_ARENA = "the game is not played in arena mode, set the system property codefight.arena.file.";
+    private static final String SUCCESS_MESSAGE = "Game suspended.";
+    
+    private final CodefightSession session;
+    
+    /**
+     * Constructs a new suspend-game command.
+     * @param session The session the command is executed on.
+     */
+    SuspendGameCommand(CodefightSession session) {
+        this.session = session;
+    }
+    
+    /**
+     * Executes the command.
+     *
+     * @param commandArguments the arguments of the command
+     * @return the result of the command
+     */
+    @Override
+    public CommandResult execute(String[] commandArguments) {
+        if (!session.suspendGame()) {
+            return new CommandResult(CommandResultType.FAILURE, NO_ARENA);
+        }
+        return new CommandResult(CommandResultType.SUCCESS, SUCCESS_MESSAGE);
+    }
+    
+    @Override
+    public int getRequiredArgumentCount() {
+        return ARGUMENTS_REQUIRED;
+    }
+    
+    @Override
+    public int getOptionalArgumentCount() {
+        return ARGUMENTS_OPTIONAL;
+    }
+    
+    @Override
+    public boolean isValidInGamePhase(GamePhase gamePhase) {
+        return gamePhase == GamePhase.INGAME;
+    }
+    
+    @Override
+    public String getCommandDescription() {
+        return COMMAND_DESCRIPTION;
+    }
+}
@@ -0,0 +1,232 @@
+package edu.kit.kastel.codefight.verification;
+
+import edu.kit.kastel.codefight.aicommands.AICommand;
+import edu.kit.kastel.codefight.aicommands.AICommandType;
+import edu.kit.kastel.codefight.model.MemoryInitType;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * An independent implementation of the game on plain arrays, without a cell or command object per turn.
+ * It is the default candidate of the {@link DifferentialTester} and spells out the rules the reference
+ * follows implicitly, for example that MOV_I adds a sanitized offset to an already sanitized address,
+ * that CMP compares A of one cell with B of another and that an AI that stopped still counts its last turn.
+ *
+ * @author uwwfh
+ */
+public final class ArrayEngine implements GameEngine {
+    
+    private static final AICommandType[] TYPES = AICommandType.values();
+    private static final int BEGIN_ADDRESS = 0;
+    
+    private int memorySize;
+    private AICommandType[] types;
+    private int[] argumentsA;
+    private int[] argumentsB;
+    private int[] owners;
+    private boolean[] modified;
+    private final BitSet changedCells = new BitSet();
+    
+    private int[] pointers;
+    private int[] moveCounts;
+    private boolean[] dead;
+    private int[] turnOrder;
+    private int aliveCount;
+    private int currentIndex;
+    
+    /**
+     * Creates a new array engine.
+     */
+    public ArrayEngine() {
+        // Everything is allocated at setup
+    }
+    
+    @Override
+    public boolean setup(GameCase gameCase) {
+        memorySize = gameCase.memorySize();
+        types = new AICommandType[memorySize];
+        argumentsA = new int[memorySize];
+        argumentsB = new int[memorySize];
+        owners = new int[memorySize];
+        modified = new boolean[memorySize];
+        Random random = new Random(gameCase.seed());
+        for (int address = BEGIN_ADDRESS; address < memorySize; address++) {
+            boolean randomCell = gameCase.initMode() == MemoryInitType.INIT_MODE_RANDOM;
+            types[address] = randomCell ? TYPES[random.nextInt(TYPES.length)] : AICommandType.STOP;
+            argumentsA[address] = randomCell ? random.nextInt() : 0;
+            argumentsB[address] = randomCell ? random.nextInt() : 0;
+            owners[address] = NO_OWNER;
+        }
+        changedCells.set(BEGIN_ADDRESS, memorySize);
+        
+        List<List<AICommand>> programs = gameCase.programs();
+        int playerCount = programs.size();
+        double spacing = (double) memorySize / playerCount;
+        double start = BEGIN_ADDRESS;
+        for (int player = 0; player < playerCount; player++) {
+            int length = programs.get(player).size();
+            if (spacing < length && player < playerCount - 1 || (int) start + length > memorySize) {
+                return false;
+            }
+            start += spacing;
+        }
+        
+        pointers = new int[playerCount];
+        moveCounts = new int[playerCount];
+        dead = new boolean[playerCount];
+        turnOrder = new int[playerCount];
+        aliveCount = playerCount;
+        start = BEGIN_ADDRESS;
+        for (int player = 0; player < playerCount; player++) {
+            int address = (int) start;
+            for (AICommand command : programs.get(player)) {
+                int target = sanitize(address++);
+                types[target] = command.getType();
+                argumentsA[target] = command.getFirstArgument();
+                argumentsB[target] = command.getSecondArgument();
+                owners[target] = player;
+            }
+            int pointer = (int) start;
+            while (types[sanitize(pointer)] == AICommandType.STOP) {
+                pointer++;
+            }
+            pointers[player] = sanitize(pointer);
+            turnOrder[player] = player;
+            start += spacing;
+        }
+        return true;
+    }
+    
+    @Override
+    public void step() {
+        int player = turnOrder[currentIndex];
+        int pointer = pointers[player];
+        int argumentA = argumentsA[pointer];
+        int argumentB = argumentsB[pointer];
+        switch (types[pointer]) {
+            case STOP -> dead[player] = true;
+            case MOV_R -> {
+                copyCell(sanitize(pointer + argumentA), sanitize(pointer + argumentB), player);
+                pointers[player] = sanitize(pointer + 1);
+            }
+            case MOV_I -> {
+                int destination = sanitize(pointer + argumentB);
+                destination += sanitize(argumentsB[destination]);
+                copyCell(sanitize(pointer + argumentA), sanitize(destination), player);
+                pointers[player] = sanitize(pointer + 1);
+            }
+            case ADD -> {
+                argumentsB[pointer] = argumentA + argumentB;
+                markModified(pointer, player);
+                pointers[player] = sanitize(pointer + 1);
+            }
+            case ADD_R -> {
+                int target = sanitize(pointer + argumentB);
+                argumentsB[target] = argumentA + argumentsB[target];
+                markModified(target, player);
+                pointers[player] = sanitize(pointer + 1);
+            }
+            case JMP -> pointers[player] = sanitize(pointer + argumentA);
+            case JMZ -> pointers[player] = argumentsB[sanitize(pointer + argumentB)] == 0
+                    ? sanitize(pointer + argumentA) : sanitize(pointer + 1);
+            case CMP -> {
+                boolean equal = argumentsA[sanitize(pointer + argumentA)] == argumentsB[sanitize(pointer + argumentB)];
+                pointers[player] = sanitize(pointer + (equal ? 1 : 2));
+            }
+            case SWAP -> {
+                int first = sanitize(pointer + argumentA);
+                int second = sanitize(pointer + argumentB);
+                int temp = argumentsA[first];
+                argumentsA[first] = argumentsB[second];
+                markModified(first, player);
+                argumentsB[second] = temp;
+                markModified(second, player);
+                pointers[player] = sanitize(pointer + 1);
+            }
+        }
+        moveCounts[player]++;
+        if (dead[player]) {
+            System.arraycopy(turnOrder, currentIndex + 1, turnOrder, currentIndex, aliveCount - currentIndex - 1);
+            aliveCount--;
+            if (currentIndex >= aliveCount) {
+                currentIndex = 0;
+            }
+        } else {
+            currentIndex = currentIndex >= aliveCount - 1 ? 0 : currentIndex + 1;
+        }
+    }
+    
+    @Override
+    public boolean isOver() {
+        return aliveCount == 0;
+    }
+    
+    @Override
+    public AICommandType getCommandType(int address) {
+        return types[address];
+    }
+    
+    @Override
+    public int getArgumentA(int address) {
+        return argumentsA[address];
+    }
+    
+    @Override
+    public int getArgumentB(int address) {
+        return argumentsB[address];
+    }
+    
+    @Override
+    public int getOwner(int address) {
+        return owners[address];
+    }
+    
+    @Override
+    public boolean isModified(int address) {
+        return modified[address];
+    }
+    
+    @Override
+    public int getPointer(int player) {
+        return pointers[player];
+    }
+    
+    @Override
+    public long getMoveCount(int player) {
+        return moveCounts[player];
+    }
+    
+    @Override
+    public boolean isDead(int player) {
+        return dead[player];
+    }
+    
+    @Override
+    public void collectChangedCells(BitSet changed) {
+        changed.or(changedCells);
+        changedCells.clear();
+    }
+    
+    /**
+     * Copies a cell including its owner and modified state, then marks the copy as modified by the player.
+     */
+    private void copyCell(int origin, int destination, int player) {
+        types[destination] = types[origin];
+        argumentsA[destination] = argumentsA[origin];
+        argumentsB[destination] = argumentsB[origin];
+        markModified(destination, player);
+    }
+    
+    private void markModified(int address, int player) {
+        owners[address] = player;
+        modified[address] = true;
+        changedCells.set(address);
+    }
+    
+    private int sanitize(int address) {
+        int sanitized = address % memorySize;
+        return sanitized < 0 ? sanitized + memorySize : sanitized;
+    }
+}
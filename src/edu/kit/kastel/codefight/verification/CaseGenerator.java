@@ -0,0 +1,89 @@
+package edu.kit.kastel.codefight.verification;
+
+import edu.kit.kastel.codefight.Main;
+import edu.kit.kastel.codefight.aicommands.AICommand;
+import edu.kit.kastel.codefight.aicommands.AICommandFactory;
+import edu.kit.kastel.codefight.aicommands.AICommandType;
+import edu.kit.kastel.codefight.aicommands.AIProgramParser;
+import edu.kit.kastel.codefight.model.MemoryInitType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates random {@link GameCase cases}. Small memories are preferred, since AIs meet more often there, and
+ * arguments are biased towards the values where address arithmetic goes wrong: zero, the memory size, its
+ * neighbours and the integer limits.
+ *
+ * @author uwwfh
+ */
+final class CaseGenerator {
+    
+    private static final int SMALL_MEMORY_LIMIT = 64;
+    private static final int MAX_PROGRAM_LENGTH = 10;
+    private static final double MAX_MEMORY_SHARE = 2.0;
+    private static final int ARGUMENT_KINDS = 7;
+    private static final int KIND_ZERO = 0;
+    private static final int KIND_ONE = 1;
+    private static final int KIND_MEMORY_SIZE = 2;
+    private static final int KIND_NEAR_MEMORY_SIZE = 3;
+    private static final int KIND_LIMIT = 4;
+    private static final int KIND_ANY = 5;
+    private static final int SMALL_ARGUMENT_FACTOR = 2;
+    
+    private final Random random;
+    private final AICommandType[] types;
+    
+    /**
+     * Creates a new generator.
+     * @param seed The seed, equal seeds generate equal cases.
+     */
+    CaseGenerator(long seed) {
+        this.random = new Random(seed);
+        this.types = AICommandType.values();
+    }
+    
+    /**
+     * Generates the next case. The programs are valid for the memory size, but may not fit next to each other.
+     * @return The generated case.
+     */
+    GameCase next() {
+        int maxMemorySize = random.nextBoolean() ? SMALL_MEMORY_LIMIT : Main.MAX_MEMORY_SIZE;
+        int memorySize = Main.MIN_MEMORY_SIZE + random.nextInt(maxMemorySize - Main.MIN_MEMORY_SIZE + 1);
+        MemoryInitType initMode = random.nextBoolean() ? MemoryInitType.INIT_MODE_RANDOM : MemoryInitType.INIT_MODE_STOP;
+        int playerCount = GameCase.MIN_PLAYERS + random.nextInt(GameCase.MAX_PLAYERS - GameCase.MIN_PLAYERS + 1);
+        List<List<AICommand>> programs = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            programs.add(createProgram(memorySize));
+        }
+        return new GameCase(memorySize, initMode, random.nextLong(), programs);
+    }
+    
+    private List<AICommand> createProgram(int memorySize) {
+        int maxLength = Math.min(MAX_PROGRAM_LENGTH, (int) Math.ceil(memorySize / MAX_MEMORY_SHARE));
+        List<AICommand> program;
+        do {
+            program = new ArrayList<>();
+            int length = 1 + random.nextInt(maxLength);
+            for (int i = 0; i < length; i++) {
+                program.add(AICommandFactory.createCommand(types[random.nextInt(types.length)],
+                        createArgument(memorySize), createArgument(memorySize)));
+            }
+        } while (AIProgramParser.validate(program, memorySize).isPresent());
+        return program;
+    }
+    
+    private int createArgument(int memorySize) {
+        int sign = random.nextBoolean() ? 1 : -1;
+        return switch (random.nextInt(ARGUMENT_KINDS)) {
+            case KIND_ZERO -> 0;
+            case KIND_ONE -> sign;
+            case KIND_MEMORY_SIZE -> sign * memorySize;
+            case KIND_NEAR_MEMORY_SIZE -> sign * memorySize + (random.nextBoolean() ? 1 : -1);
+            case KIND_LIMIT -> random.nextBoolean() ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+            case KIND_ANY -> random.nextInt();
+            default -> sign * random.nextInt(memorySize * SMALL_ARGUMENT_FACTOR);
+        };
+    }
+}
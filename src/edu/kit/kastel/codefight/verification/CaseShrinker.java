@@ -0,0 +1,149 @@
+package edu.kit.kastel.codefight.verification;
+
+import edu.kit.kastel.codefight.Main;
+import edu.kit.kastel.codefight.aicommands.AICommand;
+import edu.kit.kastel.codefight.aicommands.AICommandFactory;
+import edu.kit.kastel.codefight.aicommands.AIProgramParser;
+import edu.kit.kastel.codefight.model.MemoryInitType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Shrinks a case the engines disagree on to a minimal reproduction. Tries one simplification after another:
+ * fewer AIs, a stop-filled memory, a smaller memory, fewer instructions and arguments closer to zero. A
+ * simplification is kept if the engines still disagree on it, until no simplification is left or the
+ * attempts are used up.
+ *
+ * @author uwwfh
+ */
+final class CaseShrinker {
+    
+    private static final int HALF = 2;
+    
+    private final DifferentialRunner runner;
+    private final int maxAttempts;
+    private int attempts;
+    
+    /**
+     * Creates a new shrinker.
+     * @param runner The runner that plays the simplified cases.
+     * @param maxAttempts The most amount of simplified cases that are played.
+     */
+    CaseShrinker(DifferentialRunner runner, int maxAttempts) {
+        this.runner = runner;
+        this.maxAttempts = maxAttempts;
+    }
+    
+    /**
+     * Shrinks a case.
+     * @param failing The case the engines disagree on.
+     * @param mismatch The difference found for the case.
+     * @return The smallest case found and its difference.
+     */
+    ShrunkCase shrink(GameCase failing, Mismatch mismatch) {
+        GameCase current = failing;
+        Mismatch currentMismatch = mismatch;
+        boolean progress = true;
+        while (progress && attempts < maxAttempts) {
+            progress = false;
+            for (GameCase simplified : simplify(current)) {
+                if (attempts++ >= maxAttempts) {
+                    break;
+                }
+                Optional<Mismatch> result = runner.run(simplified);
+                if (result.isPresent()) {
+                    current = simplified;
+                    currentMismatch = result.get();
+                    progress = true;
+                    break;
+                }
+            }
+        }
+        return new ShrunkCase(current, currentMismatch, attempts);
+    }
+    
+    private static List<GameCase> simplify(GameCase gameCase) {
+        List<GameCase> simplified = new ArrayList<>();
+        List<List<AICommand>> programs = gameCase.programs();
+        if (programs.size() > GameCase.MIN_PLAYERS) {
+            for (int i = 0; i < programs.size(); i++) {
+                List<List<AICommand>> fewer = new ArrayList<>(programs);
+                fewer.remove(i);
+                simplified.add(withPrograms(gameCase, fewer));
+            }
+        }
+        if (gameCase.initMode() == MemoryInitType.INIT_MODE_RANDOM) {
+            simplified.add(new GameCase(gameCase.memorySize(), MemoryInitType.INIT_MODE_STOP, 0, programs));
+        }
+        for (int memorySize : List.of(Main.MIN_MEMORY_SIZE, gameCase.memorySize() / HALF, gameCase.memorySize() - 1)) {
+            if (memorySize >= Main.MIN_MEMORY_SIZE && memorySize < gameCase.memorySize()) {
+                simplified.add(new GameCase(memorySize, gameCase.initMode(), gameCase.seed(), programs));
+            }
+        }
+        for (int i = 0; i < programs.size(); i++) {
+            List<AICommand> program = programs.get(i);
+            for (int j = 0; j < program.size(); j++) {
+                List<AICommand> shorter = new ArrayList<>(program);
+                shorter.remove(j);
+                simplified.add(withProgram(gameCase, i, shorter));
+            }
+        }
+        for (int i = 0; i < programs.size(); i++) {
+            List<AICommand> program = programs.get(i);
+            for (int j = 0; j < program.size(); j++) {
+                AICommand command = program.get(j);
+                for (int argumentA : simplerValues(command.getFirstArgument())) {
+                    simplified.add(withCommand(gameCase, i, j,
+                            AICommandFactory.createCommand(command.getType(), argumentA, command.getSecondArgument())));
+                }
+                for (int argumentB : simplerValues(command.getSecondArgument())) {
+                    simplified.add(withCommand(gameCase, i, j,
+                            AICommandFactory.createCommand(command.getType(), command.getFirstArgument(), argumentB)));
+                }
+            }
+        }
+        // Every simplified case must still be playable in the interactive game
+        simplified.removeIf(candidate -> candidate.programs().stream()
+                .anyMatch(program -> AIProgramParser.validate(program, candidate.memorySize()).isPresent()));
+        return simplified;
+    }
+    
+    private static List<Integer> simplerValues(int value) {
+        if (value == 0) {
+            return List.of();
+        }
+        List<Integer> values = new ArrayList<>(List.of(0));
+        if (Math.abs((long) value) > 1) {
+            values.add(value / HALF);
+            values.add(value - Integer.signum(value));
+        }
+        return values;
+    }
+    
+    private static GameCase withPrograms(GameCase gameCase, List<List<AICommand>> programs) {
+        return new GameCase(gameCase.memorySize(), gameCase.initMode(), gameCase.seed(), programs);
+    }
+    
+    private static GameCase withProgram(GameCase gameCase, int player, List<AICommand> program) {
+        List<List<AICommand>> programs = new ArrayList<>(gameCase.programs());
+        programs.set(player, program);
+        return withPrograms(gameCase, programs);
+    }
+    
+    private static GameCase withCommand(GameCase gameCase, int player, int index, AICommand command) {
+        List<AICommand> program = new ArrayList<>(gameCase.programs().get(player));
+        program.set(index, command);
+        return withProgram(gameCase, player, program);
+    }
+    
+    /**
+     * The result of shrinking.
+     *
+     * @param gameCase The smallest case the engines still disagree on.
+     * @param mismatch The difference found for that case.
+     * @param attempts The amount of simplified cases played.
+     */
+    record ShrunkCase(GameCase gameCase, Mismatch mismatch, int attempts) { }
+}
@@ -0,0 +1,170 @@
+package edu.kit.kastel.codefight.verification;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Plays a {@link GameCase} on the {@link ReferenceEngine} and a candidate engine in lockstep and compares the
+ * hashes of their complete states after every turn. Once a case ends, and optionally every few turns, the memory
+ * hashes are recomputed from scratch as well, so a candidate that does not report a changed cell is caught, too.
+ * A recomputation reads every cell, so by default it is only done at the end, where it costs about as much as
+ * a single turn of the case.
+ *
+ * @author uwwfh
+ */
+final class DifferentialRunner {
+    
+    private static final String SETUP_DIFFERS = "setup succeeded for %s only";
+    private static final String REFERENCE = "reference";
+    private static final String CANDIDATE = "candidate";
+    private static final String GAME_OVER_DIFFERS = "game over for %s only";
+    private static final String CANDIDATE_FAILED = "candidate threw %s";
+    private static final String UNREPORTED_CHANGES = "candidate changed cells without reporting them";
+    private static final String CELL_DIFFERS = "cell %d differs, reference %s, candidate %s";
+    private static final String CELL_FORMAT = "%s,%d,%d owner %d%s";
+    private static final String MODIFIED_MARKER = " modified";
+    private static final String EMPTY_STRING = "";
+    private static final String PLAYER_DIFFERS = "%s differs, reference %s, candidate %s";
+    private static final String PLAYER_FORMAT = "@%d after %d turns%s";
+    private static final String DEAD_MARKER = " dead";
+    private static final String HASH_DIFFERS = "state hashes differ";
+    private static final int SETUP_STEP = 0;
+    
+    private final Supplier<GameEngine> candidateFactory;
+    private final int maxSteps;
+    private final int fullCheckInterval;
+    private long playedSteps;
+    
+    /**
+     * Creates a new runner.
+     * @param candidateFactory Creates a new candidate engine for every case.
+     * @param maxSteps The most amount of turns played per case.
+     * @param fullCheckInterval The amount of turns between two full recomputations of the memory hashes,
+     *        0 to only recompute them once a case ends.
+     */
+    DifferentialRunner(Supplier<GameEngine> candidateFactory, int maxSteps, int fullCheckInterval) {
+        this.candidateFactory = candidateFactory;
+        this.maxSteps = maxSteps;
+        this.fullCheckInterval = fullCheckInterval;
+    }
+    
+    /**
+     * Gets the amount of turns played on both engines so far, over all cases.
+     * @return The amount of played turns.
+     */
+    long getPlayedSteps() {
+        return playedSteps;
+    }
+    
+    /**
+     * Plays a case on both engines until the game is over, they differ or the maximum amount of turns is reached.
+     * @param gameCase The case to play.
+     * @return The first difference, empty if the engines agree.
+     */
+    Optional<Mismatch> run(GameCase gameCase) {
+        GameEngine reference = new ReferenceEngine();
+        GameEngine candidate = candidateFactory.get();
+        boolean referenceReady = reference.setup(gameCase);
+        boolean candidateReady;
+        try {
+            candidateReady = candidate.setup(gameCase);
+        } catch (RuntimeException e) {
+            return Optional.of(new Mismatch(SETUP_STEP, CANDIDATE_FAILED.formatted(e)));
+        }
+        if (referenceReady != candidateReady) {
+            return Optional.of(new Mismatch(SETUP_STEP, SETUP_DIFFERS.formatted(referenceReady ? REFERENCE : CANDIDATE)));
+        }
+        if (!referenceReady) {
+            return Optional.empty();
+        }
+        
+        int memorySize = gameCase.memorySize();
+        int playerCount = gameCase.programs().size();
+        StateHasher referenceHasher = new StateHasher(reference, memorySize, playerCount);
+        StateHasher candidateHasher = new StateHasher(candidate, memorySize, playerCount);
+        if (referenceHasher.update() != candidateHasher.update()) {
+            return Optional.of(new Mismatch(SETUP_STEP, describe(reference, candidate, memorySize, playerCount)));
+        }
+        int step = SETUP_STEP;
+        while (step < maxSteps && !reference.isOver()) {
+            if (candidate.isOver()) {
+                return Optional.of(new Mismatch(step, GAME_OVER_DIFFERS.formatted(CANDIDATE)));
+            }
+            reference.step();
+            try {
+                candidate.step();
+            } catch (RuntimeException e) {
+                return Optional.of(new Mismatch(step + 1, CANDIDATE_FAILED.formatted(e)));
+            }
+            step++;
+            playedSteps++;
+            if (referenceHasher.update() != candidateHasher.update()) {
+                return Optional.of(new Mismatch(step, describe(reference, candidate, memorySize, playerCount)));
+            }
+            if (fullCheckInterval > 0 && step % fullCheckInterval == 0 || reference.isOver()) {
+                Optional<Mismatch> mismatch = checkFully(reference, referenceHasher, candidate, candidateHasher, step,
+                        gameCase);
+                if (mismatch.isPresent()) {
+                    return mismatch;
+                }
+            }
+        }
+        if (reference.isOver() != candidate.isOver()) {
+            return Optional.of(new Mismatch(step, GAME_OVER_DIFFERS.formatted(REFERENCE)));
+        }
+        if (!reference.isOver()) {
+            // Stopped by the maximum amount of turns, the game over check above did not recompute the hashes
+            return checkFully(reference, referenceHasher, candidate, candidateHasher, step, gameCase);
+        }
+        return Optional.empty();
+    }
+    
+    private Optional<Mismatch> checkFully(GameEngine reference, StateHasher referenceHasher, GameEngine candidate,
+                                          StateHasher candidateHasher, int step, GameCase gameCase) {
+        long referenceHash = referenceHasher.recompute();
+        long candidateHash = candidateHasher.recompute();
+        if (referenceHash != candidateHash) {
+            return Optional.of(new Mismatch(step, describe(reference, candidate, gameCase.memorySize(),
+                    gameCase.programs().size())));
+        }
+        if (candidateHash != candidateHasher.getMemoryHash()) {
+            return Optional.of(new Mismatch(step, UNREPORTED_CHANGES));
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Finds the first field that differs. Only called once the hashes differ, so speed does not matter.
+     */
+    private static String describe(GameEngine reference, GameEngine candidate, int memorySize, int playerCount) {
+        for (int address = 0; address < memorySize; address++) {
+            String referenceCell = describeCell(reference, address);
+            String candidateCell = describeCell(candidate, address);
+            if (!referenceCell.equals(candidateCell)) {
+                return CELL_DIFFERS.formatted(address, referenceCell, candidateCell);
+            }
+        }
+        for (int player = 0; player < playerCount; player++) {
+            String referencePlayer = describePlayer(reference, player);
+            String candidatePlayer = describePlayer(candidate, player);
+            if (!referencePlayer.equals(candidatePlayer)) {
+                return PLAYER_DIFFERS.formatted(GameCase.getAIName(player), referencePlayer, candidatePlayer);
+            }
+        }
+        if (reference.isOver() != candidate.isOver()) {
+            return GAME_OVER_DIFFERS.formatted(reference.isOver() ? REFERENCE : CANDIDATE);
+        }
+        return HASH_DIFFERS;
+    }
+    
+    private static String describeCell(GameEngine engine, int address) {
+        return CELL_FORMAT.formatted(engine.getCommandType(address), engine.getArgumentA(address),
+                engine.getArgumentB(address), engine.getOwner(address),
+                engine.isModified(address) ? MODIFIED_MARKER : EMPTY_STRING);
+    }
+    
+    private static String describePlayer(GameEngine engine, int player) {
+        return PLAYER_FORMAT.formatted(engine.getPointer(player), engine.getMoveCount(player),
+                engine.isDead(player) ? DEAD_MARKER : EMPTY_STRING);
+    }
+}
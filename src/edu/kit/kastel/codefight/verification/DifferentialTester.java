@@ -0,0 +1,115 @@
+package edu.kit.kastel.codefight.verification;
+
+import edu.kit.kastel.codefight.usercommands.CommandHandler;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Compares a candidate engine to the {@link ReferenceEngine} on random cases. Every case is played on both
+ * engines in lockstep and their complete states are compared after every turn. The first case the engines
+ * disagree on is shrunk to a minimal reproduction, which is printed as commands of the interactive game.
+ * <p></p>
+ * Usage: {@code DifferentialTester [key=value ...]} with the keys cases, steps, seed, candidate (the class
+ * name of a {@link GameEngine}), full-check (turns between full recomputations of the state hashes, 0 to only
+ * recompute them once a case ends) and shrink-attempts.
+ *
+ * @author uwwfh
+ */
+public final class DifferentialTester {
+    
+    private static final String USAGE = "Usage: DifferentialTester [cases=1000] [steps=10000] [seed=1] "
+            + "[candidate=" + ArrayEngine.class.getName() + "] [full-check=0] [shrink-attempts=10000]";
+    private static final String OPTION_SEPARATOR = "=";
+    private static final int OPTION_FIELDS = 2;
+    private static final String ERROR_INVALID_CANDIDATE = "%s%s is not a game engine with a public no-argument constructor."
+            .formatted(CommandHandler.ERROR_PREFIX, "%s");
+    private static final String SUMMARY_FORMAT = "Checked %d cases with %d steps in %.2f s, %.0f steps per second.";
+    private static final String MISMATCH_FORMAT = "Mismatch in case %d at step %d: %s";
+    private static final String SHRUNK_FORMAT = "Shrunk in %d attempts to step %d: %s";
+    private static final String REPRODUCTION_HEADER = "Reproduction:";
+    private static final double NANOS_PER_SECOND = 1e9;
+    
+    private DifferentialTester() { }
+    
+    /**
+     * Runs the comparison.
+     * @param args The options as key=value pairs.
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String argument : args) {
+            String[] option = argument.split(OPTION_SEPARATOR, OPTION_FIELDS);
+            if (option.length != OPTION_FIELDS) {
+                System.err.println(USAGE);
+                return;
+            }
+            options.put(option[0], option[1]);
+        }
+        try {
+            run(options);
+        } catch (IllegalArgumentException e) {
+            System.err.println(USAGE);
+        }
+    }
+    
+    private static void run(Map<String, String> options) {
+        int cases = Integer.parseInt(options.getOrDefault("cases", "1000"));
+        int steps = Integer.parseInt(options.getOrDefault("steps", "10000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        int fullCheckInterval = Integer.parseInt(options.getOrDefault("full-check", "0"));
+        int shrinkAttempts = Integer.parseInt(options.getOrDefault("shrink-attempts", "10000"));
+        String candidateName = options.getOrDefault("candidate", ArrayEngine.class.getName());
+        if (fullCheckInterval < 0) {
+            throw new IllegalArgumentException();
+        }
+        Optional<Supplier<GameEngine>> candidate = findCandidate(candidateName);
+        if (candidate.isEmpty()) {
+            System.err.println(ERROR_INVALID_CANDIDATE.formatted(candidateName));
+            return;
+        }
+        
+        DifferentialRunner runner = new DifferentialRunner(candidate.get(), steps, fullCheckInterval);
+        CaseGenerator generator = new CaseGenerator(seed);
+        long start = System.nanoTime();
+        for (int i = 0; i < cases; i++) {
+            GameCase gameCase = generator.next();
+            Optional<Mismatch> mismatch = runner.run(gameCase);
+            if (mismatch.isPresent()) {
+                printSummary(i + 1, runner.getPlayedSteps(), System.nanoTime() - start);
+                System.out.println(MISMATCH_FORMAT.formatted(i, mismatch.get().step(), mismatch.get().description()));
+                CaseShrinker.ShrunkCase shrunk = new CaseShrinker(runner, shrinkAttempts).shrink(gameCase, mismatch.get());
+                System.out.println(SHRUNK_FORMAT.formatted(shrunk.attempts(), shrunk.mismatch().step(),
+                        shrunk.mismatch().description()));
+                System.out.println(REPRODUCTION_HEADER);
+                shrunk.gameCase().toReproduction(shrunk.mismatch().step()).forEach(System.out::println);
+                return;
+            }
+        }
+        printSummary(cases, runner.getPlayedSteps(), System.nanoTime() - start);
+    }
+    
+    private static void printSummary(int cases, long steps, long nanos) {
+        double seconds = nanos / NANOS_PER_SECOND;
+        System.out.println(String.format(Locale.ROOT, SUMMARY_FORMAT, cases, steps, seconds, steps / seconds));
+    }
+    
+    private static Optional<Supplier<GameEngine>> findCandidate(String className) {
+        try {
+            Class<? extends GameEngine> engineClass = Class.forName(className).asSubclass(GameEngine.class);
+            engineClass.getConstructor().newInstance();
+            return Optional.of(() -> {
+                try {
+                    return engineClass.getConstructor().newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package edu.kit.kastel.codefight.verification;
+
+import edu.kit.kastel.codefight.aicommands.AICommand;
+import edu.kit.kastel.codefight.aicommands.AIProgramParser;
+import edu.kit.kastel.codefight.model.MemoryInitType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single game played by the {@link DifferentialTester}: the memory, its initialization and the programs
+ * of the AIs in the order they are placed.
+ *
+ * @param memorySize The size of the memory.
+ * @param initMode The initialization mode of the memory.
+ * @param seed The seed of the memory initialization, only used by {@link MemoryInitType#INIT_MODE_RANDOM}.
+ * @param programs The programs of the AIs.
+ * @author uwwfh
+ */
+public record GameCase(int memorySize, MemoryInitType initMode, long seed, List<List<AICommand>> programs) {
+    
+    /**
+     * The least amount of AIs in a game, same as for the start-game command.
+     */
+    public static final int MIN_PLAYERS = 2;
+    /**
+     * The most amount of AIs in a game, so the reproduction fits the print wrappers it defines.
+     */
+    public static final int MAX_PLAYERS = 4;
+    
+    private static final String AI_NAME_FORMAT = "ai%d";
+    private static final String INVOCATION_FORMAT = "java edu.kit.kastel.codefight.Main %d . [ * +%s";
+    private static final String PRINT_WRAPPER_FORMAT = " %c %C";
+    private static final char FIRST_PRINT_WRAPPER = 'a';
+    private static final String ADD_AI_FORMAT = "add-ai %s %s";
+    private static final String RANDOM_INIT_FORMAT = "set-init-mode %s %d";
+    private static final String STOP_INIT_FORMAT = "set-init-mode %s";
+    private static final String START_GAME = "start-game";
+    private static final String NEXT_FORMAT = "next %d";
+    private static final String SHOW_MEMORY = "show-memory";
+    private static final String SEPARATOR = " ";
+    
+    /**
+     * Constructs a new case.
+     *
+     * @param memorySize The size of the memory.
+     * @param initMode The initialization mode of the memory.
+     * @param seed The seed of the memory initialization, only used by {@link MemoryInitType#INIT_MODE_RANDOM}.
+     * @param programs The programs of the AIs.
+     */
+    public GameCase {
+        programs = programs.stream().map(List::copyOf).toList();
+    }
+    
+    /**
+     * Gets the name of an AI, as used in the reproduction.
+     * @param player The index of the AI.
+     * @return The name of the AI.
+     */
+    public static String getAIName(int player) {
+        return AI_NAME_FORMAT.formatted(player);
+    }
+    
+    /**
+     * Gets the invocation and user commands that play this case in the interactive game.
+     * @param steps The amount of steps to play.
+     * @return The invocation followed by one command per line.
+     */
+    public List<String> toReproduction(int steps) {
+        StringBuilder printWrappers = new StringBuilder();
+        for (int i = 0; i < programs.size(); i++) {
+            char symbol = (char) (FIRST_PRINT_WRAPPER + i);
+            printWrappers.append(PRINT_WRAPPER_FORMAT.formatted(symbol, symbol));
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add(INVOCATION_FORMAT.formatted(memorySize, printWrappers));
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < programs.size(); i++) {
+            names.add(getAIName(i));
+            lines.add(ADD_AI_FORMAT.formatted(getAIName(i), AIProgramParser.format(programs.get(i))));
+        }
+        lines.add(initMode == MemoryInitType.INIT_MODE_RANDOM ? RANDOM_INIT_FORMAT.formatted(initMode, seed)
+                : STOP_INIT_FORMAT.formatted(initMode));
+        lines.add(START_GAME + SEPARATOR + String.join(SEPARATOR, names));
+        lines.add(NEXT_FORMAT.formatted(steps));
+        lines.add(SHOW_MEMORY);
+        return lines;
+    }
+}
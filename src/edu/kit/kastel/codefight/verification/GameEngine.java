@@ -0,0 +1,104 @@
+package edu.kit.kastel.codefight.verification;
+
+import edu.kit.kastel.codefight.aicommands.AICommandType;
+import edu.kit.kastel.codefight.model.Memory;
+
+import java.util.BitSet;
+
+/**
+ * A game engine that can be compared against the reference interpreter by the {@link DifferentialTester}.
+ * An engine plays a single {@link GameCase} and exposes its complete state, so that every cell and every AI
+ * can be compared after every turn.
+ * <p></p>
+ * Implementations need a public no-argument constructor, a new instance is created for every case.
+ *
+ * @author uwwfh
+ */
+public interface GameEngine {
+    
+    /**
+     * The owner of a cell that no AI ever wrote.
+     */
+    int NO_OWNER = Memory.NO_OWNER;
+    
+    /**
+     * Sets up the game of a case. AIs are placed in the order of the programs of the case.
+     * @param gameCase The case to play.
+     * @return If the setup was successful. If not, the engine is not used any further.
+     */
+    boolean setup(GameCase gameCase);
+    
+    /**
+     * Plays exactly one turn. Only called while the game is not over.
+     */
+    void step();
+    
+    /**
+     * Gets if the game is over, so every AI stopped.
+     * @return If the game is over.
+     */
+    boolean isOver();
+    
+    /**
+     * Gets the command type of a cell.
+     * @param address The sanitized address of the cell.
+     * @return The command type.
+     */
+    AICommandType getCommandType(int address);
+    
+    /**
+     * Gets the first argument of a cell.
+     * @param address The sanitized address of the cell.
+     * @return The first argument.
+     */
+    int getArgumentA(int address);
+    
+    /**
+     * Gets the second argument of a cell.
+     * @param address The sanitized address of the cell.
+     * @return The second argument.
+     */
+    int getArgumentB(int address);
+    
+    /**
+     * Gets the index of the AI that wrote a cell last, including the setup.
+     * @param address The sanitized address of the cell.
+     * @return The index of the AI or {@link #NO_OWNER}.
+     */
+    int getOwner(int address);
+    
+    /**
+     * Gets if a cell was modified by an AI since the setup.
+     * @param address The sanitized address of the cell.
+     * @return If the cell was modified.
+     */
+    boolean isModified(int address);
+    
+    /**
+     * Gets the memory pointer of an AI.
+     * @param player The index of the AI.
+     * @return The memory pointer.
+     */
+    int getPointer(int player);
+    
+    /**
+     * Gets the amount of turns an AI played, including the turn it stopped in.
+     * @param player The index of the AI.
+     * @return The amount of turns.
+     */
+    long getMoveCount(int player);
+    
+    /**
+     * Gets if an AI stopped.
+     * @param player The index of the AI.
+     * @return If the AI is dead.
+     */
+    boolean isDead(int player);
+    
+    /**
+     * Adds the addresses of all cells that changed since the last call to a set. The first call reports the setup.
+     * Reporting unchanged cells is allowed, missing a changed cell is detected as an error.
+     * @param changed The set to add the addresses to.
+     */
+    void collectChangedCells(BitSet changed);
+}
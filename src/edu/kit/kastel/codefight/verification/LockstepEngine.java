@@ -0,0 +1,97 @@
+package edu.kit.kastel.codefight.verification;
+
+import edu.kit.kastel.codefight.aicommands.AICommandType;
+import edu.kit.kastel.codefight.sweep.LockstepGames;
+
+import java.util.BitSet;
+
+/**
+ * Plays a case on {@link LockstepGames} as the first of several lanes. The other lanes play the same AIs
+ * on the following seeds, so their games take other paths than the compared one, which must not be disturbed
+ * by them. Use it with {@code candidate=edu.kit.kastel.codefight.verification.LockstepEngine}.
+ *
+ * @author uwwfh
+ */
+public final class LockstepEngine implements GameEngine {
+    
+    private static final int LANES = 8;
+    private static final int COMPARED_LANE = 0;
+    
+    private final BitSet changedCells = new BitSet();
+    private LockstepGames games;
+    
+    /**
+     * Creates a new lockstep engine.
+     */
+    public LockstepEngine() {
+        // Everything is allocated at setup
+    }
+    
+    @Override
+    public boolean setup(GameCase gameCase) {
+        long[] seeds = new long[LANES];
+        for (int lane = 0; lane < LANES; lane++) {
+            seeds[lane] = gameCase.seed() + lane;
+        }
+        games = new LockstepGames(gameCase.memorySize(), gameCase.initMode(), seeds, gameCase.programs());
+        changedCells.set(0, gameCase.memorySize());
+        games.trackChanges(COMPARED_LANE, changedCells);
+        return games.wasSetupSuccess();
+    }
+    
+    @Override
+    public void step() {
+        games.step();
+    }
+    
+    @Override
+    public boolean isOver() {
+        return games.isOver(COMPARED_LANE);
+    }
+    
+    @Override
+    public AICommandType getCommandType(int address) {
+        return games.getCommandType(COMPARED_LANE, address);
+    }
+    
+    @Override
+    public int getArgumentA(int address) {
+        return games.getArgumentA(COMPARED_LANE, address);
+    }
+    
+    @Override
+    public int getArgumentB(int address) {
+        return games.getArgumentB(COMPARED_LANE, address);
+    }
+    
+    @Override
+    public int getOwner(int address) {
+        return games.getOwner(COMPARED_LANE, address);
+    }
+    
+    @Override
+    public boolean isModified(int address) {
+        return games.isModified(COMPARED_LANE, address);
+    }
+    
+    @Override
+    public int getPointer(int player) {
+        return games.getPointer(COMPARED_LANE, player);
+    }
+    
+    @Override
+    public long getMoveCount(int player) {
+        return games.getMoveCount(COMPARED_LANE, player);
+    }
+    
+    @Override
+    public boolean isDead(int player) {
+        return games.isDead(COMPARED_LANE, player);
+    }
+    
+    @Override
+    public void collectChangedCells(BitSet changed) {
+        changed.or(changedCells);
+        changedCells.clear();
+    }
+}
@@ -0,0 +1,10 @@
+package edu.kit.kastel.codefight.verification;
+
+/**
+ * The first difference between the reference and a candidate engine in a game.
+ *
+ * @param step The amount of turns played when the difference was found, 0 for the setup.
+ * @param description What differs.
+ * @author uwwfh
+ */
+record Mismatch(int step, String description) { }
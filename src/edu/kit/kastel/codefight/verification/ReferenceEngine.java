@@ -0,0 +1,138 @@
+package edu.kit.kastel.codefight.verification;
+
+import edu.kit.kastel.codefight.aicommands.AICommandType;
+import edu.kit.kastel.codefight.model.AIPlayer;
+import edu.kit.kastel.codefight.model.AIPrintWrapper;
+import edu.kit.kastel.codefight.model.Codefight;
+import edu.kit.kastel.codefight.model.CodefightSession;
+import edu.kit.kastel.codefight.model.Memory;
+import edu.kit.kastel.codefight.model.MemoryCell;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The reference every other engine is compared to: the game as played by the interactive session, with
+ * {@link Codefight} and the {@link edu.kit.kastel.codefight.aicommands.AICommand#execute(AIPlayer) execute}
+ * implementations of the AI commands.
+ *
+ * @author uwwfh
+ */
+public final class ReferenceEngine implements GameEngine {
+    
+    private static final String[] MEMORY_SYMBOLS = {".", "[", "*", "+"};
+    private static final PrintStream SILENT_OUTPUT = new PrintStream(OutputStream.nullOutputStream());
+    private static final int SINGLE_STEP = 1;
+    private static final int NO_ADDRESS = -1;
+    
+    private final List<AIPrintWrapper> printWrappers = new ArrayList<>();
+    private final List<AIPlayer> players = new ArrayList<>();
+    private Codefight game;
+    private Memory memory;
+    private int cachedAddress = NO_ADDRESS;
+    private MemoryCell cachedCell;
+    
+    /**
+     * Creates a new reference engine.
+     */
+    public ReferenceEngine() {
+        for (int i = 0; i < GameCase.MAX_PLAYERS; i++) {
+            // Distinct symbols, since print wrappers with equal symbols are equal
+            String symbol = String.valueOf(i);
+            printWrappers.add(new AIPrintWrapper(symbol, symbol));
+        }
+    }
+    
+    @Override
+    public boolean setup(GameCase gameCase) {
+        CodefightSession session = new CodefightSession(gameCase.memorySize(), MEMORY_SYMBOLS, printWrappers,
+                SILENT_OUTPUT, SILENT_OUTPUT);
+        String[] names = new String[gameCase.programs().size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = GameCase.getAIName(i);
+            session.addAI(new AIPlayer(names[i], gameCase.programs().get(i)));
+        }
+        session.setMemoryInitType(gameCase.initMode(), gameCase.seed());
+        game = new Codefight(session, names);
+        memory = game.getMemory();
+        if (!game.wasSetupSuccess()) {
+            return false;
+        }
+        // The game plays on copies of the added AIs, these are looked up once instead of copied every turn
+        for (String name : names) {
+            players.add(game.getPlayingAIbyName(name).orElseThrow());
+        }
+        return true;
+    }
+    
+    @Override
+    public void step() {
+        game.next(SINGLE_STEP);
+        cachedAddress = NO_ADDRESS;
+    }
+    
+    @Override
+    public boolean isOver() {
+        return game.getAliveAICount() == 0;
+    }
+    
+    @Override
+    public AICommandType getCommandType(int address) {
+        return readCell(address).getSavedCommandType();
+    }
+    
+    @Override
+    public int getArgumentA(int address) {
+        return readCell(address).getArgumentA();
+    }
+    
+    @Override
+    public int getArgumentB(int address) {
+        return readCell(address).getArgumentB();
+    }
+    
+    @Override
+    public int getOwner(int address) {
+        return memory.getOwner(address);
+    }
+    
+    @Override
+    public boolean isModified(int address) {
+        return !readCell(address).isUnmodified();
+    }
+    
+    @Override
+    public int getPointer(int player) {
+        return players.get(player).getMemoryPtr();
+    }
+    
+    @Override
+    public long getMoveCount(int player) {
+        return players.get(player).getMoveCount();
+    }
+    
+    @Override
+    public boolean isDead(int player) {
+        return players.get(player).isDead();
+    }
+    
+    @Override
+    public void collectChangedCells(BitSet changed) {
+        changed.or(memory.takeChangedCells());
+    }
+    
+    /**
+     * Reads a cell of the memory. The fields of a cell are read one after another, so the last read cell is kept
+     * until the next turn instead of being looked up in the memory for every field.
+     */
+    private MemoryCell readCell(int address) {
+        if (address != cachedAddress) {
+            cachedCell = memory.readMemory(address);
+            cachedAddress = address;
+        }
+        return cachedCell;
+    }
+}
@@ -0,0 +1,113 @@
+package edu.kit.kastel.codefight.verification;
+
+import java.util.BitSet;
+
+/**
+ * Hashes the complete state of a {@link GameEngine}: every field of every cell and every AI. The hash of the
+ * memory is the sum of the hashes of its cells, so it is updated in constant time per changed cell instead of
+ * being recomputed every turn. {@link #recompute()} hashes the memory from scratch, which also detects cells an
+ * engine changed without reporting them.
+ *
+ * @author uwwfh
+ */
+final class StateHasher {
+    
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long MIX_MULTIPLIER_1 = 0xBF58476D1CE4E5B9L;
+    private static final long MIX_MULTIPLIER_2 = 0x94D049BB133111EBL;
+    private static final int MIX_SHIFT_1 = 30;
+    private static final int MIX_SHIFT_2 = 27;
+    private static final int MIX_SHIFT_3 = 31;
+    private static final int OWNER_SHIFT = 1;
+    private static final int TYPE_SHIFT = 8;
+    private static final int INTEGER_SHIFT = 32;
+    private static final long INTEGER_MASK = 0xFFFFFFFFL;
+    
+    private final GameEngine engine;
+    private final int memorySize;
+    private final int playerCount;
+    private final long[] cellHashes;
+    private final BitSet changedCells;
+    private long memoryHash;
+    
+    /**
+     * Creates a new hasher for an engine that was set up.
+     * @param engine The engine to hash.
+     * @param memorySize The memory size of the game.
+     * @param playerCount The amount of AIs of the game.
+     */
+    StateHasher(GameEngine engine, int memorySize, int playerCount) {
+        this.engine = engine;
+        this.memorySize = memorySize;
+        this.playerCount = playerCount;
+        this.cellHashes = new long[memorySize];
+        this.changedCells = new BitSet(memorySize);
+        engine.collectChangedCells(changedCells);
+        changedCells.clear();
+        for (int address = 0; address < memorySize; address++) {
+            cellHashes[address] = hashCell(address);
+            memoryHash += cellHashes[address];
+        }
+    }
+    
+    /**
+     * Updates the hash with the cells the engine reported as changed.
+     * @return The hash of the state.
+     */
+    long update() {
+        engine.collectChangedCells(changedCells);
+        for (int address = changedCells.nextSetBit(0); address >= 0; address = changedCells.nextSetBit(address + 1)) {
+            long cellHash = hashCell(address);
+            memoryHash += cellHash - cellHashes[address];
+            cellHashes[address] = cellHash;
+        }
+        changedCells.clear();
+        return memoryHash + hashPlayers();
+    }
+    
+    /**
+     * Gets the hash of the memory as tracked by {@link #update()}.
+     * @return The tracked memory hash.
+     */
+    long getMemoryHash() {
+        return memoryHash;
+    }
+    
+    /**
+     * Hashes the memory from scratch, without taking the reported changes into account.
+     * @return The memory hash.
+     */
+    long recompute() {
+        long hash = 0;
+        for (int address = 0; address < memorySize; address++) {
+            hash += hashCell(address);
+        }
+        return hash;
+    }
+    
+    private long hashCell(int address) {
+        long flags = (long) engine.getCommandType(address).ordinal() << TYPE_SHIFT
+                | (long) (engine.getOwner(address) + 1) << OWNER_SHIFT
+                | (engine.isModified(address) ? 1 : 0);
+        long arguments = (long) engine.getArgumentA(address) << INTEGER_SHIFT | engine.getArgumentB(address) & INTEGER_MASK;
+        return mix(mix(address + flags * GOLDEN_GAMMA) ^ arguments);
+    }
+    
+    private long hashPlayers() {
+        long hash = engine.isOver() ? GOLDEN_GAMMA : 0;
+        for (int player = 0; player < playerCount; player++) {
+            long state = engine.getMoveCount(player) << INTEGER_SHIFT | engine.getPointer(player) & INTEGER_MASK;
+            hash = mix(hash ^ state ^ (engine.isDead(player) ? GOLDEN_GAMMA : 0));
+        }
+        return hash;
+    }
+    
+    /**
+     * The finalizer of SplitMix64, spreads every input bit over the whole hash.
+     */
+    private static long mix(long value) {
+        long mixed = (value ^ (value >>> MIX_SHIFT_1)) * MIX_MULTIPLIER_1;
+        mixed = (mixed ^ (mixed >>> MIX_SHIFT_2)) * MIX_MULTIPLIER_2;
+        return mixed ^ (mixed >>> MIX_SHIFT_3);
+    }
+}